@@ -1,12 +1,16 @@
 package com.datasaz.ecommerce.configs;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Configuration
 public class AwsConfig {
@@ -20,6 +24,12 @@ public class AwsConfig {
     @Value("${aws.region}")
     private String region;
 
+    @Value("${object-storage.multipart-threshold-mb:16}")
+    private long multipartThresholdMb;
+
+    @Value("${object-storage.part-size-mb:8}")
+    private long partSizeMb;
+
     @Bean
     public S3Client s3Client() {
         AwsBasicCredentials awsCreds = AwsBasicCredentials.create(accessKey, secretKey);
@@ -28,4 +38,30 @@ public class AwsConfig {
                 .credentialsProvider(StaticCredentialsProvider.create(awsCreds))
                 .build();
     }
-}
\ No newline at end of file
+
+    // Objects above the threshold are uploaded as parallel parts by the client itself
+    @Bean
+    @ConditionalOnProperty(name = "object-storage.type", havingValue = "s3")
+    public S3AsyncClient s3AsyncClient() {
+        AwsBasicCredentials awsCreds = AwsBasicCredentials.create(accessKey, secretKey);
+        return S3AsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(awsCreds))
+                .multipartEnabled(true)
+                .multipartConfiguration(MultipartConfiguration.builder()
+                        .thresholdInBytes(multipartThresholdMb * 1024 * 1024)
+                        .minimumPartSizeInBytes(partSizeMb * 1024 * 1024)
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "object-storage.type", havingValue = "s3")
+    public S3Presigner s3Presigner() {
+        AwsBasicCredentials awsCreds = AwsBasicCredentials.create(accessKey, secretKey);
+        return S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(awsCreds))
+                .build();
+    }
+}
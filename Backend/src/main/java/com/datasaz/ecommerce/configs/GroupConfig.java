@@ -54,6 +54,26 @@ public class GroupConfig {
     @Value("${image.quality:0.9}")
     public float imageQuality;
 
+    // Checked against the image header before anything is decoded; a small file can still expand to a huge bitmap
+    @Value("${image.max-pixels:40000000}")
+    public long maxImagePixels;
+
+    // Pixels actually decoded when resizing; larger images are subsampled while decoding to stay within it
+    @Value("${image.max-decode-pixels:16000000}")
+    public long maxDecodePixels;
+
+    // 'stream' serves image bytes from the API; 'redirect' answers with a 302 to a short-lived signed URL instead
+    @Value("${image.delivery-mode:stream}")
+    public String imageDeliveryMode;
+
+    @Value("${image.signed-url-ttl-seconds:300}")
+    public long signedUrlTtlSeconds;
+
+    // 'stateful' loads the user from the database on every authenticated request; 'stateless' builds the principal
+    // from the token's roles claim and only checks a cached account status
+    @Value("${security.auth-mode:stateful}")
+    public String authMode;
+
 
     public final int TOKEN_EXPIRATION_TIME = 60 * 60 * 24 * 365 * 1000; // 365 Days; 1-day = 86400000 milliseconds
 
@@ -91,6 +111,18 @@ public class GroupConfig {
             imageStorageMode = "database";
             log.warn("Invalid imageStorageMode ({}), defaulting to 'database'", imageStorageMode);
         }
+        if (!"stream".equals(imageDeliveryMode) && !"redirect".equals(imageDeliveryMode)) {
+            log.warn("Invalid imageDeliveryMode ({}), defaulting to 'stream'", imageDeliveryMode);
+            imageDeliveryMode = "stream";
+        }
+        if (!"stateful".equals(authMode) && !"stateless".equals(authMode)) {
+            log.warn("Invalid authMode ({}), defaulting to 'stateful'", authMode);
+            authMode = "stateful";
+        }
+        if (signedUrlTtlSeconds <= 0) {
+            signedUrlTtlSeconds = 300;
+            log.warn("Invalid signedUrlTtlSeconds ({}), defaulting to 300", signedUrlTtlSeconds);
+        }
         if (maxFileCountPerProduct <= 0) {
             maxFileCountPerProduct = 10;
             log.warn("Invalid maxFileCountPerProduct ({}), defaulting to 10", maxFileCountPerProduct);
@@ -0,0 +1,39 @@
+package com.datasaz.ecommerce.configs;
+
+import com.datasaz.ecommerce.utilities.OffHeapLruCache;
+import com.datasaz.ecommerce.utilities.OffHeapLruCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Off-heap cache for small, hot image payloads: thumbnails and responsive renditions. Counts against
+ * -XX:MaxDirectMemorySize, which defaults to the maximum heap size.
+ */
+@Slf4j
+@Configuration
+public class ImageCacheConfig {
+
+    public static final String IMAGE_CACHE_NAME = "imageMemoryCache";
+
+    @Value("${image-cache.max-mb:64}")
+    private long maxMb;
+
+    @Value("${image-cache.block-kb:8}")
+    private int blockKb;
+
+    @Value("${image-cache.max-entry-kb:512}")
+    private long maxEntryKb;
+
+    @Bean
+    public OffHeapLruCache imageMemoryCache() {
+        log.info("Image memory cache: {} MB off-heap in {} KB blocks, entries up to {} KB", maxMb, blockKb, maxEntryKb);
+        return new OffHeapLruCache(Math.max(1, maxMb) * 1024 * 1024, Math.max(1, blockKb) * 1024, maxEntryKb * 1024);
+    }
+
+    @Bean
+    public OffHeapLruCacheMetrics imageMemoryCacheMetrics(OffHeapLruCache imageMemoryCache) {
+        return new OffHeapLruCacheMetrics(imageMemoryCache, IMAGE_CACHE_NAME);
+    }
+}
@@ -0,0 +1,17 @@
+package com.datasaz.ecommerce.configs;
+
+import com.datasaz.ecommerce.services.implementations.SchemaMigrationService;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SchemaMigrationConfig {
+
+    // Hibernate, and with it every repository and controller, starts only once the pending schema migrations ran.
+    // Resolved by type, so contexts without the migration service (test slices) are left alone
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnSchemaMigration() {
+        return new EntityManagerFactoryDependsOnPostProcessor(SchemaMigrationService.class);
+    }
+}
@@ -72,6 +72,8 @@ public class SecurityConfig {
                                         "/api/category/**",
                                         "/api/cart/add",
                                         "/uploads/**",
+                                        "/signed/**",
+                                        "/objects/**",
                                         "/static/**"
                                 ).permitAll()
                                 .requestMatchers("/buyer/**").hasAnyAuthority("ROLE_BUYER", "ROLE_SELLER", "ROLE_APP_ADMIN")
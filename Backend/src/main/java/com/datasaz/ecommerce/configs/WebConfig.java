@@ -1,12 +1,35 @@
 package com.datasaz.ecommerce.configs;
 
+import com.datasaz.ecommerce.filters.SignedUrlInterceptor;
+import com.datasaz.ecommerce.services.implementations.ImageDeliveryService;
+import com.datasaz.ecommerce.services.implementations.LocalObjectStorageService;
+import com.datasaz.ecommerce.utilities.SignedUrlSigner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
+
+    public static final String SIGNED_FILES_PATH = "/signed/files/";
+
+    // Looked up lazily: controller slice tests load this class without the rest of the application
+    private final ObjectProvider<GroupConfig> groupConfig;
+    private final ObjectProvider<SignedUrlSigner> signedUrlSigner;
+    private final ObjectProvider<LocalObjectStorageService> localObjectStorageService;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**") // Autorize all requests
@@ -21,5 +44,44 @@ public class WebConfig implements WebMvcConfigurer {
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:uploads/");
+
+        // Targets of redirect image delivery: plain static handlers, no controller, entity or JDBC work per request
+        GroupConfig config = groupConfig.getIfAvailable();
+        if (config == null || signedUrlSigner.getIfAvailable() == null) {
+            return;
+        }
+        CacheControl signedCacheControl = CacheControl.maxAge(config.signedUrlTtlSeconds, TimeUnit.SECONDS).cachePublic();
+        registry.addResourceHandler(SIGNED_FILES_PATH + "**")
+                .addResourceLocations(directoryLocation(Path.of(config.UPLOAD_DIR)))
+                .setCacheControl(signedCacheControl);
+        LocalObjectStorageService objectStorage = localObjectStorageService.getIfAvailable();
+        if (objectStorage != null) {
+            registry.addResourceHandler(LocalObjectStorageService.SIGNED_PATH + "**")
+                    .addResourceLocations(directoryLocation(objectStorage.getRoot()))
+                    .setCacheControl(signedCacheControl);
+            registry.addResourceHandler(LocalObjectStorageService.PUBLIC_PATH + "**")
+                    .addResourceLocations(directoryLocation(objectStorage.getRoot()))
+                    .resourceChain(false)
+                    .addResolver(new PathResourceResolver() {
+                        @Override
+                        protected Resource getResource(String resourcePath, Resource location) throws IOException {
+                            return resourcePath.startsWith(ImageDeliveryService.CONTENT_PREFIX)
+                                    ? null : super.getResource(resourcePath, location);
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        SignedUrlSigner signer = signedUrlSigner.getIfAvailable();
+        if (signer != null) {
+            registry.addInterceptor(new SignedUrlInterceptor(signer)).addPathPatterns("/signed/**");
+        }
+    }
+
+    private static String directoryLocation(Path directory) {
+        String location = directory.toAbsolutePath().normalize().toUri().toString();
+        return location.endsWith("/") ? location : location + "/";
     }
 }
@@ -6,6 +6,7 @@ import com.datasaz.ecommerce.models.request.CouponCodeRequest;
 import com.datasaz.ecommerce.models.response.AppliedCouponResponse;
 import com.datasaz.ecommerce.models.response.CartResponse;
 import com.datasaz.ecommerce.services.interfaces.ICartService;
+import com.datasaz.ecommerce.utilities.PageRequests;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -14,7 +15,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -48,7 +48,7 @@ public class CartController {
             log.error("Missing or invalid cart_session_id");
             throw BadRequestException.builder().message("Missing or invalid cart session ID").build();
         }
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequests.of(page, size);
         CartResponse cartResponse = cartService.getCart(effectiveSessionId, pageable);
         return ResponseEntity.ok(cartResponse);
     }
@@ -2,9 +2,10 @@ package com.datasaz.ecommerce.controllers;
 
 import com.datasaz.ecommerce.models.response.CategoryResponse;
 import com.datasaz.ecommerce.services.interfaces.ICategoryService;
+import com.datasaz.ecommerce.utilities.PageRequests;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -44,7 +45,7 @@ public class CategoryController {
         if (page < 0 || size <= 0) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page or size");
         }
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequests.of(page, size);
         return ResponseEntity.ok(categoryService.getCategories(pageable));
     }
 
@@ -52,11 +53,12 @@ public class CategoryController {
     public ResponseEntity<Page<CategoryResponse>> getSortedCategories(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam String sortBy) {
+            @RequestParam String sortBy,
+            @RequestParam(defaultValue = "all") String window) {
         if (page < 0 || size <= 0) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page or size");
         }
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequests.of(page, size);
         switch (sortBy.toLowerCase()) {
             case "favorites":
                 return ResponseEntity.ok(categoryService.getCategoriesSortedByProductFavorites(pageable));
@@ -65,7 +67,9 @@ public class CategoryController {
             case "quantity":
                 return ResponseEntity.ok(categoryService.getCategoriesSortedByProductQuantity(pageable));
             case "soldquantity":
-                return ResponseEntity.ok(categoryService.getCategoriesSortedByProductSoldQuantity(pageable));
+                SalesLeaderboard.Window salesWindow = SalesLeaderboard.Window.fromKey(window)
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid window parameter"));
+                return ResponseEntity.ok(categoryService.getCategoriesSortedByProductSoldQuantity(salesWindow, pageable));
             case "count":
                 return ResponseEntity.ok(categoryService.getCategoriesSortedByProductCount(pageable));
             default:
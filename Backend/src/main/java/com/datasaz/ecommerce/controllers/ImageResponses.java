@@ -0,0 +1,81 @@
+package com.datasaz.ecommerce.controllers;
+
+import com.datasaz.ecommerce.models.dto.ImageDelivery;
+import com.datasaz.ecommerce.utilities.ContentHashUtils;
+import com.datasaz.ecommerce.utilities.MultipartMixedResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns an {@link ImageDelivery} into the response shared by all image endpoints.
+ */
+final class ImageResponses {
+
+    private ImageResponses() {
+    }
+
+    // The ETag lets Spring answer If-None-Match with a 304 before the body is opened; Resource bodies also get
+    // Range/206 handling. Only URLs carrying the current content version may be cached as immutable.
+    // Redirects may be reused for half the lifetime of the signed URL they point to, so it never expires in a cache.
+    static ResponseEntity<Resource> serve(ImageDelivery image, String version, Duration signedUrlTtl) {
+        if (image.isRedirect()) {
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .header(HttpHeaders.LOCATION, image.getRedirectUrl())
+                    .cacheControl(CacheControl.maxAge(signedUrlTtl.dividedBy(2)).cachePrivate())
+                    .build();
+        }
+        CacheControl cacheControl = version != null && version.equals(image.getVersion())
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + image.getFileName() + "\"")
+                .cacheControl(cacheControl);
+        if (image.getContentHash() != null) {
+            response.eTag(image.getContentHash());
+        }
+        return response.body(image.getResource());
+    }
+
+    // One part per product, each with its own ETag. The batch ETag is derived from the products and their content
+    // hashes, so an unchanged grid is answered with a 304 before any part is opened. The boundary is derived from the
+    // same hash, so two bodies with the same strong ETag are the same bytes and Range/If-Range stay valid.
+    static ResponseEntity<Resource> serveBatch(Map<Long, ImageDelivery> images) {
+        List<MultipartMixedResource.Part> parts = new ArrayList<>(images.size());
+        StringBuilder versions = new StringBuilder();
+        boolean versioned = true;
+        for (Map.Entry<Long, ImageDelivery> image : images.entrySet()) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("X-Product-Id", String.valueOf(image.getKey()));
+            String contentHash = image.getValue().getContentHash();
+            if (contentHash != null) {
+                headers.put(HttpHeaders.ETAG, "\"" + contentHash + "\"");
+            }
+            versioned &= contentHash != null;
+            versions.append(image.getKey()).append(':').append(contentHash).append('\n');
+            parts.add(new MultipartMixedResource.Part(image.getValue().getContentType(), headers, image.getValue().getResource()));
+        }
+        String eTag = versioned ? ContentHashUtils.sha256Hex(versions.toString().getBytes(StandardCharsets.UTF_8)) : null;
+        // 6 + 64 characters: the longest boundary RFC 2046 allows
+        MultipartMixedResource body = eTag != null ? new MultipartMixedResource("batch-" + eTag, parts) : new MultipartMixedResource(parts);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(body.getMediaType())
+                .cacheControl(CacheControl.noCache().cachePublic());
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(body);
+    }
+}
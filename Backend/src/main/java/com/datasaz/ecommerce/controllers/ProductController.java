@@ -2,15 +2,29 @@ package com.datasaz.ecommerce.controllers;
 
 
 import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.exceptions.BadRequestException;
 import com.datasaz.ecommerce.exceptions.ResourceNotFoundException;
+import com.datasaz.ecommerce.models.dto.ImageDelivery;
+import com.datasaz.ecommerce.models.dto.ProductBrowseFilter;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
+import com.datasaz.ecommerce.models.response.ProductBrowseResponse;
 import com.datasaz.ecommerce.models.response.ProductImageResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
+import com.datasaz.ecommerce.models.response.ProductSuggestionResponse;
+import com.datasaz.ecommerce.models.response.ProductSummaryResponse;
 import com.datasaz.ecommerce.models.response.ProductVariantResponse;
 import com.datasaz.ecommerce.repositories.ProductImageAttachRepository;
 import com.datasaz.ecommerce.repositories.ProductImageRepository;
+import com.datasaz.ecommerce.repositories.entities.ProductCondition;
 import com.datasaz.ecommerce.repositories.entities.ProductImage;
 import com.datasaz.ecommerce.repositories.entities.ProductImageAttach;
+import com.datasaz.ecommerce.repositories.entities.ProductSellType;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
+import com.datasaz.ecommerce.services.interfaces.IImageDeliveryService;
+import com.datasaz.ecommerce.services.interfaces.IImageRenditionService;
 import com.datasaz.ecommerce.services.interfaces.IProductService;
+import com.datasaz.ecommerce.utilities.PageRequests;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,18 +33,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.*;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -44,8 +62,14 @@ public class ProductController {
 
     private final ProductImageRepository productImageRepository;
     private final ProductImageAttachRepository productImageAttachRepository;
+    private final IBinaryContentService binaryContentService;
+    private final IImageDeliveryService imageDeliveryService;
+    private final IImageRenditionService imageRenditionService;
     private final GroupConfig groupConfig;
 
+    // A product grid page; larger batches would hold one response open for too long
+    private static final int MAX_THUMBNAIL_BATCH = 100;
+
     @Operation(summary = "Get product by ID", description = "Retrieves a product by its ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product retrieved successfully"),
@@ -54,7 +78,6 @@ public class ProductController {
     })
     @GetMapping("/{id}")
     @RateLimiter(name = "getProduct")
-    @Cacheable(value = "products", key = "#id")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
         log.info("Fetching product with ID: {}", id);
         ProductResponse product = productService.getProductById(id);
@@ -68,15 +91,30 @@ public class ProductController {
     })
     @GetMapping
     @RateLimiter(name = "getProducts")
-    @Cacheable(value = "allProducts", key = "#page + '-' + #size")
-    public ResponseEntity<Page<ProductResponse>> getAllProducts(
+    public ResponseEntity<Page<ProductSummaryResponse>> getAllProducts(
             @RequestParam(value = "page", defaultValue = "0") @Parameter(description = "Page number") int page,
             @RequestParam(value = "size", defaultValue = "10") @Parameter(description = "Page size") int size) {
         log.info("Fetching all products, page: {}, size: {}", page, size);
-        Page<ProductResponse> products = productService.getAllProducts(page, size);
+        Page<ProductSummaryResponse> products = productService.getAllProducts(page, size);
         return ResponseEntity.ok(products);
     }
 
+    @Operation(summary = "Get all products by cursor", description = "Retrieves all products newest first, one keyset slice at a time; " +
+            "pass the returned nextCursor as cursor to read the next slice")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "429", description = "Too many requests")
+    })
+    @GetMapping("/cursor")
+    @RateLimiter(name = "getProducts")
+    public ResponseEntity<CursorSliceResponse<ProductSummaryResponse>> getAllProductsByCursor(
+            @RequestParam(value = "cursor", required = false) @Parameter(description = "Continuation token, omitted for the first slice") String cursor,
+            @RequestParam(value = "size", defaultValue = "10") @Parameter(description = "Slice size") int size) {
+        log.info("Fetching all products, cursor: {}, size: {}", cursor, size);
+        return ResponseEntity.ok(productService.getAllProducts(cursor, size));
+    }
+
 //    @Operation(summary = "Search products by name", description = "Searches products by name")
 //    @ApiResponses({
 //            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
@@ -99,8 +137,7 @@ public class ProductController {
     })
     @GetMapping("/search")
     @RateLimiter(name = "searchProducts")
-    @Cacheable(value = "products", key = "#name + '-' + #page + '-' + #size")
-    public ResponseEntity<Page<ProductResponse>> searchProductsByName(
+    public ResponseEntity<Page<ProductSummaryResponse>> searchProductsByName(
             @RequestParam("name") String name,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
@@ -109,11 +146,25 @@ public class ProductController {
             log.warn("searchProductsByName: Name parameter is null or empty");
             return ResponseEntity.badRequest().body(Page.empty());
         }
-        Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> products = productService.searchProductsByName(name.trim(), pageable);
+        Pageable pageable = PageRequests.of(page, size);
+        Page<ProductSummaryResponse> products = productService.searchProductsByName(name.trim(), pageable);
         return ResponseEntity.ok(products);
     }
 
+    @Operation(summary = "Suggest products", description = "Typeahead suggestions of product names, brands and categories starting with the typed text, most popular first")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+            @ApiResponse(responseCode = "429", description = "Too many requests")
+    })
+    @GetMapping("/suggest")
+    @RateLimiter(name = "suggestProducts")
+    public ResponseEntity<List<ProductSuggestionResponse>> suggestProducts(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        log.debug("Suggesting products for: {}, limit: {}", query, limit);
+        return ResponseEntity.ok(productService.suggestProducts(query, Math.min(limit, 10)));
+    }
+
     @Operation(summary = "Get products by category", description = "Retrieves products by category ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
@@ -122,16 +173,54 @@ public class ProductController {
     })
     @GetMapping("/category/{categoryId}")
     @RateLimiter(name = "getProductsByCategory")
-    @Cacheable(value = "productsByCategory", key = "#categoryId + '-' + #page + '-' + #size")
-    public ResponseEntity<Page<ProductResponse>> getProductsByCategory(
+    public ResponseEntity<Page<ProductSummaryResponse>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size) {
         log.info("Fetching products for category ID: {}, page: {}, size: {}", categoryId, page, size);
-        Page<ProductResponse> products = productService.getProductsByCategory(categoryId, page, size);
+        Page<ProductSummaryResponse> products = productService.getProductsByCategory(categoryId, page, size);
+        return ResponseEntity.ok(products);
+    }
+
+    @Operation(summary = "Get products in a category subtree", description = "Retrieves a paginated list of products in the category and all its subcategories")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Category not found"),
+            @ApiResponse(responseCode = "429", description = "Too many requests")
+    })
+    @GetMapping("/category/{categoryId}/subtree")
+    @RateLimiter(name = "getProductsByCategory")
+    public ResponseEntity<Page<ProductSummaryResponse>> getProductsInCategorySubtree(
+            @PathVariable Long categoryId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+        log.info("Fetching products for category subtree of ID: {}, page: {}, size: {}", categoryId, page, size);
+        Page<ProductSummaryResponse> products = productService.getProductsInCategorySubtree(categoryId, page, size);
         return ResponseEntity.ok(products);
     }
 
+    @Operation(summary = "Browse products with filters", description = "Filters products by category subtree, brand, condition, sell type, stock and price range, with counts per facet value")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Products and facet counts retrieved successfully"),
+            @ApiResponse(responseCode = "429", description = "Too many requests"),
+            @ApiResponse(responseCode = "503", description = "Catalog filters still loading")
+    })
+    @GetMapping("/browse")
+    @RateLimiter(name = "browseProducts")
+    public ResponseEntity<ProductBrowseResponse> browseProducts(
+            @RequestParam(value = "categoryId", required = false) @Parameter(description = "Category ID, includes its subcategories") Long categoryId,
+            @RequestParam(value = "brand", required = false) List<String> brands,
+            @RequestParam(value = "condition", required = false) List<ProductCondition> conditions,
+            @RequestParam(value = "sellType", required = false) List<ProductSellType> sellTypes,
+            @RequestParam(value = "inStock", required = false) Boolean inStock,
+            @RequestParam(value = "price", required = false) @Parameter(description = "Price ranges such as 25-50 or 500+") List<String> priceRanges,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+        ProductBrowseFilter filter = new ProductBrowseFilter(categoryId, toSet(brands), toSet(conditions), toSet(sellTypes), inStock, toSet(priceRanges));
+        log.info("Browsing products with filter: {}, page: {}, size: {}", filter, page, size);
+        return ResponseEntity.ok(productService.browseProducts(filter, PageRequests.of(page, size)));
+    }
+
 //    @Operation(summary = "Get products by company", description = "Retrieves products by company ID")
 //    @ApiResponses({
 //            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
@@ -158,7 +247,6 @@ public class ProductController {
     })
     @GetMapping("/{productId}/variants")
     @RateLimiter(name = "getProductVariants")
-    @Cacheable(value = "productVariants", key = "#productId")
     public ResponseEntity<List<ProductVariantResponse>> getProductVariants(@PathVariable Long productId) {
         log.info("Fetching variants for product ID: {}", productId);
         ProductResponse product = productService.getProductById(productId);
@@ -173,17 +261,12 @@ public class ProductController {
     })
     @GetMapping("/{productId}/primary-image")
     @RateLimiter(name = "getProductPrimaryImage")
-    @Cacheable(value = "productImages", key = "#productId + '-primary'")
-    public ResponseEntity<?> getProductPrimaryImage(@PathVariable Long productId) {
+    public ResponseEntity<?> getProductPrimaryImage(
+            @PathVariable Long productId,
+            @RequestParam(value = "v", required = false) @Parameter(description = "Content version from a versioned image URL") String version) {
         log.info("Fetching primary image for product ID: {}", productId);
         if (groupConfig.imageStorageMode.equals("database")) {
-            ProductImageAttach image = productImageAttachRepository.findByProductIdAndIsPrimaryTrue(productId)
-                    .orElseThrow(() -> ResourceNotFoundException.builder().message("Primary image not found for product ID: " + productId).build());
-            ByteArrayResource resource = new ByteArrayResource(image.getFileContent());
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(image.getContentType()))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + image.getFileName() + "\"")
-                    .body(resource);
+            return serveImage(imageDeliveryService.getPrimaryProductImage(productId, false), version);
         } else {
             ProductImage image = productImageRepository.findByProductIdAndIsPrimaryTrue(productId)
                     .orElseThrow(() -> ResourceNotFoundException.builder().message("Primary image not found for product ID: " + productId).build());
@@ -204,43 +287,22 @@ public class ProductController {
     @Operation(summary = "Get product image", description = "Retrieves a product image by ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Image retrieved successfully"),
+            @ApiResponse(responseCode = "302", description = "Redirect to a signed image URL (image.delivery-mode=redirect)"),
             @ApiResponse(responseCode = "404", description = "Image not found"),
             @ApiResponse(responseCode = "429", description = "Too many requests")
     })
     @GetMapping("/{productId}/images/{imageId}")
     @RateLimiter(name = "getProductImage")
-    @Cacheable(value = "productImages", key = "#productId + '-' + #imageId")
     public ResponseEntity<Resource> getProductImage(
             @PathVariable Long productId,
-            @PathVariable Long imageId) {
+            @PathVariable Long imageId,
+            @RequestParam(value = "v", required = false) @Parameter(description = "Content version from a versioned image URL") String version) {
         log.info("Fetching image {} for product {}", imageId, productId);
-
-        if (groupConfig.imageStorageMode.equals("database")) {
-            ProductImageAttach image = productImageAttachRepository.findById(imageId)
-                    .orElseThrow(() -> ResourceNotFoundException.builder().message("Image not found with ID: " + imageId).build());
-
-            if (!image.getProduct().getId().equals(productId)) {
-                throw ResourceNotFoundException.builder().message("Image does not belong to product ID: " + productId).build();
-            }
-
-            ByteArrayResource resource = new ByteArrayResource(image.getFileContent());
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(image.getContentType()))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + image.getFileName() + "\"")
-                    .body(resource);
-        } else {
-            ProductImage image = productImageRepository.findById(imageId)
-                    .orElseThrow(() -> ResourceNotFoundException.builder().message("Image not found with ID: " + imageId).build());
-
-            if (!image.getProduct().getId().equals(productId)) {
-                throw ResourceNotFoundException.builder().message("Image does not belong to product ID: " + productId).build();
-            }
-
-            // For file-based storage, the frontend will use fileUrl directly
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build(); // Image served via fileUrl in ProductResponse
-        }
+        return serveImage(imageDeliveryService.getProductImage(productId, imageId, false), version);
     }
 
+    @Operation(summary = "Get all images of a product as JSON", deprecated = true,
+            description = "Base64 inside JSON and fully buffered; stream single images from /images/{imageId} instead")
     @GetMapping("/{productId}/images")
     public ResponseEntity<List<byte[]>> getImagesByProductId(@PathVariable Long productId) {
         if (!groupConfig.imageStorageMode.equals("database")) {
@@ -252,8 +314,9 @@ public class ProductController {
             throw ResourceNotFoundException.builder().message("No images found for product ID: " + productId).build();
         }
 
+        Map<Long, byte[]> contents = binaryContentService.loadAll(images.stream().map(ProductImageAttach::getFileContentId).toList());
         List<byte[]> imageContents = images.stream()
-                .map(ProductImageAttach::getFileContent)
+                .map(image -> contents.get(image.getFileContentId()))
                 .filter(content -> content != null && content.length > 0)
                 .toList();
 
@@ -268,26 +331,23 @@ public class ProductController {
                 .body(imageContents);
     }
 
+    @Operation(summary = "Stream product image", description = "Streams an image with ETag, conditional GET and Range support, "
+            + "or redirects to a signed URL in redirect delivery mode; w and fmt select a resized rendition, generated on first request")
     @GetMapping("/images/{imageId}")
-    public ResponseEntity<byte[]> getImageByImageId(@PathVariable Long imageId) {
-        if (!groupConfig.imageStorageMode.equals("database")) {
-            throw new UnsupportedOperationException("Image endpoint only supported in database mode");
+    public ResponseEntity<Resource> getImageByImageId(
+            @PathVariable Long imageId,
+            @RequestParam(value = "v", required = false) @Parameter(description = "Content version from a versioned image URL") String version,
+            @RequestParam(value = "w", required = false) @Parameter(description = "Rendition width: 320, 640 or 960") Integer width,
+            @RequestParam(value = "fmt", required = false) @Parameter(description = "Rendition format: jpeg or webp") String format) {
+        log.info("Streaming image for image ID: {}", imageId);
+        if (width != null || format != null) {
+            return serveImage(imageRenditionService.getRendition(imageId, width, format), version);
         }
-
-        ProductImageAttach image = productImageAttachRepository.findById(imageId)
-                .orElseThrow(() -> ResourceNotFoundException.builder().message("Image not found with ID: " + imageId).build());
-
-        if (image.getFileContent() == null || image.getFileContent().length == 0) {
-            throw ResourceNotFoundException.builder().message("Image content not found for image ID: " + imageId).build();
-        }
-
-        log.info("Retrieved image for image ID: {}", imageId);
-        return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_JPEG)
-                .cacheControl(CacheControl.maxAge(30, TimeUnit.DAYS))
-                .body(image.getFileContent());
+        return serveImage(imageDeliveryService.getProductImage(null, imageId, false), version);
     }
 
+    @Operation(summary = "Get all thumbnails of a product as JSON", deprecated = true,
+            description = "Base64 inside JSON and fully buffered; use the binary batch endpoint /thumbnails instead")
     @GetMapping("/{productId}/images/thumbnail")
     public ResponseEntity<List<byte[]>> getThumbnailsByProductId(@PathVariable Long productId) {
         if (!groupConfig.imageStorageMode.equals("database")) {
@@ -299,8 +359,9 @@ public class ProductController {
             throw ResourceNotFoundException.builder().message("No images found for product ID: " + productId).build();
         }
 
+        Map<Long, byte[]> contents = binaryContentService.loadAll(images.stream().map(ProductImageAttach::getThumbnailContentId).toList());
         List<byte[]> thumbnails = images.stream()
-                .map(ProductImageAttach::getThumbnailContent)
+                .map(image -> contents.get(image.getThumbnailContentId()))
                 .filter(content -> content != null && content.length > 0)
                 .toList();
 
@@ -314,23 +375,42 @@ public class ProductController {
                 .body(thumbnails);
     }
 
+    @Operation(summary = "Stream product image thumbnail", description = "Streams a thumbnail with ETag, conditional GET and Range support, "
+            + "or redirects to a signed URL in redirect delivery mode")
     @GetMapping("/images/{imageId}/thumbnail")
-    public ResponseEntity<byte[]> getThumbnailByImageId(@PathVariable Long imageId) {
+    public ResponseEntity<Resource> getThumbnailByImageId(
+            @PathVariable Long imageId,
+            @RequestParam(value = "v", required = false) @Parameter(description = "Content version from a versioned image URL") String version) {
         if (!groupConfig.imageStorageMode.equals("database")) {
             throw new UnsupportedOperationException("Thumbnail endpoint only supported in database mode");
         }
+        log.info("Streaming thumbnail for image ID: {}", imageId);
+        return serveImage(imageDeliveryService.getProductImage(null, imageId, true), version);
+    }
 
-        ProductImageAttach image = productImageAttachRepository.findById(imageId)
-                .orElseThrow(() -> ResourceNotFoundException.builder().message("Image not found with ID: " + imageId).build());
-
-        if (image.getThumbnailContent() == null || image.getThumbnailContent().length == 0) {
-            throw ResourceNotFoundException.builder().message("Thumbnail not found for image ID: " + imageId).build();
+    @Operation(summary = "Stream cover thumbnails of several products",
+            description = "Returns the cover thumbnail of each product as one part of a multipart/mixed body, in request order. "
+                    + "Each part carries Content-Type, Content-Length, X-Product-Id and ETag headers; "
+                    + "products without images are left out")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Thumbnails streamed"),
+            @ApiResponse(responseCode = "304", description = "None of the thumbnails changed"),
+            @ApiResponse(responseCode = "400", description = "No product IDs or more than " + MAX_THUMBNAIL_BATCH),
+            @ApiResponse(responseCode = "429", description = "Too many requests")
+    })
+    @GetMapping("/thumbnails")
+    @RateLimiter(name = "getProductThumbnails")
+    public ResponseEntity<Resource> getThumbnailsByProductIds(
+            @RequestParam("productIds") @Parameter(description = "Comma-separated product IDs") List<Long> productIds) {
+        if (!groupConfig.imageStorageMode.equals("database")) {
+            throw new UnsupportedOperationException("Thumbnail endpoint only supported in database mode");
         }
-
-        log.info("Retrieved thumbnail for image ID: {}", imageId);
-        return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_JPEG)
-                .body(image.getThumbnailContent());
+        Collection<Long> ids = new LinkedHashSet<>(productIds);
+        if (ids.isEmpty() || ids.size() > MAX_THUMBNAIL_BATCH) {
+            throw BadRequestException.builder().message("Between 1 and " + MAX_THUMBNAIL_BATCH + " product IDs are required").build();
+        }
+        log.info("Streaming thumbnails for {} products", ids.size());
+        return ImageResponses.serveBatch(imageDeliveryService.getProductThumbnails(ids));
     }
 
     // ===================================================================
@@ -339,12 +419,11 @@ public class ProductController {
     @Operation(summary = "Get featured products", description = "For homepage")
     @ApiResponses(@ApiResponse(responseCode = "200", description = "Featured products"))
     @GetMapping("/featured")
-    @Cacheable(value = "featuredProducts")
-    public ResponseEntity<List<ProductResponse>> getFeaturedProducts(
+    public ResponseEntity<List<ProductSummaryResponse>> getFeaturedProducts(
             @RequestParam(defaultValue = "6") int limit) {
         log.info("Public: Featured products, limit: {}", limit);
 
-        Page<ProductResponse> page = productService.getFeaturedProducts(0, Math.min(limit, 20));
+        Page<ProductSummaryResponse> page = productService.getFeaturedProducts(0, Math.min(limit, 20));
         return ResponseEntity.ok(page.getContent());
     }
 
@@ -354,27 +433,33 @@ public class ProductController {
     @Operation(summary = "Get new arrivals", description = "Recently added")
     @ApiResponses(@ApiResponse(responseCode = "200", description = "New products"))
     @GetMapping("/new-arrivals")
-    @Cacheable(value = "newArrivals")
-    public ResponseEntity<List<ProductResponse>> getNewArrivals(
+    public ResponseEntity<List<ProductSummaryResponse>> getNewArrivals(
             @RequestParam(defaultValue = "8") int limit) {
         log.info("Public: New arrivals, limit: {}", limit);
-        Pageable pageable = PageRequest.of(0, Math.min(limit, 20), Sort.by("createdAt").descending());
-        Page<ProductResponse> page = productService.getNewArrivalProducts(pageable);
+        Pageable pageable = PageRequests.of(0, Math.min(limit, 20), Sort.by("createdAt").descending());
+        Page<ProductSummaryResponse> page = productService.getNewArrivalProducts(pageable);
         return ResponseEntity.ok(page.getContent());
     }
 
     // ===================================================================
     // ===  BEST SELLERS
     // ===================================================================
-    @Operation(summary = "Get best sellers", description = "Top sold products")
-    @ApiResponses(@ApiResponse(responseCode = "200", description = "Best sellers"))
+    @Operation(summary = "Get best sellers", description = "Top sold products, overall or within a category, all-time or over the last 7 or 30 days")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Best sellers"),
+            @ApiResponse(responseCode = "400", description = "Invalid window"),
+            @ApiResponse(responseCode = "503", description = "Best sellers for a category or window are still loading")
+    })
     @GetMapping("/best-sellers")
-    @Cacheable(value = "bestSellers")
-    public ResponseEntity<List<ProductResponse>> getBestSellers(
-            @RequestParam(defaultValue = "8") int limit) {
-        log.info("Public: Best sellers, limit: {}", limit);
-        Pageable pageable = PageRequest.of(0, Math.min(limit, 20));
-        Page<ProductResponse> page = productService.getAllSortedByProductSoldQuantity(pageable);
+    public ResponseEntity<List<ProductSummaryResponse>> getBestSellers(
+            @RequestParam(defaultValue = "8") int limit,
+            @RequestParam(required = false) @Parameter(description = "Only products of this category") Long categoryId,
+            @RequestParam(defaultValue = "all") @Parameter(description = "Sales window: all, 7d or 30d") String window) {
+        log.info("Public: Best sellers, limit: {}, categoryId: {}, window: {}", limit, categoryId, window);
+        SalesLeaderboard.Window salesWindow = SalesLeaderboard.Window.fromKey(window)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid window parameter"));
+        Pageable pageable = PageRequests.of(0, Math.min(limit, 20));
+        Page<ProductSummaryResponse> page = productService.getBestSellers(categoryId, salesWindow, pageable);
         return ResponseEntity.ok(page.getContent());
     }
 
@@ -384,13 +469,12 @@ public class ProductController {
     @Operation(summary = "Get products on sale", description = "Offer price < regular price")
     @ApiResponses(@ApiResponse(responseCode = "200", description = "On sale"))
     @GetMapping("/on-sale")
-    @Cacheable(value = "onSaleProducts")
-    public ResponseEntity<Page<ProductResponse>> getOnSaleProducts(
+    public ResponseEntity<Page<ProductSummaryResponse>> getOnSaleProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         log.info("Public: On sale, page: {}, size: {}", page, size);
 
-        Page<ProductResponse> products = productService.getByOfferPriceLessThanPrice(page, size);
+        Page<ProductSummaryResponse> products = productService.getByOfferPriceLessThanPrice(page, size);
         return ResponseEntity.ok(products);
     }
 
@@ -400,15 +484,12 @@ public class ProductController {
     @Operation(summary = "Get related products", description = "Same category, exclude self")
     @ApiResponses(@ApiResponse(responseCode = "200", description = "Related"))
     @GetMapping("/{id}/related")
-    @Cacheable(value = "relatedProducts", key = "#id")
-    public ResponseEntity<List<ProductResponse>> getRelatedProducts(
+    public ResponseEntity<List<ProductSummaryResponse>> getRelatedProducts(
             @PathVariable Long id,
             @RequestParam(defaultValue = "4") int limit) {
         log.info("Public: Related for {}, limit: {}", id, limit);
-        ProductResponse product = productService.getProductById(id);
-        Pageable pageable = PageRequest.of(0, Math.min(limit, 10));
-        Page<ProductResponse> related = productService.getRelatedProducts(
-                product.getCategoryId(), id, pageable);
+        Pageable pageable = PageRequests.of(0, Math.min(limit, 10));
+        Page<ProductSummaryResponse> related = productService.getRelatedProducts(id, pageable);
         return ResponseEntity.ok(related.getContent());
     }
 
@@ -418,17 +499,24 @@ public class ProductController {
     @Operation(summary = "Get personalized recommendations", description = "Requires login")
     @ApiResponses(@ApiResponse(responseCode = "200", description = "Recommendations"))
     @GetMapping("/recommendations")
-    @Cacheable(value = "recommendations", key = "#auth.name")
-    public ResponseEntity<List<ProductResponse>> getRecommendations(
+    public ResponseEntity<List<ProductSummaryResponse>> getRecommendations(
             Authentication auth,
             @RequestParam(defaultValue = "6") int limit) {
         if (auth == null) return ResponseEntity.ok(List.of());
         log.info("Auth: Recommendations for {}", auth.getName());
 
-        Page<ProductResponse> page = productService.getRecommendedProducts(0, Math.min(limit, 20));
+        Page<ProductSummaryResponse> page = productService.getRecommendedProducts(0, Math.min(limit, 20));
         return ResponseEntity.ok(page.getContent());
     }
 
+
+    private ResponseEntity<Resource> serveImage(ImageDelivery image, String version) {
+        return ImageResponses.serve(image, version, Duration.ofSeconds(groupConfig.signedUrlTtlSeconds));
+    }
+
+    private static <T> Set<T> toSet(List<T> values) {
+        return values != null && !values.isEmpty() ? new HashSet<>(values) : null;
+    }
 }
 
 
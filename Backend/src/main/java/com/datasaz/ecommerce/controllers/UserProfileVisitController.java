@@ -1,10 +1,13 @@
 package com.datasaz.ecommerce.controllers;
 
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
 import com.datasaz.ecommerce.models.response.UserFollowersCountResponse;
 import com.datasaz.ecommerce.models.response.UserProfileResponse;
 import com.datasaz.ecommerce.models.response.UserSummaryResponse;
 import com.datasaz.ecommerce.repositories.entities.UserPrivacySettings;
+import com.datasaz.ecommerce.services.interfaces.IImageDeliveryService;
 import com.datasaz.ecommerce.services.interfaces.IUserProfileVisitService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,11 +17,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+
 @Tag(name = "User Profile Management", description = "APIs for managing user profiles, followers, favorites, and privacy settings")
 @RequiredArgsConstructor
 @RestController
@@ -26,6 +32,8 @@ import org.springframework.web.bind.annotation.*;
 public class UserProfileVisitController {
 
     private final IUserProfileVisitService userProfileService;
+    private final IImageDeliveryService imageDeliveryService;
+    private final GroupConfig groupConfig;
 
     @Operation(summary = "Get user followers", description = "Retrieves a paginated list of followers for a specified user, respecting privacy settings")
     @ApiResponses({
@@ -43,6 +51,23 @@ public class UserProfileVisitController {
         return ResponseEntity.ok(userProfileService.getFollowers(email, page, size, viewerEmail));
     }
 
+    @Operation(summary = "Get user followers by cursor", description = "Retrieves followers of a specified user one keyset slice at a time, respecting privacy settings")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Followers retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "403", description = "Forbidden due to privacy settings"),
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/{email}/followers/cursor")
+    public ResponseEntity<CursorSliceResponse<UserSummaryResponse>> getFollowersByCursor(
+            @Parameter(description = "Email of the user whose followers are retrieved") @PathVariable String email,
+            @Parameter(description = "Continuation token, omitted for the first slice") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Slice size") @RequestParam(defaultValue = "10") int size) {
+        String viewerEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        return ResponseEntity.ok(userProfileService.getFollowers(email, cursor, size, viewerEmail));
+    }
+
     @Operation(summary = "Get user followings", description = "Retrieves a paginated list of users followed by a specified user, respecting privacy settings")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Followings retrieved successfully", content = @Content(schema = @Schema(implementation = Page.class))),
@@ -71,6 +96,22 @@ public class UserProfileVisitController {
         return ResponseEntity.ok(userProfileService.getFollowerCount(emailAddress));
     }
 
+    @Operation(summary = "Get profile picture", description = "Streams the user's profile picture, or redirects to a signed URL in redirect delivery mode")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Profile picture retrieved successfully"),
+            @ApiResponse(responseCode = "302", description = "Redirect to a signed image URL (image.delivery-mode=redirect)"),
+            @ApiResponse(responseCode = "403", description = "Forbidden due to privacy settings"),
+            @ApiResponse(responseCode = "404", description = "User or profile picture not found")
+    })
+    @GetMapping("/{email}/profile-picture")
+    public ResponseEntity<Resource> getProfilePicture(
+            @Parameter(description = "Email address of the user") @PathVariable("email") String emailAddress,
+            @RequestParam(value = "v", required = false) @Parameter(description = "Content version from a versioned image URL") String version) {
+        userProfileService.checkProfileVisible(emailAddress);
+        return ImageResponses.serve(imageDeliveryService.getProfilePicture(emailAddress), version,
+                Duration.ofSeconds(groupConfig.signedUrlTtlSeconds));
+    }
+
     @Operation(summary = "Get following count", description = "Retrieves the number of users the specified user is following")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Successfully retrieved following count"),
@@ -4,6 +4,7 @@ import com.datasaz.ecommerce.exceptions.BadRequestException;
 import com.datasaz.ecommerce.models.dto.AuditLogDto;
 import com.datasaz.ecommerce.models.dto.UserDto;
 import com.datasaz.ecommerce.models.request.UpdatePasswordRequest;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
 import com.datasaz.ecommerce.services.interfaces.IAdminUserService;
 import com.datasaz.ecommerce.services.interfaces.IAuditLogService;
 import jakarta.validation.Valid;
@@ -129,4 +130,20 @@ public class AdminUserController {
         log.info("AdminUserController.getAuditLogs: Retrieving audit logs for page {}, size {}", page, size);
         return ResponseEntity.ok(auditLogService.getAuditLogs(page, size, userEmail, roleName, action, details, performedBy, startDate, endDate));
     }
+
+    @GetMapping("/audit-logs/cursor")
+    @PreAuthorize("hasAuthority('ROLE_APP_ADMIN')")
+    public ResponseEntity<CursorSliceResponse<AuditLogDto>> getAuditLogsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String userEmail,
+            @RequestParam(required = false) String roleName,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String details,
+            @RequestParam(required = false) String performedBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        log.info("AdminUserController.getAuditLogsByCursor: Retrieving audit logs after cursor {}, size {}", cursor, size);
+        return ResponseEntity.ok(auditLogService.getAuditLogs(cursor, size, userEmail, roleName, action, details, performedBy, startDate, endDate));
+    }
 }
\ No newline at end of file
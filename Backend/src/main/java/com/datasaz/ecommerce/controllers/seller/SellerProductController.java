@@ -1,6 +1,7 @@
 package com.datasaz.ecommerce.controllers.seller;
 
 import com.datasaz.ecommerce.models.request.ProductRequest;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
 import com.datasaz.ecommerce.services.interfaces.ISellerProductService;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
@@ -194,6 +195,22 @@ public class SellerProductController {
         return ResponseEntity.ok(products);
     }
 
+    @Operation(summary = "Get seller products by cursor", description = "Retrieves products for the authenticated seller or company one keyset slice at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or slice size"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Missing or invalid token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User is not a seller"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @GetMapping("/all-seller-products/cursor")
+    public ResponseEntity<CursorSliceResponse<ProductResponse>> getSellerProductsByCursor(
+            @RequestParam(required = false) @Parameter(description = "Continuation token, omitted for the first slice") String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Parameter(description = "Number of products per slice at least 1") int size) {
+        log.debug("GET /seller/products/cursor - Fetching products for seller, cursor: {}, size: {}", cursor, size);
+        return ResponseEntity.ok(sellerProductService.getAllAuthorOrCompanyProducts(cursor, size));
+    }
+
     @Operation(summary = "Get paginated products", description = "Retrieves paginated products for the authenticated seller or company")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
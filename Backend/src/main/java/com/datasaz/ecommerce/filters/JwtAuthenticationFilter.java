@@ -1,7 +1,10 @@
 package com.datasaz.ecommerce.filters;
 
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import com.datasaz.ecommerce.utilities.JwtBlacklistService;
-import com.datasaz.ecommerce.utilities.JwtUtil;
+import com.datasaz.ecommerce.utilities.JwtTokenVerifier;
+import com.datasaz.ecommerce.utilities.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,7 +30,9 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
-    private final JwtUtil jwtUtil;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final IUserAuthStatusService userAuthStatusService;
+    private final GroupConfig groupConfig;
 
     @Autowired
     private JwtBlacklistService jwtBlacklistService;
@@ -48,16 +53,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Check for JWT token
         String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ") && !jwtBlacklistService.isBlacklisted(token)) {
+        if (token != null && token.startsWith("Bearer ") && !jwtBlacklistService.isBlacklisted(token.substring(7))) {
             token = token.substring(7); // Remove "Bearer " prefix
             log.info("JwtAuthenticationFilter: Found Bearer token for {}", request.getRequestURI());
             try {
-                String username = jwtUtil.extractUsername(token);
-                List<String> roles = jwtUtil.extractRoles(token);
+                // Verified once, and not again for later requests carrying the same token; throws if expired
+                VerifiedToken verified = jwtTokenVerifier.verify(token);
+                String username = verified.subject();
+                List<String> roles = verified.roles();
                 log.info("JwtAuthenticationFilter: Token extracted - Username: {}, Roles: {}", username, roles);
 
-                if (username != null && !jwtUtil.isTokenExpired(token)) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (username != null) {
+                    UserDetails userDetails = "stateless".equals(groupConfig.authMode)
+                            ? statelessPrincipal(verified)
+                            : userDetailsService.loadUserByUsername(username);
+                    if (userDetails == null) {
+                        log.warn("JwtAuthenticationFilter: Token no longer matches the account of user: {}", username);
+                        sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
+                        return;
+                    }
                     log.info("JwtAuthenticationFilter: User details loaded - Username: {}, Authorities: {}", userDetails.getUsername(), userDetails.getAuthorities());
 
                     // Perform role-based authorization
@@ -105,6 +119,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
 
+    // Authorities come from the signed roles claim; only the account status is looked up, and that from a cache.
+    // Null if the account is disabled or gone, or changed in a way that invalidates the token.
+    private UserDetails statelessPrincipal(VerifiedToken token) {
+        boolean accepted = userAuthStatusService.getStatus(token.subject())
+                .map(status -> status.accepts(token.issuedAt(), token.roles()))
+                .orElse(false);
+        if (!accepted) {
+            return null;
+        }
+        return org.springframework.security.core.userdetails.User.withUsername(token.subject())
+                .password("")
+                .authorities(token.roles().toArray(String[]::new))
+                .build();
+    }
+
     private boolean isPublicEndpoint(HttpServletRequest request) {
         log.info("isPublicEndpoint: {}", request.getServletPath());
         String servletPath = request.getServletPath();
@@ -124,7 +153,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 servletPath.startsWith("/login") ||
                 servletPath.startsWith("/auth") ||
                 servletPath.startsWith("/oauth2") ||
-                servletPath.startsWith("/static");
+                servletPath.startsWith("/static") ||
+                servletPath.startsWith("/signed/") ||
+                servletPath.startsWith("/objects/");
         log.info("JwtAuthenticationFilter: isPublicEndpoint: {} -> {}", servletPath, isPublic);
         return isPublic;
     }
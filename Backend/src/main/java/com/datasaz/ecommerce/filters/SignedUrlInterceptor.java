@@ -0,0 +1,30 @@
+package com.datasaz.ecommerce.filters;
+
+import com.datasaz.ecommerce.utilities.SignedUrlSigner;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Guards the static handlers behind signed image URLs: the request path must carry a valid, unexpired signature.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SignedUrlInterceptor implements HandlerInterceptor {
+
+    private final SignedUrlSigner signedUrlSigner;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // The raw, still encoded path is what was signed
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (signedUrlSigner.verify(path, request.getParameter(SignedUrlSigner.EXPIRES_PARAM), request.getParameter(SignedUrlSigner.SIGNATURE_PARAM))) {
+            return true;
+        }
+        log.warn("Rejected signed URL request for {}", path);
+        response.sendError(HttpServletResponse.SC_FORBIDDEN);
+        return false;
+    }
+}
@@ -1,39 +1,109 @@
 package com.datasaz.ecommerce.mappers;
 
+import com.datasaz.ecommerce.models.dto.CategoryTreeRow;
 import com.datasaz.ecommerce.models.request.CategoryRequest;
 import com.datasaz.ecommerce.models.response.CategoryResponse;
 import com.datasaz.ecommerce.repositories.entities.Category;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class CategoryMapper {
 
+    private final IBinaryContentService binaryContentService;
+
     public CategoryResponse toResponse(Category category) {
         log.info("mapToCategoryResponse: convert category to category response");
         if (category == null) {
             return null;
         }
 
+        return responseMapper(List.of(category)).apply(category);
+    }
+
+    /**
+     * Returns a mapper for a page of categories whose images, subcategories included, are read from
+     * binary_content in one batch.
+     */
+    public Function<Category, CategoryResponse> responseMapper(Collection<Category> categories) {
+        Set<Long> contentIds = new HashSet<>();
+        categories.forEach(category -> collectImageContentIds(category, contentIds));
+        Map<Long, byte[]> contents = binaryContentService.loadAll(contentIds);
+        return category -> category == null ? null : toResponse(category, contents);
+    }
+
+    private CategoryResponse toResponse(Category category, Map<Long, byte[]> contents) {
         List<CategoryResponse> subResponses = category.getSubcategories() != null
                 ? category.getSubcategories().stream()
-                .map(this::toResponse)
+                .map(subcategory -> toResponse(subcategory, contents))
                 .collect(Collectors.toList())
                 : Collections.emptyList();
 
+        byte[] imageContent = category.getImageContentId() != null ? contents.get(category.getImageContentId()) : null;
+        return toResponse(category, subResponses, imageContent != null ? Base64.getEncoder().encodeToString(imageContent) : null);
+    }
+
+    private void collectImageContentIds(Category category, Set<Long> contentIds) {
+        if (category == null) {
+            return;
+        }
+        if (category.getImageContentId() != null) {
+            contentIds.add(category.getImageContentId());
+        }
+        if (category.getSubcategories() != null) {
+            category.getSubcategories().forEach(subcategory -> collectImageContentIds(subcategory, contentIds));
+        }
+    }
+
+    /**
+     * Maps tree rows to flat responses (subcategories not set), reading all their images in one batch.
+     */
+    public List<CategoryResponse> toFlatResponses(Collection<CategoryTreeRow> rows) {
+        Set<Long> contentIds = rows.stream()
+                .map(CategoryTreeRow::getImageContentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, byte[]> contents = binaryContentService.loadAll(contentIds);
+        return rows.stream()
+                .map(row -> {
+                    byte[] imageContent = row.getImageContentId() != null ? contents.get(row.getImageContentId()) : null;
+                    return CategoryResponse.builder()
+                            .id(row.getId())
+                            .name(row.getName())
+                            .description(row.getDescription())
+                            .imageUrl(row.getImageUrl())
+                            .imageContent(imageContent != null ? Base64.getEncoder().encodeToString(imageContent) : null)
+                            .imageContentType(row.getImageContentType())
+                            .createdDate(row.getCreatedAt())
+                            .parentId(row.getParentId())
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    private CategoryResponse toResponse(Category category, List<CategoryResponse> subResponses, String imageContent) {
         return CategoryResponse.builder()
                 .id(category.getId())
                 .name(category.getName())
                 .description(category.getDescription())
                 .imageUrl(category.getImageUrl())
-                .imageContent(category.getImageContent() != null ? Base64.getEncoder().encodeToString(category.getImageContent()) : null)
+                .imageContent(imageContent)
                 .imageContentType(category.getImageContentType())
                 .createdDate(category.getCreatedAt())
                 .parentId(category.getParent() != null ? category.getParent().getId() : null)
@@ -54,9 +124,10 @@ public class CategoryMapper {
                 .subcategories(new ArrayList<>())
                 .build();
 
+        // The payload itself is resized and stored by AdminCategoryService; only validate it here
         if (request.getImageContent() != null && !request.getImageContent().isEmpty()) {
             try {
-                category.setImageContent(Base64.getDecoder().decode(request.getImageContent()));
+                Base64.getDecoder().decode(request.getImageContent());
                 category.setImageContentType(request.getImageContentType());
                 category.setImageFileExtension(getFileExtension(request.getImageContentType()));
             } catch (IllegalArgumentException e) {
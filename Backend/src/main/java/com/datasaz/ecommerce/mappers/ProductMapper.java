@@ -1,14 +1,18 @@
 package com.datasaz.ecommerce.mappers;
 
 import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.models.dto.ProductImageRef;
 import com.datasaz.ecommerce.models.request.ProductRequest;
 import com.datasaz.ecommerce.models.request.ProductVariantRequest;
 import com.datasaz.ecommerce.models.response.ProductImageAttachResponse;
 import com.datasaz.ecommerce.models.response.ProductImageResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
+import com.datasaz.ecommerce.models.response.ProductSummaryResponse;
 import com.datasaz.ecommerce.models.response.ProductVariantResponse;
 import com.datasaz.ecommerce.repositories.CategoryRepository;
 import com.datasaz.ecommerce.repositories.entities.*;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
+import com.datasaz.ecommerce.utilities.ContentHashUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.Hibernate;
@@ -17,16 +21,22 @@ import org.springframework.stereotype.Component;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ProductMapper {
 
+    public static final String PRODUCT_IMAGES_PATH = "/api/v1/products/images/";
+
     private final CategoryRepository categoryRepository;
     private final GroupConfig groupConfig;
+    private final IBinaryContentService binaryContentService;
 
     public ProductResponse toResponse(Product product) {
         if (product == null) {
@@ -74,6 +84,30 @@ public class ProductMapper {
                 .build();
     }
 
+    /**
+     * Points a summary card at its cover image without touching image content:
+     * database mode links to the image/thumbnail endpoints, file mode to the stored file URL.
+     */
+    public ProductSummaryResponse applyCoverImage(ProductSummaryResponse summary, ProductImageRef cover) {
+        if (summary == null || cover == null) {
+            return summary;
+        }
+        summary.setPrimaryImageId(cover.getImageId());
+        if (groupConfig.imageStorageMode.equals("database")) {
+            summary.setImageUrl(PRODUCT_IMAGES_PATH + cover.getImageId() + versionQuery(cover.getVersion()));
+            summary.setThumbnailUrl(PRODUCT_IMAGES_PATH + cover.getImageId() + "/thumbnail" + versionQuery(cover.getThumbnailVersion()));
+        } else {
+            summary.setImageUrl(cover.getFileUrl());
+            summary.setThumbnailUrl(cover.getFileUrl());
+        }
+        return summary;
+    }
+
+    // Versioned URLs change whenever the content does, so the image endpoints can mark them immutable
+    private String versionQuery(String contentHash) {
+        return contentHash != null ? "?v=" + ContentHashUtils.version(contentHash) : "";
+    }
+
     public Product toEntity(ProductRequest productRequest, User author) {
         if (productRequest == null || author == null) {
             log.warn("toEntity: Invalid input - productRequest: {}, author: {}", productRequest, author);
@@ -130,6 +164,7 @@ public class ProductMapper {
                         .fileExtension(image.getFileExtension())
                         .isPrimary(image.isPrimary())
                         .displayOrder(image.getDisplayOrder())
+                        .status(image.getStatus() != null ? image.getStatus() : ImageStatus.READY)
                         .createdAt(image.getCreatedAt())
                         .build())
                 .collect(Collectors.toList());
@@ -144,6 +179,11 @@ public class ProductMapper {
             log.debug("mapImageAttaches: No image attaches provided for product");
             return Collections.emptyList();
         }
+        // One batched read for every payload of the product instead of one blob per image row
+        Map<Long, byte[]> contents = binaryContentService.loadAll(imageAttaches.stream()
+                .flatMap(image -> Stream.of(image.getFileContentId(), image.getThumbnailContentId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
         return imageAttaches.stream()
                 .map(image -> ProductImageAttachResponse.builder()
                         .id(image.getId())
@@ -151,15 +191,20 @@ public class ProductMapper {
                         .contentType(image.getContentType())
                         .fileSize(image.getFileSize())
                         .fileExtension(image.getFileExtension())
-                        .fileContent(image.getFileContent() != null ? Base64.getEncoder().encodeToString(image.getFileContent()) : null)
-                        .thumbnailContent(image.getThumbnailContent() != null ? Base64.getEncoder().encodeToString(image.getThumbnailContent()) : null)
+                        .fileContent(encode(contents.get(image.getFileContentId())))
+                        .thumbnailContent(encode(contents.get(image.getThumbnailContentId())))
                         .isPrimary(image.isPrimary())
                         .displayOrder(image.getDisplayOrder() != null ? image.getDisplayOrder() : 0)
+                        .status(image.getStatus() != null ? image.getStatus() : ImageStatus.READY)
                         .createdAt(image.getCreatedAt())
                         .build())
                 .collect(Collectors.toList());
     }
 
+    private String encode(byte[] content) {
+        return content != null ? Base64.getEncoder().encodeToString(content) : null;
+    }
+
     private List<ProductVariant> mapVariantsToEntity(List<ProductVariantRequest> variants, Product product) {
         if (variants == null || variants.isEmpty()) {
             log.debug("mapVariantsToEntity: No variants provided for product");
@@ -9,12 +9,17 @@ import com.datasaz.ecommerce.repositories.UserRepository;
 import com.datasaz.ecommerce.repositories.entities.Company;
 import com.datasaz.ecommerce.repositories.entities.Product;
 import com.datasaz.ecommerce.repositories.entities.User;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.Base64;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -24,12 +29,24 @@ public class UserMapper {
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final CompanyRepository companyRepository;
+    private final IBinaryContentService binaryContentService;
 
     public UserDto toDto(User user) {
         if (user == null) {
             return null;
         }
+        return toDto(user, binaryContentService.loadBase64(user.getImageContentId()));
+    }
+
+    /**
+     * Returns a mapper for a page of users whose pictures are read from binary_content in one batch.
+     */
+    public Function<User, UserDto> dtoMapper(Collection<User> users) {
+        Map<Long, byte[]> contents = loadImageContents(users);
+        return user -> user == null ? null : toDto(user, encode(contents, user.getImageContentId()));
+    }
 
+    private UserDto toDto(User user, String imageContent) {
         UserDto.UserDtoBuilder builder = UserDto.builder()
                 .id(user.getId())
                 .firstName(user.getFirstName())
@@ -54,7 +71,8 @@ public class UserMapper {
                 .followerCount(userRepository.countFollowersByEmailAddress(user.getEmailAddress()))
                 .followingCount(userRepository.countFollowingByEmailAddress(user.getEmailAddress()))
                 .profilePictureUrl(user.getProfilePictureUrl())
-                .imageContent(user.getImageContent() != null ? Base64.getEncoder().encodeToString(user.getImageContent()) : null)
+                .imageContentId(user.getImageContentId())
+                .imageContent(imageContent)
                 .imageContentType(user.getImageContentType());
 
         if (user.getPrivacySettings() != null) {
@@ -115,6 +133,8 @@ public class UserMapper {
             return null;
         }
 
+        validateImageContent(userDto);
+
         User.UserBuilder builder = User.builder()
                 .id(userDto.getId())
                 .firstName(userDto.getFirstName())
@@ -137,7 +157,7 @@ public class UserMapper {
                 .phoneNumber(userDto.getPhoneNumber())
                 .lastPasswordResetDate(userDto.getLastPasswordResetDate())
                 .profilePictureUrl(userDto.getProfilePictureUrl())
-                .imageContent(userDto.getImageContent() != null ? Base64.getDecoder().decode(userDto.getImageContent()) : null)
+                .imageContentId(userDto.getImageContentId())
                 .imageContentType(userDto.getImageContentType());
 
         // Populate favoriteProducts
@@ -192,19 +212,51 @@ public class UserMapper {
         return builder.build();
     }
 
+    // Inline Base64 payloads are stored in binary_content by the calling service; only validate them here
+    private void validateImageContent(UserDto userDto) {
+        if (userDto.getImageContent() != null && !userDto.getImageContent().isEmpty()) {
+            Base64.getDecoder().decode(userDto.getImageContent());
+        }
+    }
+
     public UserSummaryResponse toSummaryResponse(User user) {
         if (user == null) {
             return null;
         }
+        return toSummaryResponse(user, binaryContentService.loadBase64(user.getImageContentId()));
+    }
+
+    /**
+     * Returns a mapper for a page of users whose pictures are read from binary_content in one batch.
+     */
+    public Function<User, UserSummaryResponse> summaryMapper(Collection<User> users) {
+        Map<Long, byte[]> contents = loadImageContents(users);
+        return user -> user == null ? null : toSummaryResponse(user, encode(contents, user.getImageContentId()));
+    }
+
+    private UserSummaryResponse toSummaryResponse(User user, String imageContent) {
         return UserSummaryResponse.builder()
                 .emailAddress(user.getEmailAddress())
                 .displayName(user.getFirstName() + " " + user.getLastName())
                 .profilePictureUrl(user.getProfilePictureUrl())
-                .imageContent(user.getImageContent() != null ? Base64.getEncoder().encodeToString(user.getImageContent()) : null)
+                .imageContent(imageContent)
                 .imageContentType(user.getImageContentType())
                 .build();
     }
 
+    private Map<Long, byte[]> loadImageContents(Collection<User> users) {
+        return binaryContentService.loadAll(users.stream()
+                .filter(Objects::nonNull)
+                .map(User::getImageContentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+    }
+
+    private String encode(Map<Long, byte[]> contents, Long contentId) {
+        byte[] content = contentId != null ? contents.get(contentId) : null;
+        return content != null ? Base64.getEncoder().encodeToString(content) : null;
+    }
+
     public UserProfileResponse toProfileResponse(User user) {
         if (user == null) {
             return null;
@@ -218,7 +270,7 @@ public class UserMapper {
                 .phoneNumber(user.getPhoneNumber())
                 .location(user.getLocation())
                 .profilePictureUrl(user.getProfilePictureUrl())
-                .imageContent(user.getImageContent() != null ? Base64.getEncoder().encodeToString(user.getImageContent()) : null)
+                .imageContent(binaryContentService.loadBase64(user.getImageContentId()))
                 .imageContentType(user.getImageContentType())
                 .privacySettings(user.getPrivacySettings())
                 .userRoles(user.getUserRoles().stream()
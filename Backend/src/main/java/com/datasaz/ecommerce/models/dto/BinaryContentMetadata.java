@@ -0,0 +1,14 @@
+package com.datasaz.ecommerce.models.dto;
+
+/**
+ * Everything about a binary_content row except the payload itself.
+ */
+public interface BinaryContentMetadata {
+    Long getId();
+
+    String getContentType();
+
+    long getSize();
+
+    String getContentHash();
+}
@@ -0,0 +1,12 @@
+package com.datasaz.ecommerce.models.dto;
+
+/**
+ * Category name with its number of live products, used by the typeahead index.
+ */
+public interface CategorySuggestionDocument {
+    Long getId();
+
+    String getName();
+
+    Long getProductCount();
+}
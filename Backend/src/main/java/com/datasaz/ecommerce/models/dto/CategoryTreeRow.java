@@ -0,0 +1,25 @@
+package com.datasaz.ecommerce.models.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One category as read for the in-memory category tree: its own columns and the parent ID, without loading the
+ * parent or subcategory associations.
+ */
+public interface CategoryTreeRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getImageUrl();
+
+    Long getImageContentId();
+
+    String getImageContentType();
+
+    LocalDateTime getCreatedAt();
+
+    Long getParentId();
+}
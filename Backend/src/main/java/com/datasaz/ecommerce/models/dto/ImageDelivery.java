@@ -0,0 +1,30 @@
+package com.datasaz.ecommerce.models.dto;
+
+import com.datasaz.ecommerce.utilities.ContentHashUtils;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.core.io.Resource;
+
+/**
+ * A servable image: a lazily opened body plus the metadata needed for caching headers, or, in redirect delivery mode,
+ * only the signed URL the client should fetch it from.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ImageDelivery {
+    private final Resource resource;
+    private final String contentType;
+    private final String fileName;
+    private final String contentHash;
+    private final String redirectUrl;
+
+    public boolean isRedirect() {
+        return redirectUrl != null;
+    }
+
+    public String getVersion() {
+        return ContentHashUtils.version(contentHash);
+    }
+}
@@ -0,0 +1,15 @@
+package com.datasaz.ecommerce.models.dto;
+
+import com.datasaz.ecommerce.repositories.entities.ProductCondition;
+import com.datasaz.ecommerce.repositories.entities.ProductSellType;
+
+import java.util.Set;
+
+/**
+ * Catalog browse filters. Within a facet any selected value matches; facets are combined with AND.
+ * Null or empty selections do not filter. {@code categoryId} matches the category and all its descendants,
+ * {@code priceRanges} holds bucket labels such as {@code "25-50"} or {@code "500+"}.
+ */
+public record ProductBrowseFilter(Long categoryId, Set<String> brands, Set<ProductCondition> conditions,
+                                  Set<ProductSellType> sellTypes, Boolean inStock, Set<String> priceRanges) {
+}
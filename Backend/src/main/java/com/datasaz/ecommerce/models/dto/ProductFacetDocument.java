@@ -0,0 +1,27 @@
+package com.datasaz.ecommerce.models.dto;
+
+import com.datasaz.ecommerce.repositories.entities.ProductCondition;
+import com.datasaz.ecommerce.repositories.entities.ProductSellType;
+
+import java.math.BigDecimal;
+
+/**
+ * Filterable attributes of a live product, read to build the facet index.
+ */
+public interface ProductFacetDocument {
+    Long getId();
+
+    Long getCategoryId();
+
+    String getBrand();
+
+    ProductCondition getProductCondition();
+
+    ProductSellType getProductSellType();
+
+    Integer getQuantity();
+
+    BigDecimal getPrice();
+
+    BigDecimal getOfferPrice();
+}
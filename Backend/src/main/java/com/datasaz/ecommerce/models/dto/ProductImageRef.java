@@ -0,0 +1,18 @@
+package com.datasaz.ecommerce.models.dto;
+
+/**
+ * Blob-free projection of a product image row (database or file mode).
+ * {@code fileUrl} is only selected by the file-mode query, {@code version}/{@code thumbnailVersion}
+ * (content hashes of the stored payloads) only by the database-mode query.
+ */
+public interface ProductImageRef {
+    Long getProductId();
+
+    Long getImageId();
+
+    String getFileUrl();
+
+    String getVersion();
+
+    String getThumbnailVersion();
+}
@@ -0,0 +1,16 @@
+package com.datasaz.ecommerce.models.dto;
+
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Identifies one cached page of a product listing.
+ * {@code categoryId} scopes category-bound listings so that a write only drops the pages of the categories it touches;
+ * global listings (all products, search, on sale, ...) leave it null.
+ */
+public record ProductPageKey(String listing, Long categoryId, String query, int page, int size, String sort) {
+
+    public static ProductPageKey of(String listing, Long categoryId, String query, Pageable pageable) {
+        return new ProductPageKey(listing, categoryId, query, pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort().toString());
+    }
+}
@@ -0,0 +1,12 @@
+package com.datasaz.ecommerce.models.dto;
+
+/**
+ * Units of one product sold over a period (returned items excluded), used to build the best-seller leaderboard.
+ */
+public interface ProductSalesTotal {
+    Long getProductId();
+
+    Long getCategoryId();
+
+    Long getUnits();
+}
@@ -0,0 +1,18 @@
+package com.datasaz.ecommerce.models.dto;
+
+/**
+ * Searchable text of a live product: its own columns plus the optional product_description row.
+ */
+public interface ProductSearchDocument {
+    Long getId();
+
+    String getName();
+
+    String getBrand();
+
+    String getEan();
+
+    String getDescription();
+
+    String getKeywords();
+}
@@ -0,0 +1,16 @@
+package com.datasaz.ecommerce.models.dto;
+
+/**
+ * Name, brand and popularity (units sold, times added to favorites) of a live product, used by the typeahead index.
+ */
+public interface ProductSuggestionDocument {
+    Long getId();
+
+    String getName();
+
+    String getBrand();
+
+    Long getSoldQuantity();
+
+    Long getFavoriteCount();
+}
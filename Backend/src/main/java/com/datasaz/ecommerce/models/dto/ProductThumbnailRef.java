@@ -0,0 +1,23 @@
+package com.datasaz.ecommerce.models.dto;
+
+/**
+ * Blob-free projection of the image content shown on a product card: the thumbnail of an image, or the image itself
+ * while its thumbnail has not been derived yet. {@code fallbackContentType} is the content type recorded on the image.
+ */
+public interface ProductThumbnailRef {
+    Long getProductId();
+
+    Long getImageId();
+
+    String getFileName();
+
+    String getFallbackContentType();
+
+    Long getContentId();
+
+    String getContentType();
+
+    long getSize();
+
+    String getContentHash();
+}
@@ -0,0 +1,10 @@
+package com.datasaz.ecommerce.models.dto;
+
+/**
+ * Current optimistic-lock version of a live product, used to validate cached product entries.
+ */
+public interface ProductVersionRef {
+    Long getId();
+
+    Long getVersion();
+}
@@ -0,0 +1,30 @@
+package com.datasaz.ecommerce.models.dto;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * What stateless authentication needs to know about an account besides its token: whether it may sign in at all,
+ * the roles it currently holds (with the {@code ROLE_} prefix) and when its credentials last changed.
+ */
+public record UserAuthStatus(boolean enabled, Set<String> roles, Instant credentialsChangedAt) {
+
+    public UserAuthStatus {
+        roles = Set.copyOf(roles);
+    }
+
+    /**
+     * Whether a token issued at {@code issuedAt} with these roles still stands. Tokens issued before the last
+     * credential change, or granting a role the account no longer has, do not; a token holding fewer roles than the
+     * account (after a promotion) only grants less and stays valid.
+     */
+    public boolean accepts(Instant issuedAt, Collection<String> tokenRoles) {
+        if (!enabled || !roles.containsAll(tokenRoles)) {
+            return false;
+        }
+        // Token timestamps have second precision
+        return credentialsChangedAt == null
+                || (issuedAt != null && issuedAt.getEpochSecond() >= credentialsChangedAt.getEpochSecond());
+    }
+}
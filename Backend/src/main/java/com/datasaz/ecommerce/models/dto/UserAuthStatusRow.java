@@ -0,0 +1,19 @@
+package com.datasaz.ecommerce.models.dto;
+
+import com.datasaz.ecommerce.repositories.entities.RoleTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the account status query: the user's flags repeated for each of their roles ({@code role} is null for
+ * a user without roles).
+ */
+public interface UserAuthStatusRow {
+    Boolean getActivated();
+
+    Boolean getBlocked();
+
+    LocalDateTime getLastPasswordResetDate();
+
+    RoleTypes getRole();
+}
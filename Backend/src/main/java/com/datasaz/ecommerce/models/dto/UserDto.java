@@ -51,6 +51,7 @@ public class UserDto {
     private Long companyId;
 
     private String profilePictureUrl;
+    private Long imageContentId;
     private String imageContent;
     private String imageContentType;
 
@@ -0,0 +1,34 @@
+package com.datasaz.ecommerce.models.response;
+
+import com.datasaz.ecommerce.utilities.KeysetCursor;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One keyset page of a listing. There is no total count; pass {@code nextCursor} back as {@code cursor} to read
+ * the following page while {@code hasNext} is true.
+ */
+@Data
+@Builder
+public class CursorSliceResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public static <E, T> CursorSliceResponse<T> of(Slice<E> slice, Function<E, KeysetCursor> position, Function<E, T> mapper) {
+        List<E> rows = slice.getContent();
+        String nextCursor = slice.hasNext() && !rows.isEmpty() ? position.apply(rows.get(rows.size() - 1)).encode() : null;
+        return CursorSliceResponse.<T>builder()
+                .content(rows.stream().map(mapper).toList())
+                .size(rows.size())
+                .hasNext(nextCursor != null)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
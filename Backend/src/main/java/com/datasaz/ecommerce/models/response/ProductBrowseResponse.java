@@ -0,0 +1,20 @@
+package com.datasaz.ecommerce.models.response;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+/**
+ * One page of filtered catalog products with the number of matching products per facet value.
+ * Facet keys are {@code category}, {@code brand}, {@code condition}, {@code sellType}, {@code availability} and
+ * {@code price}; the counts of a facet ignore that facet's own selection.
+ */
+@Data
+@Builder
+public class ProductBrowseResponse {
+
+    private Page<ProductSummaryResponse> products;
+    private Map<String, Map<String, Integer>> facets;
+}
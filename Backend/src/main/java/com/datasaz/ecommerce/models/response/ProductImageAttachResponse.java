@@ -1,5 +1,6 @@
 package com.datasaz.ecommerce.models.response;
 
+import com.datasaz.ecommerce.repositories.entities.ImageStatus;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -20,4 +21,5 @@ public class ProductImageAttachResponse {
     private LocalDateTime createdAt;
     private boolean isPrimary;
     private Integer displayOrder;
+    private ImageStatus status;
 }
\ No newline at end of file
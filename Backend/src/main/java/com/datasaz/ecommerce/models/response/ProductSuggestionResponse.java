@@ -0,0 +1,17 @@
+package com.datasaz.ecommerce.models.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One typeahead suggestion. {@code type} is PRODUCT, BRAND or CATEGORY; {@code id} is the product or category ID
+ * (null for brands).
+ */
+@Data
+@Builder
+public class ProductSuggestionResponse {
+
+    private String type;
+    private Long id;
+    private String text;
+}
@@ -0,0 +1,55 @@
+package com.datasaz.ecommerce.models.response;
+
+import com.datasaz.ecommerce.repositories.entities.ProductCondition;
+import com.datasaz.ecommerce.repositories.entities.ProductSellType;
+import com.datasaz.ecommerce.repositories.entities.ProductStatus;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight product card used by the catalog listing endpoints.
+ * Never carries image bytes: clients load images through {@link #imageUrl} / {@link #thumbnailUrl}.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryResponse {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private BigDecimal offerPrice;
+    private int quantity;
+    private String brand;
+    private Long categoryId;
+    private ProductStatus productStatus;
+    private ProductSellType productSellType;
+    private ProductCondition productCondition;
+    private LocalDateTime createdAt;
+    private Long primaryImageId;
+    private String imageUrl;
+    private String thumbnailUrl;
+    private Long version;
+
+    // Used by the JPQL constructor expressions in ProductRepository (see ProductRepository.SUMMARY_SELECT)
+    public ProductSummaryResponse(Long id, String name, BigDecimal price, BigDecimal offerPrice, int quantity,
+                                  String brand, Long categoryId, ProductStatus productStatus,
+                                  ProductSellType productSellType, ProductCondition productCondition,
+                                  LocalDateTime createdAt, Long version) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.offerPrice = offerPrice != null ? offerPrice : price;
+        this.quantity = quantity;
+        this.brand = brand;
+        this.categoryId = categoryId;
+        this.productStatus = productStatus;
+        this.productSellType = productSellType;
+        this.productCondition = productCondition;
+        this.createdAt = createdAt;
+        this.version = version;
+    }
+}
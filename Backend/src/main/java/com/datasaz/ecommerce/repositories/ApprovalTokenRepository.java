@@ -1,12 +1,17 @@
 package com.datasaz.ecommerce.repositories;
 
 import com.datasaz.ecommerce.repositories.entities.ApprovalToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,9 +19,13 @@ public interface ApprovalTokenRepository extends JpaRepository<ApprovalToken, Lo
     Optional<ApprovalToken> findByToken(String token);
     //void deleteByUserEmail(String userEmail);
 
+    @Query("SELECT rt.id FROM ApprovalToken rt WHERE rt.revoked = true OR rt.expiryDate < :currentTime ORDER BY rt.id")
+    List<Long> findExpiredOrRevokedIds(@Param("currentTime") LocalDateTime currentTime, Pageable pageable);
+
+    @Transactional
     @Modifying
-    @Query("DELETE FROM ApprovalToken rt WHERE rt.revoked = true OR rt.expiryDate < :currentTime")
-    void deleteExpiredOrRevokedTokens(LocalDateTime currentTime);
+    @Query("DELETE FROM ApprovalToken rt WHERE rt.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 
     Optional<ApprovalToken> findByTokenAndRevokedFalse(String token);
 }
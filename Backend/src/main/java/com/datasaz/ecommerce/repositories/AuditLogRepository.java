@@ -3,6 +3,7 @@ package com.datasaz.ecommerce.repositories;
 import com.datasaz.ecommerce.repositories.entities.AuditLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -29,4 +30,28 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate,
             Pageable pageable);
+
+    // Keyset variant of findByFilters, newest first; a null cursor timestamp reads the first slice
+    @Query("SELECT a FROM AuditLog a WHERE " +
+            "(:userEmail IS NULL OR a.userEmail = :userEmail) AND " +
+            "(:roleName IS NULL OR a.roleName = :roleName) AND " +
+            "(:action IS NULL OR a.action = :action) AND " +
+            "(:details IS NULL OR a.details = :details) AND " +
+            "(:performedBy IS NULL OR a.performedBy = :performedBy) AND " +
+            "(:startDate IS NULL OR a.timestamp >= :startDate) AND " +
+            "(:endDate IS NULL OR a.timestamp <= :endDate) AND " +
+            "(:cursorTimestamp IS NULL OR a.timestamp < :cursorTimestamp " +
+            "OR (a.timestamp = :cursorTimestamp AND a.id < :cursorId)) " +
+            "ORDER BY a.timestamp DESC, a.id DESC")
+    Slice<AuditLog> findByFiltersBefore(
+            @Param("userEmail") String userEmail,
+            @Param("roleName") String roleName,
+            @Param("action") String action,
+            @Param("details") String details,
+            @Param("performedBy") String performedBy,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 }
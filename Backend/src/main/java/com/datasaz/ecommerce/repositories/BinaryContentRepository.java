@@ -0,0 +1,20 @@
+package com.datasaz.ecommerce.repositories;
+
+import com.datasaz.ecommerce.models.dto.BinaryContentMetadata;
+import com.datasaz.ecommerce.repositories.entities.BinaryContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BinaryContentRepository extends JpaRepository<BinaryContent, Long> {
+
+    @Query("SELECT b.id AS id, b.contentType AS contentType, b.size AS size, b.contentHash AS contentHash " +
+            "FROM BinaryContent b WHERE b.id = :id")
+    Optional<BinaryContentMetadata> findMetadataById(@Param("id") Long id);
+
+    boolean existsByContentHash(String contentHash);
+}
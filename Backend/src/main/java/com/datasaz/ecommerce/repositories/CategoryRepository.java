@@ -1,5 +1,7 @@
 package com.datasaz.ecommerce.repositories;
 
+import com.datasaz.ecommerce.models.dto.CategorySuggestionDocument;
+import com.datasaz.ecommerce.models.dto.CategoryTreeRow;
 import com.datasaz.ecommerce.repositories.entities.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -58,4 +60,13 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     @Query("SELECT c FROM Category c WHERE c.subcategories IS EMPTY")
     List<Category> findBySubcategoriesIsEmpty();
+
+    @Query("SELECT c.id AS id, c.name AS name, " +
+            "(SELECT COUNT(p) FROM Product p WHERE p.category = c AND p.deleted = false) AS productCount FROM Category c")
+    List<CategorySuggestionDocument> findAllSuggestionDocuments();
+
+    @Query("SELECT c.id AS id, c.name AS name, c.description AS description, c.imageUrl AS imageUrl, " +
+            "c.imageContentId AS imageContentId, c.imageContentType AS imageContentType, c.createdAt AS createdAt, " +
+            "p.id AS parentId FROM Category c LEFT JOIN c.parent p")
+    List<CategoryTreeRow> findAllTreeRows();
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.datasaz.ecommerce.repositories;
+
+import com.datasaz.ecommerce.repositories.entities.ImageBlob;
+import com.datasaz.ecommerce.repositories.entities.ImageStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, Long> {
+
+    // Locks the blob until the uploading transaction commits, so its processing cannot complete in between
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ImageBlob> findFirstByContentHashAndStorageModeOrderByIdAsc(String contentHash, String storageMode);
+
+    List<ImageBlob> findByStatus(ImageStatus status);
+
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1, " +
+            "b.releasedAt = CASE WHEN b.refCount <= 1 THEN :now ELSE b.releasedAt END " +
+            "WHERE b.id = :id AND b.refCount > 0")
+    int release(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.fileContentId = :fileContentId, b.thumbnailContentId = :thumbnailContentId, " +
+            "b.fileSize = :fileSize, b.status = :status WHERE b.id = :id AND b.status = :expected")
+    int updateProcessed(@Param("id") Long id, @Param("fileContentId") Long fileContentId,
+                        @Param("thumbnailContentId") Long thumbnailContentId, @Param("fileSize") long fileSize,
+                        @Param("expected") ImageStatus expected, @Param("status") ImageStatus status);
+
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.status = :status WHERE b.id = :id AND b.status = :expected")
+    int updateStatus(@Param("id") Long id, @Param("expected") ImageStatus expected, @Param("status") ImageStatus status);
+
+    @Query("SELECT b FROM ImageBlob b WHERE b.refCount <= 0 AND b.releasedAt < :releasedBefore AND b.id > :afterId ORDER BY b.id")
+    List<ImageBlob> findUnreferenced(@Param("releasedBefore") LocalDateTime releasedBefore, @Param("afterId") long afterId,
+                                     Pageable pageable);
+
+    // Re-checks the image tables, so a miscounted blob that is still in use is never removed
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.id = :id AND b.refCount <= 0 " +
+            "AND NOT EXISTS (SELECT 1 FROM ProductImageAttach a WHERE a.blobId = :id) " +
+            "AND NOT EXISTS (SELECT 1 FROM ProductImage i WHERE i.blobId = :id)")
+    int deleteIfUnreferenced(@Param("id") Long id);
+}
@@ -1,17 +1,29 @@
 package com.datasaz.ecommerce.repositories;
 
+import com.datasaz.ecommerce.models.dto.ProductSalesTotal;
 import com.datasaz.ecommerce.repositories.entities.OrderItem;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    // Units sold per product; items of completed returns are refunded and no longer count as sold
+    String SALES_TOTAL_SELECT = "SELECT p.id AS productId, p.category.id AS categoryId, SUM(oi.quantity) AS units " +
+            "FROM OrderItem oi JOIN oi.product p JOIN oi.order o " +
+            "WHERE p.deleted = false AND oi.id <= :maxItemId " +
+            "AND NOT EXISTS (SELECT r.id FROM ReturnRequest r JOIN r.items ri WHERE ri.id = oi.id " +
+            "AND r.status = com.datasaz.ecommerce.repositories.entities.ReturnStatus.COMPLETED) ";
+
     // Optimistic locking (default with @Version)
     Optional<OrderItem> findById(Long id);
 
@@ -25,4 +37,20 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     // Find items by order
     List<OrderItem> findByOrderId(Long orderId);
 
+    @Query("SELECT COALESCE(MAX(oi.id), 0) FROM OrderItem oi")
+    Long findMaxId();
+
+    @Query(SALES_TOTAL_SELECT + "GROUP BY p.id, p.category.id")
+    List<ProductSalesTotal> findSalesTotals(@Param("maxItemId") Long maxItemId);
+
+    @Query(SALES_TOTAL_SELECT + "AND o.orderDateTime >= :since GROUP BY p.id, p.category.id")
+    List<ProductSalesTotal> findSalesTotalsSince(@Param("maxItemId") Long maxItemId, @Param("since") LocalDateTime since);
+
+    @Query("SELECT oi.id FROM OrderItem oi WHERE oi.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT ri.id FROM ReturnRequest r JOIN r.items ri WHERE ri.id IN :itemIds " +
+            "AND r.status = com.datasaz.ecommerce.repositories.entities.ReturnStatus.COMPLETED")
+    List<Long> findReturnedItemIds(@Param("itemIds") Collection<Long> itemIds);
+
 }
\ No newline at end of file
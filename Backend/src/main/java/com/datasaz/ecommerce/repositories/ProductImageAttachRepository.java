@@ -1,10 +1,17 @@
 package com.datasaz.ecommerce.repositories;
 
+import com.datasaz.ecommerce.models.dto.ProductImageRef;
+import com.datasaz.ecommerce.models.dto.ProductThumbnailRef;
+import com.datasaz.ecommerce.repositories.entities.ImageStatus;
 import com.datasaz.ecommerce.repositories.entities.ProductImageAttach;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +22,37 @@ public interface ProductImageAttachRepository extends JpaRepository<ProductImage
     Optional<ProductImageAttach> findByProductIdAndIsPrimaryTrue(Long productId);
 
     List<ProductImageAttach> findByProductIsNullAndCreatedAtBefore(LocalDateTime threshold);
+
+    // Metadata only: primary image first, then display order, so the first row per product is its cover image
+    @Query("SELECT pia.product.id AS productId, pia.id AS imageId, " +
+            "fc.contentHash AS version, tc.contentHash AS thumbnailVersion FROM ProductImageAttach pia " +
+            "LEFT JOIN BinaryContent fc ON fc.id = pia.fileContentId " +
+            "LEFT JOIN BinaryContent tc ON tc.id = pia.thumbnailContentId " +
+            "WHERE pia.product.id IN :productIds " +
+            "ORDER BY pia.isPrimary DESC, pia.displayOrder ASC, pia.id ASC")
+    List<ProductImageRef> findImageRefsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // Same ordering as above; the content joined is the thumbnail, or the full image until the thumbnail exists
+    @Query("SELECT pia.product.id AS productId, pia.id AS imageId, pia.fileName AS fileName, " +
+            "pia.contentType AS fallbackContentType, c.id AS contentId, c.contentType AS contentType, " +
+            "c.size AS size, c.contentHash AS contentHash FROM ProductImageAttach pia " +
+            "JOIN BinaryContent c ON c.id = COALESCE(pia.thumbnailContentId, pia.fileContentId) " +
+            "WHERE pia.product.id IN :productIds " +
+            "ORDER BY pia.isPrimary DESC, pia.displayOrder ASC, pia.id ASC")
+    List<ProductThumbnailRef> findThumbnailRefsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT DISTINCT pia.product.id FROM ProductImageAttach pia WHERE pia.blobId = :blobId")
+    List<Long> findProductIdsByBlobId(@Param("blobId") Long blobId);
+
+    // Completion of background processing for every image sharing the blob; images no longer pending are left alone
+    @Modifying
+    @Query("UPDATE ProductImageAttach pia SET pia.fileContentId = :fileContentId, pia.thumbnailContentId = :thumbnailContentId, " +
+            "pia.fileSize = :fileSize, pia.status = :status WHERE pia.blobId = :blobId AND pia.status = :expected")
+    int updateProcessedByBlobId(@Param("blobId") Long blobId, @Param("fileContentId") Long fileContentId,
+                                @Param("thumbnailContentId") Long thumbnailContentId, @Param("fileSize") long fileSize,
+                                @Param("expected") ImageStatus expected, @Param("status") ImageStatus status);
+
+    @Modifying
+    @Query("UPDATE ProductImageAttach pia SET pia.status = :status WHERE pia.blobId = :blobId AND pia.status = :expected")
+    int updateStatusByBlobId(@Param("blobId") Long blobId, @Param("expected") ImageStatus expected, @Param("status") ImageStatus status);
 }
\ No newline at end of file
@@ -1,12 +1,16 @@
 package com.datasaz.ecommerce.repositories;
 
+import com.datasaz.ecommerce.models.dto.ProductImageRef;
+import com.datasaz.ecommerce.repositories.entities.ImageStatus;
 import com.datasaz.ecommerce.repositories.entities.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +26,24 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
 
     ProductImage findByFileName(String fileName);
 
+    @Query("SELECT pi.product.id AS productId, pi.id AS imageId, pi.fileUrl AS fileUrl FROM ProductImage pi " +
+            "WHERE pi.product.id IN :productIds " +
+            "ORDER BY pi.isPrimary DESC, pi.displayOrder ASC, pi.id ASC")
+    List<ProductImageRef> findImageRefsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT DISTINCT pi.product.id FROM ProductImage pi WHERE pi.blobId = :blobId")
+    List<Long> findProductIdsByBlobId(@Param("blobId") Long blobId);
+
+    // Completion of background processing for every image sharing the blob's file
+    @Modifying
+    @Query("UPDATE ProductImage pi SET pi.fileSize = :fileSize, pi.status = :status WHERE pi.blobId = :blobId AND pi.status = :expected")
+    int updateProcessedByBlobId(@Param("blobId") Long blobId, @Param("fileSize") long fileSize,
+                                @Param("expected") ImageStatus expected, @Param("status") ImageStatus status);
+
+    @Modifying
+    @Query("UPDATE ProductImage pi SET pi.status = :status WHERE pi.blobId = :blobId AND pi.status = :expected")
+    int updateStatusByBlobId(@Param("blobId") Long blobId, @Param("expected") ImageStatus expected, @Param("status") ImageStatus status);
+
     //TODO: verify if this is needed -> ProductFileAttach is moved to ProductImage
     @Modifying
     @Query("DELETE FROM ProductImage img WHERE img.createdAt < :thresholdDate")
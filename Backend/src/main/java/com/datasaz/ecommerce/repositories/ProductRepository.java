@@ -1,10 +1,16 @@
 package com.datasaz.ecommerce.repositories;
 
+import com.datasaz.ecommerce.models.dto.ProductFacetDocument;
+import com.datasaz.ecommerce.models.dto.ProductSearchDocument;
+import com.datasaz.ecommerce.models.dto.ProductSuggestionDocument;
+import com.datasaz.ecommerce.models.dto.ProductVersionRef;
+import com.datasaz.ecommerce.models.response.ProductSummaryResponse;
 import com.datasaz.ecommerce.repositories.entities.Company;
 import com.datasaz.ecommerce.repositories.entities.Product;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
@@ -12,14 +18,96 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.imageAttaches WHERE p.deleted = false")
-    Page<Product> findAllWithImageAttaches(Pageable pageable);
+    // Summary projections: only scalar product columns, never image blobs or eager associations
+    String SUMMARY_SELECT = "SELECT new com.datasaz.ecommerce.models.response.ProductSummaryResponse(" +
+            "p.id, p.name, p.price, p.offerPrice, p.quantity, p.brand, p.category.id, " +
+            "p.productStatus, p.productSellType, p.productCondition, p.createdAt, p.version) ";
+
+    @Query(value = SUMMARY_SELECT + "FROM Product p WHERE p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.deleted = false")
+    Page<ProductSummaryResponse> findAllSummaries(Pageable pageable);
+
+    // Keyset page of the catalog, newest first: seeks past the last id of the previous slice instead of an offset
+    @Query(SUMMARY_SELECT + "FROM Product p WHERE p.deleted = false AND p.id < :beforeId ORDER BY p.id DESC")
+    Slice<ProductSummaryResponse> findSummariesBefore(@Param("beforeId") Long beforeId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) AND p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) AND p.deleted = false")
+    Page<ProductSummaryResponse> findSummariesByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "FROM Product p WHERE p.category.id = :categoryId AND p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId AND p.deleted = false")
+    Page<ProductSummaryResponse> findSummariesByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "FROM Product p WHERE p.category.id IN :categoryIds AND p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id IN :categoryIds AND p.deleted = false")
+    Page<ProductSummaryResponse> findSummariesByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "FROM Product p WHERE p.offerPrice < p.price AND p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.offerPrice < p.price AND p.deleted = false")
+    Page<ProductSummaryResponse> findSummariesByOfferPriceLessThanPrice(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "FROM Product p WHERE p.category.id = :catId AND p.id != :excludeId AND p.deleted = false",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id = :catId AND p.id != :excludeId AND p.deleted = false")
+    Page<ProductSummaryResponse> findRelatedSummaries(@Param("catId") Long catId, @Param("excludeId") Long excludeId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "FROM OrderItem oi JOIN oi.product p WHERE p.deleted = false " +
+            "GROUP BY p.id, p.name, p.price, p.offerPrice, p.quantity, p.brand, p.category.id, " +
+            "p.productStatus, p.productSellType, p.productCondition, p.createdAt, p.version " +
+            "ORDER BY SUM(oi.quantity) DESC",
+            countQuery = "SELECT COUNT(DISTINCT oi.product.id) FROM OrderItem oi WHERE oi.product.deleted = false")
+    Page<ProductSummaryResponse> findSummariesSortedBySoldQuantity(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "FROM Product p WHERE p.id IN :ids AND p.deleted = false")
+    List<ProductSummaryResponse> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Version check used by the product cache: a primary key lookup instead of loading the entity graph
+    @Query("SELECT p.id AS id, p.version AS version FROM Product p WHERE p.id IN :ids AND p.deleted = false")
+    List<ProductVersionRef> findVersionRefsByIds(@Param("ids") Collection<Long> ids);
+
+    String SEARCH_DOCUMENT_SELECT = "SELECT p.id AS id, p.name AS name, p.brand AS brand, p.EAN AS ean, " +
+            "d.description AS description, d.productMetaKeywords AS keywords " +
+            "FROM Product p LEFT JOIN ProductDescription d ON d.product = p ";
+
+    // Keyset chunks for building the search index: each call resumes after the last indexed ID
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE p.deleted = false AND p.id > :afterId ORDER BY p.id")
+    List<ProductSearchDocument> findSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE p.id = :id AND p.deleted = false")
+    Optional<ProductSearchDocument> findSearchDocumentById(@Param("id") Long id);
+
+    String FACET_DOCUMENT_SELECT = "SELECT p.id AS id, p.category.id AS categoryId, p.brand AS brand, " +
+            "p.productCondition AS productCondition, p.productSellType AS productSellType, p.quantity AS quantity, " +
+            "p.price AS price, p.offerPrice AS offerPrice FROM Product p ";
+
+    // Keyset chunks for building the facet index
+    @Query(FACET_DOCUMENT_SELECT + "WHERE p.deleted = false AND p.id > :afterId ORDER BY p.id")
+    List<ProductFacetDocument> findFacetDocumentsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query(FACET_DOCUMENT_SELECT + "WHERE p.id = :id AND p.deleted = false")
+    Optional<ProductFacetDocument> findFacetDocumentById(@Param("id") Long id);
+
+    String SUGGESTION_DOCUMENT_SELECT = "SELECT p.id AS id, p.name AS name, p.brand AS brand, " +
+            "(SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.product = p) AS soldQuantity, " +
+            "(SELECT COUNT(u) FROM User u JOIN u.favoriteProducts f WHERE f = p) AS favoriteCount " +
+            "FROM Product p ";
+
+    // Keyset chunks for building the typeahead index
+    @Query(SUGGESTION_DOCUMENT_SELECT + "WHERE p.deleted = false AND p.id > :afterId ORDER BY p.id")
+    List<ProductSuggestionDocument> findSuggestionDocumentsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query(SUGGESTION_DOCUMENT_SELECT + "WHERE p.id = :id AND p.deleted = false")
+    Optional<ProductSuggestionDocument> findSuggestionDocumentById(@Param("id") Long id);
+
+    @Query("SELECT p.category.id FROM Product p WHERE p.id = :id AND p.deleted = false")
+    Optional<Long> findCategoryIdByIdAndDeletedFalse(@Param("id") Long id);
 
     //Page<Product> findByCompanyIdAndDeletedFalse(Long companyId, Pageable pageable);
 
@@ -43,6 +131,18 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "WHERE p.author.id = :authorId AND p.company IS NULL AND p.deleted = false")
     Page<Product> findByAuthorIdAndDeletedFalse(@Param("authorId") Long authorId, Pageable pageable);
 
+    @Query("SELECT p FROM Product p " +
+            "LEFT JOIN FETCH p.author " +
+            "LEFT JOIN FETCH p.company " +
+            "WHERE p.company.id = :companyId AND p.deleted = false AND p.id < :beforeId ORDER BY p.id DESC")
+    Slice<Product> findByCompanyIdAndDeletedFalseBefore(@Param("companyId") Long companyId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    @Query("SELECT p FROM Product p " +
+            "LEFT JOIN FETCH p.author " +
+            "LEFT JOIN FETCH p.company " +
+            "WHERE p.author.id = :authorId AND p.company IS NULL AND p.deleted = false AND p.id < :beforeId ORDER BY p.id DESC")
+    Slice<Product> findByAuthorIdAndDeletedFalseBefore(@Param("authorId") Long authorId, @Param("beforeId") Long beforeId, Pageable pageable);
+
 //    @Query("SELECT p FROM Product p WHERE " +
 //            "p.author.emailAddress = :authorEmailAddress AND" +
 //            " p.company IS NULL AND p.deleted = false")
@@ -122,12 +222,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 //            "and p.deleted = false and p.author.id = :authorId")
 //    Page<Product> findByNameContainingIgnoreCaseAuthorIdDeletedFalse(@Param("name") String name, @Param("authorId") Long authorId, Pageable pageable);
 
-    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.imageAttaches WHERE lower(p.name) LIKE lower(concat('%', :name, '%')) AND p.deleted = false")
-    Page<Product> findByNameContainingIgnoreCaseAndDeletedFalse(String name, Pageable pageable);
-
-    @Query("SELECT p FROM Product p, OrderItem oi WHERE p.id = oi.product.id and p.deleted = false ORDER BY COUNT(oi.quantity) DESC")
-    Page<Product> findAllSortedByProductSoldQuantity(Pageable pageable);
-
     @Modifying
     @Query("UPDATE Product p SET p.company = :company WHERE p.author.id = :authorId AND p.company IS NULL AND p.deleted = false")
     void updateCompanyForAuthorProducts(Long authorId, Company company);
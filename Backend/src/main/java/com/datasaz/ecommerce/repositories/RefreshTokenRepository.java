@@ -1,20 +1,45 @@
 package com.datasaz.ecommerce.repositories;
 
 import com.datasaz.ecommerce.repositories.entities.RefreshToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
-    void deleteByUserEmail(String userEmail);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
 
+    // Single-row compare-and-set: of two requests rotating the same token, exactly one gets 1
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.revoked = true OR rt.expiryDate < :currentTime")
-    void deleteExpiredOrRevokedTokens(LocalDateTime currentTime);
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true " +
+            "WHERE rt.tokenHash = :tokenHash AND rt.revoked = false AND rt.expiryDate > :currentTime")
+    int revokeIfActive(@Param("tokenHash") String tokenHash, @Param("currentTime") LocalDateTime currentTime);
+
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true " +
+            "WHERE rt.tokenHash = :tokenHash AND rt.userEmail = :userEmail AND rt.revoked = false")
+    int revokeByTokenHashAndUserEmail(@Param("tokenHash") String tokenHash, @Param("userEmail") String userEmail);
+
+    // Ends every session of the user; the rows stay until they expire, so a revoked token coming back is still
+    // recognised as reuse
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.userEmail = :userEmail AND rt.revoked = false")
+    int revokeAllByUserEmail(@Param("userEmail") String userEmail);
+
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.expiryDate < :currentTime ORDER BY rt.expiryDate")
+    List<Long> findExpiredIds(@Param("currentTime") LocalDateTime currentTime, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
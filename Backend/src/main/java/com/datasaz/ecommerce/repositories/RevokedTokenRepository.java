@@ -0,0 +1,31 @@
+package com.datasaz.ecommerce.repositories;
+
+import com.datasaz.ecommerce.repositories.entities.RevokedToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    boolean existsByTokenHash(String tokenHash);
+
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime currentTime);
+
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime since, LocalDateTime currentTime);
+
+    @Query("SELECT rt.id FROM RevokedToken rt WHERE rt.expiresAt < :currentTime ORDER BY rt.expiresAt")
+    List<Long> findExpiredIds(@Param("currentTime") LocalDateTime currentTime, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken rt WHERE rt.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
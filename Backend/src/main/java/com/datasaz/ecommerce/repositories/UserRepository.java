@@ -1,10 +1,13 @@
 package com.datasaz.ecommerce.repositories;
 
+import com.datasaz.ecommerce.models.dto.UserAuthStatusRow;
 import com.datasaz.ecommerce.repositories.entities.Product;
 import com.datasaz.ecommerce.repositories.entities.Roles;
 import com.datasaz.ecommerce.repositories.entities.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,11 +21,27 @@ import java.util.Set;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmailAddress(String emailAddress);
 
+    // Fetch plans for the authenticated user; roles and company are lazy in the mapping, so each plan loads only
+    // what its graph names
+    @EntityGraph(value = User.GRAPH_ROLES, type = EntityGraph.EntityGraphType.LOAD)
+    Optional<User> findWithRolesByEmailAddressAndDeletedFalse(String emailAddress);
+
+    @EntityGraph(value = User.GRAPH_WITH_COMPANY, type = EntityGraph.EntityGraphType.LOAD)
+    Optional<User> findWithCompanyByEmailAddressAndDeletedFalse(String emailAddress);
+
+    @EntityGraph(value = User.GRAPH_WITH_FAVORITES, type = EntityGraph.EntityGraphType.LOAD)
+    Optional<User> findWithFavoritesByEmailAddressAndDeletedFalse(String emailAddress);
+
     //@Query("SELECT u FROM User u LEFT JOIN FETCH u.userRoles LEFT JOIN FETCH u.following WHERE u.emailAddress = :emailAddress AND u.deleted = false")
     //@Query("SELECT u FROM User u LEFT JOIN FETCH u.userRoles LEFT JOIN FETCH u.following LEFT JOIN FETCH u.favoriteProducts WHERE u.emailAddress = :emailAddress AND u.deleted = false")
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.userRoles WHERE u.emailAddress = :emailAddress AND u.deleted = false")
     Optional<User> findByEmailAddressAndDeletedFalse(@Param("emailAddress") String emailAddress);
 
+    // Scalars only, so none of the eager associations (company, privacy settings) are loaded; one row per role
+    @Query("SELECT u.isActivated AS activated, u.isBlocked AS blocked, u.lastPasswordResetDate AS lastPasswordResetDate, " +
+            "r.role AS role FROM User u LEFT JOIN u.userRoles r WHERE u.emailAddress = :emailAddress AND u.deleted = false")
+    List<UserAuthStatusRow> findAuthStatusRowsByEmailAddress(@Param("emailAddress") String emailAddress);
+
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.userRoles LEFT JOIN FETCH u.following WHERE u.emailAddress = :emailAddress AND u.deleted = false")
     Optional<User> findByEmailAddressAndDeletedFalseWithFollowing(@Param("emailAddress") String emailAddress);
 
@@ -47,6 +66,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT f FROM User u JOIN u.followers f WHERE u.id = :userId AND u.deleted = false")
     Page<User> findFollowersByUserId(Long userId, Pageable pageable);
 
+    @Query("SELECT f FROM User u JOIN u.followers f WHERE u.id = :userId AND u.deleted = false AND f.id < :beforeId ORDER BY f.id DESC")
+    Slice<User> findFollowersByUserIdBefore(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Pageable pageable);
+
     @Query("SELECT f FROM User u JOIN u.following f WHERE u.id = :userId AND u.deleted = false")
     Page<User> findFollowingByUserId(Long userId, Pageable pageable);
 
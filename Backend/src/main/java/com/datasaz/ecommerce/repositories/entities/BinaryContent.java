@@ -0,0 +1,43 @@
+package com.datasaz.ecommerce.repositories.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Raw image payload kept apart from the rows that describe it.
+ * Owners (product image attaches, categories, users) only hold the id, so listing and lookup
+ * queries on the owner tables never touch blob pages.
+ */
+@Table(name = "binary_content", indexes = @Index(name = "idx_binary_content_hash", columnList = "contentHash"))
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BinaryContent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] data;
+
+    @Column(length = 100)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long size;
+
+    // SHA-256 of data, hex encoded; drives ETags and versioned image URLs
+    @Column(length = 64)
+    private String contentHash;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -29,8 +29,9 @@ public class Category {
 
     private String imageUrl;
 
-    @Column(columnDefinition = "MEDIUMBLOB")
-    private byte[] imageContent;
+    // Payload lives in binary_content
+    @Column(name = "image_content_id")
+    private Long imageContentId;
 
     @Column
     private String imageContentType;
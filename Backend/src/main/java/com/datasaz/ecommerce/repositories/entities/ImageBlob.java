@@ -0,0 +1,74 @@
+package com.datasaz.ecommerce.repositories.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored product image, shared by every product image row uploaded with the same bytes.
+ * <p>
+ * Keyed by the SHA-256 of the uploaded file, unique per storage mode: a repeated upload references the existing blob
+ * instead of storing and resizing another copy. Rows hold a count of the product images referencing them; a blob
+ * whose count dropped to zero is removed, with its content, by the image garbage collection.
+ */
+@Table(name = "image_blob", indexes = {
+        @Index(name = "uk_image_blob_hash", columnList = "contentHash, storageMode", unique = true),
+        @Index(name = "idx_image_blob_released", columnList = "refCount, releasedAt")
+})
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the uploaded bytes, hex encoded
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    // "database" or "file"; a blob is only reused in the storage mode it was stored with
+    @Column(nullable = false, length = 16)
+    private String storageMode;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Column(nullable = false)
+    private String fileExtension;
+
+    @Column(nullable = false)
+    private long fileSize;
+
+    // Database mode: the stored image (the original until processed) and its thumbnail in binary_content
+    @Column(name = "file_content_id")
+    private Long fileContentId;
+
+    @Column(name = "thumbnail_content_id")
+    private Long thumbnailContentId;
+
+    // File mode: name of the file under the products upload directory
+    @Column
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImageStatus status;
+
+    @Column(nullable = false)
+    private int refCount;
+
+    // When the last reference was released; collection waits a grace period after it
+    @Column
+    private LocalDateTime releasedAt;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
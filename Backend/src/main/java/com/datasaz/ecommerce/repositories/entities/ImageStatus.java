@@ -0,0 +1,7 @@
+package com.datasaz.ecommerce.repositories.entities;
+
+public enum ImageStatus {
+    PENDING,
+    READY,
+    FAILED
+}
@@ -45,6 +45,15 @@ public class ProductImage {
     @Column
     private Integer displayOrder;
 
+    // Renditions are derived in the background after upload; null for images stored before that (always ready)
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ImageStatus status;
+
+    // The ImageBlob owning the file, which may be shared with other images; null for legacy per-image files
+    @Column(name = "blob_id")
+    private Long blobId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
@@ -35,11 +35,16 @@ public class ProductImageAttach {
     @Column(nullable = false)
     private String contentType;
 
-    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
-    private byte[] fileContent;
+    // Payloads live in binary_content; only the references are read with the image metadata
+    @Column(name = "file_content_id")
+    private Long fileContentId;
 
-    @Column(columnDefinition = "MEDIUMBLOB")
-    private byte[] thumbnailContent;
+    @Column(name = "thumbnail_content_id")
+    private Long thumbnailContentId;
+
+    // The ImageBlob the content references above come from; null for images stored before blobs were shared
+    @Column(name = "blob_id")
+    private Long blobId;
 
     @CreatedDate
     @Column(nullable = false, updatable = false)
@@ -50,4 +55,9 @@ public class ProductImageAttach {
 
     @Column
     private Integer displayOrder;
+
+    // Renditions are derived in the background after upload; null for images stored before that (always ready)
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ImageStatus status;
 }
\ No newline at end of file
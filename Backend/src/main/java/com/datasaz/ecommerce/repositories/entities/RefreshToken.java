@@ -9,7 +9,11 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        // Covers revoking a user's tokens and listing their live ones without touching the table
+        @Index(name = "idx_refresh_tokens_user_expiry", columnList = "user_email, expiry_date, is_revoked"),
+        @Index(name = "idx_refresh_tokens_expiry", columnList = "expiry_date")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -22,8 +26,9 @@ public class RefreshToken {
     @Column(name = "user_email", nullable = false)
     private String userEmail;
 
-    @Column(name = "token", nullable = false, unique = true)
-    private String token;
+    // SHA-256 of the token (JwtUtil.tokenHash); the token itself is never stored
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
 
     @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
@@ -20,8 +20,27 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "users")
+// Fetch plans for loading the authenticated user, see UserFetchPlan
+@NamedEntityGraph(name = User.GRAPH_ROLES, attributeNodes = {
+        @NamedAttributeNode("userRoles"),
+        @NamedAttributeNode("privacySettings")
+})
+@NamedEntityGraph(name = User.GRAPH_WITH_COMPANY, attributeNodes = {
+        @NamedAttributeNode("userRoles"),
+        @NamedAttributeNode("privacySettings"),
+        @NamedAttributeNode("company")
+})
+@NamedEntityGraph(name = User.GRAPH_WITH_FAVORITES, attributeNodes = {
+        @NamedAttributeNode("userRoles"),
+        @NamedAttributeNode("privacySettings"),
+        @NamedAttributeNode("favoriteProducts")
+})
 public class User implements Serializable {
 
+    public static final String GRAPH_ROLES = "User.roles";
+    public static final String GRAPH_WITH_COMPANY = "User.withCompany";
+    public static final String GRAPH_WITH_FAVORITES = "User.withFavorites";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -67,8 +86,9 @@ public class User implements Serializable {
     @Column
     private String profilePictureUrl;
 
-    @Column(columnDefinition = "MEDIUMBLOB")
-    private byte[] imageContent;
+    // Payload lives in binary_content
+    @Column(name = "image_content_id")
+    private Long imageContentId;
 
     @Column(length = 100)
     private String imageContentType;
@@ -102,7 +122,7 @@ public class User implements Serializable {
     @JsonIgnore
     private Set<User> followers;// = new HashSet<>();
 
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.EAGER)
+    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -110,13 +130,15 @@ public class User implements Serializable {
     )
     private Set<Roles> userRoles;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "FK_COMPANY_ID")
     private Company company;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<UserCustomFields> customFields;// = new HashSet<>();
 
+    // Loaded with the user whatever the fetch type: without bytecode enhancement Hibernate cannot proxy the inverse
+    // side of a one-to-one, so the fetch plans join it instead of paying a second select
     @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @JsonManagedReference
     private UserPrivacySettings privacySettings;
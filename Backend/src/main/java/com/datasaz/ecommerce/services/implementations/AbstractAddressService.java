@@ -7,10 +7,10 @@ import com.datasaz.ecommerce.models.response.AddressResponse;
 import com.datasaz.ecommerce.repositories.AddressRepository;
 import com.datasaz.ecommerce.repositories.entities.Address;
 import com.datasaz.ecommerce.repositories.entities.AddressType;
+import com.datasaz.ecommerce.utilities.PageRequests;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
@@ -238,7 +238,7 @@ public abstract class AbstractAddressService<T> {
 
         // Sort by default flag (descending) then by ID
         Sort sort = Sort.by(Sort.Order.desc("isDefault"), Sort.Order.asc("id"));
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = PageRequests.of(page, size, sort);
 
         Page<Address> addressPage = findAddressesByParentId(parentId, pageable);
 
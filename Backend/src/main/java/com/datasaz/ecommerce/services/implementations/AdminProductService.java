@@ -1,5 +1,6 @@
 package com.datasaz.ecommerce.services.implementations;
 
+import com.datasaz.ecommerce.configs.GroupConfig;
 import com.datasaz.ecommerce.exceptions.ProductNotFoundException;
 import com.datasaz.ecommerce.exceptions.UnauthorizedException;
 import com.datasaz.ecommerce.exceptions.UserNotFoundException;
@@ -11,20 +12,21 @@ import com.datasaz.ecommerce.repositories.entities.Product;
 import com.datasaz.ecommerce.repositories.entities.RoleTypes;
 import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.services.interfaces.IAdminProductService;
+import com.datasaz.ecommerce.services.interfaces.IProductCacheService;
+import com.datasaz.ecommerce.services.interfaces.IProductFacetService;
+import com.datasaz.ecommerce.services.interfaces.IProductSearchService;
+import com.datasaz.ecommerce.services.interfaces.IProductSuggestionService;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.Tika;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -40,10 +42,14 @@ public class AdminProductService implements IAdminProductService {
     private final UserRepository userRepository;
     private final ProductMapper productMapper;
     private final AuditLogService auditLogService;
-    //private final ProductImageService productImageService;
+    private final IProductCacheService productCacheService;
+    private final IProductSearchService productSearchService;
+    private final IProductFacetService productFacetService;
+    private final IProductSuggestionService productSuggestionService;
+    private final ProductImageService productImageService;
     //private final AuditLogRepository auditLogRepository;
     //private final CompanyAdminRightsRepository companyAdminRightsRepository;
-    // private final GroupConfig groupConfig;
+    private final GroupConfig groupConfig;
     private final Tika tika = new Tika();
     //private final NegativeOrZeroValidatorForInteger negativeOrZeroValidatorForInteger;
 
@@ -120,7 +126,6 @@ public class AdminProductService implements IAdminProductService {
     @Override
     @Transactional
     @RateLimiter(name = "manageProduct", fallbackMethod = "fallbackDeleteProductByAdmin")
-    @CacheEvict(value = {"products", "productsByCategory", "allProducts"}, allEntries = true)
     public void deleteProductByAdmin(Long productId, String email) {
         log.info("deleteProduct: Deleting product {} by user {}", productId, email);
 
@@ -144,9 +149,17 @@ public class AdminProductService implements IAdminProductService {
 //            throw UnauthorizedException.builder().message("User is not authorized to delete this product").build();
 //        }
 
-        product.getImages().forEach(img -> deleteImageFile(img.getFileUrl()));
+        if (groupConfig.imageStorageMode.equals("database")) {
+            productImageService.deleteImageAttachesByProductId(productId);
+        } else {
+            productImageService.deleteImagesByProductId(productId);
+        }
         product.setDeleted(true);
         productRepository.save(product);
+        productCacheService.evictListings(productId, Arrays.asList(product.getCategory() != null ? product.getCategory().getId() : null));
+        productSearchService.removeProduct(productId);
+        productFacetService.removeProduct(productId);
+        productSuggestionService.removeProduct(productId);
         log.info("Product deleted: {} by user {}", productId, email);
 
         auditLogService.logAction(email, "DELETE_PRODUCT", "Product ID: " + productId);
@@ -161,19 +174,5 @@ public class AdminProductService implements IAdminProductService {
         return user.getUserRoles().stream().anyMatch(role -> role.getRole() == roleType);
     }
 
-    private void deleteImageFile(String fileUrl) {
-        if (fileUrl != null && !fileUrl.isEmpty()) {
-            Path filePath = Path.of(fileUrl);
-            if (Files.exists(filePath)) {
-                try {
-                    Files.deleteIfExists(filePath);
-                    log.info("Deleted image file: {}", fileUrl);
-                } catch (IOException e) {
-                    log.warn("Failed to delete image file {}: {}", fileUrl, e.getMessage());
-                }
-            }
-        }
-    }
-
 
 }
@@ -15,6 +15,7 @@ import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.services.interfaces.IAdminUserRoleService;
 import com.datasaz.ecommerce.services.interfaces.IAuditLogService;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -36,6 +37,7 @@ public class AdminUserRoleService implements IAdminUserRoleService {
     private final IEmailService emailService;
     private final IAuditLogService auditLogService;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final IUserAuthStatusService userAuthStatusService;
 
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
 
@@ -67,10 +69,11 @@ public class AdminUserRoleService implements IAdminUserRoleService {
                     .orElseGet(() -> rolesRepository.save(Roles.builder().role(roleType).build()));
             user.getUserRoles().add(roleEntity);
             userRepository.save(user);
+            userAuthStatusService.invalidate(user.getEmailAddress());
             auditLogService.logAction(user.getEmailAddress(), "ADD_USER_ROLE",
                     SecurityContextHolder.getContext().getAuthentication().getName(),
                     "Added role " + roleType.name() + " to user " + user.getEmailAddress());
-            refreshTokenRepository.deleteByUserEmail(user.getEmailAddress());
+            refreshTokenRepository.revokeAllByUserEmail(user.getEmailAddress());
             log.info("addUserRole: Revoked all refresh tokens for user {}", user.getEmailAddress());
         } catch (Exception e) {
             log.error("Error updating user: {}", e.getMessage());
@@ -106,11 +109,12 @@ public class AdminUserRoleService implements IAdminUserRoleService {
 
         user.getUserRoles().remove(roleEntity);
         userRepository.save(user);
+        userAuthStatusService.invalidate(user.getEmailAddress());
         auditLogService.logAction(user.getEmailAddress(), "REMOVE_USER_ROLE",
                 SecurityContextHolder.getContext().getAuthentication().getName(),
                 "Removed role " + roleType.name() + " from user " + user.getEmailAddress());
 
-        refreshTokenRepository.deleteByUserEmail(user.getEmailAddress());
+        refreshTokenRepository.revokeAllByUserEmail(user.getEmailAddress());
         log.info("removeUserRole: Revoked all refresh tokens for user {}", user.getEmailAddress());
 
         return userMapper.toDto(user);
@@ -163,6 +167,7 @@ public class AdminUserRoleService implements IAdminUserRoleService {
                 .orElseGet(() -> rolesRepository.save(Roles.builder().role(roleType).build()));
         user.getUserRoles().add(role);
         userRepository.save(user);
+        userAuthStatusService.invalidate(email);
 
         auditLogService.logAction(email, "ASSIGN_ROLE",
                 SecurityContextHolder.getContext().getAuthentication().getName(),
@@ -170,7 +175,7 @@ public class AdminUserRoleService implements IAdminUserRoleService {
                 "Assigned role: " + roleName + " to user: " + email);
         emailService.sendRoleChangeNotification(email, roleName, "ASSIGN_ROLE", LocalDateTime.now());
 
-        refreshTokenRepository.deleteByUserEmail(email);
+        refreshTokenRepository.revokeAllByUserEmail(email);
         log.info("assignRole: Revoked all refresh tokens for user {}", email);
 
         return userMapper.toDto(user);
@@ -207,6 +212,7 @@ public class AdminUserRoleService implements IAdminUserRoleService {
 
         user.getUserRoles().removeIf(role -> role.getRole().equals(roleType));
         userRepository.save(user);
+        userAuthStatusService.invalidate(email);
 
         auditLogService.logAction(email, "REMOVE_ROLE",
                 SecurityContextHolder.getContext().getAuthentication().getName(),
@@ -214,7 +220,7 @@ public class AdminUserRoleService implements IAdminUserRoleService {
                 "Removed role: " + roleName + " from user: " + email);
         emailService.sendRoleChangeNotification(email, roleName, "REMOVE_ROLE", LocalDateTime.now());
 
-        refreshTokenRepository.deleteByUserEmail(email);
+        refreshTokenRepository.revokeAllByUserEmail(email);
         log.info("removeRole: Revoked all refresh tokens for user {}", email);
 
         return userMapper.toDto(user);
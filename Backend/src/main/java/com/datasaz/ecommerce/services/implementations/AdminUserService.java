@@ -10,12 +10,13 @@ import com.datasaz.ecommerce.repositories.UserRepository;
 import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.services.interfaces.IAdminUserService;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import com.datasaz.ecommerce.utilities.JwtBlacklistService;
+import com.datasaz.ecommerce.utilities.PageRequests;
 import com.datasaz.ecommerce.utilities.Utility;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -37,6 +38,7 @@ public class AdminUserService implements IAdminUserService {
     private final UserMapper userMapper;
     private final RefreshTokenRepository refreshTokenRepository;
     private final JwtBlacklistService jwtBlacklistService;
+    private final IUserAuthStatusService userAuthStatusService;
 
     private static final Utility utility = new Utility();
 
@@ -44,10 +46,10 @@ public class AdminUserService implements IAdminUserService {
     @Transactional(readOnly = true)
     public Page<UserDto> findAll(int page, int size) {
         log.info("findAll: Finding all users, page: {}, size: {}", page, size);
+        Pageable pageable = PageRequests.of(page, size);
         try {
-            Pageable pageable = PageRequest.of(page, size);
             Page<User> users = userRepository.findAllWithAllCollections(pageable);
-            Page<UserDto> userDtos = users.map(userMapper::toDto);
+            Page<UserDto> userDtos = users.map(userMapper.dtoMapper(users.getContent()));
             log.info("findAll: Found {} users", userDtos.getTotalElements());
             return userDtos;
         } catch (Exception e) {
@@ -106,6 +108,7 @@ public class AdminUserService implements IAdminUserService {
         user.setIsActivated(false);
         user.setDeletionToken(null);
         userRepository.save(user);
+        userAuthStatusService.invalidate(user.getEmailAddress());
         auditLogService.logAction(user.getEmailAddress(), "DELETE_USER_ADMIN",
                 SecurityContextHolder.getContext().getAuthentication().getName(),
                 "User deleted by admin at: " + LocalDateTime.now());
@@ -131,7 +134,10 @@ public class AdminUserService implements IAdminUserService {
         User user = userRepository.findByEmailAddressAndDeletedFalse(updatePasswordRequest.getEmail())
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found: " + updatePasswordRequest.getEmail()).build());
         user.setPassword(passwordEncoder.encode(newPassword));
+        // Access tokens issued before this point stop working in stateless authentication mode
+        user.setLastPasswordResetDate(LocalDateTime.now());
         userRepository.save(user);
+        userAuthStatusService.invalidate(user.getEmailAddress());
         auditLogService.logAction(user.getEmailAddress(), "UPDATE_PASSWORD_ADMIN",
                 SecurityContextHolder.getContext().getAuthentication().getName(),
                 "Password updated by admin at: " + LocalDateTime.now());
@@ -160,6 +166,7 @@ public class AdminUserService implements IAdminUserService {
         user.setIsActivated(true);
         user.setDeletionToken(null);
         userRepository.save(user);
+        userAuthStatusService.invalidate(email);
         auditLogService.logAction(email, "RESTORE_USER",
                 SecurityContextHolder.getContext().getAuthentication().getName(),
                 "Restored user at: " + LocalDateTime.now());
@@ -188,6 +195,7 @@ public class AdminUserService implements IAdminUserService {
         }
         user.setIsBlocked(true);
         userRepository.save(user);
+        userAuthStatusService.invalidate(email);
         auditLogService.logAction(email, "BLOCK_USER",
                 SecurityContextHolder.getContext().getAuthentication().getName(),
                 "User blocked at: " + LocalDateTime.now() + ", reason: " + reason);
@@ -213,6 +221,7 @@ public class AdminUserService implements IAdminUserService {
         }
         user.setIsBlocked(false);
         userRepository.save(user);
+        userAuthStatusService.invalidate(email);
         auditLogService.logAction(email, "UNBLOCK_USER",
                 SecurityContextHolder.getContext().getAuthentication().getName(),
                 "User unblocked at: " + LocalDateTime.now());
@@ -225,7 +234,7 @@ public class AdminUserService implements IAdminUserService {
     }
 
     private void revokeAllRefreshTokens(String email) {
-        refreshTokenRepository.deleteByUserEmail(email);
+        refreshTokenRepository.revokeAllByUserEmail(email);
         log.info("Revoked all refresh tokens and blacklisted JWT for user: {}", email);
     }
 }
\ No newline at end of file
@@ -1,15 +1,19 @@
 package com.datasaz.ecommerce.services.implementations;
 
+import com.datasaz.ecommerce.exceptions.BadRequestException;
 import com.datasaz.ecommerce.mappers.AuditLogMapper;
 import com.datasaz.ecommerce.models.dto.AuditLogDto;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
 import com.datasaz.ecommerce.repositories.AuditLogRepository;
 import com.datasaz.ecommerce.repositories.entities.AuditLog;
 import com.datasaz.ecommerce.services.interfaces.IAuditLogService;
+import com.datasaz.ecommerce.utilities.KeysetCursor;
+import com.datasaz.ecommerce.utilities.PageRequests;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -64,10 +68,27 @@ public class AuditLogService implements IAuditLogService {
                                           String details, String performedBy, LocalDateTime startDate, LocalDateTime endDate) {
         log.info("getAuditLogs: Retrieving audit logs for page {}, size {}, userEmail: {}, roleName: {}, action: {}, details: {}, performedBy: {}, startDate: {}, endDate: {}",
                 page, size, userEmail, roleName, action, details, performedBy, startDate, endDate);
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequests.of(page, size);
         return auditLogRepository.findByFilters(userEmail, roleName, action, details, performedBy, startDate, endDate, pageable)
                 .map(auditLogMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<AuditLogDto> getAuditLogs(String cursor, int size, String userEmail, String roleName, String action,
+                                                         String details, String performedBy, LocalDateTime startDate, LocalDateTime endDate) {
+        log.info("getAuditLogs: Retrieving audit logs after cursor {}, size {}, userEmail: {}, roleName: {}, action: {}, details: {}, performedBy: {}, startDate: {}, endDate: {}",
+                cursor, size, userEmail, roleName, action, details, performedBy, startDate, endDate);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        if (position != null && position.timestamp() == null) {
+            throw BadRequestException.builder().message("Invalid cursor: " + cursor).build();
+        }
+        Slice<AuditLog> slice = auditLogRepository.findByFiltersBefore(userEmail, roleName, action, details, performedBy,
+                startDate, endDate, position != null ? position.timestamp() : null, position != null ? position.id() : null,
+                PageRequests.first(size));
+        return CursorSliceResponse.of(slice, auditLog -> KeysetCursor.of(auditLog.getTimestamp(), auditLog.getId()),
+                auditLogMapper::toDto);
+    }
+
 }
 
@@ -18,8 +18,10 @@ import com.datasaz.ecommerce.repositories.entities.RoleTypes;
 import com.datasaz.ecommerce.repositories.entities.Roles;
 import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.services.interfaces.IAuthService;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
 import com.datasaz.ecommerce.services.interfaces.IUserPrivacySettingsService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import com.datasaz.ecommerce.utilities.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -36,6 +38,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
+import java.util.Base64;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -59,6 +62,8 @@ public class AuthService implements IAuthService {
 
     private final IEmailService emailService;
     private final IUserPrivacySettingsService userPrivacySettingsService;
+    private final IUserAuthStatusService userAuthStatusService;
+    private final IBinaryContentService binaryContentService;
 
     private static final String UPLOAD_DIR = "uploads/profile-pictures/";
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
@@ -71,7 +76,7 @@ public class AuthService implements IAuthService {
         String refreshToken = jwtUtil.generateRefreshToken(userDetails.getUsername());
         refreshTokenRepository.save(RefreshToken.builder()
                 .userEmail(user.getEmailAddress())
-                .token(refreshToken)
+                .tokenHash(JwtUtil.tokenHash(refreshToken))
                 .expiryDate(jwtUtil.getRefreshTokenExpiry(refreshToken))
                 .revoked(false)
                 .build());
@@ -105,6 +110,11 @@ public class AuthService implements IAuthService {
 */
     private User initializeUser(UserDto userDto, String provider, String registrationIp) {
         User user = userMapper.toEntity(userDto);
+        // Inline picture content goes to binary_content in the same transaction as the user row
+        if (user.getImageContentId() == null && userDto.getImageContent() != null && !userDto.getImageContent().isEmpty()) {
+            user.setImageContentId(binaryContentService.store(
+                    Base64.getDecoder().decode(userDto.getImageContent()), userDto.getImageContentType()));
+        }
         Roles buyerRole = rolesRepository.findByRole(RoleTypes.BUYER)
                 .orElseGet(() -> {
                     Roles newRole = Roles.builder().role(RoleTypes.BUYER).build();
@@ -198,6 +208,8 @@ public class AuthService implements IAuthService {
             user.setDeleted(false);
             user.setIsActivated(false);
             user.setPassword(passwordEncoder.encode(request.getPassword()));
+            // Tokens issued before the account was deleted must not come back with it
+            user.setLastPasswordResetDate(LocalDateTime.now());
             user.setFirstName(request.getFirstName() != null && !request.getFirstName().isEmpty() ? request.getFirstName() : user.getFirstName());
             user.setLastName(request.getLastName() != null && !request.getLastName().isEmpty() ? request.getLastName() : user.getLastName());
             user.setDateOfBirth(request.getDateOfBirth() != null ? request.getDateOfBirth() : user.getDateOfBirth());
@@ -213,6 +225,7 @@ public class AuthService implements IAuthService {
                 user.setPrivacySettings(userPrivacySettingsService.createDefaultPrivacySettings(user));
             }
                 userRepository.save(user);
+                userAuthStatusService.invalidate(user.getEmailAddress());
                 auditLogService.logAction(request.getEmailAddress(), "RESTORE_USER", "User restored at: " + LocalDateTime.now() + ", IP: " + registrationIp);
 
                 emailService.sendActivationEmail(request.getEmailAddress(), user.getActivationCode());
@@ -315,6 +328,7 @@ public class AuthService implements IAuthService {
             user.setIsActivated(true);
             user.setActivationCode(null);
             userRepository.save(user);
+            userAuthStatusService.invalidate(user.getEmailAddress());
 
             auditLogService.logAction(user.getEmailAddress(), "ACTIVATE_ACCOUNT", "Account activated at: " + LocalDateTime.now());
 
@@ -523,22 +537,30 @@ public class AuthService implements IAuthService {
     }
 
     @Override
-    @Transactional
+    // Rejections still commit, so revoking every session on token reuse holds
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
     public AuthResponse refreshToken(String refreshToken) {
         log.info("refreshToken: Attempting to refresh token");
-        Optional<RefreshToken> refreshTokenEntity = refreshTokenRepository.findByToken(refreshToken);
-        if (refreshTokenEntity.isEmpty()) {
-            log.error("refreshToken: Invalid refresh token");
-            throw new IllegalArgumentException("Invalid refresh token");
-        }
-        RefreshToken token = refreshTokenEntity.get();
-        if (token.isRevoked()) {
-            log.error("refreshToken: Refresh token is revoked");
-            throw new IllegalArgumentException("Refresh token is revoked");
+        String tokenHash = JwtUtil.tokenHash(refreshToken);
+        // Rotation is one conditional update: of concurrent requests with the same token only one succeeds
+        if (refreshTokenRepository.revokeIfActive(tokenHash, LocalDateTime.now()) == 0) {
+            Optional<RefreshToken> refreshTokenEntity = refreshTokenRepository.findByTokenHash(tokenHash);
+            if (refreshTokenEntity.isEmpty()) {
+                log.error("refreshToken: Invalid refresh token");
+                throw new IllegalArgumentException("Invalid refresh token");
+            }
+            RefreshToken token = refreshTokenEntity.get();
+            if (token.isRevoked()) {
+                // An already rotated token came back: it may have been stolen, so end every session of the user
+                log.error("refreshToken: Reuse of revoked refresh token detected for user: {}", token.getUserEmail());
+                refreshTokenRepository.revokeAllByUserEmail(token.getUserEmail());
+                throw new IllegalArgumentException("Refresh token is revoked");
+            }
+            log.error("refreshToken: Refresh token expired");
+            throw new IllegalArgumentException("Refresh token expired");
         }
-        if (jwtUtil.isTokenExpired(refreshToken) || token.getExpiryDate().isBefore(LocalDateTime.now())) {
+        if (jwtUtil.isTokenExpired(refreshToken)) {
             log.error("refreshToken: Refresh token expired");
-            refreshTokenRepository.delete(token);
             throw new IllegalArgumentException("Refresh token expired");
         }
         String username = jwtUtil.extractUsername(refreshToken);
@@ -553,12 +575,9 @@ public class AuthService implements IAuthService {
         String newToken = jwtUtil.generateToken(username, userDetailsService.loadUserByUsername(username).getAuthorities());
         String newRefreshToken = jwtUtil.generateRefreshToken(username);
 
-        token.setRevoked(true);
-        refreshTokenRepository.save(token);
-
         refreshTokenRepository.save(RefreshToken.builder()
                 .userEmail(username)
-                .token(newRefreshToken)
+                .tokenHash(JwtUtil.tokenHash(newRefreshToken))
                 .expiryDate(jwtUtil.getRefreshTokenExpiry(newRefreshToken))
                 .revoked(false)
                 .build());
@@ -643,6 +662,7 @@ public class AuthService implements IAuthService {
             user.setRegistrationIp(registrationIp);
 
             userRepository.save(user);
+            userAuthStatusService.invalidate(email);
             auditLogService.logAction(email, "RESET_PASSWORD", "Password reset at: " + LocalDateTime.now() + ", IP: " + registrationIp);
 
             try {
@@ -652,7 +672,7 @@ public class AuthService implements IAuthService {
             }
 
             // Revoke all refresh tokens
-            refreshTokenRepository.deleteByUserEmail(email);
+            refreshTokenRepository.revokeAllByUserEmail(email);
             log.info("resetPassword: Revoked all refresh tokens for user: {}", email);
 
             return "Password reset successfully";
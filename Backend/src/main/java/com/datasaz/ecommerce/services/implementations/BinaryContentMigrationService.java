@@ -0,0 +1,143 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.utilities.ContentHashUtils;
+import com.datasaz.ecommerce.utilities.JdbcSchemaUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves image payloads still sitting in the legacy blob columns of product_image_attach, category and users
+ * into binary_content, one bounded chunk per transaction, and points the owning row at the new record.
+ * Also backfills content hashes for binary_content rows stored without one.
+ * Once every legacy column is empty the job stops; the columns themselves can then be dropped.
+ * The one-off DDL on those columns lives in {@link SchemaMigrationService}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BinaryContentMigrationService {
+
+    private record LegacyColumn(String table, String contentColumn, String contentTypeColumn, String referenceColumn) {
+    }
+
+    private static final List<LegacyColumn> LEGACY_COLUMNS = List.of(
+            new LegacyColumn("product_image_attach", "file_content", "content_type", "file_content_id"),
+            new LegacyColumn("product_image_attach", "thumbnail_content", "content_type", "thumbnail_content_id"),
+            new LegacyColumn("category", "image_content", "image_content_type", "image_content_id"),
+            new LegacyColumn("users", "image_content", "image_content_type", "image_content_id")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${binary-content.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${binary-content.migration.chunk-size:100}")
+    private int chunkSize;
+
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Scheduled(initialDelayString = "${binary-content.migration.initial-delay-ms:60000}",
+            fixedDelayString = "${binary-content.migration.interval-ms:300000}")
+    public void migrateLegacyContent() {
+        if (!enabled || completed.get() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            boolean remaining = false;
+            for (LegacyColumn column : LEGACY_COLUMNS) {
+                if (JdbcSchemaUtils.isNullable(jdbcTemplate, column.table(), column.contentColumn()) == null) {
+                    continue; // Column never existed (fresh schema) or was already dropped
+                }
+                int migrated = migrateColumn(column);
+                log.info("Migrated {} rows from {}.{} to binary_content", migrated, column.table(), column.contentColumn());
+                remaining |= hasLegacyContent(column);
+            }
+            int hashed = backfillContentHashes();
+            if (hashed > 0) {
+                log.info("Computed content hashes for {} binary_content rows", hashed);
+            }
+            if (!remaining) {
+                completed.set(true);
+                log.info("Binary content migration complete: legacy blob columns are empty and can be dropped");
+            }
+        } catch (Exception e) {
+            log.error("Error during binary content migration: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int migrateColumn(LegacyColumn column) {
+        SimpleJdbcInsert insert = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("binary_content")
+                .usingColumns("data", "content_type", "size", "content_hash", "created_at")
+                .usingGeneratedKeyColumns("id");
+        String select = "SELECT id, " + column.contentColumn() + " AS content, " + column.contentTypeColumn() + " AS content_type"
+                + " FROM " + column.table() + " WHERE " + column.contentColumn() + " IS NOT NULL ORDER BY id LIMIT ?";
+        String update = "UPDATE " + column.table() + " SET " + column.referenceColumn() + " = ?, "
+                + column.contentColumn() + " = NULL WHERE id = ?";
+
+        int total = 0;
+        int processed;
+        do {
+            Integer chunk = transactionTemplate.execute(status -> {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(select, chunkSize);
+                for (Map<String, Object> row : rows) {
+                    byte[] content = (byte[]) row.get("content");
+                    Number contentId = insert.executeAndReturnKey(Map.of(
+                            "data", content,
+                            "content_type", row.get("content_type") != null ? row.get("content_type") : "application/octet-stream",
+                            "size", content.length,
+                            "content_hash", ContentHashUtils.sha256Hex(content),
+                            "created_at", Timestamp.valueOf(LocalDateTime.now())));
+                    jdbcTemplate.update(update, contentId.longValue(), row.get("id"));
+                }
+                return rows.size();
+            });
+            processed = chunk != null ? chunk : 0;
+            total += processed;
+        } while (processed == chunkSize);
+        return total;
+    }
+
+    // Rows written before content hashes existed have no ETag/version until they are hashed here
+    private int backfillContentHashes() {
+        int total = 0;
+        int processed;
+        do {
+            Integer chunk = transactionTemplate.execute(status -> {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                        "SELECT id, data FROM binary_content WHERE content_hash IS NULL ORDER BY id LIMIT ?", chunkSize);
+                for (Map<String, Object> row : rows) {
+                    jdbcTemplate.update("UPDATE binary_content SET content_hash = ? WHERE id = ?",
+                            ContentHashUtils.sha256Hex((byte[]) row.get("data")), row.get("id"));
+                }
+                return rows.size();
+            });
+            processed = chunk != null ? chunk : 0;
+            total += processed;
+        } while (processed == chunkSize);
+        return total;
+    }
+
+    private boolean hasLegacyContent(LegacyColumn column) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM " + column.table() + " WHERE "
+                + column.contentColumn() + " IS NOT NULL LIMIT 1", Long.class);
+        return !ids.isEmpty();
+    }
+}
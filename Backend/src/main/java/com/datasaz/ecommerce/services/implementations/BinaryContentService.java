@@ -0,0 +1,141 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import com.datasaz.ecommerce.models.dto.BinaryContentMetadata;
+import com.datasaz.ecommerce.repositories.BinaryContentRepository;
+import com.datasaz.ecommerce.repositories.entities.BinaryContent;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
+import com.datasaz.ecommerce.utilities.ContentHashUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BinaryContentService implements IBinaryContentService {
+
+    private final BinaryContentRepository binaryContentRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public Long store(byte[] data, String contentType) {
+        if (data == null || data.length == 0) {
+            throw BadRequestException.builder().message("Binary content cannot be empty").build();
+        }
+        BinaryContent content = binaryContentRepository.save(BinaryContent.builder()
+                .data(data)
+                .contentType(contentType)
+                .size(data.length)
+                .contentHash(ContentHashUtils.sha256Hex(data))
+                .build());
+        log.debug("Stored binary content ID {} ({} bytes)", content.getId(), data.length);
+        return content.getId();
+    }
+
+    // Streams the payload into the row through JDBC; the entity would need the whole payload in memory
+    @Override
+    @Transactional
+    public Long store(InputStream data, long size, String contentHash, String contentType) {
+        if (size <= 0) {
+            throw BadRequestException.builder().message("Binary content cannot be empty").build();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO binary_content (data, content_type, size, content_hash, created_at) VALUES (?, ?, ?, ?, ?)",
+                    new String[]{"id"});
+            statement.setBinaryStream(1, data, size);
+            statement.setString(2, contentType);
+            statement.setLong(3, size);
+            statement.setString(4, contentHash);
+            statement.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            return statement;
+        }, keyHolder);
+        Long id = keyHolder.getKey().longValue();
+        log.debug("Stored binary content ID {} ({} bytes, streamed)", id, size);
+        return id;
+    }
+
+    // Overwrites the existing row in place so owners keep the same reference; falls back to a new row
+    @Override
+    @Transactional
+    public Long replace(Long existingId, byte[] data, String contentType) {
+        if (existingId == null) {
+            return store(data, contentType);
+        }
+        return binaryContentRepository.findById(existingId)
+                .map(content -> {
+                    content.setData(data);
+                    content.setContentType(contentType);
+                    content.setSize(data.length);
+                    content.setContentHash(ContentHashUtils.sha256Hex(data));
+                    return binaryContentRepository.save(content).getId();
+                })
+                .orElseGet(() -> store(data, contentType));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BinaryContent> findById(Long id) {
+        return id == null ? Optional.empty() : binaryContentRepository.findById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BinaryContentMetadata> findMetadataById(Long id) {
+        return id == null ? Optional.empty() : binaryContentRepository.findMetadataById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public byte[] load(Long id) {
+        return findById(id).map(BinaryContent::getData).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, byte[]> loadAll(Collection<Long> ids) {
+        List<Long> keys = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, byte[]> contents = new HashMap<>();
+        binaryContentRepository.findAllById(keys)
+                .forEach(content -> contents.put(content.getId(), content.getData()));
+        return contents;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String loadBase64(Long id) {
+        byte[] data = load(id);
+        return data != null ? Base64.getEncoder().encodeToString(data) : null;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        if (id != null && binaryContentRepository.existsById(id)) {
+            binaryContentRepository.deleteById(id);
+            log.debug("Deleted binary content ID {}", id);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsByContentHash(String contentHash) {
+        return binaryContentRepository.existsByContentHash(contentHash);
+    }
+}
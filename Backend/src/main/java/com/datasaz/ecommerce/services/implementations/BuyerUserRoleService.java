@@ -10,6 +10,7 @@ import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.services.interfaces.IAuditLogService;
 import com.datasaz.ecommerce.services.interfaces.IBuyerUserRoleService;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import com.datasaz.ecommerce.utilities.CurrentUserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +29,7 @@ public class BuyerUserRoleService implements IBuyerUserRoleService {
     private final IAuditLogService auditLogService;
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final IUserAuthStatusService userAuthStatusService;
 
     private final CurrentUserService currentUserService;
 
@@ -41,10 +43,11 @@ public class BuyerUserRoleService implements IBuyerUserRoleService {
             if (user.getUserRoles().stream().noneMatch(role -> role.getRole() == RoleTypes.SELLER)) {
                 user.getUserRoles().add(sellerRole);
                 userRepository.save(user);
+                userAuthStatusService.invalidate(user.getEmailAddress());
                 auditLogService.logAction(user.getEmailAddress(), "BECOME_INDIVIDUAL_SELLER", "User assigned SELLER role");
                 emailService.sendEmail(user.getEmailAddress(), "Assigned Individual Seller Role",
                         "You have been assigned the SELLER role.");
-                refreshTokenRepository.deleteByUserEmail(user.getEmailAddress());
+                refreshTokenRepository.revokeAllByUserEmail(user.getEmailAddress());
             }
         } catch (Exception e) {
             log.error("Error updating user: {}", e.getMessage());
@@ -6,18 +6,27 @@ import com.datasaz.ecommerce.models.response.CategoryResponse;
 import com.datasaz.ecommerce.repositories.CategoryRepository;
 import com.datasaz.ecommerce.repositories.entities.Category;
 import com.datasaz.ecommerce.services.interfaces.ICategoryService;
+import com.datasaz.ecommerce.services.interfaces.ICategoryTreeService;
+import com.datasaz.ecommerce.services.interfaces.IProductLeaderboardService;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.Tika;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,21 +37,21 @@ public class CategoryService implements ICategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final IProductLeaderboardService productLeaderboardService;
+    private final ICategoryTreeService categoryTreeService;
 
     private final AuditLogService auditLogService;
     private static final Tika tika = new Tika();
 
     @Override
-    @Cacheable(value = "categories", key = "#id")
     @RateLimiter(name = "categoryService")
     public CategoryResponse findCategoryById(Long id) {
         log.info("Find category by id: {}", id);
-        Category category = categoryRepository.findById(id)
+        return categoryTreeService.getSnapshot().find(id)
                 .orElseThrow(() -> {
                     log.error("No categories found matching id: {}", id);
                     return CategoryNotFoundException.builder().message("Category not found.").build();
                 });
-        return categoryMapper.toResponse(category);
     }
 
     @Override
@@ -53,19 +62,15 @@ public class CategoryService implements ICategoryService {
         List<Category> categories = categoryRepository.findByNameContainingIgnoreCase(name);
         return categories.isEmpty()
                 ? Collections.emptyList()
-                : categories.stream().map(categoryMapper::toResponse).collect(Collectors.toList());
+                : categories.stream().map(categoryMapper.responseMapper(categories)).collect(Collectors.toList());
     }
 
     @Override
-    @Cacheable(value = "allCategories")
     @RateLimiter(name = "categoryService")
     public List<CategoryResponse> findAllCategory() {
         log.info("Find all categories");
         try {
-            return categoryRepository.findAll()
-                    .stream()
-                    .map(categoryMapper::toResponse)
-                    .collect(Collectors.toList());
+            return categoryTreeService.getSnapshot().getAll();
         } catch (Exception ex) {
             log.error("Error accessing data {}", ex.getMessage());
             return Collections.emptyList();
@@ -76,67 +81,81 @@ public class CategoryService implements ICategoryService {
     @RateLimiter(name = "categoryService")
     public Page<CategoryResponse> getCategories(Pageable pageable) {
         log.info("Getting paginated categories");
-        return categoryRepository.findAll(pageable).map(categoryMapper::toResponse);
+        Page<Category> categories = categoryRepository.findAll(pageable);
+        return categories.map(categoryMapper.responseMapper(categories.getContent()));
     }
 
     @Override
     public Page<CategoryResponse> getCategoriesSortedByProductFavorites(Pageable pageable) {
         log.info("Fetching categories sorted by: {}", "productfavorites");
-        return categoryRepository.findAllSortedByProductFavorites(pageable)
-                .map(categoryMapper::toResponse);
+        Page<Category> categories = categoryRepository.findAllSortedByProductFavorites(pageable);
+        return categories.map(categoryMapper.responseMapper(categories.getContent()));
     }
 
     @Override
     public Page<CategoryResponse> getCategoriesSortedByProductViews(Pageable pageable) {
         log.info("Fetching categories sorted by: {}", "productviews");
-        return categoryRepository.findAllSortedByProductViews(pageable)
-                .map(categoryMapper::toResponse);
+        Page<Category> categories = categoryRepository.findAllSortedByProductViews(pageable);
+        return categories.map(categoryMapper.responseMapper(categories.getContent()));
     }
 
     @Override
     public Page<CategoryResponse> getCategoriesSortedByProductQuantity(Pageable pageable) {
         log.info("Fetching categories sorted by: {}", "productquantity");
-        return categoryRepository.findAllSortedByProductQuantity(pageable)
-                .map(categoryMapper::toResponse);
+        Page<Category> categories = categoryRepository.findAllSortedByProductQuantity(pageable);
+        return categories.map(categoryMapper.responseMapper(categories.getContent()));
     }
 
     @Override
     public Page<CategoryResponse> getCategoriesSortedByProductSoldQuantity(Pageable pageable) {
-        log.info("Fetching categories sorted by: {}", "productsoldquantity");
-        return categoryRepository.findAllSortedByProductSoldQuantity(pageable)
-                .map(categoryMapper::toResponse);
+        return getCategoriesSortedByProductSoldQuantity(SalesLeaderboard.Window.ALL_TIME, pageable);
+    }
+
+    @Override
+    public Page<CategoryResponse> getCategoriesSortedByProductSoldQuantity(SalesLeaderboard.Window window, Pageable pageable) {
+        log.info("Fetching categories sorted by: {}, window: {}", "productsoldquantity", window.getKey());
+        if (!productLeaderboardService.isReady()) {
+            if (window == SalesLeaderboard.Window.ALL_TIME) {
+                Page<Category> categories = categoryRepository.findAllSortedByProductSoldQuantity(pageable);
+                return categories.map(categoryMapper.responseMapper(categories.getContent()));
+            }
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Best sellers are still loading, please try again shortly.");
+        }
+        Page<Long> ranked = productLeaderboardService.topCategories(window, pageable);
+        Map<Long, Category> categoriesById = categoryRepository.findAllById(ranked.getContent()).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        Function<Category, CategoryResponse> mapper = categoryMapper.responseMapper(categoriesById.values());
+        List<CategoryResponse> categories = ranked.getContent().stream()
+                .map(categoriesById::get)
+                .filter(Objects::nonNull)
+                .map(mapper)
+                .toList();
+        return new PageImpl<>(categories, pageable, ranked.getTotalElements());
     }
 
     @Override
     public Page<CategoryResponse> getCategoriesSortedByProductCount(Pageable pageable) {
         log.info("Fetching categories sorted by: {}", "productcount");
-        return categoryRepository.findAllSortedByProductCount(pageable)
-                .map(categoryMapper::toResponse);
+        Page<Category> categories = categoryRepository.findAllSortedByProductCount(pageable);
+        return categories.map(categoryMapper.responseMapper(categories.getContent()));
     }
 
     @Override
-    @Cacheable(value = "subcategories", key = "#categoryId")
     public List<CategoryResponse> findSubcategoriesByCategoryId(Long categoryId) {
         log.info("Find subcategories for category ID: {}", categoryId);
-        Category category = categoryRepository.findById(categoryId)
+        CategoryResponse category = categoryTreeService.getSnapshot().find(categoryId)
                 .orElseThrow(() -> {
                     log.error("Category not found with id: {}", categoryId);
                     return CategoryNotFoundException.builder().message("Category not found.").build();
                 });
-        return category.getSubcategories().stream()
-                .map(categoryMapper::toResponse)
-                .collect(Collectors.toList());
+        return category.getSubcategories();
     }
 
     @Override
-    @Cacheable(value = "parentCategories")
     public List<CategoryResponse> findParentCategories() {
         log.info("Find all parent categories");
         try {
-            return categoryRepository.findByParentIsNull()
-                    .stream()
-                    .map(categoryMapper::toResponse)
-                    .collect(Collectors.toList());
+            return categoryTreeService.getSnapshot().getRoots();
         } catch (Exception ex) {
             log.error("Error accessing parent categories: {}", ex.getMessage());
             return Collections.emptyList();
@@ -147,11 +166,8 @@ public class CategoryService implements ICategoryService {
     public List<CategoryResponse> getCategoriesWithSubcategoriesForProductSelection() {
         log.info("Find all categories with subcategories for product selection");
         try {
-            // Fetch all leaf categories (categories with no subcategories)
-            List<Category> leafCategories = categoryRepository.findBySubcategoriesIsEmpty();
-            return leafCategories.stream()
-                    .map(categoryMapper::toResponse)
-                    .collect(Collectors.toList());
+            // Leaf categories (categories with no subcategories)
+            return categoryTreeService.getSnapshot().getLeaves();
         } catch (Exception ex) {
             log.error("Error accessing categories for product selection: {}", ex.getMessage());
             return Collections.emptyList();
@@ -161,7 +177,7 @@ public class CategoryService implements ICategoryService {
     @Override
     public boolean checkCategoryExistsById(Long id) {
         log.info("Check exists by id: {}", id);
-        return categoryRepository.existsById(id);
+        return categoryTreeService.getSnapshot().contains(id);
     }
 
 }
\ No newline at end of file
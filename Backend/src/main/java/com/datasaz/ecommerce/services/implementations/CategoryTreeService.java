@@ -0,0 +1,68 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.mappers.CategoryMapper;
+import com.datasaz.ecommerce.models.response.CategoryResponse;
+import com.datasaz.ecommerce.repositories.CategoryRepository;
+import com.datasaz.ecommerce.services.interfaces.ICategoryTreeService;
+import com.datasaz.ecommerce.utilities.CategoryTreeSnapshot;
+import com.datasaz.ecommerce.utilities.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the {@link CategoryTreeSnapshot} served by the category endpoints. The tree is read as flat rows with a single
+ * query, plus one batch for the images, and linked in memory; admin changes to categories replace the whole snapshot
+ * after commit, so readers always see a complete, consistent tree without locking.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategoryTreeService implements ICategoryTreeService {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+
+    private volatile CategoryTreeSnapshot snapshot;
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public CategoryTreeSnapshot getSnapshot() {
+        CategoryTreeSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = load();
+            }
+            return snapshot;
+        }
+    }
+
+    @Override
+    public void refresh() {
+        TransactionUtils.afterCommit(this::rebuild);
+    }
+
+    private synchronized void rebuild() {
+        try {
+            snapshot = load();
+        } catch (Exception e) {
+            // The next read retries the load instead of serving the outdated tree
+            log.error("Failed to rebuild category tree: {}", e.getMessage(), e);
+            snapshot = null;
+        }
+    }
+
+    private CategoryTreeSnapshot load() {
+        long start = System.currentTimeMillis();
+        List<CategoryResponse> categories = categoryMapper.toFlatResponses(categoryRepository.findAllTreeRows());
+        CategoryTreeSnapshot loaded = CategoryTreeSnapshot.build(categories, version.incrementAndGet());
+        log.info("Category tree loaded: {} categories in {} ms", categories.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+}
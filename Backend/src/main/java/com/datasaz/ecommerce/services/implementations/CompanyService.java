@@ -11,29 +11,25 @@ import com.datasaz.ecommerce.repositories.entities.Company;
 import com.datasaz.ecommerce.repositories.entities.CompanyAdminRights;
 import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.services.interfaces.ICompanyService;
+import com.datasaz.ecommerce.utilities.ImageDecoder;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine.ResizeQuality;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.Tika;
-import org.imgscalr.Scalr;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageOutputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.Base64;
-import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 
@@ -46,6 +42,7 @@ public class CompanyService implements ICompanyService {
     private final CompanyAdminRightsRepository adminRightsRepository;
     private final AuditLogService auditLogService;
     private final GroupConfig groupConfig;
+    private final ImageProcessingEngine imageProcessingEngine;
     private static final Tika tika = new Tika();
 
     @Override
@@ -259,17 +256,7 @@ public class CompanyService implements ICompanyService {
                 log.error("Unsupported file type: {}", mimeType);
                 throw BadRequestException.builder().message("Unsupported file type: " + mimeType).build();
             }
-            try (ByteArrayInputStream bais = new ByteArrayInputStream(file.getBytes())) {
-                BufferedImage img = ImageIO.read(bais);
-                if (img == null) {
-                    log.error("Invalid image content: cannot read image for {}", file.getOriginalFilename());
-                    throw BadRequestException.builder().message("Invalid image content: cannot read image").build();
-                }
-                if (img.getColorModel().getColorSpace().getType() != java.awt.color.ColorSpace.TYPE_RGB) {
-                    log.warn("Image has non-RGB colorspace: {} for {}", img.getColorModel().getColorSpace().getType(), file.getOriginalFilename());
-                    // RGB conversion will happen in resizeImage
-                }
-            }
+            ImageDecoder.checkDimensions(ImageDecoder.readDimensions(file.getBytes()), groupConfig.maxImagePixels, file.getOriginalFilename());
         } catch (IOException e) {
             log.error("Error validating image: {}", e.getMessage());
             throw TechnicalException.builder().message("Error validating image: " + e.getMessage()).build();
@@ -301,16 +288,7 @@ public class CompanyService implements ICompanyService {
                 log.error("Unsupported image type: {}", mimeType);
                 throw BadRequestException.builder().message("Unsupported image type: " + mimeType).build();
             }
-            bais.reset();
-            BufferedImage img = ImageIO.read(bais);
-            if (img == null) {
-                log.error("Invalid image content: cannot read image for {}", request.getName());
-                throw BadRequestException.builder().message("Invalid image content: cannot read image").build();
-            }
-            if (img.getColorModel().getColorSpace().getType() != java.awt.color.ColorSpace.TYPE_RGB) {
-                log.warn("Image has non-RGB colorspace: {} for {}", img.getColorModel().getColorSpace().getType(), request.getName());
-                // RGB conversion will happen in resizeImage
-            }
+            ImageDecoder.checkDimensions(ImageDecoder.readDimensions(imageBytes), groupConfig.maxImagePixels, request.getName());
         } catch (IOException e) {
             log.error("Error detecting image type or validating image: {}", e.getMessage());
             throw TechnicalException.builder().message("Error validating image: " + e.getMessage()).build();
@@ -318,93 +296,8 @@ public class CompanyService implements ICompanyService {
     }
 
     public byte[] resizeImage(byte[] originalImage, String extension, boolean forceJpeg, int targetWidth, int targetHeight) throws IOException {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(originalImage)) {
-            BufferedImage img = ImageIO.read(bais);
-            if (img == null) {
-                log.error("Failed to read image: null BufferedImage");
-                throw new IOException("Cannot read image: invalid or corrupt image data");
-            }
-            log.debug("Original image: width={}, height={}", img.getWidth(), img.getHeight());
-
-            double aspectRatio = (double) img.getWidth() / img.getHeight();
-            if (aspectRatio > 1) {
-                targetHeight = (int) (targetWidth / aspectRatio);
-            } else {
-                targetWidth = (int) (targetHeight * aspectRatio);
-            }
-            BufferedImage resized = Scalr.resize(img, Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_EXACT, targetWidth, targetHeight);
-            log.debug("Resized image: width={}, height={}", resized.getWidth(), resized.getHeight());
-
-            BufferedImage rgbImage = resized;
-            String outputFormat = forceJpeg ? "jpg" : (extension != null && !extension.isEmpty() ? extension.toLowerCase() : "jpg");
-            String formatName;
-            switch (outputFormat) {
-                case "jpg":
-                case "jpeg":
-                    formatName = "jpeg";
-                    rgbImage = new BufferedImage(resized.getWidth(), resized.getHeight(), BufferedImage.TYPE_INT_RGB);
-                    rgbImage.getGraphics().drawImage(resized, 0, 0, null);
-                    break;
-                case "png":
-                    formatName = "png";
-                    break;
-                case "gif":
-                    formatName = "gif";
-                    break;
-                case "bmp":
-                    formatName = "bmp";
-                    break;
-                case "tiff":
-                    formatName = "tiff";
-                    break;
-                case "wbmp":
-                    formatName = "wbmp";
-                    break;
-                case "webp":
-                    formatName = "webp";
-                    break;
-                default:
-                    log.warn("Unsupported output format: {}, defaulting to jpeg", outputFormat);
-                    formatName = "jpeg";
-                    outputFormat = "jpg";
-                    rgbImage = new BufferedImage(resized.getWidth(), resized.getHeight(), BufferedImage.TYPE_INT_RGB);
-                    rgbImage.getGraphics().drawImage(resized, 0, 0, null);
-            }
-
-            try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                if (formatName.equals("png") || formatName.equals("gif") || formatName.equals("bmp") || formatName.equals("tiff") || formatName.equals("wbmp")) {
-                    ImageIO.write(rgbImage, formatName, baos);
-                } else {
-                    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
-                    if (!writers.hasNext()) {
-                        log.error("No writer available for format: {}", formatName);
-                        throw new IOException("No writer available for format: " + formatName);
-                    }
-                    ImageWriter writer = writers.next();
-                    try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
-                        writer.setOutput(ios);
-                        ImageWriteParam param = writer.getDefaultWriteParam();
-                        if (formatName.equals("jpeg") || formatName.equals("webp")) {
-                            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-                            param.setCompressionQuality(groupConfig.imageQuality);
-                        }
-                        writer.write(null, new javax.imageio.IIOImage(rgbImage, null, null), param);
-                    } finally {
-                        writer.dispose();
-                    }
-                }
-                byte[] result = baos.toByteArray();
-                log.debug("Resized image size: {} bytes, format: {}", result.length, formatName);
-                if (result.length == 0) {
-                    log.error("Resized image is empty after writing to ByteArrayOutputStream");
-                    throw new IOException("Resized image is empty");
-                }
-                return result;
-            }
-        } catch (Exception e) {
-            log.error("Error resizing image: {}", e.getMessage(), e);
-            throw new IOException("Failed to resize image: " + e.getMessage(), e);
-        }
+        BufferedImage img = ImageDecoder.decode(originalImage, targetWidth, targetHeight, groupConfig.maxDecodePixels);
+        return imageProcessingEngine.resize(img, extension, forceJpeg, targetWidth, targetHeight, ResizeQuality.HIGH);
     }
 
     public void deleteOldImage(String oldImageUrl) {
@@ -0,0 +1,311 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.configs.WebConfig;
+import com.datasaz.ecommerce.exceptions.ResourceNotFoundException;
+import com.datasaz.ecommerce.exceptions.UserNotFoundException;
+import com.datasaz.ecommerce.models.dto.BinaryContentMetadata;
+import com.datasaz.ecommerce.models.dto.ImageDelivery;
+import com.datasaz.ecommerce.models.dto.ProductThumbnailRef;
+import com.datasaz.ecommerce.repositories.ProductImageAttachRepository;
+import com.datasaz.ecommerce.repositories.ProductImageRepository;
+import com.datasaz.ecommerce.repositories.UserRepository;
+import com.datasaz.ecommerce.repositories.entities.ProductImage;
+import com.datasaz.ecommerce.repositories.entities.ProductImageAttach;
+import com.datasaz.ecommerce.repositories.entities.User;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
+import com.datasaz.ecommerce.services.interfaces.IImageDeliveryService;
+import com.datasaz.ecommerce.services.interfaces.IObjectStorageService;
+import com.datasaz.ecommerce.utilities.BinaryContentResource;
+import com.datasaz.ecommerce.utilities.ContentHashUtils;
+import com.datasaz.ecommerce.utilities.OffHeapLruCache;
+import com.datasaz.ecommerce.utilities.SignedUrlSigner;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolves product images to streamable resources without loading their bytes:
+ * database mode streams binary_content through JDBC, file mode hands the file to the container as a
+ * {@link FileSystemResource}. Only metadata is read here; the body is opened when the response is written.
+ * <p>
+ * In redirect delivery mode no body is returned at all. Files get an HMAC-signed path served by a static handler;
+ * database payloads are copied once into object storage under their content hash and handed out as a signed
+ * (for S3, presigned) URL from there.
+ * <p>
+ * Thumbnails are requested for every product card, so streamed thumbnails are kept in the off-heap image cache
+ * after their first read instead of going back to the database each time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageDeliveryService implements IImageDeliveryService {
+
+    private static final String PRODUCTS_DIR = "products";
+    private static final String PROFILE_PICTURES_DIR = "profile-pictures";
+    // Object keys of delivery copies; these are only served through signed URLs
+    public static final String CONTENT_PREFIX = "content/";
+
+    private final ProductImageAttachRepository productImageAttachRepository;
+    private final ProductImageRepository productImageRepository;
+    private final UserRepository userRepository;
+    private final IBinaryContentService binaryContentService;
+    private final IObjectStorageService objectStorageService;
+    private final SignedUrlSigner signedUrlSigner;
+    private final OffHeapLruCache imageMemoryCache;
+    private final DataSource dataSource;
+    private final GroupConfig groupConfig;
+
+    // Uploaded file names are unique and never rewritten, so a file's hash only has to be computed once
+    private final Cache<String, String> fileHashes = Caffeine.newBuilder().maximumSize(10_000).build();
+
+    // Object keys of database payloads already copied to object storage. Keys are content hashes, so an entry only goes
+    // stale when its copy is deleted; other instances learn of that when their entry expires
+    private final Cache<String, Boolean> publishedContent = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    @Override
+    public ImageDelivery getProductImage(Long productId, Long imageId, boolean thumbnail) {
+        if (groupConfig.imageStorageMode.equals("database")) {
+            ProductImageAttach image = productImageAttachRepository.findById(imageId)
+                    .orElseThrow(() -> ResourceNotFoundException.builder().message("Image not found with ID: " + imageId).build());
+            checkOwnership(productId, image.getProduct().getId());
+            return fromBinaryContent(image, thumbnail);
+        }
+        ProductImage image = productImageRepository.findById(imageId)
+                .orElseThrow(() -> ResourceNotFoundException.builder().message("Image not found with ID: " + imageId).build());
+        checkOwnership(productId, image.getProduct().getId());
+        return fromFile(image);
+    }
+
+    @Override
+    public ImageDelivery getPrimaryProductImage(Long productId, boolean thumbnail) {
+        if (groupConfig.imageStorageMode.equals("database")) {
+            ProductImageAttach image = productImageAttachRepository.findByProductIdAndIsPrimaryTrue(productId)
+                    .orElseThrow(() -> ResourceNotFoundException.builder().message("Primary image not found for product ID: " + productId).build());
+            return fromBinaryContent(image, thumbnail);
+        }
+        ProductImage image = productImageRepository.findByProductIdAndIsPrimaryTrue(productId)
+                .orElseThrow(() -> ResourceNotFoundException.builder().message("Primary image not found for product ID: " + productId).build());
+        return fromFile(image);
+    }
+
+    @Override
+    public ImageDelivery getProfilePicture(String email) {
+        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+                .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
+        String fileName = "profile." + (user.getImageFileExtension() != null ? user.getImageFileExtension() : "jpg");
+        if (user.getImageContentId() != null) {
+            return fromContent(user.getImageContentId(), user.getImageContentType(), fileName,
+                    "Profile picture not found for user: " + email, false);
+        }
+        if (user.getProfilePictureUrl() == null || user.getProfilePictureUrl().isBlank()) {
+            throw ResourceNotFoundException.builder().message("Profile picture not found for user: " + email).build();
+        }
+        String storedName = Path.of(user.getProfilePictureUrl()).getFileName().toString();
+        // Pictures stored before their type was recorded fall back to the type of their file name
+        String contentType = user.getImageContentType() != null ? user.getImageContentType()
+                : MediaTypeFactory.getMediaType(storedName).map(MediaType::toString).orElse(GroupConfig.DEFAULT_MIME_TYPE);
+        return fromFile(PROFILE_PICTURES_DIR, storedName, contentType, "Profile picture not found for user: " + email);
+    }
+
+    @Override
+    public Map<Long, ImageDelivery> getProductThumbnails(Collection<Long> productIds) {
+        // One metadata query for the whole batch; rows come cover image first, so the first usable row per product wins
+        Map<Long, ProductThumbnailRef> covers = new LinkedHashMap<>();
+        for (ProductThumbnailRef ref : productImageAttachRepository.findThumbnailRefsByProductIds(productIds)) {
+            if (ref.getSize() > 0) {
+                covers.putIfAbsent(ref.getProductId(), ref);
+            }
+        }
+        Map<Long, ImageDelivery> thumbnails = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            ProductThumbnailRef ref = covers.get(productId);
+            if (ref == null) {
+                continue;
+            }
+            // Always streamed, redirect delivery included: the batch exists to save the per-image round trips
+            Resource resource = new BinaryContentResource(dataSource, ref.getContentId(), ref.getSize());
+            if (ref.getContentHash() != null) {
+                resource = imageMemoryCache.cached(CONTENT_PREFIX + ref.getContentHash(), resource);
+            }
+            thumbnails.put(productId, ImageDelivery.builder()
+                    .resource(resource)
+                    .contentType(thumbnailContentType(ref))
+                    .fileName(ref.getFileName())
+                    .contentHash(ref.getContentHash())
+                    .build());
+        }
+        return thumbnails;
+    }
+
+    @Override
+    public void unpublish(String contentHash) {
+        String key = CONTENT_PREFIX + contentHash;
+        publishedContent.invalidate(key);
+        imageMemoryCache.remove(key);
+        objectStorageService.delete(key).whenComplete((result, e) -> {
+            if (e != null) {
+                log.warn("Failed to delete object storage copy {}: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    private static String thumbnailContentType(ProductThumbnailRef ref) {
+        if (ref.getContentType() != null) {
+            return ref.getContentType();
+        }
+        return ref.getFallbackContentType() != null ? ref.getFallbackContentType() : GroupConfig.DEFAULT_MIME_TYPE;
+    }
+
+    private void checkOwnership(Long expectedProductId, Long actualProductId) {
+        if (expectedProductId != null && !expectedProductId.equals(actualProductId)) {
+            throw ResourceNotFoundException.builder().message("Image does not belong to product ID: " + expectedProductId).build();
+        }
+    }
+
+    private ImageDelivery fromBinaryContent(ProductImageAttach image, boolean thumbnail) {
+        // Until its thumbnail has been derived (or if that failed) an image is served in full
+        boolean hasThumbnail = thumbnail && image.getThumbnailContentId() != null;
+        Long contentId = hasThumbnail ? image.getThumbnailContentId() : image.getFileContentId();
+        return fromContent(contentId, image.getContentType(), image.getFileName(),
+                (hasThumbnail ? "Thumbnail not found for image ID: " : "Image content not found for image ID: ") + image.getId(),
+                hasThumbnail);
+    }
+
+    private ImageDelivery fromContent(Long contentId, String fallbackContentType, String fileName, String missingMessage,
+                                      boolean cacheInMemory) {
+        BinaryContentMetadata metadata = binaryContentService.findMetadataById(contentId)
+                .filter(content -> content.getSize() > 0)
+                .orElseThrow(() -> ResourceNotFoundException.builder().message(missingMessage).build());
+        String contentType = metadata.getContentType() != null ? metadata.getContentType() : fallbackContentType;
+        ImageDelivery.ImageDeliveryBuilder delivery = ImageDelivery.builder()
+                .contentType(contentType)
+                .fileName(fileName)
+                .contentHash(metadata.getContentHash());
+        if (isRedirectDelivery()) {
+            String key = publish(metadata, contentType);
+            if (key != null) {
+                return delivery.redirectUrl(objectStorageService.getSignedUrl(key, signedUrlTtl())).build();
+            }
+        }
+        Resource resource = new BinaryContentResource(dataSource, metadata.getId(), metadata.getSize());
+        if (cacheInMemory && metadata.getContentHash() != null) {
+            // Keyed by content hash, so an entry can never go stale
+            resource = imageMemoryCache.cached(CONTENT_PREFIX + metadata.getContentHash(), resource);
+        }
+        return delivery.resource(resource).build();
+    }
+
+    private ImageDelivery fromFile(ProductImage image) {
+        return fromFile(PRODUCTS_DIR, image.getFileName(),
+                image.getContentType() != null ? image.getContentType() : GroupConfig.DEFAULT_MIME_TYPE,
+                "Image content not found for image ID: " + image.getId());
+    }
+
+    private ImageDelivery fromFile(String directory, String fileName, String contentType, String missingMessage) {
+        Path path = Path.of(groupConfig.UPLOAD_DIR, directory, fileName);
+        if (!Files.isReadable(path)) {
+            log.warn("Image file missing: {}", path);
+            throw ResourceNotFoundException.builder().message(missingMessage).build();
+        }
+        ImageDelivery.ImageDeliveryBuilder delivery = ImageDelivery.builder()
+                .contentType(contentType)
+                .fileName(fileName);
+        if (isRedirectDelivery()) {
+            String signedPath = WebConfig.SIGNED_FILES_PATH + directory + "/" + UriUtils.encodePath(fileName, StandardCharsets.UTF_8);
+            return delivery.redirectUrl(signedUrlSigner.sign(signedPath, signedUrlTtl())).build();
+        }
+        return delivery
+                .resource(new FileSystemResource(path))
+                .contentHash(fileHash(path))
+                .build();
+    }
+
+    private boolean isRedirectDelivery() {
+        return "redirect".equals(groupConfig.imageDeliveryMode);
+    }
+
+    private Duration signedUrlTtl() {
+        return Duration.ofSeconds(groupConfig.signedUrlTtlSeconds);
+    }
+
+    // Returns the object key, or null to fall back to streaming when the copy fails
+    private String publish(BinaryContentMetadata content, String contentType) {
+        if (content.getContentHash() == null) {
+            return null;
+        }
+        String key = CONTENT_PREFIX + content.getContentHash();
+        try {
+            // Copied outside the cache: a compute blocks every lookup that hashes to the same bin for the whole upload.
+            // Concurrent first requests may both copy, which is harmless for an object named after its content
+            if (publishedContent.getIfPresent(key) == null) {
+                copyToObjectStorage(key, content, contentType);
+                publishedContent.put(key, Boolean.TRUE);
+            }
+            return key;
+        } catch (RuntimeException e) {
+            log.warn("Failed to copy binary content {} to object storage, streaming it instead: {}", content.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void copyToObjectStorage(String key, BinaryContentMetadata content, String contentType) {
+        if (objectStorageService.exists(key).join()) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile("image-publish-", ".tmp");
+            try {
+                try (InputStream in = new BinaryContentResource(dataSource, content.getId(), content.getSize()).getInputStream()) {
+                    Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                objectStorageService.put(key, temp, contentType).join();
+                log.info("Copied binary content {} to object storage as {}", content.getId(), key);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String fileHash(Path path) {
+        try {
+            String key = path + ":" + Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis();
+            return fileHashes.get(key, k -> {
+                try (InputStream in = Files.newInputStream(path)) {
+                    return ContentHashUtils.sha256Hex(in);
+                } catch (IOException e) {
+                    log.warn("Failed to hash image file {}: {}", path, e.getMessage());
+                    return null;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to read attributes of image file {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.services.interfaces.IImageProcessingService;
+import com.datasaz.ecommerce.utilities.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker pool for image decoding and resizing, kept off the request threads.
+ * <p>
+ * A fixed number of threads drains a bounded queue. A submission reserves its place up front, so an upload that would
+ * not fit is rejected with 503 before its transaction commits, instead of being processed on the request thread; the
+ * place is given back when the job finishes or the transaction rolls back. Each running job holds its estimated
+ * decode memory from a shared budget (in KB), so a burst of large images waits for memory instead of exhausting the
+ * heap. Jobs a request waits for, such as on-demand renditions, run on the request thread against the same budget and
+ * are rejected with 503 when it does not free up in time.
+ */
+@Slf4j
+@Service
+public class ImageProcessingService implements IImageProcessingService {
+
+    @Value("${image-processing.threads:2}")
+    private int threads;
+
+    @Value("${image-processing.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${image-processing.memory-budget-mb:256}")
+    private int memoryBudgetMb;
+
+    @Value("${image-processing.run-now-wait-ms:2000}")
+    private long runNowWaitMs;
+
+    private ThreadPoolExecutor executor;
+    private Semaphore memoryBudget;
+    private Semaphore slots;
+    private int memoryBudgetKb;
+
+    @PostConstruct
+    void start() {
+        memoryBudgetKb = Math.max(1, memoryBudgetMb) * 1024;
+        memoryBudget = new Semaphore(memoryBudgetKb, true);
+        AtomicInteger threadNumber = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        int capacity = Math.max(1, queueCapacity);
+        slots = new Semaphore(poolSize + capacity);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-processing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void submit(String description, long estimatedBytes, Runnable job) {
+        if (!slots.tryAcquire()) {
+            log.warn("Image processing queue is full, rejecting {}", description);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Image processing is busy, please try again shortly.");
+        }
+        TransactionUtils.afterRollback(slots::release);
+        TransactionUtils.afterCommit(() -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        run(description, estimatedBytes, job);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Only after shutdown; the job is resumed as pending on the next start
+                slots.release();
+                log.warn("Image processing stopped, {} left pending", description);
+            }
+        });
+    }
+
+    @Override
+    public <T> T runNow(String description, long estimatedBytes, ImageJob<T> job) throws IOException {
+        int permits = permits(estimatedBytes);
+        boolean acquired;
+        try {
+            acquired = memoryBudget.tryAcquire(permits, runNowWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("Image memory budget is exhausted, rejecting {}", description);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Image processing is busy, please try again shortly.");
+        }
+        long start = System.currentTimeMillis();
+        try {
+            T result = job.run();
+            log.debug("Processed {} in {} ms", description, System.currentTimeMillis() - start);
+            return result;
+        } finally {
+            memoryBudget.release(permits);
+        }
+    }
+
+    // A job larger than the whole budget still runs, alone
+    private int permits(long estimatedBytes) {
+        return (int) Math.min(memoryBudgetKb, Math.max(1, estimatedBytes / 1024));
+    }
+
+    private void run(String description, long estimatedBytes, Runnable job) {
+        int permits = permits(estimatedBytes);
+        long start = System.currentTimeMillis();
+        memoryBudget.acquireUninterruptibly(permits);
+        try {
+            job.run();
+            log.debug("Processed {} in {} ms", description, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Image processing failed for {}: {}", description, e.getMessage(), e);
+        } finally {
+            memoryBudget.release(permits);
+        }
+    }
+}
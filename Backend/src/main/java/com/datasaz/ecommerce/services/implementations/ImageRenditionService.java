@@ -0,0 +1,244 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import com.datasaz.ecommerce.exceptions.TechnicalException;
+import com.datasaz.ecommerce.models.dto.ImageDelivery;
+import com.datasaz.ecommerce.services.interfaces.IImageDeliveryService;
+import com.datasaz.ecommerce.services.interfaces.IImageProcessingService;
+import com.datasaz.ecommerce.services.interfaces.IImageRenditionService;
+import com.datasaz.ecommerce.utilities.DiskLruCache;
+import com.datasaz.ecommerce.utilities.ImageDecoder;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine.ResizeQuality;
+import com.datasaz.ecommerce.utilities.OffHeapLruCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves product images at a fixed set of widths and formats for responsive pages.
+ * <p>
+ * A rendition is generated from the stored image on its first request and kept in a size-bounded disk cache keyed
+ * by content version, width and format, so a changed image never serves an old rendition. Concurrent requests
+ * for the same missing rendition wait for a single generation instead of each decoding the image, and generations
+ * hold their decode memory from the image processing budget, so misses on many different renditions are answered
+ * with 503 rather than decoding more originals than the heap can take. Served renditions are also kept in the
+ * off-heap image cache, so hot ones are answered from memory.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageRenditionService implements IImageRenditionService {
+
+    private static final Set<String> FORMATS = Set.of("jpeg", "webp");
+    private static final String MEMORY_CACHE_PREFIX = "renditions/";
+
+    private final IImageDeliveryService imageDeliveryService;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final IImageProcessingService imageProcessingService;
+    private final OffHeapLruCache imageMemoryCache;
+    private final GroupConfig groupConfig;
+
+    @Value("${image-rendition.widths:320,640,960}")
+    private List<Integer> widths;
+
+    @Value("${image-rendition.cache-dir:}")
+    private String cacheDir;
+
+    @Value("${image-rendition.max-cache-mb:512}")
+    private long maxCacheMb;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private volatile DiskLruCache cache;
+    private volatile Boolean webpWritable;
+
+    @Override
+    public ImageDelivery getRendition(Long imageId, Integer width, String format) {
+        if (width != null && !widths.contains(width)) {
+            throw BadRequestException.builder().message("Unsupported image width: " + width + ", expected one of " + widths).build();
+        }
+        String requestedFormat = format != null ? format.toLowerCase(Locale.ROOT) : "jpeg";
+        if (!FORMATS.contains(requestedFormat)) {
+            throw BadRequestException.builder().message("Unsupported image format: " + format + ", expected one of " + FORMATS).build();
+        }
+        // Without a WebP encoder on the classpath, WebP requests get JPEG; the content type tells the client
+        String outputFormat = requestedFormat.equals("webp") && !isWebpWritable() ? "jpeg" : requestedFormat;
+
+        ImageDelivery original = imageDeliveryService.getProductImage(null, imageId, false);
+        if (original.getContentHash() == null) {
+            // Without a content version a cached rendition could outlive a change to the image
+            log.warn("No content hash for image ID {}, serving the original instead of a rendition", imageId);
+            return original;
+        }
+
+        String extension = outputFormat.equals("jpeg") ? "jpg" : outputFormat;
+        String label = width != null ? String.valueOf(width) : "full";
+        // Keyed by content alone, so images sharing the same stored content share their renditions
+        String key = original.getVersion() + "-" + label + "." + extension;
+        if (!cache().contains(key)) {
+            generate(key, original, width, outputFormat);
+        }
+
+        String baseName = original.getFileName() != null ? original.getFileName().replaceFirst("\\.[^.]*$", "") : String.valueOf(imageId);
+        return ImageDelivery.builder()
+                .resource(imageMemoryCache.cached(MEMORY_CACHE_PREFIX + key,
+                        new RenditionResource(key, () -> generate(key, original, width, outputFormat))))
+                .contentType("image/" + outputFormat)
+                .fileName(baseName + "-" + label + "." + extension)
+                // Each width and format has its own URL, so the original's hash versions all of them
+                .contentHash(original.getContentHash())
+                .build();
+    }
+
+    private void generate(String key, ImageDelivery original, Integer width, String format) {
+        CompletableFuture<Void> generation = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlight.putIfAbsent(key, generation);
+        if (running != null) {
+            await(running);
+            return;
+        }
+        try {
+            // Another request may have finished generating it between the cache miss and registering here
+            if (!cache().contains(key)) {
+                long start = System.currentTimeMillis();
+                cache().put(key, imageProcessingService.runNow("image rendition " + key,
+                        estimateMemory(original, width), () -> render(original, width, format)));
+                log.debug("Generated image rendition {} in {} ms", key, System.currentTimeMillis() - start);
+            }
+            generation.complete(null);
+        } catch (IOException e) {
+            log.error("Failed to generate image rendition {}: {}", key, e.getMessage(), e);
+            TechnicalException failure = TechnicalException.builder().message("Error generating image rendition: " + e.getMessage()).build();
+            generation.completeExceptionally(failure);
+            throw failure;
+        } catch (RuntimeException e) {
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, generation);
+        }
+    }
+
+    private void await(CompletableFuture<Void> generation) {
+        try {
+            generation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw TechnicalException.builder().message("Error generating image rendition: " + e.getMessage()).build();
+        }
+    }
+
+    // Decoded (possibly subsampled) original plus the rendition held while it is encoded
+    private long estimateMemory(ImageDelivery original, Integer width) throws IOException {
+        Dimension size;
+        try (InputStream in = original.getResource().getInputStream()) {
+            size = ImageDecoder.readDimensions(in);
+        }
+        if (size == null || size.width <= 0 || size.height <= 0) {
+            throw new IOException("Cannot read image: invalid or corrupt image data");
+        }
+        Dimension decoded = ImageDecoder.decodedSize(size, width != null ? width : Integer.MAX_VALUE, 1, groupConfig.maxDecodePixels);
+        long targetWidth = width != null ? Math.min(width, decoded.width) : decoded.width;
+        return 4L * decoded.width * decoded.height + 4L * targetWidth * targetWidth * decoded.height / decoded.width;
+    }
+
+    private byte[] render(ImageDelivery original, Integer width, String format) throws IOException {
+        BufferedImage image;
+        try (InputStream in = original.getResource().getInputStream()) {
+            // Only the width is requested; the height is left free so that it never drives the subsampling
+            image = ImageDecoder.decode(in, width != null ? width : Integer.MAX_VALUE, 1, groupConfig.maxDecodePixels);
+        }
+        // Never upscale: a rendition wider than the stored image is the stored width
+        int targetWidth = width != null ? Math.min(width, image.getWidth()) : image.getWidth();
+        int targetHeight = Math.max(1, (int) Math.round((double) targetWidth * image.getHeight() / image.getWidth()));
+        return imageProcessingEngine.resize(image, format, false, targetWidth, targetHeight, ResizeQuality.BALANCED);
+    }
+
+    private DiskLruCache cache() {
+        DiskLruCache current = cache;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (cache == null) {
+                Path directory = cacheDir != null && !cacheDir.isBlank() ? Path.of(cacheDir) : Path.of(groupConfig.UPLOAD_DIR, "renditions");
+                try {
+                    cache = new DiskLruCache(directory, Math.max(1, maxCacheMb) * 1024 * 1024);
+                } catch (IOException e) {
+                    log.error("Failed to open image rendition cache {}: {}", directory, e.getMessage(), e);
+                    throw TechnicalException.builder().message("Image rendition cache unavailable").build();
+                }
+            }
+            return cache;
+        }
+    }
+
+    private boolean isWebpWritable() {
+        if (webpWritable == null) {
+            webpWritable = ImageIO.getImageWritersByFormatName("webp").hasNext();
+        }
+        return webpWritable;
+    }
+
+    // The cached file is opened only when the body is written; a rendition evicted since the lookup is generated again
+    private final class RenditionResource extends AbstractResource {
+        private final String key;
+        private final Runnable regenerate;
+
+        private RenditionResource(String key, Runnable regenerate) {
+            this.key = key;
+            this.regenerate = regenerate;
+        }
+
+        @Override
+        public String getDescription() {
+            return "image rendition [" + key + "]";
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            OptionalLong length = cache().length(key);
+            if (length.isEmpty()) {
+                regenerate.run();
+                length = cache().length(key);
+            }
+            return length.orElseThrow(() -> new FileNotFoundException(getDescription() + " is no longer cached"));
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            Optional<InputStream> content = cache().open(key);
+            if (content.isEmpty()) {
+                regenerate.run();
+                content = cache().open(key);
+            }
+            return content.orElseThrow(() -> new FileNotFoundException(getDescription() + " is no longer cached"));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.services.interfaces.IObjectStorageService;
+import com.datasaz.ecommerce.utilities.SignedUrlSigner;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Object storage in a local directory, for tests and deployments without S3. Writes run on a small pool so callers
+ * see the same asynchronous behaviour as with S3; each object is written to a temporary file and moved into place.
+ * Signed URLs point at {@link #SIGNED_PATH}, which is served straight from the directory (see WebConfig). Plain URLs
+ * point at {@link #PUBLIC_PATH}, the local counterpart of a public bucket URL, which serves everything except the
+ * delivery copies that are only handed out signed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "object-storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalObjectStorageService implements IObjectStorageService {
+
+    public static final String SIGNED_PATH = "/signed/objects/";
+    public static final String PUBLIC_PATH = "/objects/";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final GroupConfig groupConfig;
+    private final SignedUrlSigner signedUrlSigner;
+
+    // Defaults to <upload dir>/objects
+    @Value("${object-storage.local-dir:}")
+    private String localDir;
+
+    @Value("${object-storage.local-threads:4}")
+    private int threads;
+
+    private Path root;
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        root = (localDir != null && !localDir.isBlank() ? Path.of(localDir) : Path.of(groupConfig.UPLOAD_DIR, "objects"))
+                .toAbsolutePath().normalize();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "object-storage-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<String> put(String key, byte[] content, String contentType) {
+        Path target = resolve(key);
+        return CompletableFuture.supplyAsync(() -> {
+            write(target, temp -> Files.write(temp, content));
+            return getUrl(key);
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<String> put(String key, Path file, String contentType) {
+        Path target = resolve(key);
+        return CompletableFuture.supplyAsync(() -> {
+            write(target, temp -> Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING));
+            return getUrl(key);
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String key) {
+        Path target = resolve(key);
+        return CompletableFuture.runAsync(() -> {
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete object " + key, e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(String key) {
+        return CompletableFuture.completedFuture(Files.isRegularFile(resolve(key)));
+    }
+
+    @Override
+    public String getUrl(String key) {
+        resolve(key);
+        return PUBLIC_PATH + UriUtils.encodePath(key, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getSignedUrl(String key, Duration ttl) {
+        resolve(key);
+        return signedUrlSigner.sign(SIGNED_PATH + UriUtils.encodePath(key, StandardCharsets.UTF_8), ttl);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    // Keys may contain '/' for grouping but must stay inside the storage directory
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (key.isBlank() || !path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid object key: " + key);
+        }
+        return path;
+    }
+
+    private void write(Path target, TempWriter writer) {
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString() + ".", TEMP_SUFFIX);
+            try {
+                writer.write(temp);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.debug("Stored object {}", target);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store object " + target.getFileName(), e);
+        }
+    }
+
+    private interface TempWriter {
+        void write(Path temp) throws IOException;
+    }
+}
@@ -12,6 +12,7 @@ import com.datasaz.ecommerce.repositories.*;
 import com.datasaz.ecommerce.repositories.entities.*;
 import com.datasaz.ecommerce.services.interfaces.*;
 import com.datasaz.ecommerce.utilities.CurrentUserService;
+import com.datasaz.ecommerce.utilities.UserFetchPlan;
 import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -46,6 +47,8 @@ public class OrderService implements IOrderService {
     private final IBuyerCartService buyerCartService;
     private final CouponService couponService;
     private final IAuditLogService auditLogService;
+    private final IProductFacetService productFacetService;
+    private final IProductLeaderboardService productLeaderboardService;
     private final IEmailService emailService;
     private final IPdfGenerator pdfGenerator;
     private final OrderShippingService orderShippingService;
@@ -74,7 +77,7 @@ public class OrderService implements IOrderService {
     @Transactional
     @Retryable(value = OptimisticLockException.class, maxAttempts = 3, backoff = @Backoff(delay = 100))
     public OrderResponse createOrder(OrderCheckoutRequest orderRequest) {
-        User buyer = currentUserService.getCurrentUser();
+        User buyer = currentUserService.getCurrentUser(UserFetchPlan.ROLES);
         log.info("Creating order for user: {} at ", buyer.getEmailAddress());
 
         Cart cart = cartRepository.findByUserWithItems(buyer)
@@ -106,6 +109,7 @@ public class OrderService implements IOrderService {
 
         Order newOrder = buildOrder(buyer, cart, itemsToOrder, orderRequest, calculatedTotals);
         Order savedOrder = orderRepository.save(newOrder);
+        productLeaderboardService.recordSales(savedOrder.getItems());
 
         updateStockAndCleanupCart(cart, itemsToOrder);
 
@@ -273,8 +277,17 @@ public class OrderService implements IOrderService {
             }
             // Temporarily decrease stock to prevent race conditions during this transaction
             // A dedicated stock service/table might handle this better in a larger system
-            product.setQuantity(product.getQuantity() - item.getQuantity());
-            productRepository.save(product);
+            changeStock(product, -item.getQuantity());
+        }
+    }
+
+    // Only the availability facet depends on stock, so the product is reindexed only when it sells out or comes back
+    private void changeStock(Product product, int delta) {
+        boolean wasInStock = product.getQuantity() > 0;
+        product.setQuantity(product.getQuantity() + delta);
+        productRepository.save(product);
+        if (wasInStock != product.getQuantity() > 0) {
+            productFacetService.indexProduct(product.getId());
         }
     }
 
@@ -450,8 +463,7 @@ public class OrderService implements IOrderService {
                     .build();
             orderItems.add(orderItem);
 
-            product.setQuantity(product.getQuantity() - cartItem.getQuantity());
-            productRepository.save(product);
+            changeStock(product, -cartItem.getQuantity());
 
             subtotal = subtotal.add(product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
         }
@@ -727,9 +739,13 @@ public class OrderService implements IOrderService {
                 });
         try {
             OrderStatus newStatus = OrderStatus.valueOf(status.toUpperCase());
+            OrderStatus previousStatus = order.getOrderStatus();
             order.setOrderStatus(newStatus);
             orderRepository.save(order);
             order.setItems(orderItemRepository.findByOrderId(id));
+            if (newStatus == OrderStatus.CANCELLED && previousStatus != OrderStatus.CANCELLED) {
+                releaseStock(order.getItems());
+            }
 
             // Audit log
             auditLogService.logAction(
@@ -763,6 +779,17 @@ public class OrderService implements IOrderService {
         }
     }
 
+    // A cancelled order gives back the stock it took at checkout
+    private void releaseStock(List<OrderItem> items) {
+        for (OrderItem item : items) {
+            if (item.getProduct() == null) {
+                continue;
+            }
+            productRepository.findByIdWithLock(item.getProduct().getId())
+                    .ifPresent(product -> changeStock(product, item.getQuantity()));
+        }
+    }
+
     @Override
     @Transactional
     public Order saveOrder(Order order) {
@@ -47,6 +47,7 @@ public class PaymentService implements IPaymentService {
 
     private final OrderRefundRepository orderRefundRepository;
     private final ReturnRequestRepository returnRequestRepository;
+    private final IProductLeaderboardService productLeaderboardService;
 
     @Value("${paypal.clientId}")
     private String paypalClientId;
@@ -337,6 +338,7 @@ public class PaymentService implements IPaymentService {
         // Update return request status
         returnRequest.setStatus(ReturnStatus.COMPLETED);
         returnRequestRepository.save(returnRequest);
+        productLeaderboardService.recordReturns(returnRequest.getItems());
 
         // Audit log
         String authenticatedUser = SecurityContextHolder.getContext().getAuthentication().getName();
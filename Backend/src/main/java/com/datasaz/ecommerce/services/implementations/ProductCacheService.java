@@ -0,0 +1,213 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.ProductPageKey;
+import com.datasaz.ecommerce.models.dto.ProductVersionRef;
+import com.datasaz.ecommerce.models.response.ProductResponse;
+import com.datasaz.ecommerce.models.response.ProductSummaryResponse;
+import com.datasaz.ecommerce.repositories.ProductRepository;
+import com.datasaz.ecommerce.services.interfaces.IProductCacheService;
+import com.datasaz.ecommerce.utilities.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Catalog cache keyed by product ID and {@code Product.version}.
+ * <p>
+ * Product details and summaries are stored with the version they were built from and are only served while that
+ * version is still current, so stock and price changes made anywhere (orders, carts, sellers) never leak stale data.
+ * Listing pages only hold the ordered product IDs; a page hit checks the versions of its products in one query and
+ * rebuilds just the stale entries. Writes drop the affected product and the pages containing it; only membership
+ * changes (create, delete, category move) drop whole listing scopes. Pages also expire after a short TTL, which bounds
+ * how long derived listings (best sellers, on sale) can miss a product that newly qualifies.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductCacheService implements IProductCacheService {
+
+    // Spring-managed caches still used by the admin product endpoints
+    private static final String ADMIN_PRODUCT_CACHE = "products";
+    private static final String ADMIN_ALL_PRODUCTS_CACHE = "allProducts";
+
+    private record VersionedProduct(Long version, ProductResponse product) {
+    }
+
+    private record CachedPage(List<Long> productIds, Pageable pageable, long total) {
+    }
+
+    private final ProductRepository productRepository;
+    private final CacheManager cacheManager;
+
+    @Value("${product-cache.max-products:10000}")
+    private long maxProducts;
+
+    @Value("${product-cache.max-pages:5000}")
+    private long maxPages;
+
+    @Value("${product-cache.page-ttl-seconds:300}")
+    private long pageTtlSeconds;
+
+    private Cache<Long, VersionedProduct> products;
+    private Cache<Long, ProductSummaryResponse> summaries;
+    private Cache<ProductPageKey, CachedPage> pages;
+    private final Map<Long, Set<ProductPageKey>> pagesByProduct = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        products = Caffeine.newBuilder().maximumSize(maxProducts).build();
+        summaries = Caffeine.newBuilder().maximumSize(maxProducts).build();
+        pages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(Duration.ofSeconds(pageTtlSeconds))
+                // Runs synchronously with size/TTL evictions; explicit removals go through removePage, which unindexes too
+                .evictionListener((ProductPageKey key, CachedPage page, RemovalCause cause) -> unindex(key, page))
+                .build();
+    }
+
+    @Override
+    public ProductResponse getProduct(Long productId, Long version, Supplier<ProductResponse> loader) {
+        VersionedProduct cached = products.getIfPresent(productId);
+        if (cached != null && Objects.equals(cached.version(), version)) {
+            return cached.product();
+        }
+        ProductResponse product = loader.get();
+        products.put(productId, new VersionedProduct(version, product));
+        return product;
+    }
+
+    @Override
+    public Page<ProductSummaryResponse> getPage(ProductPageKey key, Supplier<Page<ProductSummaryResponse>> loader,
+                                                Function<List<Long>, List<ProductSummaryResponse>> summaryLoader) {
+        CachedPage cached = pages.getIfPresent(key);
+        if (cached != null) {
+            List<ProductSummaryResponse> content = getSummaries(cached.productIds(), summaryLoader);
+            if (content.size() == cached.productIds().size()) {
+                return new PageImpl<>(content, cached.pageable(), cached.total());
+            }
+            // A product on the page is gone: its boundaries are no longer valid
+            removePage(key);
+        }
+
+        Page<ProductSummaryResponse> page = loader.get();
+        List<Long> productIds = new ArrayList<>(page.getNumberOfElements());
+        for (ProductSummaryResponse summary : page.getContent()) {
+            summaries.put(summary.getId(), summary);
+            productIds.add(summary.getId());
+        }
+        pages.put(key, new CachedPage(List.copyOf(productIds), page.getPageable(), page.getTotalElements()));
+        productIds.forEach(productId -> pagesByProduct.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(key));
+        return page;
+    }
+
+    @Override
+    public List<ProductSummaryResponse> getSummaries(List<Long> productIds, Function<List<Long>, List<ProductSummaryResponse>> summaryLoader) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        for (ProductVersionRef ref : productRepository.findVersionRefsByIds(productIds)) {
+            versions.put(ref.getId(), ref.getVersion());
+        }
+
+        Map<Long, ProductSummaryResponse> resolved = new HashMap<>();
+        List<Long> stale = new ArrayList<>();
+        for (Long productId : productIds) {
+            if (!versions.containsKey(productId)) {
+                continue;
+            }
+            ProductSummaryResponse summary = summaries.getIfPresent(productId);
+            if (summary != null && Objects.equals(summary.getVersion(), versions.get(productId))) {
+                resolved.put(productId, summary);
+            } else {
+                stale.add(productId);
+            }
+        }
+        if (!stale.isEmpty()) {
+            for (ProductSummaryResponse summary : summaryLoader.apply(stale)) {
+                summaries.put(summary.getId(), summary);
+                resolved.put(summary.getId(), summary);
+            }
+        }
+        return productIds.stream().map(resolved::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public void evictProduct(Long productId) {
+        TransactionUtils.runNowAndAfterCommit(() -> dropProduct(productId));
+    }
+
+    @Override
+    public void evictListings(Long productId, Collection<Long> categoryIds) {
+        Set<Long> scopes = new HashSet<>();
+        categoryIds.stream().filter(Objects::nonNull).forEach(scopes::add);
+        TransactionUtils.runNowAndAfterCommit(() -> {
+            if (productId != null) {
+                dropProduct(productId);
+            }
+            pages.asMap().keySet().stream()
+                    .filter(key -> key.categoryId() == null || scopes.contains(key.categoryId()))
+                    .toList()
+                    .forEach(this::removePage);
+            clearAdminCache(ADMIN_ALL_PRODUCTS_CACHE);
+        });
+    }
+
+    @Override
+    public void evictAll() {
+        TransactionUtils.runNowAndAfterCommit(() -> {
+            products.invalidateAll();
+            summaries.invalidateAll();
+            pages.invalidateAll();
+            pagesByProduct.clear();
+            clearAdminCache(ADMIN_PRODUCT_CACHE);
+            clearAdminCache(ADMIN_ALL_PRODUCTS_CACHE);
+        });
+    }
+
+    private void dropProduct(Long productId) {
+        products.invalidate(productId);
+        summaries.invalidate(productId);
+        Set<ProductPageKey> containing = pagesByProduct.remove(productId);
+        if (containing != null) {
+            containing.forEach(this::removePage);
+        }
+        Optional.ofNullable(cacheManager.getCache(ADMIN_PRODUCT_CACHE)).ifPresent(cache -> cache.evict(productId));
+        clearAdminCache(ADMIN_ALL_PRODUCTS_CACHE);
+    }
+
+    private void removePage(ProductPageKey key) {
+        unindex(key, pages.asMap().remove(key));
+    }
+
+    private void unindex(ProductPageKey key, CachedPage page) {
+        if (key == null || page == null) {
+            return;
+        }
+        for (Long productId : page.productIds()) {
+            pagesByProduct.computeIfPresent(productId, (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private void clearAdminCache(String name) {
+        Optional.ofNullable(cacheManager.getCache(name)).ifPresent(org.springframework.cache.Cache::clear);
+    }
+}
@@ -0,0 +1,195 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.ProductBrowseFilter;
+import com.datasaz.ecommerce.models.dto.ProductFacetDocument;
+import com.datasaz.ecommerce.repositories.ProductRepository;
+import com.datasaz.ecommerce.services.interfaces.ICategoryTreeService;
+import com.datasaz.ecommerce.services.interfaces.IProductFacetService;
+import com.datasaz.ecommerce.utilities.ProductFacetIndex;
+import com.datasaz.ecommerce.utilities.ProductFacetIndex.Facet;
+import com.datasaz.ecommerce.utilities.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the in-memory {@link ProductFacetIndex} in sync with the product table and answers catalog browse queries.
+ * Built in keyset chunks after startup like the search index; afterwards each product write (including stock changes
+ * from orders) re-reads that single product after commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFacetService implements IProductFacetService {
+
+    static final String IN_STOCK = "inStock";
+    static final String OUT_OF_STOCK = "outOfStock";
+
+    private final ProductRepository productRepository;
+    private final ICategoryTreeService categoryTreeService;
+
+    @Value("${product-facets.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product-facets.build-chunk-size:1000}")
+    private int chunkSize;
+
+    // Upper bounds of the price buckets: 0-25, 25-50, ..., 500+
+    @Value("${product-facets.price-buckets:25,50,100,250,500}")
+    private int[] priceBuckets;
+
+    private volatile ProductFacetIndex index = new ProductFacetIndex();
+    private volatile boolean ready;
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuildIndex();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @Override
+    public ProductFacetIndex.Result browse(ProductBrowseFilter filter, Pageable pageable) {
+        Map<Facet, Set<String>> selections = new EnumMap<>(Facet.class);
+        if (filter.categoryId() != null) {
+            selections.put(Facet.CATEGORY, categorySubtree(filter.categoryId()));
+        }
+        if (filter.brands() != null) {
+            selections.put(Facet.BRAND, filter.brands().stream().map(String::trim).collect(Collectors.toSet()));
+        }
+        if (filter.conditions() != null) {
+            selections.put(Facet.CONDITION, filter.conditions().stream().map(Enum::name).collect(Collectors.toSet()));
+        }
+        if (filter.sellTypes() != null) {
+            selections.put(Facet.SELL_TYPE, filter.sellTypes().stream().map(Enum::name).collect(Collectors.toSet()));
+        }
+        if (filter.inStock() != null) {
+            selections.put(Facet.AVAILABILITY, Set.of(filter.inStock() ? IN_STOCK : OUT_OF_STOCK));
+        }
+        if (filter.priceRanges() != null) {
+            selections.put(Facet.PRICE, filter.priceRanges());
+        }
+        return index.query(selections, (int) pageable.getOffset(), pageable.getPageSize());
+    }
+
+    @Override
+    public void indexProduct(Long productId) {
+        TransactionUtils.afterCommit(() -> sync(productId));
+    }
+
+    @Override
+    public void removeProduct(Long productId) {
+        TransactionUtils.afterCommit(() -> {
+            index.remove(productId);
+            if (building.get()) {
+                changedDuringBuild.add(productId);
+            }
+        });
+    }
+
+    @Override
+    public void rebuildIndex() {
+        if (!building.compareAndSet(false, true)) {
+            log.info("Product facet index build already running");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            changedDuringBuild.clear();
+            ProductFacetIndex fresh = new ProductFacetIndex();
+            Long lastId = 0L;
+            List<ProductFacetDocument> chunk;
+            do {
+                chunk = productRepository.findFacetDocumentsAfter(lastId, PageRequest.of(0, chunkSize));
+                chunk.forEach(document -> fresh.upsert(document.getId(), facetValues(document)));
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == chunkSize);
+
+            index = fresh;
+            changedDuringBuild.forEach(this::sync);
+            ready = true;
+            log.info("Product facet index built: {} products in {} ms", fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build product facet index: {}", e.getMessage(), e);
+        } finally {
+            building.set(false);
+        }
+    }
+
+    Map<Facet, String> facetValues(ProductFacetDocument document) {
+        Map<Facet, String> values = new EnumMap<>(Facet.class);
+        if (document.getCategoryId() != null) {
+            values.put(Facet.CATEGORY, document.getCategoryId().toString());
+        }
+        if (document.getBrand() != null && !document.getBrand().isBlank()) {
+            values.put(Facet.BRAND, document.getBrand().trim());
+        }
+        if (document.getProductCondition() != null) {
+            values.put(Facet.CONDITION, document.getProductCondition().name());
+        }
+        if (document.getProductSellType() != null) {
+            values.put(Facet.SELL_TYPE, document.getProductSellType().name());
+        }
+        int quantity = document.getQuantity() != null ? document.getQuantity() : 0;
+        values.put(Facet.AVAILABILITY, quantity > 0 ? IN_STOCK : OUT_OF_STOCK);
+        BigDecimal price = document.getOfferPrice() != null ? document.getOfferPrice() : document.getPrice();
+        if (price != null) {
+            values.put(Facet.PRICE, priceBucket(price));
+        }
+        return values;
+    }
+
+    private String priceBucket(BigDecimal price) {
+        int lower = 0;
+        for (int upper : priceBuckets) {
+            if (price.compareTo(BigDecimal.valueOf(upper)) < 0) {
+                return lower + "-" + upper;
+            }
+            lower = upper;
+        }
+        return lower + "+";
+    }
+
+    // The category and all its descendants, precomputed in the category tree snapshot
+    private Set<String> categorySubtree(Long categoryId) {
+        List<Long> subtree = categoryTreeService.getSnapshot().subtreeIds(categoryId);
+        if (subtree.isEmpty()) {
+            return Set.of(categoryId.toString());
+        }
+        return subtree.stream().map(String::valueOf).collect(Collectors.toSet());
+    }
+
+    private void sync(Long productId) {
+        try {
+            productRepository.findFacetDocumentById(productId)
+                    .ifPresentOrElse(document -> index.upsert(productId, facetValues(document)), () -> index.remove(productId));
+        } catch (Exception e) {
+            log.error("Failed to update facet index for product {}: {}", productId, e.getMessage());
+        }
+        if (building.get()) {
+            changedDuringBuild.add(productId);
+        }
+    }
+}
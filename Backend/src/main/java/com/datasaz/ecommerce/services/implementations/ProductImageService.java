@@ -4,37 +4,56 @@ import com.datasaz.ecommerce.configs.GroupConfig;
 import com.datasaz.ecommerce.exceptions.BadRequestException;
 import com.datasaz.ecommerce.exceptions.ResourceNotFoundException;
 import com.datasaz.ecommerce.exceptions.TechnicalException;
+import com.datasaz.ecommerce.models.dto.BinaryContentMetadata;
 import com.datasaz.ecommerce.models.request.ProductImageRequest;
+import com.datasaz.ecommerce.repositories.ImageBlobRepository;
 import com.datasaz.ecommerce.repositories.ProductImageAttachRepository;
 import com.datasaz.ecommerce.repositories.ProductImageRepository;
 import com.datasaz.ecommerce.repositories.ProductRepository;
+import com.datasaz.ecommerce.repositories.entities.ImageBlob;
+import com.datasaz.ecommerce.repositories.entities.ImageStatus;
 import com.datasaz.ecommerce.repositories.entities.Product;
 import com.datasaz.ecommerce.repositories.entities.ProductImage;
 import com.datasaz.ecommerce.repositories.entities.ProductImageAttach;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
+import com.datasaz.ecommerce.services.interfaces.IImageDeliveryService;
+import com.datasaz.ecommerce.services.interfaces.IImageProcessingService;
+import com.datasaz.ecommerce.services.interfaces.IProductCacheService;
 import com.datasaz.ecommerce.services.interfaces.IProductImageService;
+import com.datasaz.ecommerce.utilities.ImageDecoder;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine.ResizeQuality;
+import com.datasaz.ecommerce.utilities.SpooledUpload;
+import com.datasaz.ecommerce.utilities.TransactionUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.Tika;
-import org.imgscalr.Scalr;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
-import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageOutputStream;
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
-import java.util.Base64;
-import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 
@@ -43,12 +62,29 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ProductImageService implements IProductImageService {
 
+    private static final String DATABASE_STORAGE = "database";
+    private static final String FILE_STORAGE = "file";
+
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
     private final ProductImageAttachRepository productImageAttachRepository;
+    private final IBinaryContentService binaryContentService;
     private final GroupConfig groupConfig;
+    private final IImageProcessingService imageProcessingService;
+    private final IProductCacheService productCacheService;
+    private final CacheManager cacheManager;
+    private final ImageBlobRepository imageBlobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final IImageDeliveryService imageDeliveryService;
     private final Tika tika = new Tika();
 
+    @Value("${product-image.gc-grace-hours:24}")
+    private int gcGraceHours;
+
+    @Value("${product-image.gc-batch-size:200}")
+    private int gcBatchSize;
+
     @Override
     @Transactional
     @CacheEvict(value = "productImages", key = "#productId")
@@ -56,51 +92,13 @@ public class ProductImageService implements IProductImageService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> ResourceNotFoundException.builder().message("Product not found with ID: " + productId).build());
 
-        validateImageRequest(imageRequest);
-
-        String fileName = generateFileName(imageRequest.getFileName());
-        Path uploadDir = Path.of(groupConfig.UPLOAD_DIR, "products");
-        Path filePath = uploadDir.resolve(fileName);
-
+        SpooledUpload upload = spoolImageRequest(imageRequest);
         try {
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
-                log.info("Created upload directory: {}", uploadDir);
-            }
-
-            byte[] imageBytes = Base64.getDecoder().decode(imageRequest.getFileContent());
-            byte[] resizedImage = resizeImage(imageBytes, getFileExtension(imageRequest.getFileName()), false, groupConfig.resizeWidth, groupConfig.resizeHeight);
-            if (resizedImage.length == 0) {
-                log.error("Resized image is empty for file: {}", fileName);
-                throw TechnicalException.builder().message("Failed to resize image: empty result").build();
-            }
-            Files.write(filePath, resizedImage);
-            log.info("Saved image file: {}, size: {} bytes", filePath, resizedImage.length);
-
-            ProductImage image = ProductImage.builder()
-                    .fileName(fileName)
-                    .fileUrl("/Uploads/products/" + fileName)
-                    .contentType(imageRequest.getContentType())
-                    .fileSize(resizedImage.length)
-                    .fileExtension(getFileExtension(imageRequest.getFileName()))
-                    .createdAt(LocalDateTime.now())
-                    .isPrimary(isPrimary)
-                    .displayOrder(imageRequest.getDisplayOrder() != null ? imageRequest.getDisplayOrder() : 0)
-                    .product(product)
-                    .build();
-
-            if (isPrimary) {
-                productImageRepository.findByProductIdAndIsPrimaryTrue(productId)
-                        .ifPresent(existing -> {
-                            existing.setPrimary(false);
-                            productImageRepository.save(existing);
-                        });
-            }
-
-            return productImageRepository.save(image);
-        } catch (IOException e) {
-            log.error("Failed to upload image {} for product {}: {}", fileName, productId, e.getMessage());
-            throw TechnicalException.builder().message("Failed to upload image: " + e.getMessage()).build();
+            Dimension size = validateUpload(upload, imageRequest.getFileName());
+            return storeImage(product, upload, size, imageRequest.getFileName(), imageRequest.getContentType(), isPrimary,
+                    imageRequest.getDisplayOrder() != null ? imageRequest.getDisplayOrder() : 0);
+        } finally {
+            discard(upload);
         }
     }
 
@@ -111,157 +109,340 @@ public class ProductImageService implements IProductImageService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> ResourceNotFoundException.builder().message("Product not found with ID: " + productId).build());
 
-        validateFile(file);
-
-        String fileName = generateFileName(file.getOriginalFilename());
-        Path uploadDir = Path.of(groupConfig.UPLOAD_DIR, "products");
-        Path filePath = uploadDir.resolve(fileName);
-
+        SpooledUpload upload = spoolFile(file);
         try {
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
-                log.info("Created upload directory: {}", uploadDir);
-            }
-
-            byte[] resizedImage = resizeImage(file.getBytes(), getFileExtension(file.getOriginalFilename()), false, groupConfig.resizeWidth, groupConfig.resizeHeight);
-            if (resizedImage.length == 0) {
-                log.error("Resized image is empty for file: {}", fileName);
-                throw TechnicalException.builder().message("Failed to resize image: empty result").build();
-            }
-            Files.write(filePath, resizedImage);
-            log.info("Saved image file: {}, size: {} bytes", filePath, resizedImage.length);
-
-            ProductImage image = ProductImage.builder()
-                    .fileName(fileName)
-                    .fileUrl("/Uploads/products/" + fileName)
-                    .contentType(file.getContentType())
-                    .fileSize(resizedImage.length)
-                    .fileExtension(getFileExtension(file.getOriginalFilename()))
-                    .createdAt(LocalDateTime.now())
-                    .isPrimary(isPrimary)
-                    .displayOrder(0)
-                    .product(product)
-                    .build();
+            Dimension size = validateUpload(upload, file.getOriginalFilename());
+            return storeImage(product, upload, size, file.getOriginalFilename(), file.getContentType(), isPrimary, 0);
+        } finally {
+            discard(upload);
+        }
+    }
 
-            if (isPrimary) {
-                productImageRepository.findByProductIdAndIsPrimaryTrue(productId)
-                        .ifPresent(existing -> {
-                            existing.setPrimary(false);
-                            productImageRepository.save(existing);
-                        });
-            }
+    @Override
+    @Transactional
+    @CacheEvict(value = "productImages", key = "#productId")
+    public ProductImageAttach uploadImageAttach(Long productId, MultipartFile file, boolean isPrimary) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> ResourceNotFoundException.builder().message("Product not found with ID: " + productId).build());
 
-            return productImageRepository.save(image);
-        } catch (IOException e) {
-            log.error("Failed to upload image {} for product {}: {}", fileName, productId, e.getMessage());
-            throw TechnicalException.builder().message("Failed to upload image: " + e.getMessage()).build();
+        SpooledUpload upload = spoolFile(file);
+        try {
+            Dimension size = validateUpload(upload, file.getOriginalFilename());
+            return storeImageAttach(product, upload, size, file.getOriginalFilename(), file.getContentType(), isPrimary, 0);
+        } finally {
+            discard(upload);
         }
     }
 
     @Override
     @Transactional
     @CacheEvict(value = "productImages", key = "#productId")
-    public ProductImageAttach uploadImageAttach(Long productId, MultipartFile file, boolean isPrimary) {
+    public ProductImageAttach uploadImageAttach(Long productId, ProductImageRequest imageRequest, boolean isPrimary) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> ResourceNotFoundException.builder().message("Product not found with ID: " + productId).build());
 
-        validateFile(file);
+        SpooledUpload upload = spoolImageRequest(imageRequest);
+        try {
+            Dimension size = validateUpload(upload, imageRequest.getFileName());
+            return storeImageAttach(product, upload, size, imageRequest.getFileName(), imageRequest.getContentType(), isPrimary,
+                    imageRequest.getDisplayOrder() != null ? imageRequest.getDisplayOrder() : 0);
+        } finally {
+            discard(upload);
+        }
+    }
 
-        String fileName = generateFileName(file.getOriginalFilename());
-        String extension = getFileExtension(file.getOriginalFilename());
+    /**
+     * Resumes images whose processing was cut short by a restart.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingImages() {
         try {
-            byte[] resizedImage = resizeImage(file.getBytes(), extension, false, groupConfig.resizeWidth, groupConfig.resizeHeight);
-            byte[] thumbnailImage = resizeImage(file.getBytes(), extension, false, groupConfig.thumbnailResizeWidth, groupConfig.thumbnailResizeHeight);
-            if (resizedImage.length == 0 || thumbnailImage.length == 0) {
-                log.error("Resized or thumbnail image is empty for file: {}", fileName);
-                throw TechnicalException.builder().message("Failed to resize image: empty result").build();
-            }
-            if (resizedImage.length > groupConfig.MAX_FILE_SIZE || thumbnailImage.length > groupConfig.MAX_FILE_SIZE) {
-                log.error("Image size {} bytes or thumbnail size {} bytes exceeds database limit of 5 MB", resizedImage.length, thumbnailImage.length);
-                throw BadRequestException.builder().message("Image or thumbnail size exceeds " + groupConfig.maxFileSizeMb + " MB ( " + groupConfig.MAX_FILE_SIZE + " Bytes) limit").build();
+            for (ImageBlob blob : imageBlobRepository.findByStatus(ImageStatus.PENDING)) {
+                submitBlob(blob, estimateMemory(blob.getFileSize()));
             }
+        } catch (ResponseStatusException e) {
+            log.warn("Image worker pool is full; the remaining pending product images are resumed on the next start");
+        } catch (Exception e) {
+            log.error("Failed to resume pending product images: {}", e.getMessage(), e);
+        }
+    }
 
-            ProductImageAttach image = ProductImageAttach.builder()
-                    .fileName(fileName)
-                    .contentType(file.getContentType())
-                    .fileSize(resizedImage.length)
-                    .fileExtension(extension)
-                    .fileContent(resizedImage)
-                    .thumbnailContent(thumbnailImage)
-                    .createdAt(LocalDateTime.now())
-                    .isPrimary(isPrimary)
-                    .displayOrder(0)
-                    .product(product)
-                    .build();
+    // The file is shared with every image uploaded with the same bytes and resized in place by the worker pool
+    private ProductImage storeImage(Product product, SpooledUpload original, Dimension size, String originalFileName,
+                                    String contentType, boolean isPrimary, int displayOrder) {
+        ImageBlob blob = acquireBlob(original, size, getFileExtension(originalFileName), contentType, FILE_STORAGE);
+        ProductImage image = ProductImage.builder()
+                .fileName(blob.getFileName())
+                .fileUrl("/Uploads/products/" + blob.getFileName())
+                .contentType(blob.getContentType())
+                .fileSize(blob.getFileSize())
+                .fileExtension(blob.getFileExtension())
+                .createdAt(LocalDateTime.now())
+                .isPrimary(isPrimary)
+                .displayOrder(displayOrder)
+                .status(blob.getStatus())
+                .blobId(blob.getId())
+                .product(product)
+                .build();
 
-            if (isPrimary) {
-                productImageAttachRepository.findByProductIdAndIsPrimaryTrue(productId)
-                        .ifPresent(existing -> {
-                            existing.setPrimary(false);
-                            productImageAttachRepository.save(existing);
-                        });
+        if (isPrimary) {
+            productImageRepository.findByProductIdAndIsPrimaryTrue(product.getId())
+                    .ifPresent(existing -> {
+                        existing.setPrimary(false);
+                        productImageRepository.save(existing);
+                    });
+        }
+
+        return productImageRepository.save(image);
+    }
+
+    // Shares the blob's content; until the blob is processed that is the original, replaced on all its images at once
+    private ProductImageAttach storeImageAttach(Product product, SpooledUpload original, Dimension size, String originalFileName,
+                                                String contentType, boolean isPrimary, int displayOrder) {
+        ImageBlob blob = acquireBlob(original, size, getFileExtension(originalFileName), contentType, DATABASE_STORAGE);
+        ProductImageAttach image = ProductImageAttach.builder()
+                .fileName(generateFileName(originalFileName))
+                .contentType(blob.getContentType())
+                .fileSize(blob.getFileSize())
+                .fileExtension(blob.getFileExtension())
+                .fileContentId(blob.getFileContentId())
+                .thumbnailContentId(blob.getThumbnailContentId())
+                .createdAt(LocalDateTime.now())
+                .isPrimary(isPrimary)
+                .displayOrder(displayOrder)
+                .status(blob.getStatus())
+                .blobId(blob.getId())
+                .product(product)
+                .build();
+
+        if (isPrimary) {
+            productImageAttachRepository.findByProductIdAndIsPrimaryTrue(product.getId())
+                    .ifPresent(existing -> {
+                        existing.setPrimary(false);
+                        productImageAttachRepository.save(existing);
+                    });
+        }
+
+        return productImageAttachRepository.save(image);
+    }
+
+    // An upload of bytes already stored references the existing blob, costing neither storage nor resizing
+    private ImageBlob acquireBlob(SpooledUpload original, Dimension size, String extension, String contentType, String storageMode) {
+        String contentHash = original.getContentHash();
+        ImageBlob blob = imageBlobRepository.findFirstByContentHashAndStorageModeOrderByIdAsc(contentHash, storageMode).orElse(null);
+        boolean created = false;
+        if (blob == null) {
+            created = createBlob(original, extension, contentType, storageMode);
+            blob = imageBlobRepository.findFirstByContentHashAndStorageModeOrderByIdAsc(contentHash, storageMode)
+                    .orElseThrow(() -> TechnicalException.builder().message("Failed to upload image: blob not found after insert").build());
+        }
+        blob.setRefCount(blob.getRefCount() + 1);
+        blob.setReleasedAt(null);
+        boolean retry = blob.getStatus() == ImageStatus.FAILED;
+        if (retry) {
+            // The original is kept when processing fails, so uploading it again retries the processing
+            blob.setStatus(ImageStatus.PENDING);
+        }
+        blob = imageBlobRepository.save(blob);
+        if (retry) {
+            if (storageMode.equals(DATABASE_STORAGE)) {
+                productImageAttachRepository.updateStatusByBlobId(blob.getId(), ImageStatus.FAILED, ImageStatus.PENDING);
+            } else {
+                productImageRepository.updateStatusByBlobId(blob.getId(), ImageStatus.FAILED, ImageStatus.PENDING);
             }
+        }
+        if (!created) {
+            log.info("Reusing image blob {} for identical upload ({} references)", blob.getId(), blob.getRefCount());
+        }
+        if (created || retry) {
+            submitBlob(blob, estimateMemory(size));
+        }
+        return blob;
+    }
 
-            return productImageAttachRepository.save(image);
+    /**
+     * Inserts the blob and stores its content in a transaction of its own, still unreferenced and released now, so
+     * the caller picks it up like an existing blob and the collector removes it if the upload never commits. The
+     * insert comes first: a concurrent first upload of the same bytes waits on the unique hash and then fails
+     * without touching the content. Returns false if another upload created the blob first.
+     */
+    private boolean createBlob(SpooledUpload original, String extension, String contentType, String storageMode) {
+        TransactionTemplate ownTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            ownTransaction.executeWithoutResult(status -> {
+                boolean database = storageMode.equals(DATABASE_STORAGE);
+                String fileName = database ? null : original.getContentHash() + "." + extension.replaceAll("[^a-z0-9]", "");
+                ImageBlob blob = imageBlobRepository.saveAndFlush(ImageBlob.builder()
+                        .contentHash(original.getContentHash())
+                        .storageMode(storageMode)
+                        .contentType(contentType)
+                        .fileExtension(extension)
+                        .fileSize(original.getSize())
+                        .fileName(fileName)
+                        .status(ImageStatus.PENDING)
+                        .refCount(0)
+                        .releasedAt(LocalDateTime.now())
+                        .build());
+                if (database) {
+                    blob.setFileContentId(storeOriginal(original, contentType));
+                    imageBlobRepository.save(blob);
+                } else {
+                    writeOriginal(original, fileName);
+                }
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.info("Image blob for hash {} was created by a concurrent upload, reusing it", original.getContentHash());
+            return false;
+        }
+    }
+
+    private Long storeOriginal(SpooledUpload original, String contentType) {
+        try (InputStream content = original.openStream()) {
+            return binaryContentService.store(content, original.getSize(), original.getContentHash(), contentType);
         } catch (IOException e) {
-            log.error("Failed to upload image attach {} for product {}: {}", fileName, productId, e.getMessage());
+            log.error("Failed to store uploaded image: {}", e.getMessage());
             throw TechnicalException.builder().message("Failed to upload image: " + e.getMessage()).build();
         }
     }
 
-    @Override
-    @Transactional
-    @CacheEvict(value = "productImages", key = "#productId")
-    public ProductImageAttach uploadImageAttach(Long productId, ProductImageRequest imageRequest, boolean isPrimary) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> ResourceNotFoundException.builder().message("Product not found with ID: " + productId).build());
+    private String writeOriginal(SpooledUpload original, String fileName) {
+        Path uploadDir = Path.of(groupConfig.UPLOAD_DIR, "products");
+        Path filePath = uploadDir.resolve(fileName);
+        try {
+            if (!Files.exists(uploadDir)) {
+                Files.createDirectories(uploadDir);
+                log.info("Created upload directory: {}", uploadDir);
+            }
+            Files.copy(original.getFile(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Saved original image file: {}, size: {} bytes", filePath, original.getSize());
+            return fileName;
+        } catch (IOException e) {
+            log.error("Failed to upload image {}: {}", fileName, e.getMessage());
+            throw TechnicalException.builder().message("Failed to upload image: " + e.getMessage()).build();
+        }
+    }
 
-        validateImageRequest(imageRequest);
+    private void submitBlob(ImageBlob blob, long estimatedBytes) {
+        Long blobId = blob.getId();
+        if (DATABASE_STORAGE.equals(blob.getStorageMode())) {
+            Long originalContentId = blob.getFileContentId();
+            imageProcessingService.submit("product image blob " + blobId, estimatedBytes,
+                    () -> processImageAttach(blobId, originalContentId, blob.getFileExtension(), blob.getContentType()));
+        } else {
+            Path filePath = Path.of(groupConfig.UPLOAD_DIR, "products", blob.getFileName());
+            imageProcessingService.submit("product image blob " + blobId, estimatedBytes,
+                    () -> processImage(blobId, filePath, blob.getFileExtension()));
+        }
+    }
 
-        String fileName = generateFileName(imageRequest.getFileName());
-        String extension = getFileExtension(imageRequest.getFileName());
+    void processImage(Long blobId, Path filePath, String extension) {
         try {
-            byte[] imageBytes = Base64.getDecoder().decode(imageRequest.getFileContent());
-            byte[] resizedImage = resizeImage(imageBytes, extension, false, groupConfig.resizeWidth, groupConfig.resizeHeight);
-            byte[] thumbnailImage = resizeImage(imageBytes, extension, false, groupConfig.thumbnailResizeWidth, groupConfig.thumbnailResizeHeight);
-            if (resizedImage.length == 0 || thumbnailImage.length == 0) {
-                log.error("Resized or thumbnail image is empty for file: {}", fileName);
-                throw TechnicalException.builder().message("Failed to resize image: empty result").build();
+            BufferedImage decoded = ImageDecoder.decode(filePath, groupConfig.resizeWidth, groupConfig.resizeHeight, groupConfig.maxDecodePixels);
+            byte[] resizedImage = imageProcessingEngine.resize(decoded, extension, false, groupConfig.resizeWidth, groupConfig.resizeHeight,
+                    ResizeQuality.HIGH);
+            Path processedPath = filePath.resolveSibling(filePath.getFileName() + ".processing");
+            Files.write(processedPath, resizedImage);
+            Files.move(processedPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            boolean completed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (imageBlobRepository.updateProcessed(blobId, null, null, resizedImage.length, ImageStatus.PENDING, ImageStatus.READY) == 0) {
+                    return false;
+                }
+                productImageRepository.updateProcessedByBlobId(blobId, resizedImage.length, ImageStatus.PENDING, ImageStatus.READY);
+                return true;
+            }));
+            if (!completed && !imageBlobRepository.existsById(blobId)) {
+                // Collected while it was being processed
+                Files.deleteIfExists(filePath);
+            }
+        } catch (Exception e) {
+            log.error("Failed to process image blob {}: {}", blobId, e.getMessage());
+            markFailed(blobId, false);
+        }
+        productImageRepository.findProductIdsByBlobId(blobId).forEach(this::evictImageCaches);
+    }
+
+    void processImageAttach(Long blobId, Long originalContentId, String extension, String contentType) {
+        try {
+            byte[] original = binaryContentService.load(originalContentId);
+            if (original == null) {
+                log.info("Image blob {} was collected before it was processed", blobId);
+                return;
             }
+            // Decoded once, subsampled for the larger of the two; the resized image and the thumbnail are both
+            // derived from the same pixels
+            BufferedImage decoded = ImageDecoder.decode(original, groupConfig.resizeWidth, groupConfig.resizeHeight, groupConfig.maxDecodePixels);
+            byte[] resizedImage = imageProcessingEngine.resize(decoded, extension, false, groupConfig.resizeWidth, groupConfig.resizeHeight,
+                    ResizeQuality.HIGH);
+            byte[] thumbnailImage = imageProcessingEngine.resize(decoded, extension, false, groupConfig.thumbnailResizeWidth,
+                    groupConfig.thumbnailResizeHeight, ResizeQuality.BALANCED);
             if (resizedImage.length > groupConfig.MAX_FILE_SIZE || thumbnailImage.length > groupConfig.MAX_FILE_SIZE) {
-                log.error("Image size {} bytes or thumbnail size {} bytes exceeds database limit of 5 MB", resizedImage.length, thumbnailImage.length);
-                throw BadRequestException.builder().message("Image or thumbnail size exceeds " + groupConfig.maxFileSizeMb + " MB ( " + groupConfig.MAX_FILE_SIZE + " Bytes) limit").build();
+                throw new IOException("Image size " + resizedImage.length + " bytes or thumbnail size " + thumbnailImage.length
+                        + " bytes exceeds " + groupConfig.MAX_FILE_SIZE + " bytes");
             }
 
-            ProductImageAttach image = ProductImageAttach.builder()
-                    .fileName(fileName)
-                    .contentType(imageRequest.getContentType())
-                    .fileSize(resizedImage.length)
-                    .fileExtension(extension)
-                    .fileContent(resizedImage)
-                    .thumbnailContent(thumbnailImage)
-                    .createdAt(LocalDateTime.now())
-                    .isPrimary(isPrimary)
-                    .displayOrder(imageRequest.getDisplayOrder() != null ? imageRequest.getDisplayOrder() : 0)
-                    .product(product)
-                    .build();
+            Long fileContentId = binaryContentService.store(resizedImage, contentType);
+            Long thumbnailContentId = binaryContentService.store(thumbnailImage, contentType);
+            // The blob and all its images switch to the renditions together, before the original goes away
+            boolean completed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (imageBlobRepository.updateProcessed(blobId, fileContentId, thumbnailContentId, resizedImage.length,
+                        ImageStatus.PENDING, ImageStatus.READY) == 0) {
+                    return false;
+                }
+                productImageAttachRepository.updateProcessedByBlobId(blobId, fileContentId, thumbnailContentId,
+                        resizedImage.length, ImageStatus.PENDING, ImageStatus.READY);
+                return true;
+            }));
+            if (completed) {
+                binaryContentService.delete(originalContentId);
+            } else {
+                binaryContentService.delete(fileContentId);
+                binaryContentService.delete(thumbnailContentId);
+            }
+        } catch (Exception e) {
+            log.error("Failed to process image blob {}: {}", blobId, e.getMessage());
+            markFailed(blobId, true);
+        }
+        productImageAttachRepository.findProductIdsByBlobId(blobId).forEach(this::evictImageCaches);
+    }
 
-            if (isPrimary) {
-                productImageAttachRepository.findByProductIdAndIsPrimaryTrue(productId)
-                        .ifPresent(existing -> {
-                            existing.setPrimary(false);
-                            productImageAttachRepository.save(existing);
-                        });
+    private void markFailed(Long blobId, boolean attaches) {
+        transactionTemplate.execute(status -> {
+            if (imageBlobRepository.updateStatus(blobId, ImageStatus.PENDING, ImageStatus.FAILED) == 1) {
+                if (attaches) {
+                    productImageAttachRepository.updateStatusByBlobId(blobId, ImageStatus.PENDING, ImageStatus.FAILED);
+                } else {
+                    productImageRepository.updateStatusByBlobId(blobId, ImageStatus.PENDING, ImageStatus.FAILED);
+                }
             }
+            return null;
+        });
+    }
 
-            return productImageAttachRepository.save(image);
-        } catch (IllegalArgumentException e) {
-            log.error("Invalid Base64 content for image: {}", fileName);
-            throw BadRequestException.builder().message("Invalid Base64 content for image: " + fileName).build();
-        } catch (IOException e) {
-            log.error("Error while calling resizeImage() for : {}", fileName);
-            throw TechnicalException.builder().message("Failed to resize image: " + e.getMessage()).build();
+    private void evictImageCaches(Long productId) {
+        Cache productImages = cacheManager.getCache("productImages");
+        if (productImages != null) {
+            productImages.evict(productId);
+            productImages.evict(productId + "-attach");
         }
+        productCacheService.evictProduct(productId);
+    }
+
+    // Decoded (possibly subsampled) original plus the resized image and thumbnail held while they are encoded
+    private long estimateMemory(Dimension size) {
+        Dimension decoded = ImageDecoder.decodedSize(size, groupConfig.resizeWidth, groupConfig.resizeHeight, groupConfig.maxDecodePixels);
+        return 4L * decoded.width * decoded.height
+                + 4L * groupConfig.resizeWidth * groupConfig.resizeHeight
+                + 4L * groupConfig.thumbnailResizeWidth * groupConfig.thumbnailResizeHeight;
+    }
+
+    // Without the dimensions at hand, assumes a typical 10:1 compression of the stored original
+    private long estimateMemory(long storedBytes) {
+        return storedBytes * 10
+                + 4L * groupConfig.resizeWidth * groupConfig.resizeHeight
+                + 4L * groupConfig.thumbnailResizeWidth * groupConfig.thumbnailResizeHeight;
     }
 
     @Override
@@ -270,15 +451,7 @@ public class ProductImageService implements IProductImageService {
     public void deleteImageById(Long imageId) {
         ProductImage image = productImageRepository.findById(imageId)
                 .orElseThrow(() -> ResourceNotFoundException.builder().message("Image not found with ID: " + imageId).build());
-
-        try {
-            Path filePath = Path.of(groupConfig.UPLOAD_DIR, "products", image.getFileName());
-            Files.deleteIfExists(filePath);
-            log.info("Deleted image file: {}", filePath);
-        } catch (IOException e) {
-            log.warn("Failed to delete image file {}: {}", image.getFileUrl(), e.getMessage());
-        }
-
+        deleteImageContent(image);
         productImageRepository.delete(image);
         log.info("Deleted image from database: ID {}", imageId);
     }
@@ -289,13 +462,7 @@ public class ProductImageService implements IProductImageService {
     public void deleteImagesByProductId(Long productId) {
         List<ProductImage> images = productImageRepository.findByProductId(productId);
         images.forEach(image -> {
-            try {
-                Path filePath = Path.of(groupConfig.UPLOAD_DIR, "products", image.getFileName());
-                Files.deleteIfExists(filePath);
-                log.info("Deleted image file: {}", filePath);
-            } catch (IOException e) {
-                log.warn("Failed to delete image file {}: {}", image.getFileUrl(), e.getMessage());
-            }
+            deleteImageContent(image);
             productImageRepository.delete(image);
             log.info("Deleted image from database: ID {}", image.getId());
         });
@@ -307,6 +474,7 @@ public class ProductImageService implements IProductImageService {
     public void deleteImageAttachById(Long imageId) {
         ProductImageAttach image = productImageAttachRepository.findById(imageId)
                 .orElseThrow(() -> ResourceNotFoundException.builder().message("Image attach not found with ID: " + imageId).build());
+        deleteImageAttachContent(image);
         productImageAttachRepository.delete(image);
         log.info("Deleted image attach from database: ID {}", imageId);
     }
@@ -317,6 +485,7 @@ public class ProductImageService implements IProductImageService {
     public void deleteImageAttachesByProductId(Long productId) {
         List<ProductImageAttach> images = productImageAttachRepository.findByProductId(productId);
         images.forEach(image -> {
+            deleteImageAttachContent(image);
             productImageAttachRepository.delete(image);
             log.info("Deleted image attach from database: ID {}", image.getId());
         });
@@ -334,84 +503,133 @@ public class ProductImageService implements IProductImageService {
         return productImageAttachRepository.findByProductId(productId);
     }
 
+    /**
+     * Removes orphaned image rows, then every blob that has had no references for the grace period, with its
+     * stored content. The grace period covers uploads still in flight when the last reference went away.
+     */
     @Override
-    @Transactional
-    public void cleanupOldImages() {
-        LocalDateTime threshold = LocalDateTime.now().minusDays(groupConfig.PROD_IMG_DAYS_TO_KEEP);
-        List<ProductImage> orphanedImages = productImageRepository.findByProductIsNullAndCreatedAtBefore(threshold);
-        orphanedImages.forEach(image -> {
-            try {
-                Path filePath = Path.of(groupConfig.UPLOAD_DIR, "products", image.getFileName());
-                Files.deleteIfExists(filePath);
-                productImageRepository.delete(image);
-                log.info("Deleted orphaned image: {}", image.getFileName());
-            } catch (IOException e) {
-                log.warn("Failed to delete orphaned image: {}: {}", image.getFileName(), e.getMessage());
-            }
-        });
-        log.info("Cleaned up {} orphaned images older than {} days", orphanedImages.size(), groupConfig.PROD_IMG_DAYS_TO_KEEP);
+    @Scheduled(cron = "${product-image.gc-cron:0 30 1 * * *}")
+    public void collectImageGarbage() {
+        try {
+            LocalDateTime threshold = LocalDateTime.now().minusDays(groupConfig.PROD_IMG_DAYS_TO_KEEP);
+            Integer orphans = transactionTemplate.execute(status -> deleteOrphanedImages(threshold));
+            log.info("Cleaned up {} orphaned images older than {} days", orphans, groupConfig.PROD_IMG_DAYS_TO_KEEP);
+
+            LocalDateTime releasedBefore = LocalDateTime.now().minusHours(gcGraceHours);
+            int collected = 0;
+            long afterId = 0;
+            List<ImageBlob> blobs;
+            do {
+                blobs = imageBlobRepository.findUnreferenced(releasedBefore, afterId, PageRequest.of(0, gcBatchSize));
+                for (ImageBlob blob : blobs) {
+                    afterId = blob.getId();
+                    if (Boolean.TRUE.equals(transactionTemplate.execute(status -> collectBlob(blob)))) {
+                        collected++;
+                    }
+                }
+            } while (blobs.size() == gcBatchSize);
+            log.info("Collected {} unreferenced image blobs", collected);
+        } catch (Exception e) {
+            log.error("Image garbage collection failed: {}", e.getMessage(), e);
+        }
     }
 
-    @Override
-    @Transactional
-    public void cleanupOldImageAttaches() {
-        LocalDateTime threshold = LocalDateTime.now().minusDays(groupConfig.PROD_IMG_DAYS_TO_KEEP);
-        List<ProductImageAttach> orphanedImages = productImageAttachRepository.findByProductIsNullAndCreatedAtBefore(threshold);
-        orphanedImages.forEach(image -> {
+    // The content is deleted before the row delete commits: until then the row stays locked, so an upload of the same
+    // bytes waits for it and then stores the content anew instead of referencing content about to disappear
+    private boolean collectBlob(ImageBlob blob) {
+        if (imageBlobRepository.deleteIfUnreferenced(blob.getId()) != 1) {
+            return false;
+        }
+        deleteBlobContent(blob);
+        return true;
+    }
+
+    private int deleteOrphanedImages(LocalDateTime threshold) {
+        List<ProductImage> images = productImageRepository.findByProductIsNullAndCreatedAtBefore(threshold);
+        images.forEach(image -> {
+            deleteImageContent(image);
+            productImageRepository.delete(image);
+        });
+        List<ProductImageAttach> attaches = productImageAttachRepository.findByProductIsNullAndCreatedAtBefore(threshold);
+        attaches.forEach(image -> {
+            deleteImageAttachContent(image);
             productImageAttachRepository.delete(image);
-            log.info("Deleted orphaned image attach: ID {}", image.getId());
         });
-        log.info("Cleaned up {} orphaned image attaches older than {} days", orphanedImages.size(), groupConfig.PROD_IMG_DAYS_TO_KEEP);
+        return images.size() + attaches.size();
     }
 
-    private void validateImageRequest(ProductImageRequest imageRequest) {
+    // Shared content is only released here; it is deleted once the blob has no references left
+    private void deleteImageContent(ProductImage image) {
+        if (image.getBlobId() != null) {
+            imageBlobRepository.release(image.getBlobId(), LocalDateTime.now());
+            return;
+        }
+        deleteFile(image.getFileName());
+    }
+
+    private void deleteImageAttachContent(ProductImageAttach image) {
+        if (image.getBlobId() != null) {
+            imageBlobRepository.release(image.getBlobId(), LocalDateTime.now());
+            return;
+        }
+        binaryContentService.delete(image.getFileContentId());
+        binaryContentService.delete(image.getThumbnailContentId());
+    }
+
+    private void deleteBlobContent(ImageBlob blob) {
+        if (DATABASE_STORAGE.equals(blob.getStorageMode())) {
+            deleteContent(blob.getFileContentId());
+            deleteContent(blob.getThumbnailContentId());
+        } else {
+            deleteFile(blob.getFileName());
+        }
+    }
+
+    // Redirect delivery may have copied the content to object storage under its hash; other stored content with the
+    // same bytes still uses that copy
+    private void deleteContent(Long contentId) {
+        if (contentId == null) {
+            return;
+        }
+        String contentHash = binaryContentService.findMetadataById(contentId).map(BinaryContentMetadata::getContentHash).orElse(null);
+        binaryContentService.delete(contentId);
+        if (contentHash != null && !binaryContentService.existsByContentHash(contentHash)) {
+            TransactionUtils.afterCommit(() -> imageDeliveryService.unpublish(contentHash));
+        }
+    }
+
+    private void deleteFile(String fileName) {
+        Path filePath = Path.of(groupConfig.UPLOAD_DIR, "products", fileName);
+        try {
+            Files.deleteIfExists(filePath);
+            log.info("Deleted image file: {}", filePath);
+        } catch (IOException e) {
+            log.warn("Failed to delete image file {}: {}", filePath, e.getMessage());
+        }
+    }
+
+    // The Base64 text is decoded straight into a temporary file, never into a second in-memory copy of the image
+    private SpooledUpload spoolImageRequest(ProductImageRequest imageRequest) {
         if (imageRequest == null || imageRequest.getFileContent() == null ||
                 imageRequest.getFileName() == null || imageRequest.getFileName().isBlank() || imageRequest.getFileName().isEmpty()) {
             throw BadRequestException.builder().message("Image request is not complete").build();
         }
-
-        byte[] imageBytes;
         try {
-            imageBytes = Base64.getDecoder().decode(imageRequest.getFileContent());
+            return SpooledUpload.fromBase64(imageRequest.getFileContent(), groupConfig.MAX_FILE_SIZE);
         } catch (IllegalArgumentException e) {
             log.error("Invalid Base64 content for image: {}", imageRequest.getFileName());
             throw BadRequestException.builder().message("Invalid Base64 content for image: " + imageRequest.getFileName()).build();
-        }
-
-        if (imageBytes.length > groupConfig.MAX_FILE_SIZE) {
-            log.error("Image size {} bytes exceeds limit {} MB ({} bytes)", imageBytes.length, groupConfig.maxFileSizeMb, groupConfig.MAX_FILE_SIZE);
-            throw BadRequestException.builder().message("Image size exceeds " + groupConfig.maxFileSizeMb + " MB limit").build();
-        }
-
-        String mimeType;
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(imageBytes)) {
-            mimeType = tika.detect(bais);
-            if (!groupConfig.ALLOWED_IMAGE_TYPES.contains(mimeType)) {
-                log.error("Unsupported image type: {}", mimeType);
-                throw BadRequestException.builder().message("Unsupported image type: " + mimeType).build();
-            }
-            bais.reset();
-            BufferedImage img = ImageIO.read(bais);
-            if (img == null) {
-                log.error("Invalid image content: cannot read image for {}", imageRequest.getFileName());
-                throw BadRequestException.builder().message("Invalid image content: cannot read image").build();
-            }
-            // Check colorspace
-            if (img.getColorModel().getColorSpace().getType() != java.awt.color.ColorSpace.TYPE_RGB) {
-                log.warn("Image has non-RGB colorspace: {} for {}", img.getColorModel().getColorSpace().getType(), imageRequest.getFileName());
-                // RGB conversion will happen in resizeImage, so no need to fail here
-            }
         } catch (IOException e) {
-            log.error("Error detecting image type or validating image: {}", e.getMessage());
-            throw TechnicalException.builder().message("Error validating image: " + e.getMessage()).build();
+            log.error("Failed to spool uploaded image {}: {}", imageRequest.getFileName(), e.getMessage());
+            throw TechnicalException.builder().message("Failed to upload image: " + e.getMessage()).build();
         }
     }
 
-    private void validateFile(MultipartFile file) {
+    private SpooledUpload spoolFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw BadRequestException.builder().message("File is empty or null").build();
         }
-        if (!groupConfig.ALLOWED_IMAGE_TYPES.contains(file.getContentType())) {
+        if (!groupConfig.getALLOWED_IMAGE_TYPES().contains(file.getContentType())) {
             log.error("Unsupported file type: {}", file.getContentType());
             throw BadRequestException.builder().message("Unsupported file type: " + file.getContentType()).build();
         }
@@ -419,113 +637,40 @@ public class ProductImageService implements IProductImageService {
             log.error("File size {} bytes exceeds limit {} MB ({} bytes)", file.getSize(), groupConfig.maxFileSizeMb, groupConfig.MAX_FILE_SIZE);
             throw BadRequestException.builder().message("File size exceeds " + groupConfig.maxFileSizeMb + " MB limit").build();
         }
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(file.getBytes())) {
-            BufferedImage img = ImageIO.read(bais);
-            if (img == null) {
-                log.error("Invalid image content: cannot read image for {}", file.getOriginalFilename());
-                throw BadRequestException.builder().message("Invalid image content: cannot read image").build();
-            }
-            // Check colorspace
-            if (img.getColorModel().getColorSpace().getType() != java.awt.color.ColorSpace.TYPE_RGB) {
-                log.warn("Image has non-RGB colorspace: {} for {}", img.getColorModel().getColorSpace().getType(), file.getOriginalFilename());
-                // RGB conversion will happen in resizeImage, so no need to fail here
-            }
+        try {
+            return SpooledUpload.fromStream(file.getInputStream(), groupConfig.MAX_FILE_SIZE);
         } catch (IOException e) {
-            log.error("Error validating image: {}", e.getMessage());
-            throw TechnicalException.builder().message("Error validating image: " + e.getMessage()).build();
+            log.error("Failed to read uploaded file {}: {}", file.getOriginalFilename(), e.getMessage());
+            throw TechnicalException.builder().message("Failed to upload image: " + e.getMessage()).build();
         }
     }
 
-    public byte[] resizeImage(byte[] originalImage, String extension, boolean forceJpeg, int targetWidth, int targetHeight) throws IOException {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(originalImage)) {
-            BufferedImage img = ImageIO.read(bais);
-            if (img == null) {
-                log.error("Failed to read image: null BufferedImage");
-                throw new IOException("Cannot read image: invalid or corrupt image data");
-            }
-            log.debug("Original image: width={}, height={}", img.getWidth(), img.getHeight());
-
-            double aspectRatio = (double) img.getWidth() / img.getHeight();
-            if (aspectRatio > 1) {
-                targetHeight = (int) (targetWidth / aspectRatio);
-            } else {
-                targetWidth = (int) (targetHeight * aspectRatio);
-            }
-            BufferedImage resized = Scalr.resize(img, Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_EXACT, targetWidth, targetHeight);
-            log.debug("Resized image: width={}, height={}", resized.getWidth(), resized.getHeight());
-
-            // Convert to RGB colorspace if forcing JPEG or output format is JPEG
-            BufferedImage rgbImage = resized;
-            String outputFormat = forceJpeg ? "jpg" : (extension != null && !extension.isEmpty() ? extension.toLowerCase() : "jpg");
-            String formatName;
-            switch (outputFormat) {
-                case "jpg":
-                case "jpeg":
-                    formatName = "jpeg";
-                    // Convert to RGB to avoid colorspace issues
-                    rgbImage = new BufferedImage(resized.getWidth(), resized.getHeight(), BufferedImage.TYPE_INT_RGB);
-                    rgbImage.getGraphics().drawImage(resized, 0, 0, null);
-                    break;
-                case "png":
-                    formatName = "png";
-                    break;
-                case "gif":
-                    formatName = "gif";
-                    break;
-                case "bmp":
-                    formatName = "bmp";
-                    break;
-                case "tiff":
-                    formatName = "tiff";
-                    break;
-                case "wbmp":
-                    formatName = "wbmp";
-                    break;
-                case "webp":
-                    formatName = "webp";
-                    break;
-                default:
-                    log.warn("Unsupported output format: {}, defaulting to jpeg", outputFormat);
-                    formatName = "jpeg";
-                    outputFormat = "jpg";
-                    // Convert to RGB for default JPEG
-                    rgbImage = new BufferedImage(resized.getWidth(), resized.getHeight(), BufferedImage.TYPE_INT_RGB);
-                    rgbImage.getGraphics().drawImage(resized, 0, 0, null);
-            }
+    // Type and dimensions come from the first bytes and the image header; the pixels are only decoded by the worker pool
+    private Dimension validateUpload(SpooledUpload upload, String fileName) {
+        if (upload.getSize() > groupConfig.MAX_FILE_SIZE) {
+            log.error("Image size exceeds limit {} MB ({} bytes)", groupConfig.maxFileSizeMb, groupConfig.MAX_FILE_SIZE);
+            throw BadRequestException.builder().message("Image size exceeds " + groupConfig.maxFileSizeMb + " MB limit").build();
+        }
+        String mimeType = upload.detectMimeType(tika);
+        if (!groupConfig.getALLOWED_IMAGE_TYPES().contains(mimeType)) {
+            log.error("Unsupported image type: {}", mimeType);
+            throw BadRequestException.builder().message("Unsupported image type: " + mimeType).build();
+        }
+        Dimension size;
+        try {
+            size = upload.readDimensions();
+        } catch (IOException e) {
+            log.error("Error reading image header for {}: {}", fileName, e.getMessage());
+            throw BadRequestException.builder().message("Invalid image content: cannot read image").build();
+        }
+        return ImageDecoder.checkDimensions(size, groupConfig.maxImagePixels, fileName);
+    }
 
-            try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                if (formatName.equals("png") || formatName.equals("gif") || formatName.equals("bmp") || formatName.equals("tiff") || formatName.equals("wbmp")) {
-                    ImageIO.write(rgbImage, formatName, baos);
-                } else {
-                    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
-                    if (!writers.hasNext()) {
-                        log.error("No writer available for format: {}", formatName);
-                        throw new IOException("No writer available for format: " + formatName);
-                    }
-                    ImageWriter writer = writers.next();
-                    try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
-                        writer.setOutput(ios);
-                        ImageWriteParam param = writer.getDefaultWriteParam();
-                        if (formatName.equals("jpeg") || formatName.equals("webp")) {
-                            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-                            param.setCompressionQuality(groupConfig.imageQuality);
-                        }
-                        writer.write(null, new javax.imageio.IIOImage(rgbImage, null, null), param);
-                    } finally {
-                        writer.dispose();
-                    }
-                }
-                byte[] result = baos.toByteArray();
-                log.debug("Resized image size: {} bytes, format: {}", result.length, formatName);
-                if (result.length == 0) {
-                    log.error("Resized image is empty after writing to ByteArrayOutputStream");
-                    throw new IOException("Resized image is empty");
-                }
-                return result;
-            }
-        } catch (Exception e) {
-            log.error("Error resizing image: {}", e.getMessage(), e);
-            throw new IOException("Failed to resize image: " + e.getMessage(), e);
+    private void discard(SpooledUpload upload) {
+        try {
+            upload.close();
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled upload {}: {}", upload.getFile(), e.getMessage());
         }
     }
 
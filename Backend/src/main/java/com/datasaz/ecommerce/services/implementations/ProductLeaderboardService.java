@@ -0,0 +1,198 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.ProductSalesTotal;
+import com.datasaz.ecommerce.repositories.OrderItemRepository;
+import com.datasaz.ecommerce.repositories.entities.OrderItem;
+import com.datasaz.ecommerce.services.interfaces.IProductLeaderboardService;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard.Window;
+import com.datasaz.ecommerce.utilities.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the in-memory {@link SalesLeaderboard} in sync with orders so best-seller listings read a ranking instead of
+ * aggregating the order history on every request.
+ * Built from per-product sales totals after startup and again every night, which also moves the rolling windows
+ * forward; in between, created orders and processed refunds update it after commit.
+ * <p>
+ * A build reads the totals from one repeatable-read snapshot. Sales and returns that commit while it runs are queued
+ * and, before the fresh leaderboard is published, checked against that same snapshot: only the ones it could not see
+ * are replayed, so each change is counted exactly once whatever its item ID.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductLeaderboardService implements IProductLeaderboardService {
+
+    private record Sale(long itemId, long productId, Long categoryId, LocalDate soldOn, long units) {
+    }
+
+    private final OrderItemRepository orderItemRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${product-leaderboard.enabled:true}")
+    private boolean enabled;
+
+    private volatile SalesLeaderboard leaderboard;
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    private final Queue<Sale> recordedDuringBuild = new ConcurrentLinkedQueue<>();
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuildIndex();
+        }
+    }
+
+    @Scheduled(cron = "${product-leaderboard.rebuild-cron:0 5 0 * * *}")
+    public void rollWindows() {
+        if (enabled) {
+            rebuildIndex();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return enabled && leaderboard != null;
+    }
+
+    @Override
+    public Page<Long> topProducts(Long categoryId, Window window, Pageable pageable) {
+        SalesLeaderboard current = leaderboard;
+        List<Long> ids = current.topProducts(categoryId, window, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(ids, pageable, current.productCount(categoryId, window));
+    }
+
+    @Override
+    public Page<Long> topCategories(Window window, Pageable pageable) {
+        SalesLeaderboard current = leaderboard;
+        List<Long> ids = current.topCategories(window, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(ids, pageable, current.categoryCount(window));
+    }
+
+    @Override
+    public void recordSales(Collection<OrderItem> items) {
+        record(items, 1);
+    }
+
+    @Override
+    public void recordReturns(Collection<OrderItem> items) {
+        record(items, -1);
+    }
+
+    @Override
+    public void rebuildIndex() {
+        if (!building.compareAndSet(false, true)) {
+            log.info("Product leaderboard build already running");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            recordedDuringBuild.clear();
+            TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+            snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            snapshot.setReadOnly(true);
+            snapshot.executeWithoutResult(status -> {
+                Long maxItemId = orderItemRepository.findMaxId();
+                SalesLeaderboard fresh = new SalesLeaderboard(LocalDate.now());
+                for (Window window : Window.values()) {
+                    List<ProductSalesTotal> totals = window == Window.ALL_TIME
+                            ? orderItemRepository.findSalesTotals(maxItemId)
+                            : orderItemRepository.findSalesTotalsSince(maxItemId, fresh.windowStart(window).atStartOfDay());
+                    totals.forEach(total -> fresh.add(window, total.getProductId(), total.getCategoryId(), total.getUnits()));
+                }
+
+                // Sales are deltas, so none may reach the fresh leaderboard both directly and through the replay
+                synchronized (recordedDuringBuild) {
+                    List<Sale> pending = new ArrayList<>(recordedDuringBuild);
+                    recordedDuringBuild.clear();
+                    Set<Long> countedSales = visible(pending, true, orderItemRepository::findExistingIds);
+                    Set<Long> countedReturns = visible(pending, false, orderItemRepository::findReturnedItemIds);
+                    leaderboard = fresh;
+                    for (Sale sale : pending) {
+                        Set<Long> counted = sale.units() >= 0 ? countedSales : countedReturns;
+                        if (!counted.contains(sale.itemId())) {
+                            apply(fresh, sale);
+                        }
+                    }
+                }
+            });
+            log.info("Product leaderboard built in {} ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build product leaderboard: {}", e.getMessage(), e);
+        } finally {
+            building.set(false);
+        }
+    }
+
+    // Item IDs of the queued sales (or returns) that the build snapshot already saw, and therefore counted
+    private static Set<Long> visible(List<Sale> pending, boolean sales, Function<Collection<Long>, List<Long>> lookup) {
+        Set<Long> itemIds = pending.stream()
+                .filter(sale -> (sale.units() >= 0) == sales)
+                .map(Sale::itemId)
+                .collect(Collectors.toSet());
+        return itemIds.isEmpty() ? Set.of() : new HashSet<>(lookup.apply(itemIds));
+    }
+
+    // Entities are read now, while still attached; the leaderboard only sees committed orders
+    private void record(Collection<OrderItem> items, int sign) {
+        if (!enabled || items == null || items.isEmpty()) {
+            return;
+        }
+        List<Sale> sales = items.stream()
+                .filter(item -> item.getId() != null && item.getProduct() != null)
+                .map(item -> new Sale(item.getId(), item.getProduct().getId(),
+                        item.getProduct().getCategory() != null ? item.getProduct().getCategory().getId() : null,
+                        soldOn(item), (long) sign * item.getQuantity()))
+                .toList();
+        TransactionUtils.afterCommit(() -> {
+            synchronized (recordedDuringBuild) {
+                SalesLeaderboard current = leaderboard;
+                for (Sale sale : sales) {
+                    if (current != null) {
+                        apply(current, sale);
+                    }
+                    if (building.get()) {
+                        recordedDuringBuild.add(sale);
+                    }
+                }
+            }
+        });
+    }
+
+    private static LocalDate soldOn(OrderItem item) {
+        LocalDateTime orderDateTime = item.getOrder() != null ? item.getOrder().getOrderDateTime() : null;
+        return orderDateTime != null ? orderDateTime.toLocalDate() : LocalDate.now();
+    }
+
+    private static void apply(SalesLeaderboard target, Sale sale) {
+        target.record(sale.productId(), sale.categoryId(), sale.soldOn(), sale.units());
+    }
+}
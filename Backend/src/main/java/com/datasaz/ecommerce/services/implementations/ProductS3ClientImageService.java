@@ -1,13 +1,19 @@
 package com.datasaz.ecommerce.services.implementations;
 
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.exceptions.TechnicalException;
 import com.datasaz.ecommerce.repositories.ProductImageRepository;
 import com.datasaz.ecommerce.repositories.ProductRepository;
 import com.datasaz.ecommerce.repositories.entities.Product;
 import com.datasaz.ecommerce.repositories.entities.ProductImage;
+import com.datasaz.ecommerce.services.interfaces.IObjectStorageService;
 import com.datasaz.ecommerce.services.interfaces.IProductS3ClientImageService;
+import com.datasaz.ecommerce.utilities.ImageDecoder;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine.ResizeQuality;
+import com.datasaz.ecommerce.utilities.TransactionUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.imgscalr.Scalr;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -15,20 +21,17 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 
 @Slf4j
@@ -36,16 +39,15 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ProductS3ClientImageService implements IProductS3ClientImageService {
 
+    // The uploaded file and the thumbnail are kept next to the resized image, under the same name
+    private static final String ORIGINALS_PREFIX = "originals/";
+    private static final String THUMBNAILS_PREFIX = "thumbnails/";
+
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
-    private final S3Client s3Client;
-
-    //private final AmazonS3 amazonS3;
-
-    //@Value("${spring.s3.bucket}")
-
-    @Value("${aws.s3.bucket}")
-    private String bucketName;
+    private final IObjectStorageService objectStorageService;
+    private final ImageProcessingEngine imageProcessingEngine;
+    private final GroupConfig groupConfig;
 
     @Value("${image.max.size.mb:5}")
     private int maxFileSizeMb;
@@ -56,6 +58,12 @@ public class ProductS3ClientImageService implements IProductS3ClientImageService
     @Value("${image.resize.height:800}")
     private int resizeHeight;
 
+    @Value("${image.thumbnail.width:150}")
+    private int thumbnailWidth;
+
+    @Value("${image.thumbnail.height:150}")
+    private int thumbnailHeight;
+
     private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
             "image/jpeg", "image/png", "image/gif"
     );
@@ -63,41 +71,55 @@ public class ProductS3ClientImageService implements IProductS3ClientImageService
     @Transactional
     @CacheEvict(value = "productImages", key = "#productId")
     public ProductImage uploadImage(Long productId, MultipartFile file, boolean isPrimary) { //throws Exception
+        return uploadImages(productId, List.of(file), isPrimary).get(0);
+    }
+
+    /**
+     * Each file's uploads are started as soon as it is resized and all of them run concurrently, so the request waits
+     * for the slowest upload rather than the sum of them. If any upload fails, or the transaction rolls back, the
+     * objects already stored are deleted.
+     */
+    @Transactional
+    @CacheEvict(value = "productImages", key = "#productId")
+    public List<ProductImage> uploadImages(Long productId, List<MultipartFile> files, boolean firstIsPrimary) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
 
-        validateFile(file);
+        files.forEach(this::validateFile);
 
-        ProductImage image = null;
+        List<ProductImage> images = new ArrayList<>();
+        Map<String, CompletableFuture<String>> uploads = new LinkedHashMap<>();
         try {
-            // Upload to S3
-            //amazonS3.putObject(new PutObjectRequest(bucketName, fileName, tempFile));
-
-            // Resize image
-            byte[] resizedImage = resizeImage(file.getBytes());
-
-            String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(fileName)
-                    .contentType(file.getContentType())
-                    .build();
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(resizedImage));
-
-            image = ProductImage.builder()
-                    .fileName(fileName)
-                    .fileUrl(String.format("https://%s.s3.amazonaws.com/%s", bucketName, fileName))
-                    .contentType(file.getContentType())
-                    .isPrimary(isPrimary)
-                    .product(product)
-                    .build();
-
+            for (MultipartFile file : files) {
+                String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
+                byte[] original = file.getBytes();
+                upload(uploads, ORIGINALS_PREFIX + fileName, original, file.getContentType());
+
+                BufferedImage decoded = ImageDecoder.decode(original, resizeWidth, resizeHeight, groupConfig.maxDecodePixels);
+                byte[] resizedImage = imageProcessingEngine.resize(decoded, "jpg", true, resizeWidth, resizeHeight, ResizeQuality.BALANCED);
+                upload(uploads, fileName, resizedImage, "image/jpeg");
+                byte[] thumbnail = imageProcessingEngine.resize(decoded, "jpg", true, thumbnailWidth, thumbnailHeight, ResizeQuality.BALANCED);
+                upload(uploads, THUMBNAILS_PREFIX + fileName, thumbnail, "image/jpeg");
+
+                images.add(ProductImage.builder()
+                        .fileName(fileName)
+                        .fileUrl(objectStorageService.getUrl(fileName))
+                        .contentType("image/jpeg")
+                        .fileSize(resizedImage.length)
+                        .isPrimary(firstIsPrimary && images.isEmpty())
+                        .product(product)
+                        .build());
+            }
+            CompletableFuture.allOf(uploads.values().toArray(CompletableFuture[]::new)).join();
+            // The objects exist from here on; if the images are never saved they are deleted again
+            TransactionUtils.afterRollback(() -> discard(uploads));
         } catch (Exception e) {
-            log.error("IO Exception: {}", e.getMessage());
+            log.error("Failed to upload images for product {}: {}", productId, e.getMessage());
+            discard(uploads);
             throw new RestClientException("IO Exception: " + e.getMessage());
         }
 
-        if (isPrimary) {
+        if (firstIsPrimary) {
             productImageRepository.findByProductIdAndIsPrimaryTrue(productId)
                     .ifPresent(existing -> {
                         existing.setPrimary(false);
@@ -105,7 +127,7 @@ public class ProductS3ClientImageService implements IProductS3ClientImageService
                     });
         }
 
-        return productImageRepository.save(image);
+        return productImageRepository.saveAll(images);
     }
 
     @Transactional
@@ -114,11 +136,7 @@ public class ProductS3ClientImageService implements IProductS3ClientImageService
         ProductImage image = productImageRepository.findById(imageId)
                 .orElseThrow(() -> new IllegalArgumentException("Image not found"));
 
-        DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                .bucket(bucketName)
-                .key(image.getFileName())
-                .build();
-        s3Client.deleteObject(deleteObjectRequest);
+        deleteObjects(image.getFileName()).join();
 
         productImageRepository.delete(image);
     }
@@ -135,11 +153,7 @@ public class ProductS3ClientImageService implements IProductS3ClientImageService
         List<ProductImage> orphanedImages = productImageRepository.findByProductIsNullAndCreatedAtBefore(threshold);
         orphanedImages.forEach(image -> {
             try {
-                DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                        .bucket(bucketName)
-                        .key(image.getFileName())
-                        .build();
-                s3Client.deleteObject(deleteObjectRequest);
+                deleteObjects(image.getFileName()).join();
                 productImageRepository.delete(image);
                 log.info("Deleted orphaned image: {}", image.getFileName());
             } catch (Exception e) {
@@ -148,6 +162,31 @@ public class ProductS3ClientImageService implements IProductS3ClientImageService
         });
     }
 
+    private void upload(Map<String, CompletableFuture<String>> uploads, String key, byte[] content, String contentType) {
+        uploads.put(key, objectStorageService.put(key, content, contentType));
+    }
+
+    // Images stored before originals and thumbnails were kept have only the resized object; deleting a missing
+    // object succeeds
+    private CompletableFuture<Void> deleteObjects(String fileName) {
+        return CompletableFuture.allOf(
+                objectStorageService.delete(fileName),
+                objectStorageService.delete(ORIGINALS_PREFIX + fileName),
+                objectStorageService.delete(THUMBNAILS_PREFIX + fileName));
+    }
+
+    // Uploads still running are deleted once they complete
+    private void discard(Map<String, CompletableFuture<String>> uploads) {
+        uploads.forEach((key, upload) -> upload.whenComplete((url, failure) -> {
+            if (failure == null) {
+                objectStorageService.delete(key).exceptionally(e -> {
+                    log.warn("Failed to delete uploaded object {}: {}", key, e.getMessage());
+                    return null;
+                });
+            }
+        }));
+    }
+
     private void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
@@ -158,14 +197,12 @@ public class ProductS3ClientImageService implements IProductS3ClientImageService
         if (file.getSize() > maxFileSizeMb * 1024 * 1024) {
             throw new IllegalArgumentException("File size exceeds " + maxFileSizeMb + "MB");
         }
-    }
-
-    private byte[] resizeImage(byte[] originalImage) throws IOException {
-        BufferedImage img = ImageIO.read(new ByteArrayInputStream(originalImage));
-        BufferedImage resized = Scalr.resize(img, Scalr.Method.QUALITY, resizeWidth, resizeHeight);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(resized, "jpg", baos);
-        return baos.toByteArray();
+        try {
+            ImageDecoder.checkDimensions(ImageDecoder.readDimensions(file.getBytes()), groupConfig.maxImagePixels, file.getOriginalFilename());
+        } catch (IOException e) {
+            log.error("Error validating image: {}", e.getMessage());
+            throw TechnicalException.builder().message("Error validating image: " + e.getMessage()).build();
+        }
     }
     /*
 
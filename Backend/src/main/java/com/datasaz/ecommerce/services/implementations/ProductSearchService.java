@@ -0,0 +1,124 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.ProductSearchDocument;
+import com.datasaz.ecommerce.repositories.ProductRepository;
+import com.datasaz.ecommerce.services.interfaces.IProductSearchService;
+import com.datasaz.ecommerce.utilities.ProductSearchIndex;
+import com.datasaz.ecommerce.utilities.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the in-memory {@link ProductSearchIndex} in sync with the product table.
+ * The index is built in keyset chunks after startup and swapped in once complete; afterwards each product write
+ * re-reads that single product after commit. Products changed while a build is running are replayed on the new index.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService implements IProductSearchService {
+
+    private final ProductRepository productRepository;
+
+    @Value("${product-search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product-search.build-chunk-size:1000}")
+    private int chunkSize;
+
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+    private volatile boolean ready;
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuildIndex();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @Override
+    public Page<Long> search(String query, Pageable pageable) {
+        ProductSearchIndex.Hits hits = index.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(hits.productIds(), pageable, hits.total());
+    }
+
+    @Override
+    public void indexProduct(Long productId) {
+        TransactionUtils.afterCommit(() -> sync(productId));
+    }
+
+    @Override
+    public void removeProduct(Long productId) {
+        TransactionUtils.afterCommit(() -> {
+            index.remove(productId);
+            if (building.get()) {
+                changedDuringBuild.add(productId);
+            }
+        });
+    }
+
+    @Override
+    public void rebuildIndex() {
+        if (!building.compareAndSet(false, true)) {
+            log.info("Product search index build already running");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            changedDuringBuild.clear();
+            ProductSearchIndex fresh = new ProductSearchIndex();
+            Long lastId = 0L;
+            List<ProductSearchDocument> chunk;
+            do {
+                chunk = productRepository.findSearchDocumentsAfter(lastId, PageRequest.of(0, chunkSize));
+                chunk.forEach(fresh::upsert);
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == chunkSize);
+
+            index = fresh;
+            changedDuringBuild.forEach(this::sync);
+            ready = true;
+            log.info("Product search index built: {} products in {} ms", fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build product search index: {}", e.getMessage(), e);
+        } finally {
+            building.set(false);
+        }
+    }
+
+    private void sync(Long productId) {
+        try {
+            productRepository.findSearchDocumentById(productId)
+                    .ifPresentOrElse(index::upsert, () -> index.remove(productId));
+        } catch (Exception e) {
+            log.error("Failed to update search index for product {}: {}", productId, e.getMessage());
+        }
+        if (building.get()) {
+            changedDuringBuild.add(productId);
+        }
+    }
+}
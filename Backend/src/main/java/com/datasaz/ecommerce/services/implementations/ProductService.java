@@ -1,19 +1,51 @@
 package com.datasaz.ecommerce.services.implementations;
 
 
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.exceptions.CategoryNotFoundException;
 import com.datasaz.ecommerce.exceptions.ResourceNotFoundException;
 import com.datasaz.ecommerce.mappers.ProductMapper;
+import com.datasaz.ecommerce.models.dto.ProductBrowseFilter;
+import com.datasaz.ecommerce.models.dto.ProductImageRef;
+import com.datasaz.ecommerce.models.dto.ProductPageKey;
+import com.datasaz.ecommerce.models.dto.ProductVersionRef;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
+import com.datasaz.ecommerce.models.response.ProductBrowseResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
+import com.datasaz.ecommerce.models.response.ProductSuggestionResponse;
+import com.datasaz.ecommerce.models.response.ProductSummaryResponse;
+import com.datasaz.ecommerce.repositories.ProductImageAttachRepository;
+import com.datasaz.ecommerce.repositories.ProductImageRepository;
 import com.datasaz.ecommerce.repositories.ProductRepository;
 import com.datasaz.ecommerce.repositories.entities.Product;
+import com.datasaz.ecommerce.services.interfaces.ICategoryTreeService;
+import com.datasaz.ecommerce.services.interfaces.IProductCacheService;
+import com.datasaz.ecommerce.services.interfaces.IProductFacetService;
+import com.datasaz.ecommerce.services.interfaces.IProductLeaderboardService;
+import com.datasaz.ecommerce.services.interfaces.IProductSearchService;
 import com.datasaz.ecommerce.services.interfaces.IProductService;
+import com.datasaz.ecommerce.services.interfaces.IProductSuggestionService;
+import com.datasaz.ecommerce.utilities.CategoryTreeSnapshot;
+import com.datasaz.ecommerce.utilities.KeysetCursor;
+import com.datasaz.ecommerce.utilities.PageRequests;
+import com.datasaz.ecommerce.utilities.ProductFacetIndex;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -21,21 +53,46 @@ import org.springframework.transaction.annotation.Transactional;
 public class ProductService implements IProductService {
 
     private final ProductRepository productRepository;
+    private final ProductImageAttachRepository productImageAttachRepository;
+    private final ProductImageRepository productImageRepository;
     private final ProductMapper productMapper;
+    private final GroupConfig groupConfig;
+    private final IProductCacheService productCacheService;
+    private final IProductSearchService productSearchService;
+    private final IProductFacetService productFacetService;
+    private final IProductSuggestionService productSuggestionService;
+    private final IProductLeaderboardService productLeaderboardService;
+    private final ICategoryTreeService categoryTreeService;
 
     @Override
     public ProductResponse getProductById(Long id) {
         log.info("Fetching product with ID: {}", id);
-        Product product = productRepository.findWithImageAttachesByIdAndDeletedFalse(id)
+        ProductVersionRef current = productRepository.findVersionRefsByIds(List.of(id)).stream().findFirst()
                 .orElseThrow(() -> ResourceNotFoundException.builder().message("Product not found with ID: " + id).build());
-        return productMapper.toResponse(product);
+        return productCacheService.getProduct(id, current.getVersion(), () -> {
+            Product product = productRepository.findWithImageAttachesByIdAndDeletedFalse(id)
+                    .orElseThrow(() -> ResourceNotFoundException.builder().message("Product not found with ID: " + id).build());
+            return productMapper.toResponse(product);
+        });
     }
 
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getAllProducts(int page, int size) {
+    public Page<ProductSummaryResponse> getAllProducts(int page, int size) {
         log.info("getAllProducts: Fetching products for page: {}, size: {}", page, size);
-        Page<Product> products = productRepository.findAllWithImageAttaches(PageRequest.of(page, size));
-        return products.map(productMapper::toResponse);
+        Pageable pageable = PageRequests.of(page, size);
+        return cachedPage(ProductPageKey.of("all", null, null, pageable),
+                () -> productRepository.findAllSummaries(pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<ProductSummaryResponse> getAllProducts(String cursor, int size) {
+        log.info("getAllProducts: Fetching products after cursor: {}, size: {}", cursor, size);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Slice<ProductSummaryResponse> slice = productRepository.findSummariesBefore(
+                position != null ? position.id() : Long.MAX_VALUE, PageRequests.first(size));
+        withCoverImages(slice.getContent());
+        return CursorSliceResponse.of(slice, summary -> KeysetCursor.of(summary.getId()), summary -> summary);
     }
 
 //    @Override
@@ -46,14 +103,22 @@ public class ProductService implements IProductService {
 //    }
 
     @Transactional(readOnly = true)
-    public Page<ProductResponse> searchProductsByName(String name, Pageable pageable) {
+    public Page<ProductSummaryResponse> searchProductsByName(String name, Pageable pageable) {
         log.info("searchProductsByName: Searching products by name: {}, page: {}, size: {}", name, pageable.getPageNumber(), pageable.getPageSize());
         if (name == null || name.trim().isEmpty()) {
             log.warn("searchProductsByName: Name parameter is null or empty");
             return Page.empty(pageable);
         }
-        Page<Product> products = productRepository.findByNameContainingIgnoreCaseAndDeletedFalse(name.trim(), pageable);
-        return products.map(productMapper::toResponse);
+        String query = name.trim();
+        if (!productSearchService.isReady()) {
+            log.info("searchProductsByName: Search index not ready, falling back to database search");
+            Page<ProductSummaryResponse> page = productRepository.findSummariesByNameContainingIgnoreCase(query, pageable);
+            withCoverImages(page.getContent());
+            return page;
+        }
+        Page<Long> hits = productSearchService.search(query, pageable);
+        List<ProductSummaryResponse> summaries = productCacheService.getSummaries(hits.getContent(), this::loadSummaries);
+        return new PageImpl<>(summaries, pageable, hits.getTotalElements());
     }
 
 //    @Override
@@ -64,10 +129,28 @@ public class ProductService implements IProductService {
 //    }
 
     @Override
-    public Page<ProductResponse> getProductsByCategory(Long categoryId, int page, int size) {
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryResponse> getProductsByCategory(Long categoryId, int page, int size) {
         log.info("Fetching products for category ID: {}, page: {}, size: {}", categoryId, page, size);
-        Page<Product> products = productRepository.findByCategoryIdAndDeletedFalse(categoryId, PageRequest.of(page, size));
-        return products.map(productMapper::toResponse);
+        Pageable pageable = PageRequests.of(page, size);
+        return cachedPage(ProductPageKey.of("category", categoryId, null, pageable),
+                () -> productRepository.findSummariesByCategoryId(categoryId, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryResponse> getProductsInCategorySubtree(Long categoryId, int page, int size) {
+        log.info("Fetching products for category subtree of ID: {}, page: {}, size: {}", categoryId, page, size);
+        CategoryTreeSnapshot tree = categoryTreeService.getSnapshot();
+        List<Long> categoryIds = tree.subtreeIds(categoryId);
+        if (categoryIds.isEmpty()) {
+            throw CategoryNotFoundException.builder().message("Category not found.").build();
+        }
+        Pageable pageable = PageRequests.of(page, size);
+        // Cached in the global scope (evicted by any product write) and keyed on the tree version, so pages computed
+        // before a category move are never served
+        return cachedPage(ProductPageKey.of("categorySubtree", null, categoryId + "@" + tree.getVersion(), pageable),
+                () -> productRepository.findSummariesByCategoryIdIn(categoryIds, pageable));
     }
 
 //    @Override
@@ -81,60 +164,140 @@ public class ProductService implements IProductService {
 //    }
 
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getFeaturedProducts(int page, int size) {
+    public Page<ProductSummaryResponse> getFeaturedProducts(int page, int size) {
         log.info("getFeaturedProducts: Fetching products for page: {}, size: {}", page, size);
 
         // TODO: Use ML / favorites / viewed
 
-        Page<Product> products = productRepository.findAllWithImageAttaches(PageRequest.of(page, size));
-        return products.map(productMapper::toResponse);
+        Pageable pageable = PageRequests.of(page, size);
+        return cachedPage(ProductPageKey.of("all", null, null, pageable),
+                () -> productRepository.findAllSummaries(pageable));
     }
 
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getNewArrivalProducts(Pageable pageable) {
+    public Page<ProductSummaryResponse> getNewArrivalProducts(Pageable pageable) {
         log.info("getNewArrivalProducts: Fetching products for page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
 
         // TODO: Use ML / favorites / viewed
 
-        Page<Product> products = productRepository.findAllByDeletedFalse(pageable);
-        return products.map(productMapper::toResponse);
+        return cachedPage(ProductPageKey.of("all", null, null, pageable),
+                () -> productRepository.findAllSummaries(pageable));
     }
 
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getAllSortedByProductSoldQuantity(Pageable pageable) {
+    public Page<ProductSummaryResponse> getAllSortedByProductSoldQuantity(Pageable pageable) {
         log.info("getAllSortedByProductSoldQuantity: Fetching products for page: {}, size: {}", pageable.getPageNumber(), pageable.getPageSize());
+        return getBestSellers(null, SalesLeaderboard.Window.ALL_TIME, pageable);
+    }
 
-        Page<Product> products = productRepository.findAllSortedByProductSoldQuantity(pageable);
-        return products.map(productMapper::toResponse);
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductSummaryResponse> getBestSellers(Long categoryId, SalesLeaderboard.Window window, Pageable pageable) {
+        log.info("getBestSellers: Fetching best sellers for category: {}, window: {}, page: {}, size: {}",
+                categoryId, window.getKey(), pageable.getPageNumber(), pageable.getPageSize());
+        if (!productLeaderboardService.isReady()) {
+            if (categoryId == null && window == SalesLeaderboard.Window.ALL_TIME) {
+                return cachedPage(ProductPageKey.of("bestSellers", null, null, pageable),
+                        () -> productRepository.findSummariesSortedBySoldQuantity(pageable));
+            }
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Best sellers are still loading, please try again shortly.");
+        }
+        Page<Long> ranked = productLeaderboardService.topProducts(categoryId, window, pageable);
+        List<ProductSummaryResponse> summaries = productCacheService.getSummaries(ranked.getContent(), this::loadSummaries);
+        return new PageImpl<>(summaries, pageable, ranked.getTotalElements());
     }
 
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getByOfferPriceLessThanPrice(int page, int size) {
+    public Page<ProductSummaryResponse> getByOfferPriceLessThanPrice(int page, int size) {
         log.info("getByOfferPriceLessThanPrice: Fetching products for page: {}, size: {}", page, size);
 
-        Page<Product> products = productRepository.findByOfferPriceLessThanPriceAndDeletedFalse(PageRequest.of(page, size));
-        return products.map(productMapper::toResponse);
+        Pageable pageable = PageRequests.of(page, size);
+        return cachedPage(ProductPageKey.of("onSale", null, null, pageable),
+                () -> productRepository.findSummariesByOfferPriceLessThanPrice(pageable));
     }
 
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getRelatedProducts(Long categoryId, Long productId, Pageable pageable) {
+    public Page<ProductSummaryResponse> getRelatedProducts(Long productId, Pageable pageable) {
+        Long categoryId = productRepository.findCategoryIdByIdAndDeletedFalse(productId)
+                .orElseThrow(() -> ResourceNotFoundException.builder().message("Product not found with ID: " + productId).build());
         log.info("getRelatedProducts: Related for {}, category: {}", productId, categoryId);
 
-        Page<Product> relatedProducts = productRepository.findByCategoryIdAndIdNotAndDeletedFalse(categoryId, productId, pageable);
-        return relatedProducts.map(productMapper::toResponse);
+        return cachedPage(ProductPageKey.of("related", categoryId, productId.toString(), pageable),
+                () -> productRepository.findRelatedSummaries(categoryId, productId, pageable));
     }
 
     @Transactional(readOnly = true)
-    public Page<ProductResponse> getRecommendedProducts(int page, int size) {
-        log.info("getFeaturedProducts: Fetching products for page: {}, size: {}", page, size);
+    public Page<ProductSummaryResponse> getRecommendedProducts(int page, int size) {
+        log.info("getRecommendedProducts: Fetching products for page: {}, size: {}", page, size);
 
         // TODO: Use ML / favorites / viewed
 
-        Page<Product> products = productRepository.findAllWithImageAttaches(PageRequest.of(page, size));
-        return products.map(productMapper::toResponse);
+        Pageable pageable = PageRequests.of(page, size);
+        return cachedPage(ProductPageKey.of("all", null, null, pageable),
+                () -> productRepository.findAllSummaries(pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductBrowseResponse browseProducts(ProductBrowseFilter filter, Pageable pageable) {
+        log.info("browseProducts: Browsing products with filter: {}, page: {}, size: {}", filter, pageable.getPageNumber(), pageable.getPageSize());
+        if (!productFacetService.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Catalog filters are still loading, please try again shortly.");
+        }
+        ProductFacetIndex.Result result = productFacetService.browse(filter, pageable);
+        List<ProductSummaryResponse> summaries = productCacheService.getSummaries(result.productIds(), this::loadSummaries);
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        result.counts().forEach((facet, counts) -> facets.put(facet.getKey(), counts));
+        return ProductBrowseResponse.builder()
+                .products(new PageImpl<>(summaries, pageable, result.total()))
+                .facets(facets)
+                .build();
+    }
+
+    @Override
+    public List<ProductSuggestionResponse> suggestProducts(String query, int limit) {
+        return productSuggestionService.suggest(query, limit).stream()
+                .map(suggestion -> ProductSuggestionResponse.builder()
+                        .type(suggestion.type().name())
+                        .id(suggestion.id())
+                        .text(suggestion.text())
+                        .build())
+                .toList();
+    }
+
+    private Page<ProductSummaryResponse> cachedPage(ProductPageKey key, Supplier<Page<ProductSummaryResponse>> loader) {
+        return productCacheService.getPage(key,
+                () -> {
+                    Page<ProductSummaryResponse> page = loader.get();
+                    withCoverImages(page.getContent());
+                    return page;
+                },
+                this::loadSummaries);
+    }
+
+    private List<ProductSummaryResponse> loadSummaries(List<Long> productIds) {
+        return withCoverImages(productRepository.findSummariesByIds(productIds));
     }
-}
 
+    // One metadata-only query per page resolves every card's cover image; no image content is read.
+    private List<ProductSummaryResponse> withCoverImages(List<ProductSummaryResponse> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        List<Long> productIds = summaries.stream().map(ProductSummaryResponse::getId).toList();
+        List<ProductImageRef> imageRefs = groupConfig.imageStorageMode.equals("database")
+                ? productImageAttachRepository.findImageRefsByProductIds(productIds)
+                : productImageRepository.findImageRefsByProductIds(productIds);
+
+        Map<Long, ProductImageRef> coverByProductId = new HashMap<>();
+        for (ProductImageRef ref : imageRefs) {
+            coverByProductId.putIfAbsent(ref.getProductId(), ref);
+        }
+        summaries.forEach(summary -> productMapper.applyCoverImage(summary, coverByProductId.get(summary.getId())));
+        return summaries;
+    }
+}
 
 /*
 import com.datasaz.ecommerce.exceptions.ProductNotFoundException;
@@ -0,0 +1,150 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.CategorySuggestionDocument;
+import com.datasaz.ecommerce.models.dto.ProductSuggestionDocument;
+import com.datasaz.ecommerce.repositories.CategoryRepository;
+import com.datasaz.ecommerce.repositories.ProductRepository;
+import com.datasaz.ecommerce.services.interfaces.IProductSuggestionService;
+import com.datasaz.ecommerce.utilities.ProductSuggestionIndex;
+import com.datasaz.ecommerce.utilities.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the in-memory {@link ProductSuggestionIndex} in sync with products and categories.
+ * Built in keyset chunks after startup and swapped in once complete. Product creates, renames and deletes update
+ * that single product after commit; popularity (sales, favorites) and categories are refreshed by a periodic rebuild.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSuggestionService implements IProductSuggestionService {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    @Value("${product-suggest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product-suggest.build-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${product-suggest.max-suggestions:10}")
+    private int maxSuggestions;
+
+    private volatile ProductSuggestionIndex index;
+    private final AtomicBoolean building = new AtomicBoolean(false);
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuildIndex();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${product-suggest.refresh-interval-ms:3600000}",
+            fixedDelayString = "${product-suggest.refresh-interval-ms:3600000}")
+    public void refreshPopularity() {
+        if (enabled) {
+            rebuildIndex();
+        }
+    }
+
+    @Override
+    public List<ProductSuggestionIndex.Suggestion> suggest(String query, int limit) {
+        ProductSuggestionIndex current = index;
+        if (!enabled || current == null) {
+            return List.of();
+        }
+        return current.suggest(query, limit);
+    }
+
+    @Override
+    public void indexProduct(Long productId) {
+        TransactionUtils.afterCommit(() -> sync(productId));
+    }
+
+    @Override
+    public void removeProduct(Long productId) {
+        TransactionUtils.afterCommit(() -> {
+            ProductSuggestionIndex current = index;
+            if (current != null) {
+                current.removeProduct(productId);
+            }
+            if (building.get()) {
+                changedDuringBuild.add(productId);
+            }
+        });
+    }
+
+    @Override
+    public void rebuildIndex() {
+        if (!building.compareAndSet(false, true)) {
+            log.info("Product suggestion index build already running");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            changedDuringBuild.clear();
+            ProductSuggestionIndex fresh = new ProductSuggestionIndex(maxSuggestions);
+            for (CategorySuggestionDocument category : categoryRepository.findAllSuggestionDocuments()) {
+                fresh.upsertCategory(category.getId(), category.getName(), category.getProductCount());
+            }
+            Long lastId = 0L;
+            List<ProductSuggestionDocument> chunk;
+            do {
+                chunk = productRepository.findSuggestionDocumentsAfter(lastId, PageRequest.of(0, chunkSize));
+                chunk.forEach(document -> upsert(fresh, document));
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == chunkSize);
+
+            index = fresh;
+            changedDuringBuild.forEach(this::sync);
+            log.info("Product suggestion index built: {} suggestions in {} ms", fresh.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build product suggestion index: {}", e.getMessage(), e);
+        } finally {
+            building.set(false);
+        }
+    }
+
+    private static void upsert(ProductSuggestionIndex target, ProductSuggestionDocument document) {
+        long popularity = valueOf(document.getSoldQuantity()) + valueOf(document.getFavoriteCount());
+        target.upsertProduct(document.getId(), document.getName(), document.getBrand(), popularity);
+    }
+
+    private static long valueOf(Long count) {
+        return count != null ? count : 0L;
+    }
+
+    private void sync(Long productId) {
+        ProductSuggestionIndex current = index;
+        if (current != null) {
+            try {
+                productRepository.findSuggestionDocumentById(productId)
+                        .ifPresentOrElse(document -> upsert(current, document), () -> current.removeProduct(productId));
+            } catch (Exception e) {
+                log.error("Failed to update suggestion index for product {}: {}", productId, e.getMessage());
+            }
+        }
+        if (building.get()) {
+            changedDuringBuild.add(productId);
+        }
+    }
+}
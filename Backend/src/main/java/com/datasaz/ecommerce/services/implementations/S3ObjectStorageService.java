@@ -0,0 +1,99 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.services.interfaces.IObjectStorageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Object storage in an S3 bucket through the non-blocking client; large objects go up as multipart uploads
+ * (see {@link com.datasaz.ecommerce.configs.AwsConfig#s3AsyncClient()}).
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "object-storage.type", havingValue = "s3")
+public class S3ObjectStorageService implements IObjectStorageService {
+
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Presigner s3Presigner;
+
+    @Value("${aws.s3.bucket}")
+    private String bucketName;
+
+    @Override
+    public CompletableFuture<String> put(String key, byte[] content, String contentType) {
+        return s3AsyncClient.putObject(putRequest(key, contentType), AsyncRequestBody.fromBytes(content))
+                .thenApply(response -> getUrl(key));
+    }
+
+    @Override
+    public CompletableFuture<String> put(String key, Path file, String contentType) {
+        return s3AsyncClient.putObject(putRequest(key, contentType), AsyncRequestBody.fromFile(file))
+                .thenApply(response -> getUrl(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String key) {
+        DeleteObjectRequest request = DeleteObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+        return s3AsyncClient.deleteObject(request).thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(String key) {
+        HeadObjectRequest request = HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+        return s3AsyncClient.headObject(request).handle((response, error) -> {
+            if (error == null) {
+                return true;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof NoSuchKeyException) {
+                return false;
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
+    @Override
+    public String getUrl(String key) {
+        return String.format("https://%s.s3.amazonaws.com/%s", bucketName, key);
+    }
+
+    // Signed locally, no call to S3
+    @Override
+    public String getSignedUrl(String key, Duration ttl) {
+        GetObjectPresignRequest request = GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucketName).key(key).build())
+                .build();
+        return s3Presigner.presignGetObject(request).url().toString();
+    }
+
+    private PutObjectRequest putRequest(String key, String contentType) {
+        return PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.utilities.JdbcSchemaUtils;
+import com.datasaz.ecommerce.utilities.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the schema changes Hibernate's ddl update cannot make (relaxing or dropping legacy columns) exactly once
+ * per database. Each applied version is recorded in schema_migration, so later boots only read that table.
+ * Steps check the live schema before changing it, which makes them no-ops on a fresh schema and safe to run again.
+ * <p>
+ * Migrations run while the context starts, before the entity manager factory (see {@link
+ * com.datasaz.ecommerce.configs.SchemaMigrationConfig}) and so before anything can serve a request. Each step runs
+ * in one transaction with the record of its version; MySQL commits DDL implicitly, so a step interrupted there is
+ * resumed on the next boot. A failed step stops the startup instead of serving a partly migrated schema.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchemaMigrationService {
+
+    record Migration(String version, String description, Runnable step) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${schema-migration.enabled:true}")
+    private boolean enabled;
+
+    List<Migration> migrations() {
+        return List.of(
+                // Hibernate no longer writes file_content, so the old NOT NULL constraint would reject every new image attach
+                new Migration("1", "Relax NOT NULL on legacy product_image_attach.file_content", () -> {
+                    if (Boolean.FALSE.equals(JdbcSchemaUtils.isNullable(jdbcTemplate, "product_image_attach", "file_content"))) {
+                        jdbcTemplate.execute("ALTER TABLE product_image_attach MODIFY file_content MEDIUMBLOB NULL");
+                    }
+                }),
+                // Concurrent first uploads of the same bytes could each insert a blob; the unique index rejects the
+                // second, but cannot be created while duplicates exist
+                new Migration("2", "Merge duplicate image blobs and make their content hash unique", this::mergeDuplicateImageBlobs),
+                // Refresh tokens are stored hashed now; ddl update leaves the old plain-text column NOT NULL UNIQUE,
+                // which would reject every new refresh token
+                new Migration("3", "Hash legacy refresh tokens and drop the plain-text token column", this::hashLegacyRefreshTokens)
+        );
+    }
+
+    private void hashLegacyRefreshTokens() {
+        if (JdbcSchemaUtils.isNullable(jdbcTemplate, "refresh_tokens", "token") != null) {
+            if (JdbcSchemaUtils.isNullable(jdbcTemplate, "refresh_tokens", "token_hash") == null) {
+                jdbcTemplate.execute("ALTER TABLE refresh_tokens ADD COLUMN token_hash VARCHAR(64)");
+            }
+            // Rows written before the switch only hold the token; hashing it keeps those sessions signed in
+            List<Object[]> hashes = jdbcTemplate.query("SELECT id, token FROM refresh_tokens "
+                            + "WHERE (token_hash IS NULL OR token_hash = '') AND token IS NOT NULL",
+                    (rs, rowNum) -> new Object[]{JwtUtil.tokenHash(rs.getString("token")), rs.getLong("id")});
+            jdbcTemplate.batchUpdate("UPDATE refresh_tokens SET token_hash = ? WHERE id = ?", hashes);
+            // The plain-text column is the only copy of an unhashed token, so it stays until every row has its hash
+            Integer missing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_tokens "
+                    + "WHERE token_hash IS NULL OR token_hash = ''", Integer.class);
+            if (missing != null && missing > 0) {
+                throw new IllegalStateException(missing + " refresh tokens could not be hashed, keeping the token column");
+            }
+            jdbcTemplate.execute("ALTER TABLE refresh_tokens DROP COLUMN token");
+            log.info("Hashed {} legacy refresh tokens", hashes.size());
+        }
+        // Checked on its own, so a run interrupted between the drop and the index still gets the index
+        if (JdbcSchemaUtils.isNullable(jdbcTemplate, "refresh_tokens", "token_hash") != null
+                && !JdbcSchemaUtils.hasUniqueIndex(jdbcTemplate, "refresh_tokens", "token_hash")) {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX uk_refresh_tokens_token_hash ON refresh_tokens (token_hash)");
+        }
+    }
+
+    private void mergeDuplicateImageBlobs() {
+        if (JdbcSchemaUtils.isNullable(jdbcTemplate, "image_blob", "content_hash") == null) {
+            return;
+        }
+        // Per hash and storage mode, the processed blob is kept in preference, then the oldest
+        List<Map<String, Object>> duplicates = jdbcTemplate.queryForList("SELECT b.* FROM image_blob b "
+                + "WHERE EXISTS (SELECT 1 FROM image_blob d WHERE d.content_hash = b.content_hash "
+                + "AND d.storage_mode = b.storage_mode AND d.id <> b.id) "
+                + "ORDER BY b.content_hash, b.storage_mode, CASE WHEN b.status = 'READY' THEN 0 ELSE 1 END, b.id");
+        Map<String, Object> kept = null;
+        for (Map<String, Object> blob : duplicates) {
+            if (kept == null || !kept.get("content_hash").equals(blob.get("content_hash"))
+                    || !kept.get("storage_mode").equals(blob.get("storage_mode"))) {
+                kept = blob;
+                continue;
+            }
+            Object keptId = kept.get("id");
+            Object fileName = kept.get("file_name");
+            jdbcTemplate.update("UPDATE product_image SET blob_id = ?, file_name = ?, file_url = ?, file_size = ?, status = ? "
+                            + "WHERE blob_id = ?", keptId, fileName, "/Uploads/products/" + fileName, kept.get("file_size"),
+                    kept.get("status"), blob.get("id"));
+            jdbcTemplate.update("UPDATE product_image_attach SET blob_id = ?, file_content_id = ?, thumbnail_content_id = ?, "
+                            + "file_size = ?, status = ? WHERE blob_id = ?", keptId, kept.get("file_content_id"),
+                    kept.get("thumbnail_content_id"), kept.get("file_size"), kept.get("status"), blob.get("id"));
+            int refCount = ((Number) blob.get("ref_count")).intValue();
+            // released_at first: MySQL assigns left to right, so it has to see the old ref_count
+            jdbcTemplate.update("UPDATE image_blob SET released_at = CASE WHEN ref_count + ? > 0 THEN NULL ELSE released_at END, "
+                    + "ref_count = ref_count + ? WHERE id = ?", refCount, refCount, keptId);
+            jdbcTemplate.update("DELETE FROM image_blob WHERE id = ?", blob.get("id"));
+            // Database mode duplicates hold their own copies; file mode ones share the file named after the hash
+            for (String column : List.of("file_content_id", "thumbnail_content_id")) {
+                if (blob.get(column) != null && !blob.get(column).equals(kept.get(column))) {
+                    jdbcTemplate.update("DELETE FROM binary_content WHERE id = ?", blob.get(column));
+                }
+            }
+            log.info("Merged duplicate image blob {} into {}", blob.get("id"), keptId);
+        }
+        if (!JdbcSchemaUtils.hasIndex(jdbcTemplate, "image_blob", "uk_image_blob_hash")) {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX uk_image_blob_hash ON image_blob (content_hash, storage_mode)");
+        }
+        if (JdbcSchemaUtils.hasIndex(jdbcTemplate, "image_blob", "idx_image_blob_hash")) {
+            jdbcTemplate.execute("DROP INDEX idx_image_blob_hash ON image_blob");
+        }
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_migration ("
+                + "version VARCHAR(32) NOT NULL PRIMARY KEY, "
+                + "description VARCHAR(255) NOT NULL, "
+                + "applied_at TIMESTAMP NOT NULL)");
+        Set<String> applied = new HashSet<>(jdbcTemplate.queryForList("SELECT version FROM schema_migration", String.class));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        for (Migration migration : migrations()) {
+            if (!applied.contains(migration.version())) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(migration));
+                } catch (RuntimeException e) {
+                    log.error("Schema migration {} failed: {}", migration.version(), migration.description(), e);
+                    throw new IllegalStateException("Schema migration " + migration.version() + " failed", e);
+                }
+            }
+        }
+    }
+
+    private void apply(Migration migration) {
+        migration.step().run();
+        try {
+            jdbcTemplate.update("INSERT INTO schema_migration (version, description, applied_at) VALUES (?, ?, ?)",
+                    migration.version(), migration.description(), Timestamp.valueOf(LocalDateTime.now()));
+            log.info("Applied schema migration {}: {}", migration.version(), migration.description());
+        } catch (DuplicateKeyException e) {
+            log.info("Schema migration {} was recorded concurrently by another instance", migration.version());
+        }
+    }
+}
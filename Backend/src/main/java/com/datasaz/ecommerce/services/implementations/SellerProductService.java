@@ -5,17 +5,23 @@ import com.datasaz.ecommerce.exceptions.*;
 import com.datasaz.ecommerce.exceptions.response.ExceptionMessages;
 import com.datasaz.ecommerce.mappers.ProductMapper;
 import com.datasaz.ecommerce.models.request.ProductRequest;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
 import com.datasaz.ecommerce.repositories.*;
 import com.datasaz.ecommerce.repositories.entities.*;
+import com.datasaz.ecommerce.services.interfaces.IProductCacheService;
+import com.datasaz.ecommerce.services.interfaces.IProductFacetService;
+import com.datasaz.ecommerce.services.interfaces.IProductSearchService;
+import com.datasaz.ecommerce.services.interfaces.IProductSuggestionService;
 import com.datasaz.ecommerce.services.interfaces.ISellerProductService;
+import com.datasaz.ecommerce.utilities.KeysetCursor;
+import com.datasaz.ecommerce.utilities.PageRequests;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -25,7 +31,9 @@ import org.springframework.web.multipart.MultipartFile;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @AllArgsConstructor
@@ -42,11 +50,14 @@ public class SellerProductService implements ISellerProductService {
     private final AuditLogService auditLogService;
     private final CompanyAdminRightsRepository companyAdminRightsRepository;
     private final GroupConfig groupConfig;
+    private final IProductCacheService productCacheService;
+    private final IProductSearchService productSearchService;
+    private final IProductFacetService productFacetService;
+    private final IProductSuggestionService productSuggestionService;
 
     @Override
     @Transactional
     @RateLimiter(name = "manageProduct", fallbackMethod = "fallbackCreateProduct")
-    @CacheEvict(value = {"products", "productsByCategory", "allProducts", "productImages"}, allEntries = true)
     public ProductResponse createProduct(ProductRequest productRequest, List<MultipartFile> images, String email) {
         log.info("createProduct: Creating product for user: {}", email);
         User user = userRepository.findByEmailAddressAndDeletedFalse(email)
@@ -94,6 +105,10 @@ public class SellerProductService implements ISellerProductService {
         }
 
         productRepository.save(savedProduct);
+        productCacheService.evictListings(savedProduct.getId(), Arrays.asList(categoryIdOf(savedProduct)));
+        productSearchService.indexProduct(savedProduct.getId());
+        productFacetService.indexProduct(savedProduct.getId());
+        productSuggestionService.indexProduct(savedProduct.getId());
         log.info("Product created: {} by user {}, Images: {}", savedProduct.getName(), email, images != null ? images.size() : 0);
 
         auditLogService.logAction(email, "CREATE_PRODUCT", "Product: " + savedProduct.getName() + ", Images: " + (images != null ? images.size() : 0));
@@ -109,7 +124,6 @@ public class SellerProductService implements ISellerProductService {
     @Override
     @Transactional
     @RateLimiter(name = "manageProduct", fallbackMethod = "fallbackUpdateProduct")
-    @CacheEvict(value = {"products", "productsByCategory", "allProducts", "productImages"}, allEntries = true)
     public ProductResponse updateProduct(Long productId, ProductRequest request, List<MultipartFile> newImages, List<Long> imagesToRemove, Long primaryImageId, String email) {
         log.info("updateProduct: Updating product {} by user {}", productId, email);
         User user = userRepository.findByEmailAddressAndDeletedFalse(email)
@@ -126,6 +140,7 @@ public class SellerProductService implements ISellerProductService {
             log.error("User {} is not authorized to update product {}", email, productId);
             throw UnauthorizedException.builder().message("User is not authorized to update this product").build();
         }
+        Long previousCategoryId = categoryIdOf(product);
 
         int currentImageCount = groupConfig.imageStorageMode.equals("database") ? product.getImageAttaches().size() : product.getImages().size();
         if (newImages != null && (currentImageCount - (imagesToRemove != null ? imagesToRemove.size() : 0) + newImages.size()) > groupConfig.maxFileCountPerProduct) {
@@ -176,7 +191,12 @@ public class SellerProductService implements ISellerProductService {
             List<ProductImageAttach> existingImages = product.getImageAttaches();
             if (imagesToRemove != null && !imagesToRemove.isEmpty()) {
                 log.info("Removing images with IDs {} for product {}", imagesToRemove, productId);
-                existingImages.removeIf(image -> imagesToRemove.contains(image.getId()));
+                // Deleted through the image service, which releases shared image content
+                List<ProductImageAttach> removed = existingImages.stream()
+                        .filter(image -> imagesToRemove.contains(image.getId()))
+                        .toList();
+                existingImages.removeAll(removed);
+                removed.forEach(image -> productImageService.deleteImageAttachById(image.getId()));
             }
 
             List<ProductImageAttach> newProductImages = new ArrayList<>();
@@ -193,8 +213,12 @@ public class SellerProductService implements ISellerProductService {
             List<ProductImage> existingImages = product.getImages();
             if (imagesToRemove != null && !imagesToRemove.isEmpty()) {
                 log.info("Removing images with IDs {} for product {}", imagesToRemove, productId);
-                existingImages.removeIf(image -> imagesToRemove.contains(image.getId()));
-                // ensure if images are deleted from the file-system as well.
+                // Deleted through the image service, which releases shared image files
+                List<ProductImage> removed = existingImages.stream()
+                        .filter(image -> imagesToRemove.contains(image.getId()))
+                        .toList();
+                existingImages.removeAll(removed);
+                removed.forEach(image -> productImageService.deleteImageById(image.getId()));
             }
 
             List<ProductImage> newProductImages = new ArrayList<>();
@@ -212,6 +236,14 @@ public class SellerProductService implements ISellerProductService {
         product.setUpdatedAt(LocalDateTime.now());
         product.setDeleted(false);
         productRepository.save(product);
+        if (Objects.equals(previousCategoryId, categoryIdOf(product))) {
+            productCacheService.evictProduct(productId);
+        } else {
+            productCacheService.evictListings(productId, Arrays.asList(previousCategoryId, categoryIdOf(product)));
+        }
+        productSearchService.indexProduct(productId);
+        productFacetService.indexProduct(productId);
+        productSuggestionService.indexProduct(productId);
         log.info("Product updated: {} by user {}, Images: {}", product.getName(), email, groupConfig.imageStorageMode.equals("database") ? product.getImageAttaches().size() : product.getImages().size());
 
         auditLogService.logAction(email, "UPDATE_PRODUCT", "Product ID: " + productId + ", Images updated: " + (newImages != null ? newImages.size() : 0) + ", Images removed: " + (imagesToRemove != null ? imagesToRemove.size() : 0));
@@ -336,7 +368,6 @@ public class SellerProductService implements ISellerProductService {
     @Override
     @Transactional
     @RateLimiter(name = "updateProductImages", fallbackMethod = "fallbackUpdateProductImages")
-    @CacheEvict(value = {"products", "productsByCategory", "allProducts", "productImages"}, allEntries = true)
     public ProductResponse updateProductImages(Long productId, List<MultipartFile> newImages, List<Long> imagesToRemove, Long primaryImageId, String email) {
         log.info("updateProductImages: Updating images for product {} by user {}", productId, email);
         User user = userRepository.findByEmailAddressAndDeletedFalse(email)
@@ -398,6 +429,7 @@ public class SellerProductService implements ISellerProductService {
         }
 
         productRepository.save(product);
+        productCacheService.evictProduct(productId);
         log.info("Product images updated: {} by user {}, Images: {}", productId, email, groupConfig.imageStorageMode.equals("database") ? product.getImageAttaches().size() : product.getImages().size());
 
         auditLogService.logAction(email, "UPDATE_PRODUCT_IMAGES", "Product ID: " + productId + ", Images updated: " + (newImages != null ? newImages.size() : 0) + ", Images removed: " + (imagesToRemove != null ? imagesToRemove.size() : 0));
@@ -413,7 +445,6 @@ public class SellerProductService implements ISellerProductService {
     @Override
     @Transactional
     @RateLimiter(name = "manageProduct", fallbackMethod = "fallbackDeleteProduct")
-    @CacheEvict(value = {"products", "productsByCategory", "allProducts", "productImages"}, allEntries = true)
     public void deleteProduct(Long productId, String email) {
         log.info("deleteProduct: Deleting product {} by user {}", productId, email);
         User user = userRepository.findByEmailAddressAndDeletedFalse(email)
@@ -439,6 +470,10 @@ public class SellerProductService implements ISellerProductService {
         product.setDeleted(true);
         product.setUpdatedAt(LocalDateTime.now());
         productRepository.save(product);
+        productCacheService.evictListings(productId, Arrays.asList(categoryIdOf(product)));
+        productSearchService.removeProduct(productId);
+        productFacetService.removeProduct(productId);
+        productSuggestionService.removeProduct(productId);
         log.info("Product deleted: {} by user {}", productId, email);
 
         auditLogService.logAction(email, "DELETE_PRODUCT", "Product ID: " + productId);
@@ -475,7 +510,6 @@ public class SellerProductService implements ISellerProductService {
 
     @Override
     @Transactional
-    @CacheEvict(value = {"products", "productsByCategory", "allProducts", "productImages"}, allEntries = true)
     public ProductResponse saveProduct(ProductRequest productRequest, List<MultipartFile> imageFiles) {
         log.info("saveProduct: Saving product: {}", productRequest.getName());
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -517,6 +551,10 @@ public class SellerProductService implements ISellerProductService {
         }
 
         productRepository.save(savedProduct);
+        productCacheService.evictListings(savedProduct.getId(), Arrays.asList(categoryIdOf(savedProduct)));
+        productSearchService.indexProduct(savedProduct.getId());
+        productFacetService.indexProduct(savedProduct.getId());
+        productSuggestionService.indexProduct(savedProduct.getId());
         log.info("Product saved: {} by user {}, Images: {}", savedProduct.getName(), email, imageFiles != null ? imageFiles.size() : 0);
 
         auditLogService.logAction(email, "SAVE_PRODUCT", "Product: " + savedProduct.getName() + ", Images: " + (imageFiles != null ? imageFiles.size() : 0));
@@ -526,7 +564,6 @@ public class SellerProductService implements ISellerProductService {
 
     @Override
     @Transactional
-    @CacheEvict(value = {"products", "productsByCategory", "allProducts"}, allEntries = true)
     public ProductResponse updateProductQuantity(Long id, int quantity) {
         log.info("ProductService: updateQuantity {},{}", id, quantity);
         Product product = productRepository.findById(id)
@@ -538,12 +575,13 @@ public class SellerProductService implements ISellerProductService {
         product.setProductStatus(quantity > 0 ? ProductStatus.AVAILABLE : ProductStatus.OUT_OF_STOCK);
 
         Product updatedProduct = productRepository.save(product);
+        productCacheService.evictProduct(id);
+        productFacetService.indexProduct(id);
         return productMapper.toResponse(updatedProduct);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = {"products", "productsByCategory", "allProducts"}, allEntries = true)
     public ProductResponse updateProductPrice(Long id, BigDecimal price) {
         log.info("ProductService: updatePrice {},{}", id, price);
         Product product = productRepository.findById(id)
@@ -557,6 +595,8 @@ public class SellerProductService implements ISellerProductService {
         }
         product.setPrice(price);
         Product updatedProduct = productRepository.save(product);
+        productCacheService.evictProduct(id);
+        productFacetService.indexProduct(id);
         return productMapper.toResponse(updatedProduct);
     }
 
@@ -576,28 +616,10 @@ public class SellerProductService implements ISellerProductService {
                     String.format("Page size must be at least 1. %s", size)).build();
         }
 
-        // Get authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || authentication.getName() == null) {
-            log.error("No authenticated user found");
-            throw UnauthorizedException.builder().message("No authenticated user").build();
-        }
-        String email = authentication.getName();
-        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
-                .orElseThrow(() -> UserNotFoundException.builder()
-                        .message(ExceptionMessages.USER_NOT_FOUND + "Email: " + email)
-                        .build());
-
-        // Check for SELLER role
-        boolean isSeller = user.getUserRoles().stream()
-                .anyMatch(role -> role.getRole() == RoleTypes.SELLER);
-        if (!isSeller) {
-            log.error("User {} lacks SELLER role", email);
-            throw UnauthorizedException.builder().message("User is not a seller").build();
-        }
+        User user = getAuthenticatedSeller();
 
         // Create pageable
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequests.of(page, size);
 
         // Fetch products by company or user
         Page<Product> products;
@@ -620,10 +642,53 @@ public class SellerProductService implements ISellerProductService {
         return products.map(productMapper::toResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<ProductResponse> getAllAuthorOrCompanyProducts(String cursor, int size) {
+        log.debug("Fetching products for seller, cursor: {}, size: {}", cursor, size);
+        if (size < 1) {
+            log.error("Invalid page size: {}. Must be at least 1", size);
+            throw IllegalParameterException.builder().message(
+                    String.format("Page size must be at least 1. %s", size)).build();
+        }
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Long beforeId = position != null ? position.id() : Long.MAX_VALUE;
+
+        User user = getAuthenticatedSeller();
+        Pageable pageable = PageRequests.of(0, size);
+        Company company = user.getCompany();
+        Slice<Product> products = company != null && !company.isDeleted()
+                ? productRepository.findByCompanyIdAndDeletedFalseBefore(company.getId(), beforeId, pageable)
+                : productRepository.findByAuthorIdAndDeletedFalseBefore(user.getId(), beforeId, pageable);
+        return CursorSliceResponse.of(products, product -> KeysetCursor.of(product.getId()), productMapper::toResponse);
+    }
+
+    private User getAuthenticatedSeller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getName() == null) {
+            log.error("No authenticated user found");
+            throw UnauthorizedException.builder().message("No authenticated user").build();
+        }
+        String email = authentication.getName();
+        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+                .orElseThrow(() -> UserNotFoundException.builder()
+                        .message(ExceptionMessages.USER_NOT_FOUND + "Email: " + email)
+                        .build());
+
+        // Check for SELLER role
+        boolean isSeller = user.getUserRoles().stream()
+                .anyMatch(role -> role.getRole() == RoleTypes.SELLER);
+        if (!isSeller) {
+            log.error("User {} lacks SELLER role", email);
+            throw UnauthorizedException.builder().message("User is not a seller").build();
+        }
+        return user;
+    }
+
     @Override
     public Page<ProductResponse> getAuthorOrCompanyProducts(Long companyId, int page, int size) {
         log.info("getAuthorOrCompanyProducts: Fetching products for companyId: {}, page: {}, size: {}", companyId, page, size);
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequests.of(page, size);
         Page<Product> products;
 
         if (companyId == null) {
@@ -647,7 +712,6 @@ public class SellerProductService implements ISellerProductService {
     @Override
     @Transactional
     @RateLimiter(name = "mergeProductsToCompany", fallbackMethod = "fallbackMergeProductsToCompany")
-    @CacheEvict(value = {"products", "productsByCategory", "allProducts", "productImages"}, allEntries = true)
     public void mergeProductsToCompany(Long companyId, String authorEmail, String companyAdminEmail) {
         log.info("mergeProductsToCompany: {} merging products for seller {} to company {}", companyAdminEmail, authorEmail, companyId);
         User companyAdmin = userRepository.findByEmailAddressAndDeletedFalse(companyAdminEmail)
@@ -679,6 +743,8 @@ public class SellerProductService implements ISellerProductService {
         }
 
         productRepository.updateCompanyForAuthorProducts(author.getId(), company);
+        // Bulk update: the affected product IDs are not known here and their versions are not bumped
+        productCacheService.evictAll();
         log.info("Merged products to company {}", companyId);
 
         auditLogService.logAction(authorEmail, "MERGE_PRODUCTS_TO_COMPANY", companyAdminEmail, "Company ID: " + companyId);
@@ -741,6 +807,10 @@ public class SellerProductService implements ISellerProductService {
         }
     }
 
+    private Long categoryIdOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
     private boolean hasRole(User user, RoleTypes roleType) {
         return user.getUserRoles().stream().anyMatch(role -> role.getRole() == roleType);
     }
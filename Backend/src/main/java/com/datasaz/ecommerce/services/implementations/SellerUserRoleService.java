@@ -9,6 +9,7 @@ import com.datasaz.ecommerce.services.interfaces.IAuditLogService;
 import com.datasaz.ecommerce.services.interfaces.ICompanyService;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
 import com.datasaz.ecommerce.services.interfaces.ISellerUserRoleService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import com.datasaz.ecommerce.utilities.CurrentUserService;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import jakarta.mail.MessagingException;
@@ -44,6 +45,7 @@ public class SellerUserRoleService implements ISellerUserRoleService {
     private final ApprovalTokenRepository approvalTokenRepository;
 
     private final CurrentUserService currentUserService;
+    private final IUserAuthStatusService userAuthStatusService;
 
 
     // Base URL for generating approval/denial links
@@ -63,6 +65,7 @@ public class SellerUserRoleService implements ISellerUserRoleService {
             companyService.assignAdminRights(user, company, true, true);
             user.getUserRoles().add(companyAdminSellerRole);
             userRepository.save(user);
+            userAuthStatusService.invalidate(user.getEmailAddress());
             auditLogService.logAction(user.getEmailAddress(), "BECOME_COMPANY_ADMIN_SELLER",
                     "User assigned COMPANY_ADMIN_SELLER role for new company ID: " + company.getId() + " (" + company.getName() + ")");
             emailService.sendEmail(user.getEmailAddress(),
@@ -145,6 +148,7 @@ public class SellerUserRoleService implements ISellerUserRoleService {
             companyService.assignAdminRights(user, company, true, true);
             user.getUserRoles().add(companyAdminSellerRole);
             userRepository.save(user);
+            userAuthStatusService.invalidate(user.getEmailAddress());
             auditLogService.logAction(user.getEmailAddress(), "BECOME_COMPANY_ADMIN_SELLER",
                     "User " + user.getEmailAddress() + " assigned COMPANY_ADMIN_SELLER role for new company ID: " + company.getId() + " (" + company.getName() + ")");
             emailService.sendEmail(user.getEmailAddress(),
@@ -256,6 +260,7 @@ public class SellerUserRoleService implements ISellerUserRoleService {
                     .orElseThrow(() -> ResourceNotFoundException.builder().message("COMPANY_ADMIN_SELLER role not found").build());
             requestingUser.getUserRoles().add(companyAdminSellerRole);
             userRepository.save(requestingUser);
+            userAuthStatusService.invalidate(requestingUser.getEmailAddress());
         }
 
         // Notify all admins and the requesting user
@@ -298,6 +303,7 @@ public class SellerUserRoleService implements ISellerUserRoleService {
                     .orElseThrow(() -> ResourceNotFoundException.builder().message("COMPANY_ADMIN_SELLER role not found").build());
             requestingUser.getUserRoles().add(companyAdminSellerRole);
             userRepository.save(requestingUser);
+            userAuthStatusService.invalidate(requestingUser.getEmailAddress());
         }
 
         // Notify all admins and the requesting user
@@ -671,6 +677,7 @@ public class SellerUserRoleService implements ISellerUserRoleService {
                 .build();
         companyAdminRightsRepository.save(newAdminRights);
         userRepository.save(seller);
+        userAuthStatusService.invalidate(seller.getEmailAddress());
 
         if (company.getPrimaryAdmin() == null) {
             company.setPrimaryAdmin(seller);
@@ -730,6 +737,7 @@ public class SellerUserRoleService implements ISellerUserRoleService {
         seller.getUserRoles().removeIf(role -> role.getRole() == RoleTypes.COMPANY_ADMIN_SELLER);
         companyAdminRightsRepository.deleteByCompanyIdAndUserId(companyId, seller.getId());
         userRepository.save(seller);
+        userAuthStatusService.invalidate(seller.getEmailAddress());
 
         if (company.getPrimaryAdmin() != null && company.getPrimaryAdmin().getId().equals(seller.getId())) {
             company.setPrimaryAdmin(null);
@@ -1203,6 +1211,7 @@ public class SellerUserRoleService implements ISellerUserRoleService {
             user.setCompany(null);
             user.getUserRoles().removeIf(role -> role.getRole() == RoleTypes.COMPANY_ADMIN_SELLER);
             userRepository.save(user);
+            userAuthStatusService.invalidate(user.getEmailAddress());
             companyAdminRightsRepository.deleteByCompanyIdAndUserId(companyId, user.getId());
             emailService.sendEmail(user.getEmailAddress(),
                     "Company Deletion Notification",
@@ -2,14 +2,27 @@ package com.datasaz.ecommerce.services.implementations;
 
 import com.datasaz.ecommerce.repositories.ApprovalTokenRepository;
 import com.datasaz.ecommerce.repositories.RefreshTokenRepository;
+import com.datasaz.ecommerce.repositories.RevokedTokenRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
+/**
+ * Removes expired tokens continuously, a small batch at a time: each batch is one short transaction deleting rows by
+ * primary key, so the sweep never holds locks on a large part of a table. A run stops after a bounded number of
+ * batches; whatever is left is picked up on the next run.
+ * <p>
+ * Revoked refresh tokens are kept until they expire, so presenting one again is recognised as reuse.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -17,28 +30,60 @@ public class TokenCleanupService {
 
     private final RefreshTokenRepository refreshTokenRepository;
     private final ApprovalTokenRepository approvalTokenRepository;
+    private final RevokedTokenRepository revokedTokenRepository;
 
-    @Scheduled(cron = "0 0 0 * * ?") // Runs daily at midnight
-    @Transactional
-    public void cleanupExpiredOrRevokedRefreshTokens() {
-        log.info("Starting cleanup of expired or revoked refresh tokens");
-        try {
-            refreshTokenRepository.deleteExpiredOrRevokedTokens(LocalDateTime.now());
-            log.info("Successfully cleaned up expired or revoked refresh tokens");
-        } catch (Exception e) {
-            log.error("Error during refresh token cleanup: {}", e.getMessage());
-        }
+    @Value("${token-cleanup.batch-size:500}")
+    private int batchSize;
+
+    @Value("${token-cleanup.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${token-cleanup.sweep-interval-ms:60000}",
+            initialDelayString = "${token-cleanup.sweep-interval-ms:60000}")
+    public void sweepExpiredTokens() {
+        sweepExpiredRefreshTokens();
+        sweepExpiredOrRevokedApprovalTokens();
+        sweepExpiredRevokedAccessTokens();
+    }
+
+    public int sweepExpiredRefreshTokens() {
+        return sweep("refresh tokens",
+                page -> refreshTokenRepository.findExpiredIds(LocalDateTime.now(), page),
+                refreshTokenRepository::deleteByIdIn);
+    }
+
+    public int sweepExpiredOrRevokedApprovalTokens() {
+        return sweep("approval tokens",
+                page -> approvalTokenRepository.findExpiredOrRevokedIds(LocalDateTime.now(), page),
+                approvalTokenRepository::deleteByIdIn);
     }
 
-    @Scheduled(cron = "0 0 0 * * ?") // Runs daily at midnight
-    @Transactional
-    public void cleanupExpiredOrRevokedApprovalTokens() {
-        log.info("Starting cleanup of expired or revoked Approval tokens");
+    public int sweepExpiredRevokedAccessTokens() {
+        return sweep("revoked access tokens",
+                page -> revokedTokenRepository.findExpiredIds(LocalDateTime.now(), page),
+                revokedTokenRepository::deleteByIdIn);
+    }
+
+    private int sweep(String tokens, Function<Pageable, List<Long>> findIds, ToIntFunction<List<Long>> deleteByIds) {
+        int deleted = 0;
         try {
-            approvalTokenRepository.deleteExpiredOrRevokedTokens(LocalDateTime.now());
-            log.info("Successfully cleaned up expired or revoked approval tokens");
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                // Always the first page: the previous batch's rows are gone
+                List<Long> ids = findIds.apply(PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                deleted += deleteByIds.applyAsInt(ids);
+                if (ids.size() < batchSize) {
+                    break;
+                }
+            }
         } catch (Exception e) {
-            log.error("Error during approval token cleanup: {}", e.getMessage());
+            log.error("Error during cleanup of {}: {}", tokens, e.getMessage());
+        }
+        if (deleted > 0) {
+            log.info("Cleaned up {} expired {}", deleted, tokens);
         }
+        return deleted;
     }
 }
@@ -0,0 +1,85 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.UserAuthStatus;
+import com.datasaz.ecommerce.models.dto.UserAuthStatusRow;
+import com.datasaz.ecommerce.repositories.UserRepository;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
+import com.datasaz.ecommerce.utilities.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Account status cache behind stateless authentication. Services that block, delete, restore or re-role a user, or
+ * change a password, invalidate the entry; the TTL bounds staleness for changes made outside them (another instance,
+ * the database directly).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserAuthStatusService implements IUserAuthStatusService {
+
+    private final UserRepository userRepository;
+
+    @Value("${security.user-status-cache.max-users:10000}")
+    private long maxUsers;
+
+    @Value("${security.user-status-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    // Missing or deleted users are cached as empty, so a token for a removed account does not reach the database
+    private Cache<String, Optional<UserAuthStatus>> statuses;
+
+    @PostConstruct
+    void init() {
+        statuses = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @Override
+    public Optional<UserAuthStatus> getStatus(String email) {
+        return statuses.get(email, this::load);
+    }
+
+    @Override
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        TransactionUtils.runNowAndAfterCommit(() -> statuses.invalidate(email));
+    }
+
+    private Optional<UserAuthStatus> load(String email) {
+        List<UserAuthStatusRow> rows = userRepository.findAuthStatusRowsByEmailAddress(email);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        UserAuthStatusRow first = rows.get(0);
+        Set<String> roles = new HashSet<>();
+        for (UserAuthStatusRow row : rows) {
+            if (row.getRole() != null) {
+                roles.add("ROLE_" + row.getRole().name());
+            }
+        }
+        // Same rule as CustomUserDetailsService, with unset flags read as false
+        boolean enabled = Boolean.TRUE.equals(first.getActivated()) && !Boolean.TRUE.equals(first.getBlocked());
+        Instant credentialsChangedAt = first.getLastPasswordResetDate() != null
+                ? first.getLastPasswordResetDate().atZone(ZoneId.systemDefault()).toInstant()
+                : null;
+        return Optional.of(new UserAuthStatus(enabled, roles, credentialsChangedAt));
+    }
+}
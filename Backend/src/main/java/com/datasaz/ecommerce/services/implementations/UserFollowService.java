@@ -94,7 +94,7 @@ public class UserFollowService implements IUserFollowService {
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found: ID " + userId).build());
 
         return user.getFollowers().stream()
-                .map(userMapper::toDto)
+                .map(userMapper.dtoMapper(user.getFollowers()))
                 .collect(Collectors.toSet());
     }
 
@@ -105,7 +105,7 @@ public class UserFollowService implements IUserFollowService {
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found: ID " + userId).build());
 
         return user.getFollowing().stream()
-                .map(userMapper::toDto)
+                .map(userMapper.dtoMapper(user.getFollowing()))
                 .collect(Collectors.toSet());
     }
 
@@ -9,6 +9,7 @@ import com.datasaz.ecommerce.mappers.ProductMapper;
 import com.datasaz.ecommerce.mappers.UserMapper;
 import com.datasaz.ecommerce.models.request.UserPrivacySettingsRequest;
 import com.datasaz.ecommerce.models.request.UserProfileRequest;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
 import com.datasaz.ecommerce.models.response.UserFollowersCountResponse;
 import com.datasaz.ecommerce.models.response.UserProfileResponse;
@@ -17,19 +18,30 @@ import com.datasaz.ecommerce.repositories.*;
 import com.datasaz.ecommerce.repositories.entities.Product;
 import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.repositories.entities.UserPrivacySettings;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
 import com.datasaz.ecommerce.services.interfaces.IUserProfileService;
 import com.datasaz.ecommerce.services.interfaces.IUserProfileVisitService;
+import com.datasaz.ecommerce.utilities.CurrentUserService;
 import com.datasaz.ecommerce.utilities.FileStorageService;
+import com.datasaz.ecommerce.utilities.ImageDecoder;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine.ResizeQuality;
+import com.datasaz.ecommerce.utilities.KeysetCursor;
+import com.datasaz.ecommerce.utilities.PageRequests;
+import com.datasaz.ecommerce.utilities.SpooledUpload;
+import com.datasaz.ecommerce.utilities.UserFetchPlan;
 import com.datasaz.ecommerce.utilities.Utility;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.Tika;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -37,21 +49,16 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageOutputStream;
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
 import java.util.Base64;
-import java.util.Iterator;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.regex.Pattern;
@@ -62,6 +69,7 @@ import java.util.regex.Pattern;
 public class UserProfileService implements IUserProfileService, IUserProfileVisitService {
 
     private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
     private final UserPrivacySettingsRepository privacySettingsRepository;
     private final ProductRepository productRepository;
     private final RefreshTokenRepository refreshTokenRepository;
@@ -70,7 +78,9 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
     private final RolesRepository rolesRepository;
     private final UserCustomFieldsRepository customFieldsRepository;
     private final FileStorageService fileStorageService;
+    private final IBinaryContentService binaryContentService;
     private final GroupConfig groupConfig;
+    private final ImageProcessingEngine imageProcessingEngine;
     private final AuditLogService auditLogService;
     private final IEmailService emailService;
     private final Utility utility;
@@ -83,7 +93,34 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
     @Transactional
     public Page<UserSummaryResponse> getFollowers(String email, int page, int size, String viewerEmail) {
         log.info("getFollowers: Fetching followers for user: {}, page: {}, size: {}, viewer: {}", email, page, size, viewerEmail);
-        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+        Pageable pageable = PageRequests.of(page, size);
+        User user = getUserWithVisibleFollowers(email, viewerEmail);
+
+        Page<User> followers = userRepository.findFollowersByUserId(user.getId(), pageable);
+
+        auditLogService.logAction(email, "VIEW_FOLLOWERS", viewerEmail, "Viewed followers by: " + viewerEmail);
+
+        return followers.map(userMapper.summaryMapper(followers.getContent()));
+    }
+
+    @Override
+    @Transactional
+    public CursorSliceResponse<UserSummaryResponse> getFollowers(String email, String cursor, int size, String viewerEmail) {
+        log.info("getFollowers: Fetching followers for user: {}, cursor: {}, size: {}, viewer: {}", email, cursor, size, viewerEmail);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        User user = getUserWithVisibleFollowers(email, viewerEmail);
+
+        Slice<User> followers = userRepository.findFollowersByUserIdBefore(user.getId(),
+                position != null ? position.id() : Long.MAX_VALUE, PageRequests.first(size));
+
+        auditLogService.logAction(email, "VIEW_FOLLOWERS", viewerEmail, "Viewed followers by: " + viewerEmail);
+
+        return CursorSliceResponse.of(followers, follower -> KeysetCursor.of(follower.getId()),
+                userMapper.summaryMapper(followers.getContent()));
+    }
+
+    private User getUserWithVisibleFollowers(String email, String viewerEmail) {
+        User user = currentUserService.findUser(email, UserFetchPlan.ROLES)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
 
         UserPrivacySettings privacySettings = user.getPrivacySettings();
@@ -92,24 +129,18 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             throw BadRequestException.builder().message("Privacy settings not initialized for user: " + email).build();
         }
 
-        if (!checkVisibility(privacySettings.getFollowersVisibility(), email, viewerEmail)) {
+        if (!checkVisibility(privacySettings.getFollowersVisibility(), user, viewerEmail)) {
             log.error("Viewer {} not authorized to view followers of {}", viewerEmail, email);
             throw UnauthorizedException.builder().message("Not authorized to view followers").build();
         }
-
-        Pageable pageable = PageRequest.of(page, size);
-        Page<User> followers = userRepository.findFollowersByUserId(user.getId(), pageable);
-
-        auditLogService.logAction(email, "VIEW_FOLLOWERS", viewerEmail, "Viewed followers by: " + viewerEmail);
-
-        return followers.map(userMapper::toSummaryResponse);
+        return user;
     }
 
     @Override
     @Transactional
     public Page<UserSummaryResponse> getFollowings(String email, int page, int size, String viewerEmail) {
         log.info("getFollowings: Fetching followings for user: {}, page: {}, size: {}, viewer: {}", email, page, size, viewerEmail);
-        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+        User user = currentUserService.findUser(email, UserFetchPlan.ROLES)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
 
         UserPrivacySettings privacySettings = user.getPrivacySettings();
@@ -118,17 +149,17 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             throw BadRequestException.builder().message("Privacy settings not initialized for user: " + email).build();
         }
 
-        if (!checkVisibility(privacySettings.getFollowingVisibility(), email, viewerEmail)) {
+        if (!checkVisibility(privacySettings.getFollowingVisibility(), user, viewerEmail)) {
             log.error("Viewer {} not authorized to view followings of {}", viewerEmail, email);
             throw UnauthorizedException.builder().message("Not authorized to view followings").build();
         }
 
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequests.of(page, size);
         Page<User> followings = userRepository.findFollowingByUserId(user.getId(), pageable);
 
         auditLogService.logAction(email, "VIEW_FOLLOWINGS", viewerEmail, "Viewed followings by: " + viewerEmail);
 
-        return followings.map(userMapper::toSummaryResponse);
+        return followings.map(userMapper.summaryMapper(followings.getContent()));
     }
 
     @Override
@@ -174,7 +205,7 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             log.error("Invalid email format: {}", emailAddress);
             throw new IllegalArgumentException("Invalid email format");
         }
-        if (!userRepository.findByEmailAddressAndDeletedFalse(emailAddress).isPresent()) {
+        if (!currentUserService.findUser(emailAddress, UserFetchPlan.ROLES).isPresent()) {
             log.error("User not found with email: {}", emailAddress);
             throw UserNotFoundException.builder().message("User not found with email: " + emailAddress).build();
         }
@@ -190,7 +221,7 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             log.error("Invalid email format: {}", emailAddress);
             throw new IllegalArgumentException("Invalid email format");
         }
-        if (!userRepository.findByEmailAddressAndDeletedFalse(emailAddress).isPresent()) {
+        if (!currentUserService.findUser(emailAddress, UserFetchPlan.ROLES).isPresent()) {
             log.error("User not found with email: {}", emailAddress);
             throw UserNotFoundException.builder().message("User not found with email: " + emailAddress).build();
         }
@@ -204,7 +235,7 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
     public UserProfileResponse getProfile(String email) {
         String viewerEmail = SecurityContextHolder.getContext().getAuthentication().getName();
         log.info("getProfile: Fetching profile for user: {} by viewer: {}", email, viewerEmail);
-        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+        User user = currentUserService.findUser(email, UserFetchPlan.ROLES)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
 
         UserPrivacySettings privacySettings = user.getPrivacySettings();
@@ -213,21 +244,21 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             throw BadRequestException.builder().message("Privacy settings not initialized for user: " + email).build();
         }
 
-        if (!checkVisibility(privacySettings.getProfileVisibility(), email, viewerEmail)) {
+        if (!checkVisibility(privacySettings.getProfileVisibility(), user, viewerEmail)) {
             log.error("Viewer {} not authorized to view profile of {}", viewerEmail, email);
             throw UnauthorizedException.builder().message("Not authorized to view this profile").build();
         }
 
         UserProfileResponse response = userMapper.toProfileResponse(user);
-        if (!checkVisibility(privacySettings.getFollowersVisibility(), email, viewerEmail)) {
+        if (!checkVisibility(privacySettings.getFollowersVisibility(), user, viewerEmail)) {
             response.setFollowersCount(0);
             response.setFollowers(null);
         }
-        if (!checkVisibility(privacySettings.getFollowingVisibility(), email, viewerEmail)) {
+        if (!checkVisibility(privacySettings.getFollowingVisibility(), user, viewerEmail)) {
             response.setFollowingCount(0);
             response.setFollowing(null);
         }
-        if (!checkVisibility(privacySettings.getFavoritesVisibility(), email, viewerEmail)) {
+        if (!checkVisibility(privacySettings.getFavoritesVisibility(), user, viewerEmail)) {
             response.setFavoriteProducts(null);
         }
 
@@ -248,7 +279,7 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             throw BadRequestException.builder().message("Unauthorized: Can only update your own profile").build();
         }
 
-        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+        User user = currentUserService.findUser(email, UserFetchPlan.ROLES)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
 
         if (request.getFirstName() != null && !request.getFirstName().isEmpty()) {
@@ -299,7 +330,7 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             log.error("updateProfile: Failed to send profile update notification to {}: {}", email, e.getMessage());
         }
 
-        refreshTokenRepository.deleteByUserEmail(email);
+        refreshTokenRepository.revokeAllByUserEmail(email);
         log.info("updateProfile: Revoked all refresh tokens for user: {}", email);
 
         return userMapper.toProfileResponse(user);
@@ -310,7 +341,7 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
     public UserProfileResponse updatePrivacySettings(UserPrivacySettingsRequest request) {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         log.info("updatePrivacySettings: Updating privacy settings for user: {}", email);
-        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+        User user = currentUserService.findUser(email, UserFetchPlan.ROLES)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
 
         UserPrivacySettings privacySettings = user.getPrivacySettings();
@@ -345,7 +376,7 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
     public UserPrivacySettings getPrivacySettings() {
         log.info("getPrivacySettings: Fetching privacy settings");
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+        User user = currentUserService.findUser(email, UserFetchPlan.ROLES)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
 
         UserPrivacySettings privacySettings = user.getPrivacySettings();
@@ -363,7 +394,22 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
         return privacySettings;
     }
 
-    private boolean checkVisibility(UserPrivacySettings.Visibility visibility, String targetEmail, String viewerEmail) {
+    @Override
+    @Transactional(readOnly = true)
+    public void checkProfileVisible(String email) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String viewerEmail = authentication != null ? authentication.getName() : null;
+        User user = currentUserService.findUser(email, UserFetchPlan.ROLES)
+                .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
+        UserPrivacySettings privacySettings = user.getPrivacySettings();
+        if (privacySettings == null || !checkVisibility(privacySettings.getProfileVisibility(), user, viewerEmail)) {
+            log.error("Viewer {} not authorized to view profile of {}", viewerEmail, email);
+            throw new AccessDeniedException("Not authorized to view this profile");
+        }
+    }
+
+    private boolean checkVisibility(UserPrivacySettings.Visibility visibility, User targetUser, String viewerEmail) {
+        String targetEmail = targetUser.getEmailAddress();
         if (visibility == UserPrivacySettings.Visibility.PUBLIC) {
             return true;
         }
@@ -371,14 +417,19 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             return targetEmail.equals(viewerEmail);
         }
         if (visibility == UserPrivacySettings.Visibility.FOLLOWERS) {
-            User targetUser = userRepository.findByEmailAddressAndDeletedFalse(targetEmail)
-                    .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + targetEmail).build());
-            Optional<User> viewerOpt = userRepository.findByEmailAddressAndDeletedFalse(viewerEmail);
+            if (viewerEmail == null) {
+                return false;
+            }
+            if (targetEmail.equals(viewerEmail)) {
+                return true;
+            }
+            Optional<User> viewerOpt = currentUserService.findUser(viewerEmail, UserFetchPlan.ROLES);
             if (viewerOpt.isEmpty()) {
                 return false;
             }
-            User viewer = viewerOpt.get();
-            return targetUser.getFollowers().contains(viewer) || targetEmail.equals(viewerEmail);
+            // By id: the viewer may come from the request's copy rather than this query's results
+            Long viewerId = viewerOpt.get().getId();
+            return targetUser.getFollowers().stream().anyMatch(follower -> follower.getId().equals(viewerId));
         }
         return false;
     }
@@ -388,7 +439,7 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
     public Page<ProductResponse> getFavoriteProducts(String email, int page, int size) {
         String viewerEmail = SecurityContextHolder.getContext().getAuthentication().getName();
         log.info("getFavoriteProducts: Fetching favorite products for user: {}, page: {}, size: {}, viewer: {}", email, page, size, viewerEmail);
-        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+        User user = currentUserService.findUser(email, UserFetchPlan.ROLES)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
 
         UserPrivacySettings privacySettings = user.getPrivacySettings();
@@ -397,12 +448,12 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             throw BadRequestException.builder().message("Privacy settings not initialized for user: " + email).build();
         }
 
-        if (!checkVisibility(privacySettings.getFavoritesVisibility(), email, viewerEmail)) {
+        if (!checkVisibility(privacySettings.getFavoritesVisibility(), user, viewerEmail)) {
             log.error("Viewer {} not authorized to view favorite products of {}", viewerEmail, email);
             throw UnauthorizedException.builder().message("Not authorized to view favorite products").build();
         }
 
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequests.of(page, size);
         Page<Product> favoriteProducts = productRepository.findFavoriteProductsByUserId(user.getId(), pageable);
 
         auditLogService.logAction(email, "VIEW_FAVORITE_PRODUCTS", viewerEmail, "Viewed favorite products by: " + viewerEmail);
@@ -416,7 +467,7 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
     public String toggleFavoriteProduct(Long productId) {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         log.info("toggleFavoriteProduct: {} attempting to favorite/unfavorite product {}", email, productId);
-        User user = userRepository.findByEmailAddressAndDeletedFalseWithFavoriteProducts(email)
+        User user = currentUserService.findUser(email, UserFetchPlan.WITH_FAVORITES)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
         Product product = productRepository.findByIdAndDeletedFalseWithFavouriteUsers(productId)
                 .orElseThrow(() -> ProductNotFoundException.builder().message("Product not found with id: " + productId).build());
@@ -446,66 +497,23 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
     @Transactional
     public String uploadProfilePicture(MultipartFile image, String email) {
         log.info("uploadProfilePicture: Uploading profile picture for user: {}", email);
-        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+        User user = currentUserService.findUser(email, UserFetchPlan.ROLES)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
 
-        validateImage(image);
-
-        String fileName = generateFileName(image.getOriginalFilename());
-        String extension = getFileExtension(image.getOriginalFilename());
-
+        SpooledUpload upload = spoolImage(image);
         try {
-            byte[] imageBytes = image.getBytes();
-            if (groupConfig.imageStorageMode.equals("database")) {
-                byte[] resizedImage = resizeImage(imageBytes, extension, false, groupConfig.resizeWidth, groupConfig.resizeHeight);
-                if (resizedImage.length == 0) {
-                    log.error("Resized image is empty for file: {}", fileName);
-                    throw BadRequestException.builder().message("Failed to resize image: empty result").build();
-                }
-                if (resizedImage.length > groupConfig.MAX_FILE_SIZE) {
-                    log.error("Image size {} bytes exceeds limit {} MB", resizedImage.length, groupConfig.maxFileSizeMb);
-                    throw BadRequestException.builder().message("Image size exceeds " + groupConfig.maxFileSizeMb + " MB limit").build();
-                }
-
-                user.setImageContent(resizedImage);
-                user.setImageContentType(image.getContentType());
-                user.setImageFileExtension(extension);
-                user.setProfilePictureUrl(null);
-                auditLogService.logAction(email, "UPLOAD_PROFILE_PICTURE", "Uploaded image to database for user: " + email);
-            } else {
-                Path uploadDir = Path.of(groupConfig.UPLOAD_DIR, "profile-pictures");
-                if (!fileStorageService.exists(uploadDir)) {
-                    fileStorageService.createDirectories(uploadDir);
-                    log.info("Created upload directory: {}", uploadDir);
-                }
-                Path filePath = uploadDir.resolve(fileName);
-                try (var inputStream = image.getInputStream()) {
-                    fileStorageService.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
-                }
-                String profilePictureUrl = "/Uploads/profile-pictures/" + fileName;
-                user.setProfilePictureUrl(profilePictureUrl);
-                user.setImageContent(null);
-                user.setImageContentType(null);
-                user.setImageFileExtension(null);
-                auditLogService.logAction(email, "UPLOAD_PROFILE_PICTURE", "Uploaded image to file system for user: " + email + " at: " + filePath);
-            }
-
-            if (groupConfig.imageStorageMode.equals("file system") && user.getProfilePictureUrl() != null) {
-                deleteOldImage(user.getProfilePictureUrl());
-            }
-
-            userRepository.save(user);
-            return user.getProfilePictureUrl();
-        } catch (IOException e) {
-            log.error("Failed to upload profile picture for user {}: {}", email, e.getMessage());
-            throw BadRequestException.builder().message("Failed to upload profile picture: " + e.getMessage()).build();
+            validateUpload(upload);
+            return storeProfilePicture(user, upload, generateFileName(image.getOriginalFilename()),
+                    getFileExtension(image.getOriginalFilename()), image.getContentType());
+        } finally {
+            discard(upload);
         }
     }
 
     @Transactional
     public String uploadProfilePicture(UserProfileRequest request, String email) {
         log.info("uploadProfilePicture: Uploading profile picture (Base64) for user: {}", email);
-        User user = userRepository.findByEmailAddressAndDeletedFalse(email)
+        User user = currentUserService.findUser(email, UserFetchPlan.ROLES)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found with email: " + email).build());
 
         if (request.getProfilePictureBase64() == null || request.getProfilePictureBase64().isEmpty()) {
@@ -513,15 +521,21 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             throw BadRequestException.builder().message("Image content is required").build();
         }
 
-        validateImageRequest(request);
-
-        String fileName = generateFileName(user.getEmailAddress() + ".jpg");
-        String extension = getFileExtension(user.getEmailAddress() + ".jpg");
+        SpooledUpload upload = spoolImageRequest(request);
+        try {
+            validateUpload(upload);
+            return storeProfilePicture(user, upload, generateFileName(user.getEmailAddress() + ".jpg"),
+                    getFileExtension(user.getEmailAddress() + ".jpg"), "image/jpeg");
+        } finally {
+            discard(upload);
+        }
+    }
 
+    private String storeProfilePicture(User user, SpooledUpload upload, String fileName, String extension, String contentType) {
+        String email = user.getEmailAddress();
         try {
-            byte[] imageBytes = Base64.getDecoder().decode(request.getProfilePictureBase64());
             if (groupConfig.imageStorageMode.equals("database")) {
-                byte[] resizedImage = resizeImage(imageBytes, extension, false, groupConfig.resizeWidth, groupConfig.resizeHeight);
+                byte[] resizedImage = resizeImage(upload.getFile(), extension, false, groupConfig.resizeWidth, groupConfig.resizeHeight);
                 if (resizedImage.length == 0) {
                     log.error("Resized image is empty for file: {}", fileName);
                     throw BadRequestException.builder().message("Failed to resize image: empty result").build();
@@ -531,8 +545,8 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
                     throw BadRequestException.builder().message("Image size exceeds " + groupConfig.maxFileSizeMb + " MB limit").build();
                 }
 
-                user.setImageContent(resizedImage);
-                user.setImageContentType("image/jpeg");
+                user.setImageContentId(binaryContentService.replace(user.getImageContentId(), resizedImage, contentType));
+                user.setImageContentType(contentType);
                 user.setImageFileExtension(extension);
                 user.setProfilePictureUrl(null);
                 auditLogService.logAction(email, "UPLOAD_PROFILE_PICTURE", "Uploaded image to database for user: " + email);
@@ -543,12 +557,16 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
                     log.info("Created upload directory: {}", uploadDir);
                 }
                 Path filePath = uploadDir.resolve(fileName);
-                fileStorageService.write(filePath, imageBytes);
+                try (InputStream inputStream = upload.openStream()) {
+                    fileStorageService.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
+                }
                 String profilePictureUrl = "/Uploads/profile-pictures/" + fileName;
                 user.setProfilePictureUrl(profilePictureUrl);
-                user.setImageContent(null);
-                user.setImageContentType(null);
-                user.setImageFileExtension(null);
+                binaryContentService.delete(user.getImageContentId());
+                user.setImageContentId(null);
+                // The file is the upload itself, so its type is the one detected from the content
+                user.setImageContentType(upload.detectMimeType(tika));
+                user.setImageFileExtension(extension);
                 auditLogService.logAction(email, "UPLOAD_PROFILE_PICTURE", "Uploaded image to file system for user: " + email + " at: " + filePath);
             }
 
@@ -564,7 +582,7 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
         }
     }
 
-    private void validateImage(MultipartFile file) {
+    private SpooledUpload spoolImage(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw BadRequestException.builder().message("File is empty or null").build();
         }
@@ -572,159 +590,64 @@ public class UserProfileService implements IUserProfileService, IUserProfileVisi
             log.error("File size {} bytes exceeds limit {} MB ({} bytes)", file.getSize(), groupConfig.maxFileSizeMb, groupConfig.MAX_FILE_SIZE);
             throw BadRequestException.builder().message("File size exceeds " + groupConfig.maxFileSizeMb + " MB limit").build();
         }
-        String mimeType;
         try {
-            mimeType = tika.detect(file.getInputStream());
-            if (!groupConfig.getALLOWED_IMAGE_TYPES().contains(mimeType)) {
-                log.error("Unsupported file type: {}", mimeType);
-                throw BadRequestException.builder().message("Unsupported file type: " + mimeType).build();
-            }
-            try (ByteArrayInputStream bais = new ByteArrayInputStream(file.getBytes())) {
-                BufferedImage img = ImageIO.read(bais);
-                if (img == null) {
-                    log.error("Invalid image content: cannot read image for {}", file.getOriginalFilename());
-                    throw BadRequestException.builder().message("Invalid image content: cannot read image").build();
-                }
-                if (img.getColorModel().getColorSpace().getType() != java.awt.color.ColorSpace.TYPE_RGB) {
-                    log.warn("Image has non-RGB colorspace: {} for {}", img.getColorModel().getColorSpace().getType(), file.getOriginalFilename());
-                }
-            }
+            return SpooledUpload.fromStream(file.getInputStream(), groupConfig.MAX_FILE_SIZE);
         } catch (IOException e) {
-            log.error("Error validating image: {}", e.getMessage());
+            log.error("Error reading uploaded image: {}", e.getMessage());
             throw BadRequestException.builder().message("Error validating image: " + e.getMessage()).build();
         }
     }
 
-    private void validateImageRequest(UserProfileRequest request) {
+    // Decodes the Base64 text into a temporary file instead of a byte array
+    private SpooledUpload spoolImageRequest(UserProfileRequest request) {
         if (request.getProfilePictureBase64() == null || request.getProfilePictureBase64().isBlank()) {
             throw BadRequestException.builder().message("Image request is not complete").build();
         }
-
-        byte[] imageBytes;
         try {
-            imageBytes = Base64.getDecoder().decode(request.getProfilePictureBase64());
+            return SpooledUpload.fromBase64(request.getProfilePictureBase64(), groupConfig.MAX_FILE_SIZE);
         } catch (IllegalArgumentException e) {
             log.error("Invalid Base64 content for image");
             throw BadRequestException.builder().message("Invalid Base64 content for image").build();
+        } catch (IOException e) {
+            log.error("Error reading uploaded image: {}", e.getMessage());
+            throw BadRequestException.builder().message("Error validating image: " + e.getMessage()).build();
         }
+    }
 
-        if (imageBytes.length > groupConfig.MAX_FILE_SIZE) {
-            log.error("Image size {} bytes exceeds limit {} MB ({} bytes)", imageBytes.length, groupConfig.maxFileSizeMb, groupConfig.MAX_FILE_SIZE);
+    // Checks size, magic bytes and header dimensions; the pixels are decoded once, when the image is resized
+    private void validateUpload(SpooledUpload upload) {
+        if (upload.getSize() > groupConfig.MAX_FILE_SIZE) {
+            log.error("Image size exceeds limit {} MB ({} bytes)", groupConfig.maxFileSizeMb, groupConfig.MAX_FILE_SIZE);
             throw BadRequestException.builder().message("Image size exceeds " + groupConfig.maxFileSizeMb + " MB limit").build();
         }
-
-        String mimeType;
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(imageBytes)) {
-            mimeType = tika.detect(bais);
-            if (!groupConfig.getALLOWED_IMAGE_TYPES().contains(mimeType)) {
-                log.error("Unsupported image type: {}", mimeType);
-                throw BadRequestException.builder().message("Unsupported image type: " + mimeType).build();
-            }
-            bais.reset();
-            BufferedImage img = ImageIO.read(bais);
-            if (img == null) {
-                log.error("Invalid image content: cannot read image");
-                throw BadRequestException.builder().message("Invalid image content: cannot read image").build();
-            }
-            if (img.getColorModel().getColorSpace().getType() != java.awt.color.ColorSpace.TYPE_RGB) {
-                log.warn("Image has non-RGB colorspace: {}", img.getColorModel().getColorSpace().getType());
-            }
+        String mimeType = upload.detectMimeType(tika);
+        if (!groupConfig.getALLOWED_IMAGE_TYPES().contains(mimeType)) {
+            log.error("Unsupported image type: {}", mimeType);
+            throw BadRequestException.builder().message("Unsupported image type: " + mimeType).build();
+        }
+        Dimension size;
+        try {
+            size = upload.readDimensions();
         } catch (IOException e) {
-            log.error("Error detecting image type or validating image: {}", e.getMessage());
+            log.error("Error validating image: {}", e.getMessage());
             throw BadRequestException.builder().message("Error validating image: " + e.getMessage()).build();
         }
+        ImageDecoder.checkDimensions(size, groupConfig.maxImagePixels, "profile picture");
     }
 
-    private byte[] resizeImage(byte[] originalImage, String extension, boolean forceJpeg, int targetWidth, int targetHeight) throws IOException {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(originalImage)) {
-            BufferedImage img = ImageIO.read(bais);
-            if (img == null) {
-                log.error("Failed to read image: null BufferedImage");
-                throw new IOException("Cannot read image: invalid or corrupt image data");
-            }
-            log.debug("Original image: width={}, height={}", img.getWidth(), img.getHeight());
-
-            double aspectRatio = (double) img.getWidth() / img.getHeight();
-            if (aspectRatio > 1) {
-                targetHeight = (int) (targetWidth / aspectRatio);
-            } else {
-                targetWidth = (int) (targetHeight * aspectRatio);
-            }
-            BufferedImage resized = org.imgscalr.Scalr.resize(img, org.imgscalr.Scalr.Method.ULTRA_QUALITY, org.imgscalr.Scalr.Mode.FIT_EXACT, targetWidth, targetHeight);
-            log.debug("Resized image: width={}, height={}", resized.getWidth(), resized.getHeight());
-
-            BufferedImage rgbImage = resized;
-            String outputFormat = forceJpeg ? "jpg" : (extension != null && !extension.isEmpty() ? extension.toLowerCase() : "jpg");
-            String formatName;
-            switch (outputFormat) {
-                case "jpg":
-                case "jpeg":
-                    formatName = "jpeg";
-                    rgbImage = new BufferedImage(resized.getWidth(), resized.getHeight(), BufferedImage.TYPE_INT_RGB);
-                    rgbImage.getGraphics().drawImage(resized, 0, 0, null);
-                    break;
-                case "png":
-                    formatName = "png";
-                    break;
-                case "gif":
-                    formatName = "gif";
-                    break;
-                case "bmp":
-                    formatName = "bmp";
-                    break;
-                case "tiff":
-                    formatName = "tiff";
-                    break;
-                case "wbmp":
-                    formatName = "wbmp";
-                    break;
-                case "webp":
-                    formatName = "webp";
-                    break;
-                default:
-                    log.warn("Unsupported output format: {}, defaulting to jpeg", outputFormat);
-                    formatName = "jpeg";
-                    outputFormat = "jpg";
-                    rgbImage = new BufferedImage(resized.getWidth(), resized.getHeight(), BufferedImage.TYPE_INT_RGB);
-                    rgbImage.getGraphics().drawImage(resized, 0, 0, null);
-            }
-
-            try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                if (formatName.equals("png") || formatName.equals("gif") || formatName.equals("bmp") || formatName.equals("tiff") || formatName.equals("wbmp")) {
-                    ImageIO.write(rgbImage, formatName, baos);
-                } else {
-                    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
-                    if (!writers.hasNext()) {
-                        log.error("No writer available for format: {}", formatName);
-                        throw new IOException("No writer available for format: " + formatName);
-                    }
-                    ImageWriter writer = writers.next();
-                    try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
-                        writer.setOutput(ios);
-                        ImageWriteParam param = writer.getDefaultWriteParam();
-                        if (formatName.equals("jpeg") || formatName.equals("webp")) {
-                            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-                            param.setCompressionQuality(groupConfig.imageQuality);
-                        }
-                        writer.write(null, new javax.imageio.IIOImage(rgbImage, null, null), param);
-                    } finally {
-                        writer.dispose();
-                    }
-                }
-                byte[] result = baos.toByteArray();
-                log.debug("Resized image size: {} bytes, format: {}", result.length, formatName);
-                if (result.length == 0) {
-                    log.error("Resized image is empty after writing to ByteArrayOutputStream");
-                    throw new IOException("Resized image is empty");
-                }
-                return result;
-            }
-        } catch (Exception e) {
-            log.error("Error resizing image: {}", e.getMessage(), e);
-            throw new IOException("Failed to resize image: " + e.getMessage(), e);
+    private void discard(SpooledUpload upload) {
+        try {
+            upload.close();
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled upload {}: {}", upload.getFile(), e.getMessage());
         }
     }
 
+    private byte[] resizeImage(Path originalImage, String extension, boolean forceJpeg, int targetWidth, int targetHeight) throws IOException {
+        BufferedImage img = ImageDecoder.decode(originalImage, targetWidth, targetHeight, groupConfig.maxDecodePixels);
+        return imageProcessingEngine.resize(img, extension, forceJpeg, targetWidth, targetHeight, ResizeQuality.HIGH);
+    }
+
     private void deleteOldImage(String oldImageUrl) {
         if (oldImageUrl != null && !oldImageUrl.isEmpty()) {
             Path oldFilePath = Path.of(oldImageUrl);
@@ -12,8 +12,10 @@ import com.datasaz.ecommerce.repositories.entities.Company;
 import com.datasaz.ecommerce.repositories.entities.RefreshToken;
 import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import com.datasaz.ecommerce.services.interfaces.IUserService;
 import com.datasaz.ecommerce.utilities.JwtBlacklistService;
+import com.datasaz.ecommerce.utilities.JwtUtil;
 import com.datasaz.ecommerce.utilities.Utility;
 import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
@@ -54,6 +56,7 @@ public class UserService implements IUserService {
     private final AuthenticationManager authenticationManager;
 
     private final JwtBlacklistService jwtBlacklistService;
+    private final IUserAuthStatusService userAuthStatusService;
 
     //private static final String UPLOAD_DIR = "uploads/profile-pictures/";
     private static final Utility utility = new Utility();
@@ -106,8 +109,10 @@ public class UserService implements IUserService {
             user.setPassword(passwordEncoder.encode(newPassword));
         }
 
-        // Save updated user
+        // Access tokens issued before this point stop working in stateless authentication mode
+        user.setLastPasswordResetDate(LocalDateTime.now());
         userRepository.save(user);
+        userAuthStatusService.invalidate(email);
 
         // Log audit event
         auditLogService.logAction(email, "UPDATE_PASSWORD", "Password updated for user: " + email);
@@ -339,6 +344,7 @@ public class UserService implements IUserService {
         user.setIsActivated(false);
         user.setDeletionToken(null);
         userRepository.save(user);
+        userAuthStatusService.invalidate(email);
 
         LocalDateTime timestamp = LocalDateTime.now();
 
@@ -374,23 +380,21 @@ public class UserService implements IUserService {
             throw new IllegalArgumentException("Invalid login session");
         }
 
-        Optional<RefreshToken> refreshTokenEntity = refreshTokenRepository.findByToken(refreshToken);
-        if (refreshTokenEntity.isPresent()) {
-            RefreshToken token = refreshTokenEntity.get();
-            if (!token.getUserEmail().equals(username)) {
+        String tokenHash = JwtUtil.tokenHash(refreshToken);
+        if (refreshTokenRepository.revokeByTokenHashAndUserEmail(tokenHash, username) == 1) {
+            log.info("logout: Refresh token revoked for user: {}", username);
+        } else {
+            // Nothing revoked: find out why
+            Optional<RefreshToken> refreshTokenEntity = refreshTokenRepository.findByTokenHash(tokenHash);
+            if (refreshTokenEntity.isEmpty()) {
+                log.warn("logout: Invalid refresh token for user: {}", username);
+                throw new IllegalArgumentException("Invalid login session");
+            }
+            if (!refreshTokenEntity.get().getUserEmail().equals(username)) {
                 log.error("logout: Refresh token does not belong to user: {}", username);
                 throw BadRequestException.builder().message("Invalid login session for user").build();
             }
-            if (token.isRevoked()) {
-                log.warn("logout: Refresh token already revoked for user: {}", username);
-            } else {
-                token.setRevoked(true);
-                refreshTokenRepository.save(token);
-                log.info("logout: Refresh token revoked for user: {}", username);
-            }
-        } else {
-            log.warn("logout: Invalid refresh token for user: {}", username);
-            throw new IllegalArgumentException("Invalid login session");
+            log.warn("logout: Refresh token already revoked for user: {}", username);
         }
 
         revokeAllRefreshTokens(username, jwtToken);
@@ -408,7 +412,7 @@ public class UserService implements IUserService {
             throw BadRequestException.builder().message("Invalid or missing JWT token").build();
         }
         jwtBlacklistService.blacklistToken(jwtToken);
-        refreshTokenRepository.deleteByUserEmail(email);
+        refreshTokenRepository.revokeAllByUserEmail(email);
         log.info("Revoked all refresh tokens and blacklisted JWT for user: {}", email);
     }
 
@@ -1,6 +1,7 @@
 package com.datasaz.ecommerce.services.interfaces;
 
 import com.datasaz.ecommerce.models.dto.AuditLogDto;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
 import org.springframework.data.domain.Page;
 
 import java.time.LocalDateTime;
@@ -15,4 +16,7 @@ public interface IAuditLogService {
     Page<AuditLogDto> getAuditLogs(int page, int size, String userEmail, String roleName, String action,
                                    String details, String performedBy, LocalDateTime startDate, LocalDateTime endDate);
 
+    CursorSliceResponse<AuditLogDto> getAuditLogs(String cursor, int size, String userEmail, String roleName, String action,
+                                                  String details, String performedBy, LocalDateTime startDate, LocalDateTime endDate);
+
 }
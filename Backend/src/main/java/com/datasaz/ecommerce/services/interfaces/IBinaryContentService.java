@@ -0,0 +1,32 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import com.datasaz.ecommerce.models.dto.BinaryContentMetadata;
+import com.datasaz.ecommerce.repositories.entities.BinaryContent;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public interface IBinaryContentService {
+
+    Long store(byte[] data, String contentType);
+
+    Long store(InputStream data, long size, String contentHash, String contentType);
+
+    Long replace(Long existingId, byte[] data, String contentType);
+
+    Optional<BinaryContent> findById(Long id);
+
+    Optional<BinaryContentMetadata> findMetadataById(Long id);
+
+    byte[] load(Long id);
+
+    Map<Long, byte[]> loadAll(Collection<Long> ids);
+
+    String loadBase64(Long id);
+
+    void delete(Long id);
+
+    boolean existsByContentHash(String contentHash);
+}
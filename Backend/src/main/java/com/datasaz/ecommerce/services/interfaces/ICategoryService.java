@@ -1,6 +1,7 @@
 package com.datasaz.ecommerce.services.interfaces;
 
 import com.datasaz.ecommerce.models.response.CategoryResponse;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -33,5 +34,7 @@ public interface ICategoryService {
 
     Page<CategoryResponse> getCategoriesSortedByProductSoldQuantity(Pageable pageable);
 
+    Page<CategoryResponse> getCategoriesSortedByProductSoldQuantity(SalesLeaderboard.Window window, Pageable pageable);
+
     Page<CategoryResponse> getCategoriesSortedByProductCount(Pageable pageable);
 }
@@ -0,0 +1,16 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import com.datasaz.ecommerce.utilities.CategoryTreeSnapshot;
+
+public interface ICategoryTreeService {
+
+    /**
+     * The current category tree, loaded from the database on first use.
+     */
+    CategoryTreeSnapshot getSnapshot();
+
+    /**
+     * Replaces the snapshot with a freshly loaded tree once the current transaction commits.
+     */
+    void refresh();
+}
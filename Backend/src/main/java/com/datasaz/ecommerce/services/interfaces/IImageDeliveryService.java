@@ -0,0 +1,21 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import com.datasaz.ecommerce.models.dto.ImageDelivery;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface IImageDeliveryService {
+
+    ImageDelivery getProductImage(Long productId, Long imageId, boolean thumbnail);
+
+    ImageDelivery getPrimaryProductImage(Long productId, boolean thumbnail);
+
+    ImageDelivery getProfilePicture(String email);
+
+    // Streamed cover thumbnails keyed by product ID, in request order; products without images are left out
+    Map<Long, ImageDelivery> getProductThumbnails(Collection<Long> productIds);
+
+    // Deletes the object storage copy made for redirect delivery once no stored content has this hash any more
+    void unpublish(String contentHash);
+}
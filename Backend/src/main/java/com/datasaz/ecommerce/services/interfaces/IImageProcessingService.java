@@ -0,0 +1,28 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import java.io.IOException;
+
+public interface IImageProcessingService {
+
+    /**
+     * Runs an image job on the bounded image worker pool once the current transaction commits. The job holds
+     * {@code estimatedBytes} of the shared memory budget while it runs, so only as many large images are decoded at
+     * once as fit in the budget.
+     *
+     * @throws org.springframework.web.server.ResponseStatusException 503 if the worker pool has no room left
+     */
+    void submit(String description, long estimatedBytes, Runnable job);
+
+    /**
+     * Runs an image job on the calling thread, for work a request has to wait for. The job holds
+     * {@code estimatedBytes} of the same memory budget as the worker pool jobs while it runs.
+     *
+     * @throws org.springframework.web.server.ResponseStatusException 503 if the budget does not free up in time
+     */
+    <T> T runNow(String description, long estimatedBytes, ImageJob<T> job) throws IOException;
+
+    @FunctionalInterface
+    interface ImageJob<T> {
+        T run() throws IOException;
+    }
+}
@@ -0,0 +1,8 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import com.datasaz.ecommerce.models.dto.ImageDelivery;
+
+public interface IImageRenditionService {
+
+    ImageDelivery getRendition(Long imageId, Integer width, String format);
+}
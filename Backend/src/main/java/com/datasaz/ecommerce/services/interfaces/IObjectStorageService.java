@@ -0,0 +1,32 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stores objects by key without blocking the caller; uploads started together run in parallel.
+ */
+public interface IObjectStorageService {
+
+    /**
+     * Completes with the URL of the stored object.
+     */
+    CompletableFuture<String> put(String key, byte[] content, String contentType);
+
+    /**
+     * Streams the file instead of holding it in memory; large files are uploaded in parts where supported.
+     */
+    CompletableFuture<String> put(String key, Path file, String contentType);
+
+    CompletableFuture<Void> delete(String key);
+
+    CompletableFuture<Boolean> exists(String key);
+
+    String getUrl(String key);
+
+    /**
+     * A time-limited URL from which the object can be downloaded without going through the API.
+     */
+    String getSignedUrl(String key, Duration ttl);
+}
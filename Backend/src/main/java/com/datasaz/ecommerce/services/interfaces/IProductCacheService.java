@@ -0,0 +1,44 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import com.datasaz.ecommerce.models.dto.ProductPageKey;
+import com.datasaz.ecommerce.models.response.ProductResponse;
+import com.datasaz.ecommerce.models.response.ProductSummaryResponse;
+import org.springframework.data.domain.Page;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public interface IProductCacheService {
+
+    /**
+     * Returns the cached product detail if it was built from {@code version}, otherwise loads and caches it.
+     */
+    ProductResponse getProduct(Long productId, Long version, Supplier<ProductResponse> loader);
+
+    /**
+     * Serves a listing page from its cached product ID list, resolving each product through the version-checked
+     * summary cache. {@code summaryLoader} loads the summaries (with cover images) of products that are missing or stale.
+     */
+    Page<ProductSummaryResponse> getPage(ProductPageKey key, Supplier<Page<ProductSummaryResponse>> loader,
+                                         Function<List<Long>, List<ProductSummaryResponse>> summaryLoader);
+
+    /**
+     * Resolves summaries in the given order through the version-checked summary cache; deleted products are skipped.
+     */
+    List<ProductSummaryResponse> getSummaries(List<Long> productIds, Function<List<Long>, List<ProductSummaryResponse>> summaryLoader);
+
+    /**
+     * A product changed without changing which listings it belongs to: drops its entries and the pages that contain it.
+     */
+    void evictProduct(Long productId);
+
+    /**
+     * A product was created, deleted or moved between categories: additionally drops the global listings and the
+     * listings of the given categories, whose page boundaries may have shifted.
+     */
+    void evictListings(Long productId, Collection<Long> categoryIds);
+
+    void evictAll();
+}
@@ -0,0 +1,27 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import com.datasaz.ecommerce.models.dto.ProductBrowseFilter;
+import com.datasaz.ecommerce.utilities.ProductFacetIndex;
+import org.springframework.data.domain.Pageable;
+
+public interface IProductFacetService {
+
+    /**
+     * False until the first index build has completed.
+     */
+    boolean isReady();
+
+    /**
+     * Matching product IDs for the requested page (newest first), the total and the facet value counts.
+     */
+    ProductFacetIndex.Result browse(ProductBrowseFilter filter, Pageable pageable);
+
+    /**
+     * Re-reads the product once the current transaction commits and updates (or drops) its facet values.
+     */
+    void indexProduct(Long productId);
+
+    void removeProduct(Long productId);
+
+    void rebuildIndex();
+}
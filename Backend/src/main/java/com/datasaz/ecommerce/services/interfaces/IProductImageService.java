@@ -26,8 +26,6 @@ public interface IProductImageService {
 
     List<ProductImageAttach> getImageAttachesByProductId(Long productId);
 
-    void cleanupOldImages();
-
-    void cleanupOldImageAttaches();
+    void collectImageGarbage();
 
 }
@@ -0,0 +1,35 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import com.datasaz.ecommerce.repositories.entities.OrderItem;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+
+public interface IProductLeaderboardService {
+
+    /**
+     * False until the first leaderboard build has completed.
+     */
+    boolean isReady();
+
+    /**
+     * IDs of the best-selling products in the window, within a category (and not its subcategories) when set.
+     */
+    Page<Long> topProducts(Long categoryId, SalesLeaderboard.Window window, Pageable pageable);
+
+    Page<Long> topCategories(SalesLeaderboard.Window window, Pageable pageable);
+
+    /**
+     * Counts the saved items of an order once the current transaction commits.
+     */
+    void recordSales(Collection<OrderItem> items);
+
+    /**
+     * Takes refunded items back out of the rankings once the current transaction commits.
+     */
+    void recordReturns(Collection<OrderItem> items);
+
+    void rebuildIndex();
+}
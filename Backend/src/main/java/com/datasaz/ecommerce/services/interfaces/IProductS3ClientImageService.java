@@ -3,8 +3,12 @@ package com.datasaz.ecommerce.services.interfaces;
 import com.datasaz.ecommerce.repositories.entities.ProductImage;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 public interface IProductS3ClientImageService {
     ProductImage uploadImage(Long productId, MultipartFile file, boolean isPrimary);
 
+    List<ProductImage> uploadImages(Long productId, List<MultipartFile> files, boolean firstIsPrimary);
+
     void deleteImage(Long imageId);
 }
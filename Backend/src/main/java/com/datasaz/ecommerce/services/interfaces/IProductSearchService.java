@@ -0,0 +1,26 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface IProductSearchService {
+
+    /**
+     * False until the first index build has completed; callers fall back to the database search meanwhile.
+     */
+    boolean isReady();
+
+    /**
+     * Ranked product IDs matching the query, with the total number of matches.
+     */
+    Page<Long> search(String query, Pageable pageable);
+
+    /**
+     * Re-reads the product once the current transaction commits and updates (or drops) its index entry.
+     */
+    void indexProduct(Long productId);
+
+    void removeProduct(Long productId);
+
+    void rebuildIndex();
+}
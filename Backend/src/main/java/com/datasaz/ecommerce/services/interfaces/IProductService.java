@@ -1,9 +1,17 @@
 package com.datasaz.ecommerce.services.interfaces;
 
+import com.datasaz.ecommerce.models.dto.ProductBrowseFilter;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
+import com.datasaz.ecommerce.models.response.ProductBrowseResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
+import com.datasaz.ecommerce.models.response.ProductSuggestionResponse;
+import com.datasaz.ecommerce.models.response.ProductSummaryResponse;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface IProductService {
 
     /* TODO: see the following methods
@@ -23,24 +31,37 @@ public interface IProductService {
 
     ProductResponse getProductById(Long id);
 
-    Page<ProductResponse> getAllProducts(int page, int size);
+    Page<ProductSummaryResponse> getAllProducts(int page, int size);
+
+    CursorSliceResponse<ProductSummaryResponse> getAllProducts(String cursor, int size);
 
-    Page<ProductResponse> searchProductsByName(String name, Pageable pageable);
+    Page<ProductSummaryResponse> searchProductsByName(String name, Pageable pageable);
     //List<ProductResponse> searchProductsByName(String name);
 
-    Page<ProductResponse> getProductsByCategory(Long categoryId, int page, int size);
+    Page<ProductSummaryResponse> getProductsByCategory(Long categoryId, int page, int size);
+
+    /**
+     * Products of the category and all its descendant categories.
+     */
+    Page<ProductSummaryResponse> getProductsInCategorySubtree(Long categoryId, int page, int size);
+
+    Page<ProductSummaryResponse> getFeaturedProducts(int page, int size);
+
+    Page<ProductSummaryResponse> getNewArrivalProducts(Pageable pageable);
+
+    Page<ProductSummaryResponse> getAllSortedByProductSoldQuantity(Pageable pageable);
 
-    Page<ProductResponse> getFeaturedProducts(int page, int size);
+    Page<ProductSummaryResponse> getBestSellers(Long categoryId, SalesLeaderboard.Window window, Pageable pageable);
 
-    Page<ProductResponse> getNewArrivalProducts(Pageable pageable);
+    Page<ProductSummaryResponse> getByOfferPriceLessThanPrice(int page, int size);
 
-    Page<ProductResponse> getAllSortedByProductSoldQuantity(Pageable pageable);
+    Page<ProductSummaryResponse> getRelatedProducts(Long productId, Pageable pageable);
 
-    Page<ProductResponse> getByOfferPriceLessThanPrice(int page, int size);
+    Page<ProductSummaryResponse> getRecommendedProducts(int page, int size);
 
-    Page<ProductResponse> getRelatedProducts(Long categoryId, Long productId, Pageable pageable);
+    ProductBrowseResponse browseProducts(ProductBrowseFilter filter, Pageable pageable);
 
-    Page<ProductResponse> getRecommendedProducts(int page, int size);
+    List<ProductSuggestionResponse> suggestProducts(String query, int limit);
 
 
     //TODO: Sort by number of views of the products
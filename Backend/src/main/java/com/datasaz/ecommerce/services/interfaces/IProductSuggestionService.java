@@ -0,0 +1,22 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import com.datasaz.ecommerce.utilities.ProductSuggestionIndex;
+
+import java.util.List;
+
+public interface IProductSuggestionService {
+
+    /**
+     * Best product, brand and category suggestions for a typed prefix; empty until the first index build has completed.
+     */
+    List<ProductSuggestionIndex.Suggestion> suggest(String query, int limit);
+
+    /**
+     * Re-reads the product once the current transaction commits and updates (or drops) its suggestion.
+     */
+    void indexProduct(Long productId);
+
+    void removeProduct(Long productId);
+
+    void rebuildIndex();
+}
@@ -1,6 +1,7 @@
 package com.datasaz.ecommerce.services.interfaces;
 
 import com.datasaz.ecommerce.models.request.ProductRequest;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -46,6 +47,8 @@ public interface ISellerProductService {
 
     Page<ProductResponse> getAllAuthorOrCompanyProducts(int page, int size);
 
+    CursorSliceResponse<ProductResponse> getAllAuthorOrCompanyProducts(String cursor, int size);
+
     void mergeProductsToCompany(Long companyId, String sellerEmail, String adminEmail);
 
     //ProductResponse updateProductImages(Long productId, List<ProductImageRequest> newImages, List<Long> imagesToRemove, Long primaryImageId, String email);
@@ -0,0 +1,20 @@
+package com.datasaz.ecommerce.services.interfaces;
+
+import com.datasaz.ecommerce.models.dto.UserAuthStatus;
+
+import java.util.Optional;
+
+public interface IUserAuthStatusService {
+
+    /**
+     * The account status used by stateless authentication, cached briefly; empty if the user does not exist or is
+     * deleted.
+     */
+    Optional<UserAuthStatus> getStatus(String email);
+
+    /**
+     * Drops the cached status of a user whose flags, roles or password are being changed. Call it inside the
+     * changing transaction: the entry is dropped again after commit.
+     */
+    void invalidate(String email);
+}
@@ -1,5 +1,6 @@
 package com.datasaz.ecommerce.services.interfaces;
 
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
 import com.datasaz.ecommerce.models.response.UserFollowersCountResponse;
 import com.datasaz.ecommerce.models.response.UserProfileResponse;
@@ -11,6 +12,8 @@ public interface IUserProfileVisitService {
 
     Page<UserSummaryResponse> getFollowers(String emailAddress, int page, int size, String viewerEmail);
 
+    CursorSliceResponse<UserSummaryResponse> getFollowers(String emailAddress, String cursor, int size, String viewerEmail);
+
     Page<UserSummaryResponse> getFollowings(String emailAddress, int page, int size, String viewerEmail);
 
     UserFollowersCountResponse getFollowerCount(String emailAddress);
@@ -22,6 +25,11 @@ public interface IUserProfileVisitService {
 
     UserPrivacySettings getPrivacySettings();
 
+    /**
+     * Throws AccessDeniedException (403) unless the current viewer, who may be anonymous, can see the user's profile.
+     */
+    void checkProfileVisible(String email);
+
     Page<ProductResponse> getFavoriteProducts(String emailAddress, int page, int size);
 
 }
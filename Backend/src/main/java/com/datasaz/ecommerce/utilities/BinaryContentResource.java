@@ -0,0 +1,92 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.springframework.core.io.AbstractResource;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads a binary_content payload with plain JDBC instead of materialising it as an entity.
+ * Nothing is read until {@link #getInputStream()} is called, so conditional requests answered with 304 never touch
+ * the blob. The payload is copied out before the stream is returned, so the connection goes back to the pool before
+ * the body is written to a possibly slow client: small payloads are buffered in memory, larger ones are spooled to a
+ * temporary file that is deleted when the stream is closed.
+ */
+public class BinaryContentResource extends AbstractResource {
+
+    private static final String SELECT_DATA = "SELECT data FROM binary_content WHERE id = ?";
+    private static final int IN_MEMORY_LIMIT = 256 * 1024;
+
+    private final DataSource dataSource;
+    private final Long contentId;
+    private final long contentLength;
+
+    public BinaryContentResource(DataSource dataSource, Long contentId, long contentLength) {
+        this.dataSource = dataSource;
+        this.contentId = contentId;
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    public String getDescription() {
+        return "binary_content [" + contentId + "]";
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    // Known up front, which lets Spring answer Range requests without reading the payload to measure it
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_DATA)) {
+            statement.setLong(1, contentId);
+            statement.setFetchSize(1);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new FileNotFoundException(getDescription() + " does not exist");
+                }
+                try (InputStream data = resultSet.getBinaryStream(1)) {
+                    return copyOut(data);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to open " + getDescription(), e);
+        }
+    }
+
+    private InputStream copyOut(InputStream data) throws IOException {
+        if (data == null) {
+            return InputStream.nullInputStream();
+        }
+        if (contentLength <= IN_MEMORY_LIMIT) {
+            return new ByteArrayInputStream(data.readAllBytes());
+        }
+        Path file = Files.createTempFile("binary-content-", ".tmp");
+        try {
+            Files.copy(data, file, StandardCopyOption.REPLACE_EXISTING);
+            return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.datasaz.ecommerce.utilities;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over 64-bit fingerprints. It may answer "maybe present" for a key never added, but never
+ * "absent" for one that was.
+ * <p>
+ * Bits live in an {@link AtomicLongArray}: lookups are plain volatile reads and inserts set bits with compare-and-set,
+ * so neither takes a lock, and a lookup allocates nothing. Bit positions are derived from one fingerprint by double
+ * hashing (Kirsch and Mitzenmacher), so callers hash a key once.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final int bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long insertions = Math.max(1, expectedInsertions);
+        double optimalBits = -insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long wordCount = Math.min(Integer.MAX_VALUE / 64, Math.max(1, ((long) Math.ceil(optimalBits) + 63) / 64));
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitCount = (int) wordCount * 64;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / insertions * Math.log(2)));
+    }
+
+    public void put(long fingerprint) {
+        int first = (int) fingerprint;
+        int second = (int) (fingerprint >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = index(first + i * second);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(long fingerprint) {
+        int first = (int) fingerprint;
+        int second = (int) (fingerprint >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = index(first + i * second);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * A well-mixed, non-cryptographic 64-bit hash of the characters: FNV-1a followed by the MurmurHash3 finalizer,
+     * which spreads FNV's weak low bits. Allocates nothing.
+     */
+    public static long fingerprint(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private int index(int combined) {
+        return (combined < 0 ? ~combined : combined) % bitCount;
+    }
+}
@@ -0,0 +1,146 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.models.response.CategoryResponse;
+
+import java.util.*;
+
+/**
+ * Immutable view of the whole category tree, built in one pass and replaced as a unit whenever the tree changes.
+ * <p>
+ * Every category is linked to its subcategories and carries the precomputed IDs of its subtree (itself and all
+ * descendants), so tree endpoints and "category including subcategories" filters need no recursive queries.
+ * The snapshot keeps its own copies of the categories and hands every caller freshly built {@link CategoryResponse}
+ * trees, so a caller modifying a response cannot change what other readers see.
+ */
+public final class CategoryTreeSnapshot {
+
+    private final long version;
+    private final Map<Long, CategoryResponse> byId;
+    private final Map<Long, List<Long>> children;
+    private final List<Long> roots;
+    private final List<Long> leaves;
+    private final Map<Long, List<Long>> subtreeIds;
+
+    private CategoryTreeSnapshot(long version, Map<Long, CategoryResponse> byId, Map<Long, List<Long>> children,
+                                 List<Long> roots, List<Long> leaves, Map<Long, List<Long>> subtreeIds) {
+        this.version = version;
+        this.byId = byId;
+        this.children = children;
+        this.roots = roots;
+        this.leaves = leaves;
+        this.subtreeIds = subtreeIds;
+    }
+
+    /**
+     * Links flat categories by their parent ID; their subcategories are ignored and the given objects are not
+     * modified. A category whose parent is missing is treated as a root.
+     */
+    public static CategoryTreeSnapshot build(Collection<CategoryResponse> categories, long version) {
+        Map<Long, CategoryResponse> byId = new LinkedHashMap<>();
+        categories.stream()
+                .sorted(Comparator.comparing(CategoryResponse::getId))
+                .forEach(category -> byId.put(category.getId(), withSubcategories(category, null)));
+
+        Map<Long, List<Long>> children = new HashMap<>();
+        List<Long> roots = new ArrayList<>();
+        for (CategoryResponse category : byId.values()) {
+            Long parentId = category.getParentId();
+            if (parentId != null && byId.containsKey(parentId) && !parentId.equals(category.getId())) {
+                children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(category.getId());
+            } else {
+                roots.add(category.getId());
+            }
+        }
+        children.replaceAll((id, subcategoryIds) -> List.copyOf(subcategoryIds));
+
+        List<Long> leaves = byId.keySet().stream().filter(id -> !children.containsKey(id)).toList();
+
+        Map<Long, List<Long>> subtreeIds = new HashMap<>();
+        for (Long id : byId.keySet()) {
+            subtreeIds.put(id, collectSubtree(id, children));
+        }
+        return new CategoryTreeSnapshot(version, Collections.unmodifiableMap(byId), children, List.copyOf(roots),
+                leaves, subtreeIds);
+    }
+
+    // Iterative pre-order walk; the visited set keeps a corrupt (cyclic) parent chain from looping
+    private static List<Long> collectSubtree(Long rootId, Map<Long, List<Long>> children) {
+        List<Long> ids = new ArrayList<>();
+        Set<Long> visited = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>(List.of(rootId));
+        while (!pending.isEmpty()) {
+            Long id = pending.pop();
+            if (visited.add(id)) {
+                ids.add(id);
+                List<Long> subcategoryIds = children.getOrDefault(id, List.of());
+                for (int i = subcategoryIds.size() - 1; i >= 0; i--) {
+                    pending.push(subcategoryIds.get(i));
+                }
+            }
+        }
+        return List.copyOf(ids);
+    }
+
+    /**
+     * Increases with every rebuild; lets caches key entries on the tree they were computed from.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Optional<CategoryResponse> find(Long id) {
+        return byId.containsKey(id) ? Optional.of(toResponse(id, new HashSet<>())) : Optional.empty();
+    }
+
+    public boolean contains(Long id) {
+        return byId.containsKey(id);
+    }
+
+    public List<CategoryResponse> getAll() {
+        return toResponses(byId.keySet());
+    }
+
+    public List<CategoryResponse> getRoots() {
+        return toResponses(roots);
+    }
+
+    public List<CategoryResponse> getLeaves() {
+        return toResponses(leaves);
+    }
+
+    /**
+     * The category and all its descendants, parents before children; empty for an unknown category.
+     */
+    public List<Long> subtreeIds(Long id) {
+        return subtreeIds.getOrDefault(id, List.of());
+    }
+
+    private List<CategoryResponse> toResponses(Collection<Long> ids) {
+        return ids.stream().map(id -> toResponse(id, new HashSet<>())).toList();
+    }
+
+    // A fresh response for the category and its subtree; a category already on the path is not expanded again
+    private CategoryResponse toResponse(Long id, Set<Long> path) {
+        path.add(id);
+        List<CategoryResponse> subcategories = children.getOrDefault(id, List.of()).stream()
+                .filter(subcategoryId -> !path.contains(subcategoryId))
+                .map(subcategoryId -> toResponse(subcategoryId, path))
+                .toList();
+        path.remove(id);
+        return withSubcategories(byId.get(id), new ArrayList<>(subcategories));
+    }
+
+    private static CategoryResponse withSubcategories(CategoryResponse category, List<CategoryResponse> subcategories) {
+        return CategoryResponse.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .imageUrl(category.getImageUrl())
+                .imageContent(category.getImageContent())
+                .imageContentType(category.getImageContentType())
+                .createdDate(category.getCreatedDate())
+                .parentId(category.getParentId())
+                .subcategories(subcategories)
+                .build();
+    }
+}
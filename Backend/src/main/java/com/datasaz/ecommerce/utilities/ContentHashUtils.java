@@ -0,0 +1,44 @@
+package com.datasaz.ecommerce.utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class ContentHashUtils {
+    private static final int VERSION_LENGTH = 16;
+
+    private ContentHashUtils() {
+    }
+
+    public static String sha256Hex(byte[] content) {
+        return HexFormat.of().formatHex(sha256().digest(content));
+    }
+
+    public static String sha256Hex(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Short, URL friendly token used as the ?v= cache-busting parameter on image URLs
+    public static String version(String contentHash) {
+        if (contentHash == null) {
+            return null;
+        }
+        return contentHash.length() > VERSION_LENGTH ? contentHash.substring(0, VERSION_LENGTH) : contentHash;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -3,19 +3,74 @@ package com.datasaz.ecommerce.utilities;
 import com.datasaz.ecommerce.exceptions.UserNotFoundException;
 import com.datasaz.ecommerce.repositories.UserRepository;
 import com.datasaz.ecommerce.repositories.entities.User;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.Optional;
+
+/**
+ * The authenticated user, loaded at most once per request.
+ * <p>
+ * The first call in a request loads the user with the caller's {@link UserFetchPlan} and keeps it as a request
+ * attribute; later calls get the same instance back without a query, unless they ask for a plan it was not loaded
+ * with. A kept user is only handed out while it is still managed by the current persistence context (the request's,
+ * with open-in-view), so changes made to it are never lost on a detached copy. Outside a web request nothing is kept.
+ */
 @RequiredArgsConstructor
 @Component
 public class CurrentUserService {
 
+    private static final String REQUEST_ATTRIBUTE = CurrentUserService.class.getName() + ".user";
+
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
 
+    /**
+     * The authenticated user with roles and company, as most callers need.
+     */
     public User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmailAddress(email)
+        return getCurrentUser(UserFetchPlan.WITH_COMPANY);
+    }
+
+    public User getCurrentUser(UserFetchPlan plan) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication != null ? authentication.getName() : null;
+        return findUser(email, plan)
                 .orElseThrow(() -> UserNotFoundException.builder().message("User not found").build());
     }
+
+    /**
+     * The active user with this email, reusing the request's copy when it is the authenticated user; empty if there
+     * is no such user.
+     */
+    public Optional<User> findUser(String email, UserFetchPlan plan) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean current = request != null && authentication != null && email.equals(authentication.getName());
+        if (current && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && email.equals(user.getEmailAddress()) && plan.isLoadedIn(user) && entityManager.contains(user)) {
+            return Optional.of(user);
+        }
+        Optional<User> loaded = load(email, plan);
+        if (current) {
+            loaded.ifPresent(user -> request.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST));
+        }
+        return loaded;
+    }
+
+    private Optional<User> load(String email, UserFetchPlan plan) {
+        return switch (plan) {
+            case ROLES -> userRepository.findWithRolesByEmailAddressAndDeletedFalse(email);
+            case WITH_COMPANY -> userRepository.findWithCompanyByEmailAddressAndDeletedFalse(email);
+            case WITH_FAVORITES -> userRepository.findWithFavoritesByEmailAddressAndDeletedFalse(email);
+        };
+    }
 }
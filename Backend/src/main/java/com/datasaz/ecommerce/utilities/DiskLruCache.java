@@ -0,0 +1,147 @@
+package com.datasaz.ecommerce.utilities;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded cache of files in one directory, evicting the least recently used entries once the total size
+ * exceeds the limit.
+ * <p>
+ * Recency is tracked in memory; on startup the directory is scanned and existing files are ordered by modification
+ * time, so the cache survives restarts. Entries are written to a temporary file and moved into place, so readers
+ * never see a partially written file. Readers get an open stream rather than a path, so eviction cannot remove a
+ * file between the lookup and the read. Keys are used as file names and must be safe for that.
+ */
+@Slf4j
+public class DiskLruCache {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public DiskLruCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    private void load() throws IOException {
+        List<Map.Entry<Path, BasicFileAttributes>> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : paths.toList()) {
+                if (path.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    // Left behind by an interrupted write
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    files.add(Map.entry(path, attributes));
+                }
+            }
+        }
+        files.sort(Comparator.comparing(entry -> entry.getValue().lastModifiedTime()));
+        synchronized (this) {
+            for (Map.Entry<Path, BasicFileAttributes> file : files) {
+                sizes.put(file.getKey().getFileName().toString(), file.getValue().size());
+                totalBytes += file.getValue().size();
+            }
+            evict();
+        }
+        log.info("Disk cache {} loaded: {} files, {} bytes", directory, sizes.size(), totalBytes);
+    }
+
+    public synchronized boolean contains(String key) {
+        return sizes.containsKey(key);
+    }
+
+    /**
+     * Size of the cached file for the key, marking it as recently used; empty if it is not cached.
+     */
+    public synchronized OptionalLong length(String key) {
+        Long size = sizes.get(key);
+        return size != null ? OptionalLong.of(size) : OptionalLong.empty();
+    }
+
+    /**
+     * Opens the cached file for the key, marking it as recently used; empty if it is not cached. The file is opened
+     * under the same lock as eviction, so it cannot be deleted between the lookup and the open; an open stream keeps
+     * reading the file even if the entry is evicted afterwards.
+     */
+    public synchronized Optional<InputStream> open(String key) throws IOException {
+        if (sizes.get(key) == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.newInputStream(directory.resolve(key)));
+        } catch (NoSuchFileException e) {
+            // Removed from outside the cache
+            remove(key);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the content under the key, replacing any previous entry, and evicts older entries beyond the size limit.
+     */
+    public void put(String key, byte[] content) throws IOException {
+        Path path = directory.resolve(key);
+        Path temp = Files.createTempFile(directory, key + ".", TEMP_SUFFIX);
+        try {
+            Files.write(temp, content);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        synchronized (this) {
+            Long previous = sizes.put(key, (long) content.length);
+            totalBytes += content.length - (previous != null ? previous : 0);
+            evict();
+        }
+    }
+
+    public synchronized void remove(String key) {
+        Long size = sizes.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+            delete(key);
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return sizes.size();
+    }
+
+    // The most recent entry is kept even when it alone exceeds the limit, so a fresh put is always servable
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+        while (totalBytes > maxBytes && sizes.size() > 1) {
+            Map.Entry<String, Long> entry = eldest.next();
+            totalBytes -= entry.getValue();
+            eldest.remove();
+            delete(entry.getKey());
+        }
+    }
+
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(directory.resolve(key));
+        } catch (IOException e) {
+            log.warn("Failed to delete cached file {}: {}", key, e.getMessage());
+        }
+    }
+}
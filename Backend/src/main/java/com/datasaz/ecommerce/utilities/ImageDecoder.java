@@ -0,0 +1,163 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Reads images through {@link ImageReader} instead of {@link ImageIO#read}, so the pixel count is known from the
+ * header before anything is decoded.
+ * <p>
+ * Images much larger than the size they are resized to are decoded with source subsampling: the reader skips rows and
+ * columns while decoding, and the full-size bitmap is never allocated. The decoded image stays at least twice the
+ * target size, leaving the final downscale to the quality resize, and within the pixel budget, which bounds the heap
+ * a single decode can take to four bytes per budgeted pixel.
+ */
+@Slf4j
+public class ImageDecoder {
+    private static final int OVERSAMPLING = 2;
+
+    private ImageDecoder() {
+    }
+
+    /**
+     * Width and height from the image header, or null if no image reader recognises the content.
+     */
+    public static Dimension readDimensions(byte[] image) throws IOException {
+        return probe(new ByteArrayInputStream(image));
+    }
+
+    public static Dimension readDimensions(Path image) throws IOException {
+        return probe(image.toFile());
+    }
+
+    public static Dimension readDimensions(InputStream image) throws IOException {
+        return probe(image);
+    }
+
+    /**
+     * Rejects an upload whose header could not be read or whose pixel count exceeds the limit, before anything is
+     * decoded: a small file can still expand to a huge bitmap.
+     *
+     * @param size      dimensions from {@link #readDimensions}, null if no reader recognised the content
+     * @param maxPixels upper bound on width times height; zero or less for no bound
+     * @param name      the upload, for the log
+     * @return the size, for callers that go on to estimate the decode
+     * @throws BadRequestException if the image is unreadable or too large
+     */
+    public static Dimension checkDimensions(Dimension size, long maxPixels, String name) {
+        if (size == null || size.width <= 0 || size.height <= 0) {
+            log.error("Invalid image content: cannot read image for {}", name);
+            throw BadRequestException.builder().message("Invalid image content: cannot read image").build();
+        }
+        if (maxPixels > 0 && (long) size.width * size.height > maxPixels) {
+            log.error("Image dimensions {}x{} exceed {} pixels for {}", size.width, size.height, maxPixels, name);
+            throw BadRequestException.builder().message("Image dimensions " + size.width + "x" + size.height + " are too large").build();
+        }
+        return size;
+    }
+
+    /**
+     * Decodes the image at no less than twice the target size where the source allows it.
+     *
+     * @param maxPixels upper bound on the decoded pixel count; zero or less for no bound
+     * @throws IOException if the content is not a readable image
+     */
+    public static BufferedImage decode(byte[] image, int targetWidth, int targetHeight, long maxPixels) throws IOException {
+        return read(new ByteArrayInputStream(image), targetWidth, targetHeight, maxPixels);
+    }
+
+    public static BufferedImage decode(Path image, int targetWidth, int targetHeight, long maxPixels) throws IOException {
+        return read(image.toFile(), targetWidth, targetHeight, maxPixels);
+    }
+
+    public static BufferedImage decode(InputStream image, int targetWidth, int targetHeight, long maxPixels) throws IOException {
+        return read(image, targetWidth, targetHeight, maxPixels);
+    }
+
+    /**
+     * The step in both directions between source pixels kept while decoding; 1 decodes every pixel.
+     */
+    public static int subsampling(int width, int height, int targetWidth, int targetHeight, long maxPixels) {
+        int step = 1;
+        if (targetWidth > 0 && targetHeight > 0) {
+            step = (int) Math.max(1, Math.min(width / (OVERSAMPLING * (long) targetWidth), height / (OVERSAMPLING * (long) targetHeight)));
+        }
+        while (maxPixels > 0 && decodedPixels(width, height, step) > maxPixels) {
+            step++;
+        }
+        return step;
+    }
+
+    public static Dimension decodedSize(Dimension size, int targetWidth, int targetHeight, long maxPixels) {
+        int step = subsampling(size.width, size.height, targetWidth, targetHeight, maxPixels);
+        return new Dimension(ceilDiv(size.width, step), ceilDiv(size.height, step));
+    }
+
+    private static Dimension probe(Object input) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(input)) {
+            ImageReader reader = reader(in);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                reader.setInput(in, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage read(Object input, int targetWidth, int targetHeight, long maxPixels) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(input)) {
+            ImageReader reader = reader(in);
+            if (reader == null) {
+                throw new IOException("Cannot read image: invalid or corrupt image data");
+            }
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0) {
+                    throw new IOException("Cannot read image: invalid dimensions " + width + "x" + height);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = subsampling(width, height, targetWidth, targetHeight, maxPixels);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader reader(ImageInputStream in) {
+        if (in == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        return readers.hasNext() ? readers.next() : null;
+    }
+
+    private static long decodedPixels(int width, int height, int step) {
+        return (long) ceilDiv(width, step) * ceilDiv(height, step);
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,144 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.imgscalr.Scalr;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Resizes and encodes images for every service that stores them, so products, profile pictures, company logos and
+ * category images share one implementation.
+ * <p>
+ * The resize method is chosen per rendition: full-size images keep imgscalr's ULTRA_QUALITY, while thumbnails and
+ * responsive renditions use progressive bilinear scaling, which is several times faster and indistinguishable at
+ * those sizes. Output is buffered in memory instead of ImageIO's temporary cache files. Each call gets its own writer
+ * and disposes it afterwards, so no native encoder state outlives the image or stays pinned to a pool thread.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageProcessingEngine {
+
+    private final GroupConfig groupConfig;
+
+    public enum ResizeQuality {
+        /** Progressive scaling plus an anti-aliasing pass; for images shown at full size */
+        HIGH(Scalr.Method.ULTRA_QUALITY),
+        /** Progressive bilinear scaling; for thumbnails and renditions */
+        BALANCED(Scalr.Method.QUALITY),
+        /** A single bilinear step */
+        FAST(Scalr.Method.SPEED);
+
+        private final Scalr.Method method;
+
+        ResizeQuality(Scalr.Method method) {
+            this.method = method;
+        }
+    }
+
+    /**
+     * Scales the image to the target width for landscape images, or the target height otherwise, keeping the aspect
+     * ratio, and encodes it in the format of the extension (JPEG when forced or unknown).
+     */
+    public byte[] resize(BufferedImage image, String extension, boolean forceJpeg, int targetWidth, int targetHeight,
+                         ResizeQuality quality) throws IOException {
+        try {
+            double aspectRatio = (double) image.getWidth() / image.getHeight();
+            if (aspectRatio > 1) {
+                targetHeight = (int) (targetWidth / aspectRatio);
+            } else {
+                targetWidth = (int) (targetHeight * aspectRatio);
+            }
+            BufferedImage resized = Scalr.resize(image, quality.method, Scalr.Mode.FIT_EXACT, Math.max(1, targetWidth), Math.max(1, targetHeight));
+            log.debug("Resized image: width={}, height={}", resized.getWidth(), resized.getHeight());
+            return encode(resized, forceJpeg ? "jpg" : extension);
+        } catch (IOException e) {
+            log.error("Error resizing image: {}", e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            log.error("Error resizing image: {}", e.getMessage(), e);
+            throw new IOException("Failed to resize image: " + e.getMessage(), e);
+        }
+    }
+
+    public byte[] encode(BufferedImage image, String extension) throws IOException {
+        String formatName = formatName(extension);
+        BufferedImage output = formatName.equals("jpeg") ? toRgb(image) : image;
+        ImageWriter writer = writer(formatName);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(baos)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ((formatName.equals("jpeg") || formatName.equals("webp")) && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(groupConfig.imageQuality);
+            }
+            writer.write(null, new IIOImage(output, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        byte[] result = baos.toByteArray();
+        log.debug("Encoded image size: {} bytes, format: {}", result.length, formatName);
+        if (result.length == 0) {
+            log.error("Encoded image is empty for format {}", formatName);
+            throw new IOException("Resized image is empty");
+        }
+        return result;
+    }
+
+    private static ImageWriter writer(String formatName) throws IOException {
+        Iterator<ImageWriter> available = ImageIO.getImageWritersByFormatName(formatName);
+        if (!available.hasNext()) {
+            log.error("No writer available for format: {}", formatName);
+            throw new IOException("No writer available for format: " + formatName);
+        }
+        return available.next();
+    }
+
+    private static String formatName(String extension) {
+        String outputFormat = extension != null && !extension.isEmpty() ? extension.toLowerCase() : "jpg";
+        switch (outputFormat) {
+            case "jpg":
+            case "jpeg":
+                return "jpeg";
+            case "png":
+            case "gif":
+            case "bmp":
+            case "tiff":
+            case "wbmp":
+            case "webp":
+                return outputFormat;
+            default:
+                log.warn("Unsupported output format: {}, defaulting to jpeg", outputFormat);
+                return "jpeg";
+        }
+    }
+
+    // JPEG has no alpha channel; anything but plain RGB is drawn onto an RGB canvas first
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgbImage.createGraphics();
+        try {
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgbImage;
+    }
+}
@@ -0,0 +1,70 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JdbcSchemaUtils {
+
+    private JdbcSchemaUtils() {
+    }
+
+    // null when the column does not exist; metadata lookups are case sensitive on some databases
+    public static Boolean isNullable(JdbcTemplate jdbcTemplate, String table, String column) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+                try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, names[0], names[1])) {
+                    if (rs.next()) {
+                        return "YES".equalsIgnoreCase(rs.getString("IS_NULLABLE"));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    public static boolean hasIndex(JdbcTemplate jdbcTemplate, String table, String index) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, name, false, false)) {
+                    while (rs.next()) {
+                        if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    // Whether a unique index, whatever its generated name, covers exactly this one column
+    public static boolean hasUniqueIndex(JdbcTemplate jdbcTemplate, String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[]{table, table.toUpperCase()}) {
+                Map<String, List<String>> columns = new HashMap<>();
+                try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, name, true, false)) {
+                    while (rs.next()) {
+                        if (rs.getString("INDEX_NAME") != null && rs.getString("COLUMN_NAME") != null) {
+                            columns.computeIfAbsent(rs.getString("INDEX_NAME"), index -> new ArrayList<>())
+                                    .add(rs.getString("COLUMN_NAME"));
+                        }
+                    }
+                }
+                if (columns.values().stream().anyMatch(indexed -> indexed.size() == 1 && indexed.get(0).equalsIgnoreCase(column))) {
+                    return true;
+                }
+            }
+            return false;
+        }));
+    }
+}
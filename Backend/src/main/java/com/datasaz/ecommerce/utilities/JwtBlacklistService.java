@@ -1,19 +1,172 @@
 package com.datasaz.ecommerce.utilities;
 
+import com.datasaz.ecommerce.repositories.RevokedTokenRepository;
+import com.datasaz.ecommerce.repositories.entities.RevokedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Revoked access tokens, kept until they would have expired anyway.
+ * <p>
+ * Revocations are persisted and reloaded at startup, and pulled periodically from the database so a logout on one
+ * instance reaches the others. In memory they sit in a concurrent map keyed by the token's SHA-256, fronted by a
+ * {@link BloomFilter} over a cheap fingerprint of the token: almost every request carries a token that was never
+ * revoked, and for those the check is a few bit reads, without locking, hashing to SHA-256 or allocating.
+ */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class JwtBlacklistService {
-    private final Set<String> blacklist = new HashSet<>(); // Replace with Redis for production
 
+    // Revocations committed by another instance just before the previous sync may only become visible after it
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(5);
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${security.revocation.expected-tokens:100000}")
+    private long expectedTokens;
+
+    private final ConcurrentHashMap<String, Revocation> revoked = new ConcurrentHashMap<>();
+    // Inserts and rebuilds are serialized so a rebuild never drops a concurrent revocation; lookups never lock
+    private final Object writeLock = new Object();
+    private volatile BloomFilter bloomFilter;
+    private long bloomCapacity;
+    private Clock clock = Clock.systemDefaultZone();
+    private LocalDateTime lastSync;
+
+    @PostConstruct
+    void init() {
+        bloomCapacity = expectedTokens;
+        bloomFilter = new BloomFilter(bloomCapacity, BLOOM_FALSE_POSITIVE_RATE);
+        // Loaded before the application serves requests, so a restart never re-admits a revoked token
+        LocalDateTime now = LocalDateTime.now(clock);
+        revokedTokenRepository.findByExpiresAtAfter(now).forEach(this::remember);
+        lastSync = now;
+        log.info("Loaded {} revoked access tokens", revoked.size());
+    }
+
+    /**
+     * Revokes the token until its expiry. Tokens that are already expired or not validly signed are ignored, since
+     * they are refused anyway.
+     */
     public void blacklistToken(String token) {
-        blacklist.add(token);
+        Instant expiresAt;
+        try {
+            Claims claims = JwtUtil.extractClaims(token);
+            expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+        } catch (ExpiredJwtException e) {
+            log.debug("Token already expired, nothing to revoke");
+            return;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Refusing to revoke an invalid token: {}", e.getMessage());
+            return;
+        }
+        if (expiresAt == null) {
+            log.warn("Refusing to revoke a token without an expiry");
+            return;
+        }
+        String tokenHash = hash(token);
+        long fingerprint = BloomFilter.fingerprint(token);
+        if (!add(tokenHash, new Revocation(fingerprint, expiresAt.toEpochMilli()))) {
+            return;
+        }
+        if (!revokedTokenRepository.existsByTokenHash(tokenHash)) {
+            revokedTokenRepository.save(RevokedToken.builder()
+                    .tokenHash(tokenHash)
+                    .fingerprint(fingerprint)
+                    .expiresAt(LocalDateTime.ofInstant(expiresAt, clock.getZone()))
+                    .revokedAt(LocalDateTime.now(clock))
+                    .build());
+        }
+        log.info("Revoked access token until {}", expiresAt);
     }
 
     public boolean isBlacklisted(String token) {
-        return blacklist.contains(token);
+        if (!bloomFilter.mightContain(BloomFilter.fingerprint(token))) {
+            return false;
+        }
+        Revocation revocation = revoked.get(hash(token));
+        return revocation != null && revocation.expiresAtMillis() > clock.millis();
+    }
+
+    /**
+     * Pulls revocations made by other instances and forgets expired ones. The Bloom filter is rebuilt when entries
+     * were dropped or it holds more than it was sized for, so its false positive rate does not creep up over time.
+     * Expired rows are deleted by {@code TokenCleanupService}.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.sync-interval-ms:30000}",
+            initialDelayString = "${security.revocation.sync-interval-ms:30000}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        try {
+            List<RevokedToken> recent = revokedTokenRepository
+                    .findByRevokedAtAfterAndExpiresAtAfter(lastSync.minus(SYNC_OVERLAP), now);
+            recent.forEach(this::remember);
+            lastSync = now;
+        } catch (Exception e) {
+            log.error("Error syncing revoked access tokens: {}", e.getMessage());
+        }
+        long nowMillis = clock.millis();
+        boolean pruned = revoked.values().removeIf(revocation -> revocation.expiresAtMillis() <= nowMillis);
+        if (pruned || revoked.size() > bloomCapacity) {
+            rebuildBloomFilter();
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private void remember(RevokedToken row) {
+        add(row.getTokenHash(), new Revocation(row.getFingerprint(),
+                row.getExpiresAt().atZone(clock.getZone()).toInstant().toEpochMilli()));
+    }
+
+    // The map entry goes in before the filter bits, so a lookup that passes the filter always finds it
+    private boolean add(String tokenHash, Revocation revocation) {
+        synchronized (writeLock) {
+            if (revoked.putIfAbsent(tokenHash, revocation) != null) {
+                return false;
+            }
+            bloomFilter.put(revocation.fingerprint());
+            return true;
+        }
+    }
+
+    private void rebuildBloomFilter() {
+        synchronized (writeLock) {
+            bloomCapacity = Math.max(expectedTokens, 2L * revoked.size());
+            BloomFilter rebuilt = new BloomFilter(bloomCapacity, BLOOM_FALSE_POSITIVE_RATE);
+            revoked.values().forEach(revocation -> rebuilt.put(revocation.fingerprint()));
+            bloomFilter = rebuilt;
+        }
+        log.info("Rebuilt revoked token filter for {} entries", revoked.size());
+    }
+
+    private static String hash(String token) {
+        return ContentHashUtils.sha256Hex(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Revocation(long fingerprint, long expiresAtMillis) {
     }
 }
@@ -0,0 +1,111 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Verifies an access token once and remembers the result until the token expires, so a client sending the same
+ * bearer token on every request pays for the signature check and the JSON parsing only on the first one.
+ * <p>
+ * Entries are keyed by the SHA-256 of the token rather than the token itself, which keeps usable credentials out of
+ * the heap. Blacklisting is checked by the caller before verification, so it is never bypassed by a cached entry.
+ */
+@Slf4j
+@Component
+public class JwtTokenVerifier {
+
+    @Value("${jwt.verified-cache-size:10000}")
+    private long maxEntries;
+
+    private Clock clock = Clock.systemUTC();
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verified;
+
+    @PostConstruct
+    void init() {
+        parser = JwtUtil.parser(() -> Date.from(clock.instant()));
+        verified = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        return lifetime(token).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return lifetime(token).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * The token's claims; throws a {@link io.jsonwebtoken.JwtException} if it is malformed, badly signed or expired.
+     */
+    public VerifiedToken verify(String token) {
+        String key = ContentHashUtils.sha256Hex(token.getBytes(StandardCharsets.UTF_8));
+        VerifiedToken cached = verified.getIfPresent(key);
+        if (cached != null) {
+            // Cache expiry is not exact to the millisecond; the token's own is
+            if (!cached.isExpired(clock.instant())) {
+                return cached;
+            }
+            verified.invalidate(key);
+        }
+        VerifiedToken parsed = parse(token);
+        if (parsed.expiresAt() != null) {
+            verified.put(key, parsed);
+        }
+        return parsed;
+    }
+
+    public long size() {
+        return verified.estimatedSize();
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @SuppressWarnings("unchecked")
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        VerifiedToken parsed = new VerifiedToken(claims.getSubject(), claims.get("roles", List.class),
+                toInstant(claims.getIssuedAt()), toInstant(claims.getExpiration()));
+        if (parsed.isExpired(clock.instant())) {
+            // The parser still accepts a token at its exact expiry instant; a cache hit would not
+            throw new ExpiredJwtException(null, claims, "JWT expired at " + parsed.expiresAt());
+        }
+        return parsed;
+    }
+
+    private Duration lifetime(VerifiedToken token) {
+        Duration remaining = Duration.between(clock.instant(), token.expiresAt());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
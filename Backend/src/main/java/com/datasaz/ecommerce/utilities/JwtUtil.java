@@ -2,6 +2,8 @@ package com.datasaz.ecommerce.utilities;
 
 import com.datasaz.ecommerce.configs.GroupConfig;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Clock;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.GrantedAuthority;
@@ -14,6 +16,7 @@ import java.time.ZoneId;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
@@ -26,6 +29,9 @@ public class JwtUtil {
 
     private static final SecretKey KEY = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
 
+    // Parsers are immutable and thread-safe; building one per call re-derives the signing setup every time
+    private static final JwtParser PARSER = Jwts.parserBuilder().setSigningKey(KEY).build();
+
     public static String generateToken(String username, Collection<? extends GrantedAuthority> authorities) {
         List<String> roles = authorities.stream()
                 .map(GrantedAuthority::getAuthority)
@@ -42,6 +48,8 @@ public class JwtUtil {
 
     public static String generateRefreshToken(String username) {
         return Jwts.builder()
+                // Unique id, so two refresh tokens issued in the same second never hash alike
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + REFRESH_EXPIRATION_TIME))
@@ -49,12 +57,22 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * The key a stored token is looked up by: its SHA-256, so the database never holds a usable token.
+     */
+    public static String tokenHash(String token) {
+        return ContentHashUtils.sha256Hex(token.getBytes(StandardCharsets.UTF_8));
+    }
+
     public static Claims extractClaims(String token) {
+        return PARSER.parseClaimsJws(token).getBody();
+    }
+
+    static JwtParser parser(Clock clock) {
         return Jwts.parserBuilder()
                 .setSigningKey(KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+                .setClock(clock)
+                .build();
     }
 
     public static String extractUsername(String token) {
@@ -0,0 +1,50 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset (seek) page: its id, plus its timestamp for listings ordered by time.
+ * Handed to clients as an opaque URL-safe token; the next page continues strictly after this row, so deep pages cost
+ * the same as the first one and concurrent inserts do not shift or repeat rows.
+ */
+public record KeysetCursor(LocalDateTime timestamp, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static KeysetCursor of(Long id) {
+        return new KeysetCursor(null, id);
+    }
+
+    public static KeysetCursor of(LocalDateTime timestamp, Long id) {
+        return new KeysetCursor(timestamp, id);
+    }
+
+    public String encode() {
+        String payload = timestamp != null ? timestamp.toString() + SEPARATOR + id : id.toString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The cursor carried by the token, or null for a missing token (first page).
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = payload.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Long.parseLong(payload));
+            }
+            return of(LocalDateTime.parse(payload.substring(0, separator)), Long.parseLong(payload.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw BadRequestException.builder().message("Invalid cursor: " + token).build();
+        }
+    }
+}
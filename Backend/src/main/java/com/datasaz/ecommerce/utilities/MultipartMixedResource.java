@@ -0,0 +1,164 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A multipart/mixed body (RFC 2046) assembled from other resources, so several binary payloads travel in one
+ * response without Base64 encoding. Parts are opened one after another while the body is written and each is copied
+ * with its own {@link InputStream#transferTo}; only part headers are held in memory. The total length is computed up
+ * front from the parts' own lengths.
+ */
+public class MultipartMixedResource extends AbstractResource {
+
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final String boundary;
+    private final List<Part> parts;
+
+    public MultipartMixedResource(List<Part> parts) {
+        this(UUID.randomUUID().toString().replace("-", ""), parts);
+    }
+
+    public MultipartMixedResource(String boundary, List<Part> parts) {
+        this.boundary = boundary;
+        this.parts = List.copyOf(parts);
+    }
+
+    public MediaType getMediaType() {
+        return new MediaType("multipart", "mixed", Map.of("boundary", boundary));
+    }
+
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    @Override
+    public String getDescription() {
+        return "multipart/mixed body of " + parts.size() + " parts";
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        long length = closing().length;
+        for (Part part : parts) {
+            length += head(part).length + part.body().contentLength() + CRLF.length;
+        }
+        return length;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new PartsInputStream();
+    }
+
+    // Delimiter and headers; Content-Length lets a client slice the body without scanning for the boundary
+    private byte[] head(Part part) throws IOException {
+        StringBuilder head = new StringBuilder("--").append(boundary).append("\r\n")
+                .append("Content-Type: ").append(part.contentType()).append("\r\n")
+                .append("Content-Length: ").append(part.body().contentLength()).append("\r\n");
+        part.headers().forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+        return head.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private byte[] closing() {
+        return ("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * One body part; header values must be plain ASCII.
+     */
+    public record Part(String contentType, Map<String, String> headers, Resource body) {
+        public Part {
+            headers = new LinkedHashMap<>(headers);
+        }
+    }
+
+    private final class PartsInputStream extends InputStream {
+        private int next;
+        private InputStream current;
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (current != null || advance()) {
+                int read = current.read(buffer, offset, length);
+                if (read > 0) {
+                    return read;
+                }
+                closeCurrent();
+            }
+            return -1;
+        }
+
+        // Written segment by segment so cached or channel-backed part bodies keep their own fast copy
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            long transferred = 0;
+            while (current != null || advance()) {
+                transferred += current.transferTo(out);
+                closeCurrent();
+            }
+            return transferred;
+        }
+
+        @Override
+        public void close() throws IOException {
+            done = true;
+            closeCurrent();
+        }
+
+        // Segments alternate: part head, part body, CRLF; then the closing delimiter
+        private boolean advance() throws IOException {
+            if (done) {
+                return false;
+            }
+            int part = next / 3;
+            if (part == parts.size()) {
+                current = new ByteArrayInputStream(closing());
+                done = true;
+            } else {
+                current = switch (next % 3) {
+                    case 0 -> new ByteArrayInputStream(head(parts.get(part)));
+                    case 1 -> parts.get(part).body().getInputStream();
+                    default -> new ByteArrayInputStream(CRLF);
+                };
+                next++;
+            }
+            return true;
+        }
+
+        private void closeCurrent() throws IOException {
+            if (current != null) {
+                InputStream closing = current;
+                current = null;
+                closing.close();
+            }
+        }
+    }
+}
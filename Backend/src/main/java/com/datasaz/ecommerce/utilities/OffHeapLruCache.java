@@ -0,0 +1,414 @@
+package com.datasaz.ecommerce.utilities;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded LRU cache of byte payloads kept outside the Java heap, so hot images do not pile up in the old
+ * generation.
+ * <p>
+ * Memory is carved into fixed-size blocks from direct {@link ByteBuffer} slabs, allocated on demand up to the
+ * capacity; an entry is a list of blocks. Entries are reference counted: an evicted entry that is still being read
+ * keeps its blocks until the last reader closes its stream, so a slow client never sees them reused; eviction passes
+ * over entries being read and gives up without evicting anything when the rest cannot make room. Payloads are
+ * copied into the blocks straight from their source stream and written out block by block, without a heap array
+ * per entry.
+ */
+@Slf4j
+public class OffHeapLruCache {
+
+    private static final int SLAB_BYTES = 4 * 1024 * 1024;
+
+    private final int blockSize;
+    private final long maxEntryBytes;
+    private final int totalBlocks;
+    private final int blocksPerSlab;
+    private final AtomicReferenceArray<ByteBuffer> slabs;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int[] freeBlocks;
+    private int freeCount;
+    private int nextUnusedBlock;
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public OffHeapLruCache(long capacityBytes, int blockSize, long maxEntryBytes) {
+        if (blockSize <= 0 || capacityBytes < blockSize) {
+            throw new IllegalArgumentException("Capacity must hold at least one block of " + blockSize + " bytes");
+        }
+        this.blockSize = blockSize;
+        this.totalBlocks = (int) Math.min(Integer.MAX_VALUE, capacityBytes / blockSize);
+        this.maxEntryBytes = Math.min(maxEntryBytes, (long) totalBlocks * blockSize);
+        this.blocksPerSlab = Math.max(1, SLAB_BYTES / blockSize);
+        this.slabs = new AtomicReferenceArray<>((totalBlocks + blocksPerSlab - 1) / blocksPerSlab);
+        this.freeBlocks = new int[totalBlocks];
+    }
+
+    /**
+     * A resource that serves {@code source} from the cache, copying it in on first use. Nothing is read until the
+     * resource is opened; payloads too large to cache are streamed from the source as is.
+     */
+    public Resource cached(String key, Resource source) {
+        return new CachedResource(key, source);
+    }
+
+    /**
+     * Opens the cached payload, marking it as recently used; empty if it is not cached.
+     */
+    public Optional<InputStream> open(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null) {
+                entry.retain();
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(new EntryInputStream(entry));
+    }
+
+    /**
+     * Copies {@code length} bytes from the stream into the cache under the key, replacing any previous entry and
+     * evicting the least recently used ones to make room. Returns false if the payload is too large to cache.
+     */
+    public boolean put(String key, InputStream content, long length) throws IOException {
+        Entry entry = insert(key, content, length);
+        if (entry == null) {
+            return false;
+        }
+        entry.release();
+        return true;
+    }
+
+    public boolean put(String key, byte[] content) throws IOException {
+        return put(key, new ByteArrayInputStream(content), content.length);
+    }
+
+    public synchronized void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            usedBytes -= entry.length;
+            entry.release();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getCapacityBytes() {
+        return (long) totalBlocks * blockSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // Returns the new entry retained once for the caller, or null if it does not fit
+    private Entry insert(String key, InputStream content, long length) throws IOException {
+        if (length < 0 || length > maxEntryBytes) {
+            return null;
+        }
+        int[] blocks = reserve((int) ((length + blockSize - 1) / blockSize));
+        if (blocks == null) {
+            return null;
+        }
+        Entry entry = new Entry(blocks, (int) length);
+        boolean filled = false;
+        try {
+            fill(entry, content);
+            filled = true;
+        } finally {
+            if (!filled) {
+                entry.release();
+            }
+        }
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            usedBytes += entry.length;
+            if (previous != null) {
+                usedBytes -= previous.length;
+                previous.release();
+            }
+            entry.retain();
+        }
+        puts.increment();
+        return entry;
+    }
+
+    // Blocks are taken under the lock but filled outside it, so a slow source never blocks other requests.
+    // Only entries nobody is reading give their blocks back when evicted, so the victims are picked first and
+    // nothing is evicted unless they free enough room; entries pinned by readers stay cached.
+    private synchronized int[] reserve(int count) {
+        List<Map.Entry<String, Entry>> victims = new ArrayList<>();
+        int reclaimable = available();
+        for (Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+             reclaimable < count && eldest.hasNext(); ) {
+            Map.Entry<String, Entry> candidate = eldest.next();
+            if (!candidate.getValue().isPinned()) {
+                victims.add(candidate);
+                reclaimable += candidate.getValue().blocks.length;
+            }
+        }
+        if (reclaimable < count) {
+            return null;
+        }
+        for (Map.Entry<String, Entry> victim : victims) {
+            Entry evicted = entries.remove(victim.getKey());
+            usedBytes -= evicted.length;
+            evictions.increment();
+            evicted.release();
+        }
+        int[] blocks = new int[count];
+        for (int i = 0; i < count; i++) {
+            blocks[i] = freeCount > 0 ? freeBlocks[--freeCount] : nextUnusedBlock++;
+        }
+        return blocks;
+    }
+
+    private int available() {
+        return freeCount + (totalBlocks - nextUnusedBlock);
+    }
+
+    private synchronized void free(int[] blocks) {
+        for (int block : blocks) {
+            freeBlocks[freeCount++] = block;
+        }
+    }
+
+    private void fill(Entry entry, InputStream content) throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(content);
+        int remaining = entry.length;
+        for (int block : entry.blocks) {
+            ByteBuffer target = block(block, Math.min(blockSize, remaining));
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    throw new IOException("Stream ended " + (remaining - target.position()) + " bytes before the expected length");
+                }
+            }
+            remaining -= target.capacity();
+        }
+    }
+
+    // A view of one block; slices are independent, so concurrent readers never share a position
+    private ByteBuffer block(int block, int length) {
+        int slab = block / blocksPerSlab;
+        ByteBuffer buffer = slabs.get(slab);
+        if (buffer == null) {
+            synchronized (this) {
+                buffer = slabs.get(slab);
+                if (buffer == null) {
+                    int blocksInSlab = Math.min(blocksPerSlab, totalBlocks - slab * blocksPerSlab);
+                    buffer = ByteBuffer.allocateDirect(blocksInSlab * blockSize);
+                    slabs.set(slab, buffer);
+                    log.debug("Allocated off-heap slab {} of {} bytes", slab, blocksInSlab * blockSize);
+                }
+            }
+        }
+        return buffer.slice((block % blocksPerSlab) * blockSize, length);
+    }
+
+    private final class Entry {
+        private final int[] blocks;
+        private final int length;
+        // One reference for the cache itself plus one per open reader
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Entry(int[] blocks, int length) {
+            this.blocks = blocks;
+            this.length = length;
+        }
+
+        private void retain() {
+            references.incrementAndGet();
+        }
+
+        // Readers only retain under the cache lock, so an entry seen unpinned there stays unpinned until it is evicted
+        private boolean isPinned() {
+            return references.get() > 1;
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                free(blocks);
+            }
+        }
+    }
+
+    private final class EntryInputStream extends InputStream {
+        private final Entry entry;
+        private int position;
+        private boolean closed;
+
+        private EntryInputStream(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkOpen();
+            if (position >= entry.length) {
+                return -1;
+            }
+            byte value = block(entry.blocks[position / blockSize], blockSize).get(position % blockSize);
+            position++;
+            return value & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            checkOpen();
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= entry.length) {
+                return -1;
+            }
+            int read = 0;
+            while (read < length && position < entry.length) {
+                int inBlock = position % blockSize;
+                int count = Math.min(length - read, Math.min(blockSize - inBlock, entry.length - position));
+                block(entry.blocks[position / blockSize], blockSize).get(inBlock, buffer, offset + read, count);
+                position += count;
+                read += count;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            checkOpen();
+            long skipped = Math.max(0, Math.min(count, entry.length - position));
+            position += (int) skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return closed ? 0 : entry.length - position;
+        }
+
+        // Used by Spring when copying a body to the response: whole blocks go to the output channel
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            checkOpen();
+            WritableByteChannel channel = out instanceof WritableByteChannel writable ? writable : Channels.newChannel(out);
+            long transferred = 0;
+            while (position < entry.length) {
+                int inBlock = position % blockSize;
+                int count = Math.min(blockSize - inBlock, entry.length - position);
+                ByteBuffer source = block(entry.blocks[position / blockSize], blockSize).slice(inBlock, count);
+                while (source.hasRemaining()) {
+                    channel.write(source);
+                }
+                position += count;
+                transferred += count;
+            }
+            return transferred;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                entry.release();
+            }
+        }
+
+        private void checkOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+        }
+    }
+
+    private final class CachedResource extends AbstractResource {
+        private final String key;
+        private final Resource source;
+
+        private CachedResource(String key, Resource source) {
+            this.key = key;
+            this.source = source;
+        }
+
+        @Override
+        public String getDescription() {
+            return "off-heap cache [" + key + "] of " + source.getDescription();
+        }
+
+        @Override
+        public boolean exists() {
+            return source.exists();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return source.contentLength();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            Optional<InputStream> cached = open(key);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+            long length = source.contentLength();
+            if (length > maxEntryBytes) {
+                return source.getInputStream();
+            }
+            Entry entry;
+            try (InputStream in = source.getInputStream()) {
+                entry = insert(key, in, length);
+            }
+            return entry != null ? new EntryInputStream(entry) : source.getInputStream();
+        }
+    }
+
+    // Used by tests to check that no blocks leak
+    synchronized int freeBlockCount() {
+        return available();
+    }
+}
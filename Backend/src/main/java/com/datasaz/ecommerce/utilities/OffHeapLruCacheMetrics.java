@@ -0,0 +1,61 @@
+package com.datasaz.ecommerce.utilities;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes an {@link OffHeapLruCache} under the standard cache.* meters (gets by result, puts, evictions, size),
+ * plus the off-heap bytes in use and reserved.
+ */
+public class OffHeapLruCacheMetrics extends CacheMeterBinder<OffHeapLruCache> {
+
+    public OffHeapLruCacheMetrics(OffHeapLruCache cache, String cacheName) {
+        super(cache, cacheName, Tags.empty());
+    }
+
+    @Override
+    protected Long size() {
+        OffHeapLruCache cache = getCache();
+        return cache != null ? (long) cache.size() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        OffHeapLruCache cache = getCache();
+        return cache != null ? cache.getHitCount() : 0;
+    }
+
+    @Override
+    protected Long missCount() {
+        OffHeapLruCache cache = getCache();
+        return cache != null ? cache.getMissCount() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        OffHeapLruCache cache = getCache();
+        return cache != null ? cache.getEvictionCount() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        OffHeapLruCache cache = getCache();
+        return cache != null ? cache.getPutCount() : 0;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.off-heap.used", getCache(), OffHeapLruCache::getUsedBytes)
+                .tags(getTagsWithCacheName())
+                .baseUnit("bytes")
+                .description("Bytes of cached payloads held off-heap")
+                .register(registry);
+        Gauge.builder("cache.off-heap.capacity", getCache(), OffHeapLruCache::getCapacityBytes)
+                .tags(getTagsWithCacheName())
+                .baseUnit("bytes")
+                .description("Off-heap bytes the cache may use")
+                .register(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Builds page requests from client supplied paging parameters, reporting invalid values as a 400 instead of letting
+ * {@link PageRequest#of(int, int)} fail with an IllegalArgumentException (500). Page sizes are capped at
+ * {@link #MAX_PAGE_SIZE} so a single request cannot pull an unbounded slice of a table.
+ */
+public final class PageRequests {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private PageRequests() {
+    }
+
+    public static PageRequest of(int page, int size) {
+        return of(page, size, Sort.unsorted());
+    }
+
+    public static PageRequest of(int page, int size, Sort sort) {
+        if (page < 0) {
+            throw BadRequestException.builder().message("Page number cannot be negative: " + page).build();
+        }
+        if (size < 1) {
+            throw BadRequestException.builder().message("Page size must be at least 1: " + size).build();
+        }
+        if (size > MAX_PAGE_SIZE) {
+            throw BadRequestException.builder()
+                    .message("Page size cannot exceed " + MAX_PAGE_SIZE + ": " + size).build();
+        }
+        return PageRequest.of(page, size, sort);
+    }
+
+    // Keyset listings always read the first page after the cursor
+    public static PageRequest first(int size) {
+        return of(0, size);
+    }
+}
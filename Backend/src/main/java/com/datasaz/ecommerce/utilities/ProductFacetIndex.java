@@ -0,0 +1,190 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index: one compressed (Roaring) bitmap of product IDs per facet value.
+ * <p>
+ * A filter is answered by OR-ing the bitmaps of the selected values of each facet and AND-ing the facets together.
+ * Facet counts are computed per facet against the other facets' filters only, so that selecting a brand still shows
+ * the counts of the other brands. The value of every product is kept in one int column per facet so that an update
+ * only touches the bitmaps of its old and new values. Product IDs are used directly as bitmap entries, which keeps
+ * results ordered by ID; they must fit in an int.
+ */
+public class ProductFacetIndex {
+
+    public enum Facet {
+        CATEGORY("category"),
+        BRAND("brand"),
+        CONDITION("condition"),
+        SELL_TYPE("sellType"),
+        AVAILABILITY("availability"),
+        PRICE("price");
+
+        private final String key;
+
+        Facet(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * One page of matching product IDs (newest first), the total number of matches and the value counts per facet.
+     */
+    public record Result(long total, List<Long> productIds, Map<Facet, Map<String, Integer>> counts) {
+    }
+
+    private static final class Column {
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<RoaringBitmap> bitmaps = new ArrayList<>();
+        // ordinal + 1 of the value held by each product ID, 0 when the product has no value for this facet
+        private int[] valueByProduct = new int[1024];
+
+        private int ordinal(String value) {
+            return ordinals.computeIfAbsent(value, v -> {
+                values.add(v);
+                bitmaps.add(new RoaringBitmap());
+                return values.size() - 1;
+            });
+        }
+
+        private void set(int productId, String value) {
+            if (productId >= valueByProduct.length) {
+                valueByProduct = Arrays.copyOf(valueByProduct, Math.max(valueByProduct.length * 2, productId + 1));
+            }
+            clear(productId);
+            if (value != null) {
+                int ordinal = ordinal(value);
+                bitmaps.get(ordinal).add(productId);
+                valueByProduct[productId] = ordinal + 1;
+            }
+        }
+
+        private void clear(int productId) {
+            if (productId < valueByProduct.length && valueByProduct[productId] != 0) {
+                bitmaps.get(valueByProduct[productId] - 1).remove(productId);
+                valueByProduct[productId] = 0;
+            }
+        }
+
+        // Union of the bitmaps of the selected values; values never seen match nothing
+        private RoaringBitmap select(Set<String> selected) {
+            RoaringBitmap union = new RoaringBitmap();
+            for (String value : selected) {
+                Integer ordinal = ordinals.get(value);
+                if (ordinal != null) {
+                    union.or(bitmaps.get(ordinal));
+                }
+            }
+            return union;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Facet, Column> columns = new EnumMap<>(Facet.class);
+    private final RoaringBitmap products = new RoaringBitmap();
+
+    public ProductFacetIndex() {
+        for (Facet facet : Facet.values()) {
+            columns.put(facet, new Column());
+        }
+    }
+
+    public void upsert(long productId, Map<Facet, String> values) {
+        int id = Math.toIntExact(productId);
+        lock.writeLock().lock();
+        try {
+            for (Facet facet : Facet.values()) {
+                columns.get(facet).set(id, values.get(facet));
+            }
+            products.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        int id = Math.toIntExact(productId);
+        lock.writeLock().lock();
+        try {
+            columns.values().forEach(column -> column.clear(id));
+            products.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return products.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filters with the selected values per facet (any value of a facet, all facets) and returns the products ranked
+     * {@code offset} to {@code offset + limit}, newest first. Facets absent from {@code selections} are not filtered.
+     */
+    public Result query(Map<Facet, Set<String>> selections, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Facet, RoaringBitmap> filters = new EnumMap<>(Facet.class);
+            selections.forEach((facet, selected) -> {
+                if (selected != null && !selected.isEmpty()) {
+                    filters.put(facet, columns.get(facet).select(selected));
+                }
+            });
+
+            RoaringBitmap matches = intersect(filters, null);
+            int total = matches.getCardinality();
+            List<Long> page = new ArrayList<>();
+            for (long rank = Math.max(offset, 0); rank < total && page.size() < limit; rank++) {
+                page.add((long) matches.select((int) (total - 1 - rank)));
+            }
+
+            Map<Facet, Map<String, Integer>> counts = new EnumMap<>(Facet.class);
+            for (Facet facet : Facet.values()) {
+                RoaringBitmap base = filters.containsKey(facet) ? intersect(filters, facet) : matches;
+                counts.put(facet, count(columns.get(facet), base));
+            }
+            return new Result(total, page, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap intersect(Map<Facet, RoaringBitmap> filters, Facet excluded) {
+        RoaringBitmap result = products.clone();
+        filters.forEach((facet, filter) -> {
+            if (facet != excluded) {
+                result.and(filter);
+            }
+        });
+        return result;
+    }
+
+    // Non-zero counts, most frequent first
+    private static Map<String, Integer> count(Column column, RoaringBitmap base) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (int ordinal = 0; ordinal < column.values.size(); ordinal++) {
+            int count = RoaringBitmap.andCardinality(base, column.bitmaps.get(ordinal));
+            if (count > 0) {
+                entries.add(Map.entry(column.values.get(ordinal), count));
+            }
+        }
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        entries.forEach(entry -> counts.put(entry.getKey(), entry.getValue()));
+        return counts;
+    }
+}
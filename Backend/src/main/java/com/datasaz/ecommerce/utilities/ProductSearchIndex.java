@@ -0,0 +1,365 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.models.dto.ProductSearchDocument;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product text, ranked with BM25.
+ * <p>
+ * Each term maps to a posting list of internal document numbers and field-weighted term frequencies held in
+ * primitive int arrays, so a query only touches the postings of its own terms whatever the catalog size.
+ * Updates are incremental: a changed product is tombstoned and re-added under a new document number, and the
+ * postings are compacted once tombstones exceed a quarter of the documents. As in Lucene, document frequencies
+ * include tombstoned documents until the next compaction.
+ * <p>
+ * Like the SQL {@code LIKE '%term%'} search it replaced, a query term of at least three characters also matches
+ * indexed terms containing it ("phon" finds "iPhone"); those partial matches score at a discount, so whole-word
+ * matches rank first. Shorter query terms only match whole words. Partial matches are found through a trigram
+ * index over the vocabulary: only the indexed terms sharing the query term's rarest trigram are checked.
+ */
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 3;
+    private static final int EAN_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int KEYWORDS_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_DELETED_FOR_COMPACTION = 1024;
+    private static final int MIN_PARTIAL_TERM_LENGTH = 3;
+    private static final int GRAM_LENGTH = 3;
+    private static final float PARTIAL_MATCH_BOOST = 0.5f;
+
+    public record Hits(long total, List<Long> productIds) {
+        public static final Hits EMPTY = new Hits(0, List.of());
+    }
+
+    private record TermMatch(Postings postings, float boost) {
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[2];
+        private int[] freqs = new int[2];
+        private int size;
+
+        private void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+    private final BitSet deletedDocs = new BitSet();
+    private long[] productIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private int maxDoc;
+    private int deletedCount;
+    private long totalLength;
+
+    public void upsert(ProductSearchDocument document) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        addField(termFreqs, document.getName(), NAME_WEIGHT);
+        addField(termFreqs, document.getEan(), EAN_WEIGHT);
+        addField(termFreqs, document.getBrand(), BRAND_WEIGHT);
+        addField(termFreqs, document.getKeywords(), KEYWORDS_WEIGHT);
+        addField(termFreqs, document.getDescription(), DESCRIPTION_WEIGHT);
+        int length = termFreqs.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            delete(document.getId());
+            maybeCompact();
+            if (termFreqs.isEmpty()) {
+                return;
+            }
+            int doc = maxDoc++;
+            if (doc == productIds.length) {
+                productIds = Arrays.copyOf(productIds, doc * 2);
+                docLengths = Arrays.copyOf(docLengths, doc * 2);
+            }
+            productIds[doc] = document.getId();
+            docLengths[doc] = length;
+            totalLength += length;
+            docByProductId.put(document.getId(), doc);
+            termFreqs.forEach((term, freq) -> postings.computeIfAbsent(term, this::newTerm).add(doc, freq));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            delete(productId);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return maxDoc - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the product IDs ranked {@code offset} to {@code offset + limit} and the total number of matching products.
+     * A product matches when it contains at least one query term, whole or as part of a word; products matching
+     * more terms rank higher.
+     */
+    public Hits search(String query, int offset, int limit) {
+        List<String> terms = SearchTokenizer.tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty() || limit <= 0) {
+            return Hits.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            int liveDocs = maxDoc - deletedCount;
+            if (liveDocs == 0) {
+                return Hits.EMPTY;
+            }
+            List<TermMatch> matched = new ArrayList<>(terms.size());
+            int candidates = 0;
+            for (String term : terms) {
+                for (TermMatch match : match(term)) {
+                    matched.add(match);
+                    candidates += match.postings().size;
+                }
+            }
+            if (matched.isEmpty()) {
+                return Hits.EMPTY;
+            }
+
+            float averageLength = (float) totalLength / liveDocs;
+            ScoreAccumulator scores = new ScoreAccumulator(candidates);
+            for (TermMatch match : matched) {
+                Postings termPostings = match.postings();
+                float idf = match.boost() * idf(Math.min(termPostings.size, liveDocs), liveDocs);
+                for (int i = 0; i < termPostings.size; i++) {
+                    int doc = termPostings.docs[i];
+                    if (deletedDocs.get(doc)) {
+                        continue;
+                    }
+                    int tf = termPostings.freqs[i];
+                    float norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+                    scores.add(doc, idf * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+            return new Hits(scores.size(), topProductIds(scores, offset, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The exact term plus, for long enough query terms, every indexed term containing it
+    private List<TermMatch> match(String term) {
+        List<TermMatch> matches = new ArrayList<>();
+        Postings exact = postings.get(term);
+        if (exact != null) {
+            matches.add(new TermMatch(exact, 1f));
+        }
+        if (term.length() >= MIN_PARTIAL_TERM_LENGTH) {
+            for (String indexedTerm : partialCandidates(term)) {
+                if (indexedTerm.length() > term.length() && indexedTerm.contains(term)) {
+                    matches.add(new TermMatch(postings.get(indexedTerm), PARTIAL_MATCH_BOOST));
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Every indexed term containing the query term also contains each of its trigrams, so the terms under its rarest
+    // trigram are a superset of the partial matches
+    Set<String> partialCandidates(String term) {
+        Set<String> candidates = Set.of();
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            Set<String> terms = termsByGram.get(term.substring(i, i + GRAM_LENGTH));
+            if (terms == null) {
+                return Set.of();
+            }
+            if (i == 0 || terms.size() < candidates.size()) {
+                candidates = terms;
+            }
+        }
+        return candidates;
+    }
+
+    private Postings newTerm(String term) {
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            termsByGram.computeIfAbsent(term.substring(i, i + GRAM_LENGTH), gram -> new HashSet<>()).add(term);
+        }
+        return new Postings();
+    }
+
+    private void dropTerm(String term) {
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            String gram = term.substring(i, i + GRAM_LENGTH);
+            Set<String> terms = termsByGram.get(gram);
+            if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                termsByGram.remove(gram);
+            }
+        }
+    }
+
+    private List<Long> topProductIds(ScoreAccumulator scores, int offset, int limit) {
+        int k = (int) Math.min((long) offset + limit, scores.size());
+        if (k <= offset) {
+            return List.of();
+        }
+        // Min-heap of the best k slots: lowest score first, ties broken in favour of the earlier indexed document
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k, (a, b) -> {
+            int byScore = Float.compare(scores.score(a), scores.score(b));
+            return byScore != 0 ? byScore : Integer.compare(scores.doc(b), scores.doc(a));
+        });
+        for (int slot = scores.firstSlot(); slot >= 0; slot = scores.nextSlot(slot)) {
+            heap.offer(slot);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        long[] ranked = new long[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = productIds[scores.doc(heap.poll())];
+        }
+        List<Long> page = new ArrayList<>(ranked.length - offset);
+        for (int i = offset; i < ranked.length; i++) {
+            page.add(ranked[i]);
+        }
+        return page;
+    }
+
+    private static float idf(int docFreq, int docCount) {
+        return (float) Math.log(1 + (docCount - docFreq + 0.5) / (docFreq + 0.5));
+    }
+
+    private static void addField(Map<String, Integer> termFreqs, String text, int weight) {
+        for (String term : SearchTokenizer.tokenize(text)) {
+            termFreqs.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private void delete(Long productId) {
+        Integer doc = docByProductId.remove(productId);
+        if (doc != null) {
+            deletedDocs.set(doc);
+            deletedCount++;
+            totalLength -= docLengths[doc];
+        }
+    }
+
+    private void maybeCompact() {
+        if (deletedCount >= MIN_DELETED_FOR_COMPACTION && deletedCount * 4 > maxDoc) {
+            compact();
+        }
+    }
+
+    // Drops tombstoned documents from every posting list and renumbers the live ones densely
+    private void compact() {
+        int[] remap = new int[maxDoc];
+        int live = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (deletedDocs.get(doc)) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = live;
+                productIds[live] = productIds[doc];
+                docLengths[live] = docLengths[doc];
+                live++;
+            }
+        }
+        Iterator<Map.Entry<String, Postings>> iterator = postings.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Postings> entry = iterator.next();
+            Postings termPostings = entry.getValue();
+            int size = 0;
+            for (int i = 0; i < termPostings.size; i++) {
+                int doc = remap[termPostings.docs[i]];
+                if (doc >= 0) {
+                    termPostings.docs[size] = doc;
+                    termPostings.freqs[size] = termPostings.freqs[i];
+                    size++;
+                }
+            }
+            termPostings.size = size;
+            if (size == 0) {
+                iterator.remove();
+                dropTerm(entry.getKey());
+            }
+        }
+        docByProductId.replaceAll((productId, doc) -> remap[doc]);
+        deletedDocs.clear();
+        deletedCount = 0;
+        maxDoc = live;
+    }
+
+    /**
+     * Open-addressing map from document number to accumulated score, sized from the candidate postings.
+     */
+    private static final class ScoreAccumulator {
+        private final int[] docs;
+        private final float[] scores;
+        private final int mask;
+        private int size;
+
+        private ScoreAccumulator(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            docs = new int[capacity];
+            Arrays.fill(docs, -1);
+            scores = new float[capacity];
+            mask = capacity - 1;
+        }
+
+        private void add(int doc, float score) {
+            int slot = (doc * 0x9E3779B9) & mask;
+            while (docs[slot] != -1 && docs[slot] != doc) {
+                slot = (slot + 1) & mask;
+            }
+            if (docs[slot] == -1) {
+                docs[slot] = doc;
+                size++;
+            }
+            scores[slot] += score;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int doc(int slot) {
+            return docs[slot];
+        }
+
+        private float score(int slot) {
+            return scores[slot];
+        }
+
+        private int firstSlot() {
+            return nextSlot(-1);
+        }
+
+        private int nextSlot(int slot) {
+            for (int next = slot + 1; next < docs.length; next++) {
+                if (docs[next] != -1) {
+                    return next;
+                }
+            }
+            return -1;
+        }
+    }
+}
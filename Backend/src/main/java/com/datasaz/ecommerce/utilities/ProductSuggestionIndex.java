@@ -0,0 +1,272 @@
+package com.datasaz.ecommerce.utilities;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory typeahead index over product names, brands and category names, ranked by popularity.
+ * <p>
+ * Every suggestion is indexed under each of its word starts ("wireless phone stand" under "wireless phone stand",
+ * "phone stand" and "stand") in a sorted key set, so a prefix is a contiguous key range. Short prefixes, whose ranges
+ * cover a large part of the catalog, keep their top suggestions precomputed and are answered with a single map
+ * lookup; longer prefixes scan their (small) range. Brands are derived from products: a brand is suggested while at
+ * least one product carries it, with the popularity of its products plus their number as score.
+ */
+public class ProductSuggestionIndex {
+
+    public enum Type {
+        PRODUCT, BRAND, CATEGORY
+    }
+
+    public record Suggestion(Type type, Long id, String text) {
+    }
+
+    private static final int CACHED_PREFIX_LENGTH = 3;
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong((Entry entry) -> entry.score).reversed()
+            .thenComparingInt(entry -> entry.text.length())
+            .thenComparing(entry -> entry.text)
+            .thenComparing(entry -> entry.key);
+
+    private static final class Entry {
+        private final String key;
+        private final Type type;
+        private final Long id;
+        private final String text;
+        private final long score;
+        private final List<String> indexKeys;
+        // Normalized brand of a product entry, null otherwise
+        private final String brand;
+
+        private Entry(String key, Type type, Long id, String text, long score, String brand) {
+            this.key = key;
+            this.type = type;
+            this.id = id;
+            this.text = text;
+            this.score = score;
+            this.brand = brand;
+            this.indexKeys = indexKeys(text);
+        }
+
+        private Suggestion toSuggestion() {
+            return new Suggestion(type, id, text);
+        }
+    }
+
+    private static final class BrandStats {
+        private final String text;
+        private long score;
+        private int products;
+
+        private BrandStats(String text) {
+            this.text = text;
+        }
+    }
+
+    private final int maxSuggestions;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final NavigableSet<String> keys = new TreeSet<>();
+    private final Map<String, List<Entry>> topByPrefix = new HashMap<>();
+    private final Map<String, BrandStats> brands = new HashMap<>();
+
+    public ProductSuggestionIndex(int maxSuggestions) {
+        this.maxSuggestions = maxSuggestions;
+    }
+
+    public void upsertProduct(long productId, String name, String brand, long popularity) {
+        String brandKey = brand != null && !brand.isBlank() ? String.join(" ", SearchTokenizer.words(brand)) : null;
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get("product:" + productId);
+            if (previous != null && previous.brand != null) {
+                updateBrand(previous.brand, null, -previous.score, -1);
+            }
+            put(new Entry("product:" + productId, Type.PRODUCT, productId, name.trim(), popularity, brandKey));
+            if (brandKey != null && !brandKey.isEmpty()) {
+                updateBrand(brandKey, brand.trim(), popularity, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProduct(long productId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get("product:" + productId);
+            if (previous != null) {
+                delete(previous.key);
+                if (previous.brand != null) {
+                    updateBrand(previous.brand, null, -previous.score, -1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsertCategory(long categoryId, String name, long productCount) {
+        lock.writeLock().lock();
+        try {
+            put(new Entry("category:" + categoryId, Type.CATEGORY, categoryId, name.trim(), productCount, null));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The best {@code limit} suggestions (at most the configured maximum) having a word that starts with the query.
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = String.join(" ", SearchTokenizer.words(query));
+        int count = Math.min(limit, maxSuggestions);
+        if (prefix.isEmpty() || count <= 0) {
+            return List.of();
+        }
+        if (prefix.length() > MAX_KEY_LENGTH) {
+            prefix = prefix.substring(0, MAX_KEY_LENGTH);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Entry> ranked = prefix.length() <= CACHED_PREFIX_LENGTH
+                    ? topByPrefix.getOrDefault(prefix, List.of())
+                    : scan(prefix, count);
+            return ranked.stream().limit(count).map(Entry::toSuggestion).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void updateBrand(String brandKey, String text, long scoreDelta, int productDelta) {
+        BrandStats stats = brands.get(brandKey);
+        if (stats == null) {
+            if (productDelta < 0) {
+                return;
+            }
+            stats = new BrandStats(text);
+            brands.put(brandKey, stats);
+        }
+        stats.score += scoreDelta;
+        stats.products += productDelta;
+        if (stats.products <= 0) {
+            brands.remove(brandKey);
+            delete("brand:" + brandKey);
+        } else {
+            put(new Entry("brand:" + brandKey, Type.BRAND, null, stats.text, stats.score + stats.products, null));
+        }
+    }
+
+    private void put(Entry entry) {
+        Set<String> dirty = new HashSet<>();
+        Entry previous = entries.put(entry.key, entry);
+        if (previous != null) {
+            unindex(previous, dirty);
+        }
+        for (String indexKey : entry.indexKeys) {
+            keys.add(indexKey + KEY_SEPARATOR + entry.key);
+        }
+        for (String prefix : cachedPrefixes(entry)) {
+            List<Entry> top = topByPrefix.computeIfAbsent(prefix, p -> new ArrayList<>());
+            int position = Collections.binarySearch(top, entry, RANKING);
+            int insertAt = position < 0 ? -position - 1 : position;
+            if (insertAt < maxSuggestions) {
+                top.add(insertAt, entry);
+                if (top.size() > maxSuggestions) {
+                    top.remove(top.size() - 1);
+                }
+            }
+        }
+        refill(dirty);
+    }
+
+    private void delete(String entryKey) {
+        Entry previous = entries.remove(entryKey);
+        if (previous != null) {
+            Set<String> dirty = new HashSet<>();
+            unindex(previous, dirty);
+            refill(dirty);
+        }
+    }
+
+    // A full top list that loses an entry may have a replacement further down its range
+    private void unindex(Entry entry, Set<String> dirty) {
+        for (String indexKey : entry.indexKeys) {
+            keys.remove(indexKey + KEY_SEPARATOR + entry.key);
+        }
+        for (String prefix : cachedPrefixes(entry)) {
+            List<Entry> top = topByPrefix.get(prefix);
+            if (top != null && top.remove(entry)) {
+                if (top.size() == maxSuggestions - 1) {
+                    dirty.add(prefix);
+                } else if (top.isEmpty()) {
+                    topByPrefix.remove(prefix);
+                }
+            }
+        }
+    }
+
+    private void refill(Set<String> dirty) {
+        for (String prefix : dirty) {
+            List<Entry> top = topByPrefix.get(prefix);
+            if (top != null && top.size() < maxSuggestions) {
+                List<Entry> recomputed = scan(prefix, maxSuggestions);
+                if (recomputed.isEmpty()) {
+                    topByPrefix.remove(prefix);
+                } else {
+                    topByPrefix.put(prefix, new ArrayList<>(recomputed));
+                }
+            }
+        }
+    }
+
+    // Best entries among all keys starting with the prefix, each entry counted once
+    private List<Entry> scan(String prefix, int count) {
+        PriorityQueue<Entry> best = new PriorityQueue<>(count + 1, RANKING.reversed());
+        Set<String> seen = new HashSet<>();
+        for (String key : keys.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+            String entryKey = key.substring(key.indexOf(KEY_SEPARATOR) + 1);
+            if (seen.add(entryKey)) {
+                best.offer(entries.get(entryKey));
+                if (best.size() > count) {
+                    best.poll();
+                }
+            }
+        }
+        List<Entry> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        return ranked;
+    }
+
+    private static Set<String> cachedPrefixes(Entry entry) {
+        Set<String> prefixes = new HashSet<>();
+        for (String indexKey : entry.indexKeys) {
+            for (int length = 1; length <= Math.min(CACHED_PREFIX_LENGTH, indexKey.length()); length++) {
+                prefixes.add(indexKey.substring(0, length));
+            }
+        }
+        return prefixes;
+    }
+
+    private static List<String> indexKeys(String text) {
+        List<String> words = SearchTokenizer.words(text);
+        List<String> indexKeys = new ArrayList<>(words.size());
+        for (int start = 0; start < words.size(); start++) {
+            String key = String.join(" ", words.subList(start, words.size()));
+            indexKeys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+        }
+        return indexKeys;
+    }
+}
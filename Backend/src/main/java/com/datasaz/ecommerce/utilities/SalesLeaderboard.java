@@ -0,0 +1,186 @@
+package com.datasaz.ecommerce.utilities;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory best-seller rankings of products (overall and per category) and of categories, for all-time sales and
+ * rolling 7 and 30 day windows.
+ * <p>
+ * Each ranking is a sorted set of (id, units sold) kept up to date on every sale or return, so reading the top of a
+ * ranking never aggregates order history. The rolling windows start at a day fixed when the leaderboard is created;
+ * they are moved forward by building a fresh leaderboard (daily). A product stays in the category it was first
+ * recorded under until then.
+ */
+public class SalesLeaderboard {
+
+    public enum Window {
+        ALL_TIME("all", 0), LAST_7_DAYS("7d", 7), LAST_30_DAYS("30d", 30);
+
+        private final String key;
+        private final int days;
+
+        Window(String key, int days) {
+            this.key = key;
+            this.days = days;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public static Optional<Window> fromKey(String key) {
+            return Arrays.stream(values()).filter(window -> window.key.equalsIgnoreCase(key)).findFirst();
+        }
+    }
+
+    private record Rank(long id, long units) {
+    }
+
+    private static final Comparator<Rank> BEST_FIRST = Comparator.comparingLong(Rank::units).reversed()
+            .thenComparingLong(Rank::id);
+
+    private static final class ProductSales {
+        private final Long categoryId;
+        private final long[] units = new long[Window.values().length];
+
+        private ProductSales(Long categoryId) {
+            this.categoryId = categoryId;
+        }
+    }
+
+    private final Map<Window, LocalDate> windowStarts = new EnumMap<>(Window.class);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ProductSales> products = new HashMap<>();
+    private final Map<Long, long[]> categories = new HashMap<>();
+    private final Map<Window, NavigableSet<Rank>> productRanking = new EnumMap<>(Window.class);
+    private final Map<Long, Map<Window, NavigableSet<Rank>>> productRankingByCategory = new HashMap<>();
+    private final Map<Window, NavigableSet<Rank>> categoryRanking = new EnumMap<>(Window.class);
+
+    public SalesLeaderboard(LocalDate today) {
+        for (Window window : Window.values()) {
+            if (window.days > 0) {
+                windowStarts.put(window, today.minusDays(window.days - 1L));
+            }
+            productRanking.put(window, new TreeSet<>(BEST_FIRST));
+            categoryRanking.put(window, new TreeSet<>(BEST_FIRST));
+        }
+    }
+
+    public LocalDate windowStart(Window window) {
+        return windowStarts.get(window);
+    }
+
+    /**
+     * Counts units of a product sold on the given day in every window covering that day; negative units undo a sale.
+     */
+    public void record(long productId, Long categoryId, LocalDate soldOn, long units) {
+        lock.writeLock().lock();
+        try {
+            for (Window window : Window.values()) {
+                LocalDate start = windowStarts.get(window);
+                if (start == null || !soldOn.isBefore(start)) {
+                    addUnits(window, productId, categoryId, units);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds already aggregated units of a product to one window.
+     */
+    public void add(Window window, long productId, Long categoryId, long units) {
+        lock.writeLock().lock();
+        try {
+            addUnits(window, productId, categoryId, units);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the best-selling products, within a category when {@code categoryId} is set.
+     */
+    public List<Long> topProducts(Long categoryId, Window window, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return top(productRanking(categoryId, window), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int productCount(Long categoryId, Window window) {
+        lock.readLock().lock();
+        try {
+            return productRanking(categoryId, window).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> topCategories(Window window, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return top(categoryRanking.get(window), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int categoryCount(Window window) {
+        lock.readLock().lock();
+        try {
+            return categoryRanking.get(window).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addUnits(Window window, long productId, Long categoryId, long units) {
+        ProductSales sales = products.computeIfAbsent(productId, id -> new ProductSales(categoryId));
+        int slot = window.ordinal();
+        long previous = sales.units[slot];
+        sales.units[slot] = Math.max(0, previous + units);
+        rerank(productRanking.get(window), productId, previous, sales.units[slot]);
+
+        if (sales.categoryId != null) {
+            NavigableSet<Rank> inCategory = productRankingByCategory
+                    .computeIfAbsent(sales.categoryId, id -> new EnumMap<>(Window.class))
+                    .computeIfAbsent(window, w -> new TreeSet<>(BEST_FIRST));
+            rerank(inCategory, productId, previous, sales.units[slot]);
+
+            long[] categoryUnits = categories.computeIfAbsent(sales.categoryId, id -> new long[Window.values().length]);
+            long previousCategory = categoryUnits[slot];
+            categoryUnits[slot] = Math.max(0, previousCategory + sales.units[slot] - previous);
+            rerank(categoryRanking.get(window), sales.categoryId, previousCategory, categoryUnits[slot]);
+        }
+    }
+
+    private static void rerank(NavigableSet<Rank> ranking, long id, long previous, long current) {
+        if (previous > 0) {
+            ranking.remove(new Rank(id, previous));
+        }
+        if (current > 0) {
+            ranking.add(new Rank(id, current));
+        }
+    }
+
+    private NavigableSet<Rank> productRanking(Long categoryId, Window window) {
+        if (categoryId == null) {
+            return productRanking.get(window);
+        }
+        return productRankingByCategory.getOrDefault(categoryId, Map.of()).getOrDefault(window, Collections.emptyNavigableSet());
+    }
+
+    private static List<Long> top(NavigableSet<Rank> ranking, int offset, int limit) {
+        return ranking.stream().skip(offset).limit(limit).map(Rank::id).toList();
+    }
+}
@@ -0,0 +1,89 @@
+package com.datasaz.ecommerce.utilities;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Signs static paths with an expiry so the files behind them can be handed out without going through a controller.
+ * Expiries are rounded up to half the lifetime, which keeps the URL of a file stable for a while and lets browsers
+ * reuse what they already downloaded.
+ */
+@Slf4j
+@Component
+public class SignedUrlSigner {
+
+    public static final String EXPIRES_PARAM = "expires";
+    public static final String SIGNATURE_PARAM = "signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // Blank means a random key per process: links stop working after a restart and are not shared between instances
+    @Value("${image.url-signing-secret:}")
+    private String secret;
+
+    private Clock clock = Clock.systemUTC();
+    private SecretKeySpec key;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("image.url-signing-secret is not set; signed image URLs are only valid on this instance until it restarts");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    public String sign(String path, Duration ttl) {
+        long step = Math.max(1, ttl.toSeconds() / 2);
+        long expires = ((clock.millis() / 1000 + ttl.toSeconds()) / step + 1) * step;
+        return path + "?" + EXPIRES_PARAM + "=" + expires + "&" + SIGNATURE_PARAM + "=" + signature(path, expires);
+    }
+
+    public boolean verify(String path, String expires, String signature) {
+        if (expires == null || signature == null) {
+            return false;
+        }
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(expires);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (expiresAt < clock.millis() / 1000) {
+            return false;
+        }
+        return MessageDigest.isEqual(signature(path, expiresAt).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private String signature(String path, long expires) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal((path + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign URL", e);
+        }
+    }
+}
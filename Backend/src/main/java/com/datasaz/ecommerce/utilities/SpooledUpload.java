@@ -0,0 +1,187 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.apache.tika.Tika;
+
+import java.awt.Dimension;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * An uploaded file copied to a temporary file in small chunks, so an upload never has to be held in memory as a
+ * whole. The first bytes are kept for type detection and the SHA-256 is computed while copying; image dimensions are
+ * read from the file header without decoding the pixels.
+ * <p>
+ * Copying stops one byte past the size limit, so an oversized upload costs no more than the limit in disk space;
+ * callers compare {@link #getSize()} with their limit. Closing deletes the temporary file.
+ */
+public final class SpooledUpload implements AutoCloseable {
+
+    private static final int HEADER_LENGTH = 8192;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path file;
+    private final long size;
+    private final byte[] header;
+    private final String contentHash;
+
+    private SpooledUpload(Path file, long size, byte[] header, String contentHash) {
+        this.file = file;
+        this.size = size;
+        this.header = header;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Decodes Base64 text chunk by chunk while spooling it.
+     *
+     * @throws IllegalArgumentException if the text is not valid Base64
+     */
+    public static SpooledUpload fromBase64(CharSequence base64, long maxBytes) throws IOException {
+        return fromStream(new Base64InputStream(base64), maxBytes);
+    }
+
+    public static SpooledUpload fromStream(InputStream content, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        Path file = Files.createTempFile("upload-", ".spool");
+        try {
+            byte[] header = new byte[HEADER_LENGTH];
+            int headerLength = 0;
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = content; OutputStream out = new DigestOutputStream(Files.newOutputStream(file), digest)) {
+                int read;
+                while (size <= maxBytes && (read = in.read(buffer)) != -1) {
+                    if (headerLength < HEADER_LENGTH) {
+                        int copied = Math.min(read, HEADER_LENGTH - headerLength);
+                        System.arraycopy(buffer, 0, header, headerLength, copied);
+                        headerLength += copied;
+                    }
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            return new SpooledUpload(file, size, Arrays.copyOf(header, headerLength), HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    public byte[] readAllBytes() throws IOException {
+        return Files.readAllBytes(file);
+    }
+
+    /**
+     * Detects the type from the magic bytes at the start of the upload.
+     */
+    public String detectMimeType(Tika tika) {
+        return tika.detect(header);
+    }
+
+    /**
+     * Width and height from the image header, or null if no image reader recognises the content.
+     */
+    public Dimension readDimensions() throws IOException {
+        return ImageDecoder.readDimensions(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    // Decodes Base64 text without first copying it into a byte array; malformed input is a client error, reported
+    // as IllegalArgumentException like Base64.Decoder#decode does
+    private static final class Base64InputStream extends FilterInputStream {
+
+        private Base64InputStream(CharSequence text) {
+            super(Base64.getDecoder().wrap(new CharSequenceInputStream(text)));
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid Base64 content: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                return super.read(buffer, offset, length);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid Base64 content: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class CharSequenceInputStream extends InputStream {
+        private final CharSequence text;
+        private int position;
+
+        private CharSequenceInputStream(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read() {
+            return position < text.length() ? toByte(text.charAt(position++)) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= text.length()) {
+                return -1;
+            }
+            int count = Math.min(length, text.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) toByte(text.charAt(position++));
+            }
+            return count;
+        }
+
+        // Anything outside ASCII is invalid Base64; '?' makes the decoder reject it
+        private static int toByte(char c) {
+            return c < 0x80 ? c : '?';
+        }
+    }
+}
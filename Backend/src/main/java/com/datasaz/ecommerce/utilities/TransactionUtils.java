@@ -0,0 +1,56 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ties in-memory side effects (index updates, cache evictions, queued jobs) to the outcome of the surrounding
+ * transaction. Work that re-reads the changed rows has to wait for the commit, otherwise it sees the old data or
+ * rows another connection cannot see yet. Without an active transaction the work runs immediately.
+ */
+public final class TransactionUtils {
+
+    private TransactionUtils() {
+    }
+
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * For undoing work done outside the database (reserved capacity, written files) when the transaction does not
+     * commit. Without an active transaction there is nothing to roll back and the action is dropped.
+     */
+    public static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * For evictions: runs now, and once more after commit to drop entries that concurrent readers rebuilt from
+     * pre-commit data in between.
+     */
+    public static void runNowAndAfterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(action);
+        }
+    }
+}
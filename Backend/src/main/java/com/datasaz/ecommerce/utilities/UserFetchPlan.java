@@ -0,0 +1,29 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.repositories.entities.User;
+import org.hibernate.Hibernate;
+
+/**
+ * How much of the authenticated user {@link CurrentUserService} loads: each plan is a named entity graph on
+ * {@link User}, fetched in one query. Roles and privacy settings are part of every plan; the company and favorites
+ * are lazy in the mapping and only loaded by the plans that name them.
+ */
+public enum UserFetchPlan {
+    ROLES,
+    WITH_COMPANY,
+    WITH_FAVORITES;
+
+    /**
+     * Whether an already loaded user has everything this plan fetches, so it can be used without another query.
+     */
+    public boolean isLoadedIn(User user) {
+        if (!Hibernate.isInitialized(user.getUserRoles())) {
+            return false;
+        }
+        return switch (this) {
+            case ROLES -> true;
+            case WITH_COMPANY -> Hibernate.isInitialized(user.getCompany());
+            case WITH_FAVORITES -> Hibernate.isInitialized(user.getFavoriteProducts());
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.datasaz.ecommerce.utilities;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The claims of an access token whose signature has been checked. Immutable, so one instance can be shared by every
+ * request carrying the same token.
+ */
+public record VerifiedToken(String subject, List<String> roles, Instant issuedAt, Instant expiresAt) {
+
+    public VerifiedToken {
+        roles = roles != null ? List.copyOf(roles) : List.of();
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
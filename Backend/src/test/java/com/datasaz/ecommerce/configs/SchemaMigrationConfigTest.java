@@ -0,0 +1,34 @@
+package com.datasaz.ecommerce.configs;
+
+import com.datasaz.ecommerce.services.implementations.SchemaMigrationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SchemaMigrationConfigTest {
+
+    @Test
+    void entityManagerFactory_DependsOnTheSchemaMigrations() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("schemaMigrationService", new RootBeanDefinition(SchemaMigrationService.class));
+        beanFactory.registerBeanDefinition("entityManagerFactory", new RootBeanDefinition(LocalContainerEntityManagerFactoryBean.class));
+
+        SchemaMigrationConfig.entityManagerFactoryDependsOnSchemaMigration().postProcessBeanFactory(beanFactory);
+
+        assertArrayEquals(new String[]{"schemaMigrationService"}, beanFactory.getBeanDefinition("entityManagerFactory").getDependsOn());
+    }
+
+    @Test
+    void entityManagerFactory_WithoutTheMigrationService_LeftAlone() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("entityManagerFactory", new RootBeanDefinition(LocalContainerEntityManagerFactoryBean.class));
+
+        SchemaMigrationConfig.entityManagerFactoryDependsOnSchemaMigration().postProcessBeanFactory(beanFactory);
+
+        assertNull(beanFactory.getBeanDefinition("entityManagerFactory").getDependsOn());
+    }
+}
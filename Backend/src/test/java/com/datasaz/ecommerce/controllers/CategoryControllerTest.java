@@ -10,6 +10,7 @@ import com.datasaz.ecommerce.models.response.ProductVariantResponse;
 import com.datasaz.ecommerce.repositories.entities.ProductStatus;
 import com.datasaz.ecommerce.services.interfaces.ICategoryService;
 import com.datasaz.ecommerce.services.interfaces.IProductService;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -320,6 +321,8 @@ class CategoryControllerTest {
                 .thenReturn(categoryPage);
         when(categoryService.getCategoriesSortedByProductSoldQuantity(any(Pageable.class)))
                 .thenReturn(categoryPage);
+        when(categoryService.getCategoriesSortedByProductSoldQuantity(any(SalesLeaderboard.Window.class), any(Pageable.class)))
+                .thenReturn(categoryPage);
         when(categoryService.getCategoriesSortedByProductCount(any(Pageable.class)))
                 .thenReturn(categoryPage);
 
@@ -0,0 +1,61 @@
+package com.datasaz.ecommerce.controllers;
+
+import com.datasaz.ecommerce.models.dto.ImageDelivery;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageResponsesTest {
+
+    @Test
+    void serveBatch_SameVersions_SameETagAndSameBytes() throws Exception {
+        ResponseEntity<Resource> first = ImageResponses.serveBatch(thumbnails("hash-a", "hash-b"));
+        ResponseEntity<Resource> second = ImageResponses.serveBatch(thumbnails("hash-a", "hash-b"));
+
+        assertNotNull(first.getHeaders().getETag());
+        assertFalse(first.getHeaders().getETag().startsWith("W/"));
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertEquals(first.getHeaders().getContentType(), second.getHeaders().getContentType());
+        assertArrayEquals(bytes(first), bytes(second));
+    }
+
+    @Test
+    void serveBatch_ChangedImage_NewETagAndBoundary() {
+        ResponseEntity<Resource> before = ImageResponses.serveBatch(thumbnails("hash-a", "hash-b"));
+        ResponseEntity<Resource> after = ImageResponses.serveBatch(thumbnails("hash-a", "hash-c"));
+
+        assertNotEquals(before.getHeaders().getETag(), after.getHeaders().getETag());
+        assertNotEquals(before.getHeaders().getContentType(), after.getHeaders().getContentType());
+    }
+
+    @Test
+    void serveBatch_UnversionedImage_NoETag() {
+        assertNull(ImageResponses.serveBatch(thumbnails("hash-a", null)).getHeaders().getETag());
+    }
+
+    private Map<Long, ImageDelivery> thumbnails(String... contentHashes) {
+        Map<Long, ImageDelivery> thumbnails = new LinkedHashMap<>();
+        for (int i = 0; i < contentHashes.length; i++) {
+            thumbnails.put(i + 1L, ImageDelivery.builder()
+                    .resource(new ByteArrayResource(new byte[]{(byte) i, 1, 2}))
+                    .contentType("image/jpeg")
+                    .fileName("thumb-" + i + ".jpg")
+                    .contentHash(contentHashes[i])
+                    .build());
+        }
+        return thumbnails;
+    }
+
+    private byte[] bytes(ResponseEntity<Resource> response) throws Exception {
+        try (InputStream in = response.getBody().getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.datasaz.ecommerce.controllers;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.exceptions.GlobalExceptionHandler;
+import com.datasaz.ecommerce.models.dto.ImageDelivery;
+import com.datasaz.ecommerce.services.interfaces.IImageDeliveryService;
+import com.datasaz.ecommerce.services.interfaces.IUserProfileVisitService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserProfileVisitControllerTest {
+
+    @Mock
+    private IUserProfileVisitService userProfileService;
+
+    @Mock
+    private IImageDeliveryService imageDeliveryService;
+
+    @Mock
+    private GroupConfig groupConfig;
+
+    @InjectMocks
+    private UserProfileVisitController userProfileVisitController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        groupConfig.signedUrlTtlSeconds = 300;
+        mockMvc = MockMvcBuilders.standaloneSetup(userProfileVisitController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getProfilePicture_PrivateProfile_Returns403WithoutLoadingThePicture() throws Exception {
+        doThrow(new AccessDeniedException("Not authorized to view this profile"))
+                .when(userProfileService).checkProfileVisible("private@test.com");
+
+        mockMvc.perform(get("/profile/visit/private@test.com/profile-picture"))
+                .andExpect(status().isForbidden());
+
+        verify(imageDeliveryService, never()).getProfilePicture(anyString());
+    }
+
+    @Test
+    void getProfilePicture_VisibleProfile_ServesThePicture() throws Exception {
+        when(imageDeliveryService.getProfilePicture("public@test.com")).thenReturn(ImageDelivery.builder()
+                .resource(new ByteArrayResource(new byte[]{1, 2}))
+                .contentType("image/png")
+                .fileName("profile.png")
+                .build());
+
+        mockMvc.perform(get("/profile/visit/public@test.com/profile-picture"))
+                .andExpect(status().isOk());
+
+        verify(userProfileService).checkProfileVisible("public@test.com");
+    }
+}
@@ -0,0 +1,152 @@
+package com.datasaz.ecommerce.filters;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.models.dto.UserAuthStatus;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
+import com.datasaz.ecommerce.utilities.JwtBlacklistService;
+import com.datasaz.ecommerce.utilities.JwtTokenVerifier;
+import com.datasaz.ecommerce.utilities.VerifiedToken;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String EMAIL = "user@test.com";
+    private static final String TOKEN = "token";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @Mock
+    private IUserAuthStatusService userAuthStatusService;
+
+    @Mock
+    private JwtBlacklistService jwtBlacklistService;
+
+    private JwtAuthenticationFilter filter;
+    private Authentication authenticated;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        GroupConfig groupConfig = new GroupConfig();
+        groupConfig.authMode = "stateless";
+        filter = new JwtAuthenticationFilter(userDetailsService, jwtTokenVerifier, userAuthStatusService, groupConfig);
+        ReflectionTestUtils.setField(filter, "jwtBlacklistService", jwtBlacklistService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void stateless_TokenIssuedBeforePasswordReset_Rejected() throws Exception {
+        Instant resetAt = Instant.now();
+        issue(resetAt.minusSeconds(60), "ROLE_BUYER");
+        when(userAuthStatusService.getStatus(EMAIL))
+                .thenReturn(Optional.of(new UserAuthStatus(true, Set.of("ROLE_BUYER"), resetAt)));
+
+        assertEquals(401, request("/buyer/orders").getStatus());
+        assertNull(authenticated);
+    }
+
+    @Test
+    void stateless_TokenIssuedAfterPasswordReset_Accepted() throws Exception {
+        Instant resetAt = Instant.now().minusSeconds(60);
+        issue(Instant.now(), "ROLE_BUYER");
+        when(userAuthStatusService.getStatus(EMAIL))
+                .thenReturn(Optional.of(new UserAuthStatus(true, Set.of("ROLE_BUYER"), resetAt)));
+
+        assertEquals(200, request("/buyer/orders").getStatus());
+        assertEquals(EMAIL, authenticated.getName());
+    }
+
+    @Test
+    void stateless_BlockedUser_Rejected() throws Exception {
+        issue(Instant.now(), "ROLE_BUYER");
+        when(userAuthStatusService.getStatus(EMAIL))
+                .thenReturn(Optional.of(new UserAuthStatus(false, Set.of("ROLE_BUYER"), null)));
+
+        assertEquals(401, request("/buyer/orders").getStatus());
+        assertNull(authenticated);
+    }
+
+    @Test
+    void stateless_DeletedUser_Rejected() throws Exception {
+        issue(Instant.now(), "ROLE_BUYER");
+        when(userAuthStatusService.getStatus(EMAIL)).thenReturn(Optional.empty());
+
+        assertEquals(401, request("/buyer/orders").getStatus());
+        assertNull(authenticated);
+    }
+
+    @Test
+    void stateless_AuthoritiesComeFromTheRolesClaimWithoutLoadingTheUser() throws Exception {
+        // Promoted after the token was issued: the token keeps granting only what it carries
+        issue(Instant.now(), "ROLE_BUYER");
+        when(userAuthStatusService.getStatus(EMAIL))
+                .thenReturn(Optional.of(new UserAuthStatus(true, Set.of("ROLE_BUYER", "ROLE_SELLER"), null)));
+
+        assertEquals(200, request("/buyer/orders").getStatus());
+        assertEquals(List.of("ROLE_BUYER"),
+                authenticated.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(403, request("/seller/products").getStatus());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void stateless_RoleRevokedSinceIssue_Rejected() throws Exception {
+        issue(Instant.now(), "ROLE_BUYER", "ROLE_SELLER");
+        when(userAuthStatusService.getStatus(EMAIL))
+                .thenReturn(Optional.of(new UserAuthStatus(true, Set.of("ROLE_BUYER"), null)));
+
+        assertEquals(401, request("/buyer/orders").getStatus());
+    }
+
+    private void issue(Instant issuedAt, String... roles) {
+        when(jwtTokenVerifier.verify(TOKEN))
+                .thenReturn(new VerifiedToken(EMAIL, List.of(roles), issuedAt, issuedAt.plusSeconds(3600)));
+    }
+
+    private MockHttpServletResponse request(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticated = null;
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                authenticated = SecurityContextHolder.getContext().getAuthentication();
+            }
+        });
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+}
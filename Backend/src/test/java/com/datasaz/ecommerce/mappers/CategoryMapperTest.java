@@ -1,16 +1,25 @@
 package com.datasaz.ecommerce.mappers;
 
 
+import com.datasaz.ecommerce.models.dto.CategoryTreeRow;
 import com.datasaz.ecommerce.models.request.CategoryRequest;
 import com.datasaz.ecommerce.models.response.CategoryResponse;
 import com.datasaz.ecommerce.repositories.entities.Category;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 
 class CategoryMapperTest {
@@ -18,7 +27,7 @@ class CategoryMapperTest {
 
     @BeforeEach
     void setUp() {
-        categoryMapper = new CategoryMapper();
+        categoryMapper = new CategoryMapper(mock(IBinaryContentService.class));
     }
 
     @Test
@@ -59,6 +68,46 @@ class CategoryMapperTest {
         assertTrue(subResponse.getSubcategories().isEmpty());
     }
 
+    @Test
+    void responseMapper_loadsImagesOfThePageAndSubcategoriesInOneBatch() {
+        IBinaryContentService binaryContentService = mock(IBinaryContentService.class);
+        CategoryMapper mapper = new CategoryMapper(binaryContentService);
+        Category subcategory = Category.builder().id(3L).name("Sub").imageContentId(30L).subcategories(new ArrayList<>()).build();
+        Category first = Category.builder().id(1L).name("First").imageContentId(10L)
+                .subcategories(new ArrayList<>(List.of(subcategory))).build();
+        Category second = Category.builder().id(2L).name("Second").subcategories(new ArrayList<>()).build();
+        when(binaryContentService.loadAll(Set.of(10L, 30L))).thenReturn(Map.of(10L, new byte[]{1}, 30L, new byte[]{3}));
+
+        List<CategoryResponse> responses = Stream.of(first, second)
+                .map(mapper.responseMapper(List.of(first, second)))
+                .toList();
+
+        assertEquals(Base64.getEncoder().encodeToString(new byte[]{1}), responses.get(0).getImageContent());
+        assertEquals(Base64.getEncoder().encodeToString(new byte[]{3}), responses.get(0).getSubcategories().get(0).getImageContent());
+        assertNull(responses.get(1).getImageContent());
+        verify(binaryContentService, times(1)).loadAll(any());
+        verify(binaryContentService, never()).loadBase64(any());
+    }
+
+    @Test
+    void toFlatResponses_mapsTreeRowsAndLoadsImagesInOneBatch() {
+        IBinaryContentService binaryContentService = mock(IBinaryContentService.class);
+        CategoryMapper mapper = new CategoryMapper(binaryContentService);
+        CategoryTreeRow root = treeRow(1L, null, 10L);
+        CategoryTreeRow child = treeRow(2L, 1L, null);
+        when(binaryContentService.loadAll(Set.of(10L))).thenReturn(Map.of(10L, new byte[]{1}));
+
+        List<CategoryResponse> responses = mapper.toFlatResponses(List.of(root, child));
+
+        assertEquals(List.of(1L, 2L), responses.stream().map(CategoryResponse::getId).toList());
+        assertEquals(Base64.getEncoder().encodeToString(new byte[]{1}), responses.get(0).getImageContent());
+        assertNull(responses.get(0).getParentId());
+        assertNull(responses.get(1).getImageContent());
+        assertEquals(1L, responses.get(1).getParentId());
+        verify(binaryContentService, times(1)).loadAll(any());
+        verify(binaryContentService, never()).loadBase64(any());
+    }
+
     @Test
     void toResponse_nullCategory_returnsNull() {
         // Act
@@ -189,5 +238,13 @@ class CategoryMapperTest {
         assertNotNull(category.getSubcategories());
         assertTrue(category.getSubcategories().isEmpty());
     }
-}
 
+    private CategoryTreeRow treeRow(Long id, Long parentId, Long imageContentId) {
+        CategoryTreeRow row = mock(CategoryTreeRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getName()).thenReturn("Category " + id);
+        when(row.getParentId()).thenReturn(parentId);
+        when(row.getImageContentId()).thenReturn(imageContentId);
+        return row;
+    }
+}
@@ -1,11 +1,14 @@
 package com.datasaz.ecommerce.mappers;
 
 import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.models.dto.ProductImageRef;
 import com.datasaz.ecommerce.models.request.ProductRequest;
 import com.datasaz.ecommerce.models.request.ProductVariantRequest;
 import com.datasaz.ecommerce.models.response.ProductResponse;
+import com.datasaz.ecommerce.models.response.ProductSummaryResponse;
 import com.datasaz.ecommerce.repositories.CategoryRepository;
 import com.datasaz.ecommerce.repositories.entities.*;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -16,7 +19,9 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -30,6 +35,9 @@ class ProductMapperTest {
     @Mock
     private GroupConfig groupConfig;
 
+    @Mock
+    private IBinaryContentService binaryContentService;
+
     @InjectMocks
     private ProductMapper productMapper;
 
@@ -67,8 +75,8 @@ class ProductMapperTest {
                                 .contentType("image/jpeg")
                                 .fileSize(1000)
                                 .fileExtension("jpg")
-                                .fileContent(new byte[]{1, 2, 3})
-                                .thumbnailContent(new byte[]{4, 5, 6})
+                                .fileContentId(100L)
+                                .thumbnailContentId(101L)
                                 .isPrimary(true)
                                 .displayOrder(0)
                                 .createdAt(LocalDateTime.now())
@@ -77,6 +85,9 @@ class ProductMapperTest {
                 .images(Collections.emptyList())
                 .build();
 
+        when(binaryContentService.loadAll(Set.of(100L, 101L)))
+                .thenReturn(Map.of(100L, new byte[]{1, 2, 3}, 101L, new byte[]{4, 5, 6}));
+
         ProductResponse response = productMapper.toResponse(product);
 
         assertNotNull(response);
@@ -165,6 +176,82 @@ class ProductMapperTest {
         assertEquals(1, product.getVariants().size());
         assertEquals("Large", product.getVariants().get(0).getName());
     }
+
+    @Test
+    void applyCoverImage_DatabaseMode_LinksImageEndpoints() {
+        ReflectionTestUtils.setField(groupConfig, "imageStorageMode", "database");
+        ProductSummaryResponse summary = new ProductSummaryResponse(1L, "Test Product", new BigDecimal("100.00"), null, 10,
+                "Brand", 1L, ProductStatus.AVAILABLE, ProductSellType.DIRECT, ProductCondition.NEW, LocalDateTime.now(), 0L);
+
+        productMapper.applyCoverImage(summary, imageRef(1L, 7L, null, null));
+
+        assertEquals(new BigDecimal("100.00"), summary.getOfferPrice());
+        assertEquals(7L, summary.getPrimaryImageId());
+        assertEquals("/api/v1/products/images/7", summary.getImageUrl());
+        assertEquals("/api/v1/products/images/7/thumbnail", summary.getThumbnailUrl());
+    }
+
+    @Test
+    void applyCoverImage_DatabaseMode_AppendsContentVersion() {
+        ProductSummaryResponse summary = ProductSummaryResponse.builder().id(1L).name("Test Product").build();
+        String hash = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+        productMapper.applyCoverImage(summary, imageRef(1L, 7L, null, hash));
+
+        assertEquals("/api/v1/products/images/7?v=0123456789abcdef", summary.getImageUrl());
+        assertEquals("/api/v1/products/images/7/thumbnail", summary.getThumbnailUrl());
+    }
+
+    @Test
+    void applyCoverImage_FileMode_UsesFileUrl() {
+        ReflectionTestUtils.setField(groupConfig, "imageStorageMode", "file");
+        ProductSummaryResponse summary = ProductSummaryResponse.builder().id(1L).name("Test Product").build();
+
+        productMapper.applyCoverImage(summary, imageRef(1L, 3L, "/Uploads/products/a.jpg", null));
+
+        assertEquals(3L, summary.getPrimaryImageId());
+        assertEquals("/Uploads/products/a.jpg", summary.getImageUrl());
+        assertEquals("/Uploads/products/a.jpg", summary.getThumbnailUrl());
+    }
+
+    @Test
+    void applyCoverImage_NoImage_LeavesUrlsEmpty() {
+        ProductSummaryResponse summary = ProductSummaryResponse.builder().id(1L).name("Test Product").build();
+
+        productMapper.applyCoverImage(summary, null);
+
+        assertNull(summary.getPrimaryImageId());
+        assertNull(summary.getThumbnailUrl());
+    }
+
+    private ProductImageRef imageRef(Long productId, Long imageId, String fileUrl, String version) {
+        return new ProductImageRef() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getImageId() {
+                return imageId;
+            }
+
+            @Override
+            public String getFileUrl() {
+                return fileUrl;
+            }
+
+            @Override
+            public String getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getThumbnailVersion() {
+                return null;
+            }
+        };
+    }
 }
 
 
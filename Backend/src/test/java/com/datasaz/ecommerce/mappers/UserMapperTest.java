@@ -7,6 +7,7 @@ import com.datasaz.ecommerce.repositories.CompanyRepository;
 import com.datasaz.ecommerce.repositories.ProductRepository;
 import com.datasaz.ecommerce.repositories.UserRepository;
 import com.datasaz.ecommerce.repositories.entities.User;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -15,9 +16,14 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.Base64;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 class UserMapperTest {
 
@@ -33,6 +39,9 @@ class UserMapperTest {
     @Mock
     private CompanyRepository companyRepository;
 
+    @Mock
+    private IBinaryContentService binaryContentService;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -47,13 +56,15 @@ class UserMapperTest {
                 .emailAddress("test@example.com")
                 .firstName("John")
                 .lastName("Doe")
-                .imageContent(imageBytes)
+                .imageContentId(7L)
                 .imageContentType("image/jpeg")
                 .build();
 
         when(userRepository.countFollowersByEmailAddress("test@example.com")).thenReturn(0L);
         when(userRepository.countFollowingByEmailAddress("test@example.com")).thenReturn(0L);
 
+        when(binaryContentService.loadBase64(7L)).thenReturn(base64Image);
+
         UserDto dto = userMapper.toDto(user);
 
         assertEquals(1L, dto.getId());
@@ -63,15 +74,13 @@ class UserMapperTest {
     }
 
     @Test
-    void toEntity_decodesBase64ImageContent() {
-        byte[] imageBytes = new byte[]{1, 2, 3};
-        String base64Image = Base64.getEncoder().encodeToString(imageBytes);
+    void toEntity_mapsImageContentReference() {
         UserDto dto = UserDto.builder()
                 .id(1L)
                 .emailAddress("test@example.com")
                 .firstName("John")
                 .lastName("Doe")
-                .imageContent(base64Image)
+                .imageContentId(7L)
                 .imageContentType("image/jpeg")
                 .favoriteProductIds(Collections.emptySet())
                 .followingIds(Collections.emptySet())
@@ -83,7 +92,7 @@ class UserMapperTest {
 
         assertEquals(1L, user.getId());
         assertEquals("test@example.com", user.getEmailAddress());
-        assertArrayEquals(imageBytes, user.getImageContent());
+        assertEquals(7L, user.getImageContentId());
         assertEquals("image/jpeg", user.getImageContentType());
     }
 
@@ -96,10 +105,12 @@ class UserMapperTest {
                 .firstName("John")
                 .lastName("Doe")
                 .profilePictureUrl("http://example.com/profile.jpg")
-                .imageContent(imageBytes)
+                .imageContentId(7L)
                 .imageContentType("image/jpeg")
                 .build();
 
+        when(binaryContentService.loadBase64(7L)).thenReturn(base64Image);
+
         UserSummaryResponse response = userMapper.toSummaryResponse(user);
 
         assertEquals("test@example.com", response.getEmailAddress());
@@ -109,6 +120,24 @@ class UserMapperTest {
         assertEquals("image/jpeg", response.getImageContentType());
     }
 
+    @Test
+    void summaryMapper_loadsPicturesOfThePageInOneBatch() {
+        User first = User.builder().emailAddress("a@example.com").firstName("A").lastName("One").imageContentId(7L).build();
+        User second = User.builder().emailAddress("b@example.com").firstName("B").lastName("Two").imageContentId(8L).build();
+        User third = User.builder().emailAddress("c@example.com").firstName("C").lastName("Three").build();
+        when(binaryContentService.loadAll(Set.of(7L, 8L))).thenReturn(Map.of(7L, new byte[]{7}, 8L, new byte[]{8}));
+
+        List<UserSummaryResponse> responses = Stream.of(first, second, third)
+                .map(userMapper.summaryMapper(List.of(first, second, third)))
+                .toList();
+
+        assertEquals(Base64.getEncoder().encodeToString(new byte[]{7}), responses.get(0).getImageContent());
+        assertEquals(Base64.getEncoder().encodeToString(new byte[]{8}), responses.get(1).getImageContent());
+        assertNull(responses.get(2).getImageContent());
+        verify(binaryContentService, times(1)).loadAll(any());
+        verify(binaryContentService, never()).loadBase64(any());
+    }
+
     @Test
     void toProfileResponse_mapsBase64ImageContentAndType() {
         byte[] imageBytes = new byte[]{1, 2, 3};
@@ -119,7 +148,7 @@ class UserMapperTest {
                 .firstName("John")
                 .lastName("Doe")
                 .profilePictureUrl("http://example.com/profile.jpg")
-                .imageContent(imageBytes)
+                .imageContentId(7L)
                 .imageContentType("image/jpeg")
                 .favoriteProducts(Collections.emptySet())
                 .followers(Collections.emptySet())
@@ -127,6 +156,8 @@ class UserMapperTest {
                 .userRoles(Collections.emptySet())
                 .build();
 
+        when(binaryContentService.loadBase64(7L)).thenReturn(base64Image);
+
         UserProfileResponse response = userMapper.toProfileResponse(user);
 
         assertEquals(1L, response.getId());
@@ -175,4 +206,20 @@ class UserMapperTest {
 
         assertThrows(IllegalArgumentException.class, () -> userMapper.toEntity(dto));
     }
+
+    @Test
+    void toEntity_inlineImageContent_doesNotStoreContent() {
+        UserDto dto = UserDto.builder()
+                .id(1L)
+                .emailAddress("test@example.com")
+                .imageContent(Base64.getEncoder().encodeToString(new byte[]{1, 2, 3}))
+                .imageContentType("image/jpeg")
+                .build();
+
+        User user = userMapper.toEntity(dto);
+
+        assertNull(user.getImageContentId());
+        assertEquals("image/jpeg", user.getImageContentType());
+        verifyNoInteractions(binaryContentService);
+    }
 }
\ No newline at end of file
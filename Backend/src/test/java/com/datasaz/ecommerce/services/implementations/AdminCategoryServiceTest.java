@@ -8,6 +8,8 @@ import com.datasaz.ecommerce.models.request.CategoryRequest;
 import com.datasaz.ecommerce.models.response.CategoryResponse;
 import com.datasaz.ecommerce.repositories.CategoryRepository;
 import com.datasaz.ecommerce.repositories.entities.Category;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
+import com.datasaz.ecommerce.services.interfaces.ICategoryTreeService;
 import com.datasaz.ecommerce.utilities.FileStorageService;
 import org.apache.tika.Tika;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +47,12 @@ class AdminCategoryServiceTest {
     @Mock
     private AuditLogService auditLogService;
 
+    @Mock
+    private IBinaryContentService binaryContentService;
+
+    @Mock
+    private ICategoryTreeService categoryTreeService;
+
     @InjectMocks
     private AdminCategoryService adminCategoryService;
 
@@ -196,6 +204,7 @@ class AdminCategoryServiceTest {
         verify(categoryRepository).findById(1L);
         verify(categoryRepository).findById(2L);
         verify(categoryRepository).save(category);
+        verify(categoryTreeService).refresh();
         verify(categoryMapper).toResponse(category);
     }
 
@@ -230,7 +239,7 @@ class AdminCategoryServiceTest {
         assertEquals(ExceptionMessages.CATEGORY_NOT_FOUND + "Category not found.", exception.getMessage());
         verify(categoryRepository).findById(999L);
         verifyNoMoreInteractions(categoryRepository);
-        verifyNoInteractions(categoryMapper);
+        verifyNoInteractions(categoryMapper, categoryTreeService);
     }
 
     @Test
@@ -259,6 +268,7 @@ class AdminCategoryServiceTest {
 
         verify(categoryRepository).existsById(1L);
         verify(categoryRepository).deleteById(1L);
+        verify(categoryTreeService).refresh();
     }
 
     @Test
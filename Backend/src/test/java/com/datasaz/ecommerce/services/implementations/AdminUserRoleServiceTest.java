@@ -14,6 +14,7 @@ import com.datasaz.ecommerce.repositories.entities.Roles;
 import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.services.interfaces.IAuditLogService;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -35,6 +36,9 @@ import static org.mockito.Mockito.when;
 
 class AdminUserRoleServiceTest {
 
+    @Mock
+    private IUserAuthStatusService userAuthStatusService;
+
     @InjectMocks
     private AdminUserRoleService adminUserRoleService;
 
@@ -115,7 +119,7 @@ class AdminUserRoleServiceTest {
         verify(rolesRepository).findByRole(RoleTypes.SELLER);
         verify(userRepository).save(user);
         verify(auditLogService).logAction(eq("test@example.com"), eq("ADD_USER_ROLE"), anyString(), anyString());
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
     }
 
     @Test
@@ -173,7 +177,7 @@ class AdminUserRoleServiceTest {
         verify(rolesRepository).findByRole(RoleTypes.SELLER);
         verify(userRepository).save(user);
         verify(auditLogService).logAction(eq("test@example.com"), eq("REMOVE_USER_ROLE"), anyString(), anyString());
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
     }
 
     @Test
@@ -242,7 +246,7 @@ class AdminUserRoleServiceTest {
         verify(userRepository).save(user);
         verify(auditLogService).logAction(eq("test@example.com"), eq("ASSIGN_ROLE"), anyString(), eq("SELLER"), anyString());
         verify(emailService).sendRoleChangeNotification(eq("test@example.com"), eq("SELLER"), eq("ASSIGN_ROLE"), any(LocalDateTime.class));
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
     }
 
     @Test
@@ -260,7 +264,7 @@ class AdminUserRoleServiceTest {
         verify(userRepository).save(user);
         verify(auditLogService).logAction(eq("test@example.com"), eq("REMOVE_ROLE"), anyString(), eq("SELLER"), anyString());
         verify(emailService).sendRoleChangeNotification(eq("test@example.com"), eq("SELLER"), eq("REMOVE_ROLE"), any(LocalDateTime.class));
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
     }
 
     @Test
@@ -279,7 +283,7 @@ class AdminUserRoleServiceTest {
         verify(userRepository).save(user);
         verify(auditLogService).logAction(eq("test@example.com"), eq("ASSIGN_ROLE"), anyString(), eq("SELLER"), anyString());
         verify(emailService).sendRoleChangeNotification(eq("test@example.com"), eq("SELLER"), eq("ASSIGN_ROLE"), any(LocalDateTime.class));
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
     }
 
     @Test
@@ -330,7 +334,7 @@ class AdminUserRoleServiceTest {
         verify(userRepository).save(user);
         verify(auditLogService).logAction(eq("test@example.com"), eq("REMOVE_ROLE"), anyString(), eq("SELLER"), anyString());
         verify(emailService).sendRoleChangeNotification(eq("test@example.com"), eq("SELLER"), eq("REMOVE_ROLE"), any(LocalDateTime.class));
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
     }
 
     @Test
@@ -476,7 +480,7 @@ class AdminUserRoleServiceTest {
 
         assertEquals(userDto, result);
         verify(userRepository).save(user);
-        verify(refreshTokenRepository).deleteByUserEmail(email);
+        verify(refreshTokenRepository).revokeAllByUserEmail(email);
         verify(auditLogService).logAction(eq(email), eq("ADD_USER_ROLE"), anyString());
     }
 
@@ -526,7 +530,7 @@ class AdminUserRoleServiceTest {
 
         assertEquals(userDto, result);
         verify(userRepository).save(user);
-        verify(refreshTokenRepository).deleteByUserEmail(email);
+        verify(refreshTokenRepository).revokeAllByUserEmail(email);
         verify(auditLogService).logAction(eq(email), eq("REMOVE_USER_ROLE"), anyString());
     }
 
@@ -582,7 +586,7 @@ class AdminUserRoleServiceTest {
         UserDto result = adminUserRoleService.assignSellerRole(email);
 
         assertEquals(userDto, result);
-        verify(refreshTokenRepository).deleteByUserEmail(email);
+        verify(refreshTokenRepository).revokeAllByUserEmail(email);
         verify(auditLogService).logAction(eq(email), eq("ASSIGN_ROLE"), anyString(), eq("SELLER"), anyString());
         verify(emailService).sendRoleChangeNotification(eq(email), eq("SELLER"), eq("ASSIGN_ROLE"), any(LocalDateTime.class));
     }
@@ -602,7 +606,7 @@ class AdminUserRoleServiceTest {
         assertTrue(user.getUserRoles().contains(buyerRole), "User should still have BUYER role");
         assertTrue(user.getUserRoles().contains(sellerRole), "User should have SELLER role");
         verify(userRepository).save(user);
-        verify(refreshTokenRepository).deleteByUserEmail(email);
+        verify(refreshTokenRepository).revokeAllByUserEmail(email);
         verify(auditLogService).logAction(eq(email), eq("ADD_USER_ROLE"), anyString());
     }
 
@@ -637,7 +641,7 @@ class AdminUserRoleServiceTest {
         UserDto result = adminUserRoleService.removeSellerRole(email);
 
         assertEquals(userDto, result);
-        verify(refreshTokenRepository).deleteByUserEmail(email);
+        verify(refreshTokenRepository).revokeAllByUserEmail(email);
         verify(auditLogService).logAction(eq(email), eq("REMOVE_ROLE"), anyString(), eq("SELLER"), anyString());
         verify(emailService).sendRoleChangeNotification(eq(email), eq("SELLER"), eq("REMOVE_ROLE"), any(LocalDateTime.class));
     }
@@ -672,7 +676,7 @@ class AdminUserRoleServiceTest {
         UserDto result = adminUserRoleService.assignRole(email, "SELLER");
 
         assertEquals(userDto, result);
-        verify(refreshTokenRepository).deleteByUserEmail(email);
+        verify(refreshTokenRepository).revokeAllByUserEmail(email);
         verify(auditLogService).logAction(eq(email), eq("ASSIGN_ROLE"), anyString(), eq("SELLER"), anyString());
         verify(emailService).sendRoleChangeNotification(eq(email), eq("SELLER"), eq("ASSIGN_ROLE"), any(LocalDateTime.class));
     }
@@ -713,7 +717,7 @@ class AdminUserRoleServiceTest {
         UserDto result = adminUserRoleService.removeRole(email, "SELLER");
 
         assertEquals(userDto, result);
-        verify(refreshTokenRepository).deleteByUserEmail(email);
+        verify(refreshTokenRepository).revokeAllByUserEmail(email);
         verify(auditLogService).logAction(eq(email), eq("REMOVE_ROLE"), anyString(), eq("SELLER"), anyString());
         verify(emailService).sendRoleChangeNotification(eq(email), eq("SELLER"), eq("REMOVE_ROLE"), any(LocalDateTime.class));
     }
@@ -9,6 +9,7 @@ import com.datasaz.ecommerce.repositories.RefreshTokenRepository;
 import com.datasaz.ecommerce.repositories.UserRepository;
 import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import com.datasaz.ecommerce.utilities.JwtBlacklistService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,6 +33,9 @@ import static org.mockito.Mockito.*;
 
 class AdminUserServiceTest {
 
+    @Mock
+    private IUserAuthStatusService userAuthStatusService;
+
     @InjectMocks
     private AdminUserService adminUserService;
 
@@ -99,6 +103,7 @@ class AdminUserServiceTest {
         Page<User> userPage = new PageImpl<>(Collections.singletonList(user));
         Page<UserDto> userDtoPage = new PageImpl<>(Collections.singletonList(userDto));
         when(userRepository.findAllWithAllCollections(any(PageRequest.class))).thenReturn(userPage);
+        when(userMapper.dtoMapper(userPage.getContent())).thenReturn(userMapper::toDto);
         when(userMapper.toDto(user)).thenReturn(userDto);
 
         Page<UserDto> result = adminUserService.findAll(0, 10);
@@ -183,7 +188,7 @@ class AdminUserServiceTest {
 
         verify(userRepository).save(user);
         verify(auditLogService).logAction(eq("test@example.com"), eq("DELETE_USER_ADMIN"), any(), any());
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
         assertTrue(user.getDeleted());
         assertFalse(user.getIsActivated());
         assertNull(user.getDeletionToken());
@@ -223,7 +228,9 @@ class AdminUserServiceTest {
         assertEquals(userDto, result);
         verify(userRepository).save(user);
         verify(auditLogService).logAction(eq("test@example.com"), eq("UPDATE_PASSWORD_ADMIN"), any(), any());
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
+        verify(userAuthStatusService).invalidate("test@example.com");
+        assertNotNull(user.getLastPasswordResetDate());
     }
 
     @Test
@@ -264,7 +271,8 @@ class AdminUserServiceTest {
         assertEquals("User blocked successfully.", result);
         verify(userRepository).save(user);
         verify(auditLogService).logAction(eq("test@example.com"), eq("BLOCK_USER"), any(), any());
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
+        verify(userAuthStatusService).invalidate("test@example.com");
         assertTrue(user.getIsBlocked());
     }
 
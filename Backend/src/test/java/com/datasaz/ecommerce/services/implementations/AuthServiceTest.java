@@ -0,0 +1,168 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.mappers.UserMapper;
+import com.datasaz.ecommerce.models.dto.AuthResponse;
+import com.datasaz.ecommerce.repositories.RefreshTokenRepository;
+import com.datasaz.ecommerce.repositories.RolesRepository;
+import com.datasaz.ecommerce.repositories.UserRepository;
+import com.datasaz.ecommerce.repositories.entities.RefreshToken;
+import com.datasaz.ecommerce.repositories.entities.User;
+import com.datasaz.ecommerce.services.interfaces.IAuthService;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
+import com.datasaz.ecommerce.services.interfaces.IEmailService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
+import com.datasaz.ecommerce.services.interfaces.IUserPrivacySettingsService;
+import com.datasaz.ecommerce.utilities.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AuthServiceTest {
+
+    private static final String EMAIL = "user@test.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private RolesRepository rolesRepository;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Spy
+    private JwtUtil jwtUtil = new JwtUtil();
+
+    @Mock
+    private IEmailService emailService;
+
+    @Mock
+    private IUserPrivacySettingsService userPrivacySettingsService;
+
+    @Mock
+    private IUserAuthStatusService userAuthStatusService;
+
+    @Mock
+    private IBinaryContentService binaryContentService;
+
+    @InjectMocks
+    private AuthService authService;
+
+    private String refreshToken;
+    private String tokenHash;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        refreshToken = JwtUtil.generateRefreshToken(EMAIL);
+        tokenHash = JwtUtil.tokenHash(refreshToken);
+    }
+
+    @Test
+    void refreshToken_ActiveToken_RotatesIntoANewPair() {
+        when(refreshTokenRepository.revokeIfActive(eq(tokenHash), any(LocalDateTime.class))).thenReturn(1);
+        when(userRepository.findByEmailAddressAndDeletedFalse(EMAIL))
+                .thenReturn(Optional.of(User.builder().emailAddress(EMAIL).isBlocked(false).build()));
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(org.springframework.security.core.userdetails.User
+                .withUsername(EMAIL).password("").authorities("ROLE_BUYER").build());
+
+        AuthResponse response = authService.refreshToken(refreshToken);
+
+        assertEquals(EMAIL, JwtUtil.extractUsername(response.getToken()));
+        assertNotEquals(refreshToken, response.getRefreshToken());
+        verify(refreshTokenRepository).save(argThat(saved -> saved.getTokenHash().equals(JwtUtil.tokenHash(response.getRefreshToken()))
+                && saved.getUserEmail().equals(EMAIL) && !saved.isRevoked()));
+        verify(refreshTokenRepository, never()).revokeAllByUserEmail(anyString());
+    }
+
+    @Test
+    void refreshToken_RotatedTokenReused_RevokesEveryTokenOfTheUser() {
+        when(refreshTokenRepository.revokeIfActive(eq(tokenHash), any(LocalDateTime.class))).thenReturn(0);
+        when(refreshTokenRepository.findByTokenHash(tokenHash)).thenReturn(Optional.of(stored(true, LocalDateTime.now().plusDays(1))));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> authService.refreshToken(refreshToken));
+
+        assertEquals("Refresh token is revoked", exception.getMessage());
+        verify(refreshTokenRepository).revokeAllByUserEmail(EMAIL);
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void refreshToken_ExpiredToken_Rejected() {
+        when(refreshTokenRepository.revokeIfActive(eq(tokenHash), any(LocalDateTime.class))).thenReturn(0);
+        when(refreshTokenRepository.findByTokenHash(tokenHash)).thenReturn(Optional.of(stored(false, LocalDateTime.now().minusMinutes(1))));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> authService.refreshToken(refreshToken));
+
+        assertEquals("Refresh token expired", exception.getMessage());
+        verify(refreshTokenRepository, never()).revokeAllByUserEmail(anyString());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void refreshToken_UnknownToken_Rejected() {
+        when(refreshTokenRepository.findByTokenHash(tokenHash)).thenReturn(Optional.empty());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> authService.refreshToken(refreshToken));
+
+        assertEquals("Invalid refresh token", exception.getMessage());
+    }
+
+    @Test
+    void refreshToken_ReuseRejected_RevocationStillCommits() {
+        when(refreshTokenRepository.findByTokenHash(tokenHash)).thenReturn(Optional.of(stored(true, LocalDateTime.now().plusDays(1))));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        TransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        ProxyFactory proxyFactory = new ProxyFactory(authService);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        IAuthService transactional = (IAuthService) proxyFactory.getProxy();
+
+        assertThrows(IllegalArgumentException.class, () -> transactional.refreshToken(refreshToken));
+
+        verify(refreshTokenRepository).revokeAllByUserEmail(EMAIL);
+        verify(transactionManager).commit(status);
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    private RefreshToken stored(boolean revoked, LocalDateTime expiryDate) {
+        return RefreshToken.builder().id(1L).userEmail(EMAIL).tokenHash(tokenHash).expiryDate(expiryDate).revoked(revoked).build();
+    }
+}
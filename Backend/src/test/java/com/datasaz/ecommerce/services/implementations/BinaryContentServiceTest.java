@@ -0,0 +1,90 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import com.datasaz.ecommerce.repositories.BinaryContentRepository;
+import com.datasaz.ecommerce.repositories.entities.BinaryContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class BinaryContentServiceTest {
+
+    @Mock
+    private BinaryContentRepository binaryContentRepository;
+
+    @InjectMocks
+    private BinaryContentService binaryContentService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void store_SavesPayloadWithSize_ReturnsId() {
+        when(binaryContentRepository.save(any(BinaryContent.class))).thenAnswer(invocation -> {
+            BinaryContent content = invocation.getArgument(0);
+            content.setId(10L);
+            return content;
+        });
+
+        Long id = binaryContentService.store(new byte[]{1, 2, 3}, "image/jpeg");
+
+        ArgumentCaptor<BinaryContent> captor = ArgumentCaptor.forClass(BinaryContent.class);
+        verify(binaryContentRepository).save(captor.capture());
+        assertEquals(10L, id);
+        assertEquals(3, captor.getValue().getSize());
+        assertEquals("image/jpeg", captor.getValue().getContentType());
+    }
+
+    @Test
+    void store_EmptyPayload_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> binaryContentService.store(new byte[0], "image/jpeg"));
+        verify(binaryContentRepository, never()).save(any());
+    }
+
+    @Test
+    void replace_ExistingContent_OverwritesInPlace() {
+        BinaryContent existing = BinaryContent.builder().id(5L).data(new byte[]{1}).contentType("image/png").size(1).build();
+        when(binaryContentRepository.findById(5L)).thenReturn(Optional.of(existing));
+        when(binaryContentRepository.save(existing)).thenReturn(existing);
+
+        Long id = binaryContentService.replace(5L, new byte[]{7, 8}, "image/jpeg");
+
+        assertEquals(5L, id);
+        assertArrayEquals(new byte[]{7, 8}, existing.getData());
+        assertEquals(2, existing.getSize());
+        assertEquals("image/jpeg", existing.getContentType());
+    }
+
+    @Test
+    void loadAll_SkipsNullIds_ReturnsContentById() {
+        when(binaryContentRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(
+                BinaryContent.builder().id(1L).data(new byte[]{1}).build(),
+                BinaryContent.builder().id(2L).data(new byte[]{2}).build()));
+
+        Map<Long, byte[]> contents = binaryContentService.loadAll(Arrays.asList(1L, null, 2L, 1L));
+
+        assertEquals(2, contents.size());
+        assertArrayEquals(new byte[]{2}, contents.get(2L));
+    }
+
+    @Test
+    void loadBase64_NullId_ReturnsNullWithoutQuery() {
+        assertNull(binaryContentService.loadBase64(null));
+        verify(binaryContentRepository, never()).findById(anyLong());
+    }
+}
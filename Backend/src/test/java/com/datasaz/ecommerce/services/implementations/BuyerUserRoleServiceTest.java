@@ -10,6 +10,7 @@ import com.datasaz.ecommerce.repositories.entities.Roles;
 import com.datasaz.ecommerce.repositories.entities.User;
 import com.datasaz.ecommerce.services.interfaces.IAuditLogService;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import com.datasaz.ecommerce.utilities.CurrentUserService;
 import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.BeforeEach;
@@ -48,6 +49,9 @@ class BuyerUserRoleServiceTest {
     @Mock
     private CurrentUserService currentUserService;
 
+    @Mock
+    private IUserAuthStatusService userAuthStatusService;
+
     @InjectMocks
     private BuyerUserRoleService buyerUserRoleService;
 
@@ -76,7 +80,7 @@ class BuyerUserRoleServiceTest {
         when(rolesRepository.findByRole(RoleTypes.SELLER)).thenReturn(Optional.of(sellerRole));
         when(userRepository.save(any(User.class))).thenReturn(user);
         doNothing().when(auditLogService).logAction(anyString(), anyString(), anyString());
-        doNothing().when(refreshTokenRepository).deleteByUserEmail(anyString());
+        when(refreshTokenRepository.revokeAllByUserEmail(anyString())).thenReturn(1);
 
         // Act
         buyerUserRoleService.becomeIndividualSeller();
@@ -89,7 +93,7 @@ class BuyerUserRoleServiceTest {
         } catch (MessagingException e) {
             fail("MessagingException should not be thrown by mock");
         }
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
         assertTrue(user.getUserRoles().contains(sellerRole));
     }
 
@@ -110,7 +114,7 @@ class BuyerUserRoleServiceTest {
         } catch (MessagingException e) {
             fail("MessagingException should not be thrown by mock");
         }
-        verify(refreshTokenRepository, never()).deleteByUserEmail(anyString());
+        verify(refreshTokenRepository, never()).revokeAllByUserEmail(anyString());
     }
 
     @Test
@@ -128,7 +132,7 @@ class BuyerUserRoleServiceTest {
         } catch (MessagingException e) {
             fail("MessagingException should not be thrown by mock");
         }
-        verify(refreshTokenRepository, never()).deleteByUserEmail(anyString());
+        verify(refreshTokenRepository, never()).revokeAllByUserEmail(anyString());
     }
 
     @Test
@@ -147,7 +151,7 @@ class BuyerUserRoleServiceTest {
         } catch (MessagingException e) {
             fail("MessagingException should not be thrown by mock");
         }
-        verify(refreshTokenRepository, never()).deleteByUserEmail(anyString());
+        verify(refreshTokenRepository, never()).revokeAllByUserEmail(anyString());
     }
 
     @Test
@@ -158,7 +162,7 @@ class BuyerUserRoleServiceTest {
         when(rolesRepository.save(any(Roles.class))).thenReturn(sellerRole);
         when(userRepository.save(any(User.class))).thenReturn(user);
         doNothing().when(auditLogService).logAction(anyString(), anyString(), anyString());
-        doNothing().when(refreshTokenRepository).deleteByUserEmail(anyString());
+        when(refreshTokenRepository.revokeAllByUserEmail(anyString())).thenReturn(1);
 
         // Act
         buyerUserRoleService.becomeIndividualSeller();
@@ -172,7 +176,7 @@ class BuyerUserRoleServiceTest {
         } catch (MessagingException e) {
             fail("MessagingException should not be thrown by mock");
         }
-        verify(refreshTokenRepository).deleteByUserEmail("test@example.com");
+        verify(refreshTokenRepository).revokeAllByUserEmail("test@example.com");
         assertTrue(user.getUserRoles().contains(sellerRole));
     }
 
@@ -195,7 +199,7 @@ class BuyerUserRoleServiceTest {
         } catch (MessagingException e) {
             fail("MessagingException should not be thrown by mock");
         }
-        // Do not verify refreshTokenRepository.deleteByUserEmail, as it is not called due to the exception
+        // Do not verify refreshTokenRepository.revokeAllByUserEmail, as it is not called due to the exception
         assertTrue(user.getUserRoles().contains(sellerRole));
     }
 }
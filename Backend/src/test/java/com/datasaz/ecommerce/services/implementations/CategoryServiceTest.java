@@ -5,6 +5,9 @@ import com.datasaz.ecommerce.mappers.CategoryMapper;
 import com.datasaz.ecommerce.models.response.CategoryResponse;
 import com.datasaz.ecommerce.repositories.CategoryRepository;
 import com.datasaz.ecommerce.repositories.entities.Category;
+import com.datasaz.ecommerce.services.interfaces.ICategoryTreeService;
+import com.datasaz.ecommerce.services.interfaces.IProductLeaderboardService;
+import com.datasaz.ecommerce.utilities.CategoryTreeSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -21,7 +24,6 @@ import org.springframework.data.domain.Pageable;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +38,12 @@ class CategoryServiceTest {
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Mock
+    private IProductLeaderboardService productLeaderboardService;
+
+    @Mock
+    private ICategoryTreeService categoryTreeService;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -94,32 +102,33 @@ class CategoryServiceTest {
         // Mock CategoryMapper behavior
         when(categoryMapper.toResponse(parentCategoryEntity)).thenReturn(parentCategoryResponse);
         when(categoryMapper.toResponse(subcategoryEntity)).thenReturn(subcategoryResponse);
+        when(categoryMapper.responseMapper(any())).thenReturn(categoryMapper::toResponse);
     }
 
     @Test
     void testFindCategoryById_Success() {
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(parentCategoryEntity));
+        treeOf(parentCategoryResponse, subcategoryResponse);
 
         CategoryResponse result = categoryService.findCategoryById(1L);
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("Electronics", result.getName());
-        verify(categoryRepository).findById(1L);
-        verify(categoryMapper).toResponse(parentCategoryEntity);
+        assertEquals(List.of(subcategoryResponse), result.getSubcategories());
+        verify(categoryTreeService).getSnapshot();
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void testFindCategoryById_NotFound() {
-        when(categoryRepository.findById(999L)).thenReturn(Optional.empty());
+        treeOf(parentCategoryResponse, subcategoryResponse);
 
         CategoryNotFoundException exception = assertThrows(CategoryNotFoundException.class, () -> {
             categoryService.findCategoryById(999L);
         });
 
         assertEquals("Category not found.", exception.getMessage());
-        verify(categoryRepository).findById(999L);
-        verifyNoInteractions(categoryMapper);
+        verifyNoInteractions(categoryRepository, categoryMapper);
     }
 
     @Test
@@ -149,7 +158,7 @@ class CategoryServiceTest {
 
     @Test
     void testFindAllCategory_Success() {
-        when(categoryRepository.findAll()).thenReturn(List.of(parentCategoryEntity, subcategoryEntity));
+        treeOf(subcategoryResponse, parentCategoryResponse);
 
         List<CategoryResponse> result = categoryService.findAllCategory();
 
@@ -157,31 +166,27 @@ class CategoryServiceTest {
         assertEquals(2, result.size());
         assertEquals("Electronics", result.get(0).getName());
         assertEquals("Smartphones", result.get(1).getName());
-        verify(categoryRepository).findAll();
-        verify(categoryMapper, times(2)).toResponse(any(Category.class));
+        verifyNoInteractions(categoryRepository, categoryMapper);
     }
 
     @Test
     void testFindAllCategory_EmptyList() {
-        when(categoryRepository.findAll()).thenReturn(Collections.emptyList());
+        treeOf();
 
         List<CategoryResponse> result = categoryService.findAllCategory();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(categoryRepository).findAll();
-        verifyNoInteractions(categoryMapper);
     }
 
     @Test
     void testFindAllCategory_Exception() {
-        when(categoryRepository.findAll()).thenThrow(new RuntimeException("Database error"));
+        when(categoryTreeService.getSnapshot()).thenThrow(new RuntimeException("Database error"));
 
         List<CategoryResponse> result = categoryService.findAllCategory();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(categoryRepository).findAll();
         verifyNoInteractions(categoryMapper);
     }
 
@@ -269,135 +274,126 @@ class CategoryServiceTest {
 
     @Test
     void testFindSubcategoriesByCategoryId_Success() {
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(parentCategoryEntity));
+        treeOf(parentCategoryResponse, subcategoryResponse);
 
         List<CategoryResponse> result = categoryService.findSubcategoriesByCategoryId(1L);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Smartphones", result.get(0).getName());
-        verify(categoryRepository).findById(1L);
-        verify(categoryMapper).toResponse(subcategoryEntity);
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void testFindSubcategoriesByCategoryId_NotFound() {
-        when(categoryRepository.findById(999L)).thenReturn(Optional.empty());
+        treeOf(parentCategoryResponse, subcategoryResponse);
 
         CategoryNotFoundException exception = assertThrows(CategoryNotFoundException.class, () -> {
             categoryService.findSubcategoriesByCategoryId(999L);
         });
 
         assertEquals("Category not found.", exception.getMessage());
-        verify(categoryRepository).findById(999L);
-        verifyNoInteractions(categoryMapper);
+        verifyNoInteractions(categoryRepository, categoryMapper);
     }
 
     @Test
     void testFindSubcategoriesByCategoryId_EmptySubcategories() {
-        parentCategoryEntity.setSubcategories(Collections.emptyList());
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(parentCategoryEntity));
+        treeOf(parentCategoryResponse);
 
         List<CategoryResponse> result = categoryService.findSubcategoriesByCategoryId(1L);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(categoryRepository).findById(1L);
-        verifyNoInteractions(categoryMapper);
     }
 
     @Test
     void testFindParentCategories_Success() {
-        when(categoryRepository.findByParentIsNull()).thenReturn(List.of(parentCategoryEntity));
+        treeOf(parentCategoryResponse, subcategoryResponse);
 
         List<CategoryResponse> result = categoryService.findParentCategories();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Electronics", result.get(0).getName());
-        verify(categoryRepository).findByParentIsNull();
-        verify(categoryMapper).toResponse(parentCategoryEntity);
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void testFindParentCategories_EmptyList() {
-        when(categoryRepository.findByParentIsNull()).thenReturn(Collections.emptyList());
+        treeOf();
 
         List<CategoryResponse> result = categoryService.findParentCategories();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(categoryRepository).findByParentIsNull();
-        verifyNoInteractions(categoryMapper);
     }
 
     @Test
     void testFindParentCategories_Exception() {
-        when(categoryRepository.findByParentIsNull()).thenThrow(new RuntimeException("Database error"));
+        when(categoryTreeService.getSnapshot()).thenThrow(new RuntimeException("Database error"));
 
         List<CategoryResponse> result = categoryService.findParentCategories();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(categoryRepository).findByParentIsNull();
         verifyNoInteractions(categoryMapper);
     }
 
     @Test
     void testGetCategoriesWithSubcategoriesForProductSelection_Success() {
-        when(categoryRepository.findBySubcategoriesIsEmpty()).thenReturn(List.of(subcategoryEntity));
+        treeOf(parentCategoryResponse, subcategoryResponse);
 
         List<CategoryResponse> result = categoryService.getCategoriesWithSubcategoriesForProductSelection();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Smartphones", result.get(0).getName());
-        verify(categoryRepository).findBySubcategoriesIsEmpty();
-        verify(categoryMapper).toResponse(subcategoryEntity);
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void testGetCategoriesWithSubcategoriesForProductSelection_EmptyList() {
-        when(categoryRepository.findBySubcategoriesIsEmpty()).thenReturn(Collections.emptyList());
+        treeOf();
 
         List<CategoryResponse> result = categoryService.getCategoriesWithSubcategoriesForProductSelection();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(categoryRepository).findBySubcategoriesIsEmpty();
-        verifyNoInteractions(categoryMapper);
     }
 
     @Test
     void testGetCategoriesWithSubcategoriesForProductSelection_Exception() {
-        when(categoryRepository.findBySubcategoriesIsEmpty()).thenThrow(new RuntimeException("Database error"));
+        when(categoryTreeService.getSnapshot()).thenThrow(new RuntimeException("Database error"));
 
         List<CategoryResponse> result = categoryService.getCategoriesWithSubcategoriesForProductSelection();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(categoryRepository).findBySubcategoriesIsEmpty();
         verifyNoInteractions(categoryMapper);
     }
 
     @Test
     void testCheckCategoryExistsById_True() {
-        when(categoryRepository.existsById(1L)).thenReturn(true);
+        treeOf(parentCategoryResponse);
 
         boolean result = categoryService.checkCategoryExistsById(1L);
 
         assertTrue(result);
-        verify(categoryRepository).existsById(1L);
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void testCheckCategoryExistsById_False() {
-        when(categoryRepository.existsById(999L)).thenReturn(false);
+        treeOf(parentCategoryResponse);
 
         boolean result = categoryService.checkCategoryExistsById(999L);
 
         assertFalse(result);
-        verify(categoryRepository).existsById(999L);
+        verifyNoInteractions(categoryRepository);
+    }
+
+    private void treeOf(CategoryResponse... categories) {
+        when(categoryTreeService.getSnapshot()).thenReturn(CategoryTreeSnapshot.build(List.of(categories), 1));
     }
 }
 
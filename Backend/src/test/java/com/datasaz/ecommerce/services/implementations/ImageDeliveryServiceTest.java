@@ -0,0 +1,367 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.exceptions.ResourceNotFoundException;
+import com.datasaz.ecommerce.models.dto.BinaryContentMetadata;
+import com.datasaz.ecommerce.models.dto.ImageDelivery;
+import com.datasaz.ecommerce.models.dto.ProductThumbnailRef;
+import com.datasaz.ecommerce.repositories.ProductImageAttachRepository;
+import com.datasaz.ecommerce.repositories.ProductImageRepository;
+import com.datasaz.ecommerce.repositories.UserRepository;
+import com.datasaz.ecommerce.repositories.entities.Product;
+import com.datasaz.ecommerce.repositories.entities.ProductImage;
+import com.datasaz.ecommerce.repositories.entities.ProductImageAttach;
+import com.datasaz.ecommerce.repositories.entities.User;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
+import com.datasaz.ecommerce.services.interfaces.IObjectStorageService;
+import com.datasaz.ecommerce.utilities.BinaryContentResource;
+import com.datasaz.ecommerce.utilities.ContentHashUtils;
+import com.datasaz.ecommerce.utilities.OffHeapLruCache;
+import com.datasaz.ecommerce.utilities.SignedUrlSigner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImageDeliveryServiceTest {
+
+    @Mock
+    private ProductImageAttachRepository productImageAttachRepository;
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private IBinaryContentService binaryContentService;
+
+    @Mock
+    private IObjectStorageService objectStorageService;
+
+    @Mock
+    private SignedUrlSigner signedUrlSigner;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private GroupConfig groupConfig;
+
+    @InjectMocks
+    private ImageDeliveryService imageDeliveryService;
+
+    @TempDir
+    Path uploadDir;
+
+    private OffHeapLruCache imageMemoryCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        imageMemoryCache = new OffHeapLruCache(64 * 1024, 1024, 16 * 1024);
+        ReflectionTestUtils.setField(imageDeliveryService, "imageMemoryCache", imageMemoryCache);
+        groupConfig.imageStorageMode = "database";
+        groupConfig.UPLOAD_DIR = uploadDir.toString();
+        groupConfig.imageDeliveryMode = "stream";
+        groupConfig.signedUrlTtlSeconds = 300;
+    }
+
+    @Test
+    void getProductImage_DatabaseMode_ReturnsStreamingResourceWithoutLoadingBytes() {
+        ProductImageAttach image = attach(1L, 10L);
+        when(productImageAttachRepository.findById(5L)).thenReturn(Optional.of(image));
+        when(binaryContentService.findMetadataById(100L)).thenReturn(Optional.of(metadata(100L, 3L, "abc123")));
+
+        ImageDelivery delivery = imageDeliveryService.getProductImage(10L, 5L, false);
+
+        assertInstanceOf(BinaryContentResource.class, delivery.getResource());
+        assertEquals("image/jpeg", delivery.getContentType());
+        assertEquals("abc123", delivery.getContentHash());
+        assertEquals("test.jpg", delivery.getFileName());
+        verify(binaryContentService, never()).load(any());
+    }
+
+    @Test
+    void getProductImage_OtherProduct_ThrowsResourceNotFound() {
+        when(productImageAttachRepository.findById(5L)).thenReturn(Optional.of(attach(1L, 10L)));
+
+        assertThrows(ResourceNotFoundException.class, () -> imageDeliveryService.getProductImage(11L, 5L, false));
+        verifyNoInteractions(binaryContentService);
+    }
+
+    @Test
+    void getProductImage_ThumbnailNotYetDerived_ServesFullImage() {
+        when(productImageAttachRepository.findById(5L)).thenReturn(Optional.of(attach(1L, 10L)));
+        when(binaryContentService.findMetadataById(100L)).thenReturn(Optional.of(metadata(100L, 3L, "abc123")));
+
+        ImageDelivery delivery = imageDeliveryService.getProductImage(null, 5L, true);
+
+        assertEquals("abc123", delivery.getContentHash());
+    }
+
+    @Test
+    void getProductImage_Thumbnail_ReadFromDatabaseOnceThenFromMemory() throws Exception {
+        ProductImageAttach image = attach(1L, 10L);
+        image.setThumbnailContentId(101L);
+        when(productImageAttachRepository.findById(5L)).thenReturn(Optional.of(image));
+        when(binaryContentService.findMetadataById(101L)).thenReturn(Optional.of(metadata(101L, 3L, "thumb123")));
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBinaryStream(1)).thenReturn(new ByteArrayInputStream(new byte[]{7, 8, 9}));
+
+        byte[] first = imageDeliveryService.getProductImage(null, 5L, true).getResource().getInputStream().readAllBytes();
+        byte[] second = imageDeliveryService.getProductImage(null, 5L, true).getResource().getInputStream().readAllBytes();
+
+        assertArrayEquals(new byte[]{7, 8, 9}, first);
+        assertArrayEquals(new byte[]{7, 8, 9}, second);
+        verify(dataSource, times(1)).getConnection();
+        verify(connection).close();
+        assertEquals(1, imageMemoryCache.getHitCount());
+    }
+
+    @Test
+    void getProductImage_MissingThumbnailContent_ThrowsResourceNotFound() {
+        ProductImageAttach image = attach(1L, 10L);
+        image.setThumbnailContentId(101L);
+        when(productImageAttachRepository.findById(5L)).thenReturn(Optional.of(image));
+        when(binaryContentService.findMetadataById(101L)).thenReturn(Optional.empty());
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> imageDeliveryService.getProductImage(null, 5L, true));
+        assertEquals("Thumbnail not found for image ID: 1", exception.getMessage());
+    }
+
+    @Test
+    void getPrimaryProductImage_FileMode_ReturnsFileResourceWithContentHash() throws Exception {
+        groupConfig.imageStorageMode = "file";
+        byte[] content = {1, 2, 3, 4};
+        Files.createDirectories(uploadDir.resolve("products"));
+        Files.write(uploadDir.resolve("products").resolve("test.jpg"), content);
+        ProductImage image = ProductImage.builder().id(1L).fileName("test.jpg").contentType("image/jpeg")
+                .product(Product.builder().id(10L).build()).build();
+        when(productImageRepository.findByProductIdAndIsPrimaryTrue(10L)).thenReturn(Optional.of(image));
+
+        ImageDelivery delivery = imageDeliveryService.getPrimaryProductImage(10L, false);
+
+        assertInstanceOf(FileSystemResource.class, delivery.getResource());
+        assertEquals(ContentHashUtils.sha256Hex(content), delivery.getContentHash());
+        assertEquals(4, delivery.getResource().contentLength());
+    }
+
+    @Test
+    void getPrimaryProductImage_FileMode_MissingFile_ThrowsResourceNotFound() {
+        groupConfig.imageStorageMode = "file";
+        ProductImage image = ProductImage.builder().id(1L).fileName("missing.jpg")
+                .product(Product.builder().id(10L).build()).build();
+        when(productImageRepository.findByProductIdAndIsPrimaryTrue(10L)).thenReturn(Optional.of(image));
+
+        assertThrows(ResourceNotFoundException.class, () -> imageDeliveryService.getPrimaryProductImage(10L, false));
+    }
+
+    @Test
+    void getPrimaryProductImage_RedirectFileMode_ReturnsSignedPathWithoutBody() throws Exception {
+        groupConfig.imageStorageMode = "file";
+        groupConfig.imageDeliveryMode = "redirect";
+        Files.createDirectories(uploadDir.resolve("products"));
+        Files.write(uploadDir.resolve("products").resolve("my image.jpg"), new byte[]{1, 2, 3});
+        ProductImage image = ProductImage.builder().id(1L).fileName("my image.jpg").contentType("image/jpeg")
+                .product(Product.builder().id(10L).build()).build();
+        when(productImageRepository.findByProductIdAndIsPrimaryTrue(10L)).thenReturn(Optional.of(image));
+        when(signedUrlSigner.sign("/signed/files/products/my%20image.jpg", Duration.ofSeconds(300))).thenReturn("signed-url");
+
+        ImageDelivery delivery = imageDeliveryService.getPrimaryProductImage(10L, false);
+
+        assertTrue(delivery.isRedirect());
+        assertEquals("signed-url", delivery.getRedirectUrl());
+        assertNull(delivery.getResource());
+    }
+
+    @Test
+    void getProductImage_RedirectDatabaseMode_PresignsPublishedContentOnce() {
+        groupConfig.imageDeliveryMode = "redirect";
+        when(productImageAttachRepository.findById(5L)).thenReturn(Optional.of(attach(1L, 10L)));
+        when(binaryContentService.findMetadataById(100L)).thenReturn(Optional.of(metadata(100L, 3L, "abc123")));
+        when(objectStorageService.exists("content/abc123")).thenReturn(CompletableFuture.completedFuture(true));
+        when(objectStorageService.getSignedUrl("content/abc123", Duration.ofSeconds(300))).thenReturn("presigned-url");
+
+        ImageDelivery first = imageDeliveryService.getProductImage(10L, 5L, false);
+        ImageDelivery second = imageDeliveryService.getProductImage(10L, 5L, false);
+
+        assertEquals("presigned-url", first.getRedirectUrl());
+        assertEquals("presigned-url", second.getRedirectUrl());
+        verify(objectStorageService, times(1)).exists("content/abc123");
+        verify(objectStorageService, never()).put(anyString(), any(Path.class), anyString());
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    void unpublish_DeletesCopySoTheNextRequestPublishesAgain() {
+        groupConfig.imageDeliveryMode = "redirect";
+        when(productImageAttachRepository.findById(5L)).thenReturn(Optional.of(attach(1L, 10L)));
+        when(binaryContentService.findMetadataById(100L)).thenReturn(Optional.of(metadata(100L, 3L, "abc123")));
+        when(objectStorageService.exists("content/abc123")).thenReturn(CompletableFuture.completedFuture(true));
+        when(objectStorageService.delete("content/abc123")).thenReturn(CompletableFuture.completedFuture(null));
+        imageDeliveryService.getProductImage(10L, 5L, false);
+
+        imageDeliveryService.unpublish("abc123");
+        imageDeliveryService.getProductImage(10L, 5L, false);
+
+        verify(objectStorageService).delete("content/abc123");
+        verify(objectStorageService, times(2)).exists("content/abc123");
+    }
+
+    @Test
+    void getProductImage_RedirectDatabaseMode_StorageUnavailable_StreamsInstead() {
+        groupConfig.imageDeliveryMode = "redirect";
+        when(productImageAttachRepository.findById(5L)).thenReturn(Optional.of(attach(1L, 10L)));
+        when(binaryContentService.findMetadataById(100L)).thenReturn(Optional.of(metadata(100L, 3L, "abc123")));
+        when(objectStorageService.exists("content/abc123")).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("unreachable")));
+
+        ImageDelivery delivery = imageDeliveryService.getProductImage(10L, 5L, false);
+
+        assertFalse(delivery.isRedirect());
+        assertInstanceOf(BinaryContentResource.class, delivery.getResource());
+    }
+
+    @Test
+    void getProfilePicture_DatabaseContent_ReturnsStreamingResource() {
+        User user = User.builder().emailAddress("user@test.com").imageContentId(200L).imageContentType("image/png").imageFileExtension("png").build();
+        when(userRepository.findByEmailAddressAndDeletedFalse("user@test.com")).thenReturn(Optional.of(user));
+        when(binaryContentService.findMetadataById(200L)).thenReturn(Optional.of(metadata(200L, 3L, "def456")));
+
+        ImageDelivery delivery = imageDeliveryService.getProfilePicture("user@test.com");
+
+        assertInstanceOf(BinaryContentResource.class, delivery.getResource());
+        assertEquals("profile.png", delivery.getFileName());
+        assertEquals("def456", delivery.getContentHash());
+    }
+
+    @Test
+    void getProfilePicture_FileStored_ReturnsFileFromProfilePicturesDirectory() throws Exception {
+        Files.createDirectories(uploadDir.resolve("profile-pictures"));
+        Files.write(uploadDir.resolve("profile-pictures").resolve("abc_user.jpg"), new byte[]{1, 2});
+        User user = User.builder().emailAddress("user@test.com").profilePictureUrl("/Uploads/profile-pictures/abc_user.jpg").build();
+        when(userRepository.findByEmailAddressAndDeletedFalse("user@test.com")).thenReturn(Optional.of(user));
+
+        ImageDelivery delivery = imageDeliveryService.getProfilePicture("user@test.com");
+
+        assertInstanceOf(FileSystemResource.class, delivery.getResource());
+        assertEquals(2, delivery.getResource().contentLength());
+    }
+
+    @Test
+    void getProfilePicture_FileStored_UsesStoredContentType() throws Exception {
+        Files.createDirectories(uploadDir.resolve("profile-pictures"));
+        Files.write(uploadDir.resolve("profile-pictures").resolve("abc_user.png"), new byte[]{1, 2});
+        Files.write(uploadDir.resolve("profile-pictures").resolve("old_user.png"), new byte[]{1, 2});
+        User user = User.builder().emailAddress("user@test.com").profilePictureUrl("/Uploads/profile-pictures/abc_user.png")
+                .imageContentType("image/webp").build();
+        User legacy = User.builder().emailAddress("legacy@test.com").profilePictureUrl("/Uploads/profile-pictures/old_user.png").build();
+        when(userRepository.findByEmailAddressAndDeletedFalse("user@test.com")).thenReturn(Optional.of(user));
+        when(userRepository.findByEmailAddressAndDeletedFalse("legacy@test.com")).thenReturn(Optional.of(legacy));
+
+        assertEquals("image/webp", imageDeliveryService.getProfilePicture("user@test.com").getContentType());
+        // Stored before the type was recorded: taken from the file name
+        assertEquals("image/png", imageDeliveryService.getProfilePicture("legacy@test.com").getContentType());
+    }
+
+    @Test
+    void getProfilePicture_NoPicture_ThrowsResourceNotFound() {
+        when(userRepository.findByEmailAddressAndDeletedFalse("user@test.com"))
+                .thenReturn(Optional.of(User.builder().emailAddress("user@test.com").build()));
+
+        assertThrows(ResourceNotFoundException.class, () -> imageDeliveryService.getProfilePicture("user@test.com"));
+    }
+
+    @Test
+    void getProductThumbnails_CoverPerProductInRequestOrder_SkipsProductsWithoutUsableContent() {
+        List<ProductThumbnailRef> refs = List.of(
+                thumbnailRef(1L, 11L, 110L, 4L, "hash-1"),
+                thumbnailRef(2L, 21L, 210L, 5L, "hash-2"),
+                thumbnailRef(2L, 22L, 220L, 6L, "hash-2b"),
+                thumbnailRef(3L, 31L, 310L, 0L, "hash-3"));
+        when(productImageAttachRepository.findThumbnailRefsByProductIds(List.of(2L, 1L, 3L))).thenReturn(refs);
+
+        Map<Long, ImageDelivery> thumbnails = imageDeliveryService.getProductThumbnails(List.of(2L, 1L, 3L));
+
+        assertEquals(List.of(2L, 1L), List.copyOf(thumbnails.keySet()));
+        assertEquals("hash-2", thumbnails.get(2L).getContentHash());
+        assertEquals("image/webp", thumbnails.get(1L).getContentType());
+        assertEquals(4L, assertDoesNotThrow(() -> thumbnails.get(1L).getResource().contentLength()));
+        verifyNoInteractions(binaryContentService, dataSource);
+    }
+
+    private ProductThumbnailRef thumbnailRef(Long productId, Long imageId, Long contentId, long size, String hash) {
+        ProductThumbnailRef ref = mock(ProductThumbnailRef.class);
+        when(ref.getProductId()).thenReturn(productId);
+        when(ref.getImageId()).thenReturn(imageId);
+        when(ref.getFileName()).thenReturn("image-" + imageId + ".jpg");
+        when(ref.getFallbackContentType()).thenReturn("image/jpeg");
+        when(ref.getContentId()).thenReturn(contentId);
+        when(ref.getContentType()).thenReturn("image/webp");
+        when(ref.getSize()).thenReturn(size);
+        when(ref.getContentHash()).thenReturn(hash);
+        return ref;
+    }
+
+    private ProductImageAttach attach(Long id, Long productId) {
+        return ProductImageAttach.builder()
+                .id(id)
+                .fileName("test.jpg")
+                .contentType("image/jpeg")
+                .fileContentId(100L)
+                .product(Product.builder().id(productId).build())
+                .build();
+    }
+
+    private BinaryContentMetadata metadata(Long id, long size, String hash) {
+        return new BinaryContentMetadata() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getContentType() {
+                return "image/jpeg";
+            }
+
+            @Override
+            public long getSize() {
+                return size;
+            }
+
+            @Override
+            public String getContentHash() {
+                return hash;
+            }
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageProcessingServiceTest {
+
+    private ImageProcessingService imageProcessingService;
+
+    @BeforeEach
+    void setUp() {
+        imageProcessingService = new ImageProcessingService();
+        ReflectionTestUtils.setField(imageProcessingService, "threads", 1);
+        ReflectionTestUtils.setField(imageProcessingService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(imageProcessingService, "memoryBudgetMb", 1);
+        ReflectionTestUtils.setField(imageProcessingService, "runNowWaitMs", 50L);
+        imageProcessingService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        imageProcessingService.stop();
+    }
+
+    @Test
+    void submit_runsJobOnWorkerThread() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+
+        imageProcessingService.submit("image", 1024, () -> {
+            threadName.set(Thread.currentThread().getName());
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("image-processing-"));
+    }
+
+    @Test
+    void submit_inTransaction_waitsForCommit() throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+        CountDownLatch done = new CountDownLatch(1);
+
+        imageProcessingService.submit("image", 1024, done::countDown);
+        assertEquals(1, done.getCount());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_poolFull_rejectsWith503UntilAJobFinishes() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(2);
+        Runnable blocking = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.countDown();
+        };
+        imageProcessingService.submit("running", 1024, blocking);
+        imageProcessingService.submit("queued", 1024, blocking);
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> imageProcessingService.submit("rejected", 1024, () -> fail("must not run")));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        CountDownLatch accepted = new CountDownLatch(1);
+        // The slot is given back right after the job returns, so retry briefly instead of racing it
+        assertTrue(submitWhenFree(accepted::countDown));
+        assertTrue(accepted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_rolledBack_givesItsPlaceBack() throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+        imageProcessingService.submit("first", 1024, () -> fail("must not run"));
+        imageProcessingService.submit("second", 1024, () -> fail("must not run"));
+        assertThrows(ResponseStatusException.class, () -> imageProcessingService.submit("third", 1024, () -> {
+        }));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        CountDownLatch done = new CountDownLatch(1);
+        imageProcessingService.submit("after rollback", 1024, done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void runNow_runsOnTheCallingThreadAndGivesTheMemoryBack() throws Exception {
+        assertEquals(Thread.currentThread().getName(),
+                imageProcessingService.runNow("rendition", 1024 * 1024, () -> Thread.currentThread().getName()));
+        // The whole budget is free again
+        assertEquals("again", imageProcessingService.runNow("rendition", 1024 * 1024, () -> "again"));
+    }
+
+    @Test
+    void runNow_budgetTakenByAWorkerJob_rejectsWith503() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        imageProcessingService.submit("large upload", 1024 * 1024, () -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> imageProcessingService.runNow("rendition", 1024, () -> fail("must not run")));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+
+        release.countDown();
+        assertTrue(runNowWhenFree());
+    }
+
+    private boolean runNowWhenFree() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            try {
+                return imageProcessingService.runNow("retry", 1024, () -> true);
+            } catch (ResponseStatusException e) {
+                Thread.onSpinWait();
+            }
+        }
+        return false;
+    }
+
+    private boolean submitWhenFree(Runnable job) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            try {
+                imageProcessingService.submit("retry", 1024, job);
+                return true;
+            } catch (ResponseStatusException e) {
+                Thread.onSpinWait();
+            }
+        }
+        return false;
+    }
+}
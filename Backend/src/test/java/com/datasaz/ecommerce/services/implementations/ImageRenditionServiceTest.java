@@ -0,0 +1,212 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import com.datasaz.ecommerce.models.dto.ImageDelivery;
+import com.datasaz.ecommerce.services.interfaces.IImageDeliveryService;
+import com.datasaz.ecommerce.services.interfaces.IImageProcessingService;
+import com.datasaz.ecommerce.services.interfaces.IImageProcessingService.ImageJob;
+import com.datasaz.ecommerce.utilities.DiskLruCache;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine.ResizeQuality;
+import com.datasaz.ecommerce.utilities.OffHeapLruCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImageRenditionServiceTest {
+
+    @Mock
+    private IImageDeliveryService imageDeliveryService;
+
+    @Mock
+    private ImageProcessingEngine imageProcessingEngine;
+
+    @Mock
+    private IImageProcessingService imageProcessingService;
+
+    @Mock
+    private GroupConfig groupConfig;
+
+    @InjectMocks
+    private ImageRenditionService imageRenditionService;
+
+    @TempDir
+    Path uploadDir;
+
+    private OffHeapLruCache imageMemoryCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        imageMemoryCache = new OffHeapLruCache(64 * 1024, 1024, 16 * 1024);
+        ReflectionTestUtils.setField(imageRenditionService, "imageMemoryCache", imageMemoryCache);
+        groupConfig.UPLOAD_DIR = uploadDir.toString();
+        ReflectionTestUtils.setField(imageRenditionService, "widths", List.of(320, 640, 960));
+        ReflectionTestUtils.setField(imageRenditionService, "maxCacheMb", 1L);
+        when(imageDeliveryService.getProductImage(null, 5L, false)).thenReturn(original("abcdef0123456789abcdef"));
+        when(imageProcessingEngine.resize(any(BufferedImage.class), anyString(), eq(false), anyInt(), anyInt(), eq(ResizeQuality.BALANCED)))
+                .thenReturn(new byte[]{1, 2, 3});
+        when(imageProcessingService.runNow(anyString(), anyLong(), any()))
+                .thenAnswer(invocation -> invocation.<ImageJob<?>>getArgument(2).run());
+    }
+
+    @Test
+    void getRendition_GeneratesOnceAndServesFromCaches() throws IOException {
+        ImageDelivery first = imageRenditionService.getRendition(5L, 320, "jpeg");
+        ImageDelivery second = imageRenditionService.getRendition(5L, 320, null);
+
+        assertEquals("image/jpeg", first.getContentType());
+        assertEquals("photo-320.jpg", first.getFileName());
+        assertEquals("abcdef0123456789abcdef", first.getContentHash());
+        assertArrayEquals(new byte[]{1, 2, 3}, first.getResource().getInputStream().readAllBytes());
+        assertArrayEquals(new byte[]{1, 2, 3}, second.getResource().getInputStream().readAllBytes());
+        assertTrue(Files.exists(uploadDir.resolve("renditions").resolve("abcdef0123456789-320.jpg")));
+        // The first read copied it off-heap, the second was served from there
+        assertEquals(1, imageMemoryCache.getPutCount());
+        assertEquals(1, imageMemoryCache.getHitCount());
+        // The stored image is 800 wide, so 320 scales it to 320x160
+        verify(imageProcessingEngine, times(1)).resize(any(BufferedImage.class), eq("jpeg"), eq(false), eq(320), eq(160), eq(ResizeQuality.BALANCED));
+    }
+
+    @Test
+    void getRendition_HoldsTheDecodeMemoryOfTheOriginalFromTheImageBudget() throws IOException {
+        imageRenditionService.getRendition(5L, 320, "jpeg");
+
+        // The 800x400 original is decoded whole (it is not twice the target width) and the rendition is 320x160
+        verify(imageProcessingService).runNow(eq("image rendition abcdef0123456789-320.jpg"),
+                eq(4L * 800 * 400 + 4L * 320 * 160), any());
+    }
+
+    @Test
+    void getRendition_ImageBudgetExhausted_RejectsWith503AndCachesNothing() throws IOException {
+        doThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "busy"))
+                .when(imageProcessingService).runNow(anyString(), anyLong(), any());
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> imageRenditionService.getRendition(5L, 320, "jpeg"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        verifyNoInteractions(imageProcessingEngine);
+        assertFalse(Files.exists(uploadDir.resolve("renditions").resolve("abcdef0123456789-320.jpg")));
+    }
+
+    @Test
+    void getRendition_EvictedBeforeReadIsGeneratedAgain() throws IOException {
+        ImageDelivery rendition = imageRenditionService.getRendition(5L, 320, "jpeg");
+        DiskLruCache cache = (DiskLruCache) ReflectionTestUtils.getField(imageRenditionService, "cache");
+        cache.remove("abcdef0123456789-320.jpg");
+
+        assertArrayEquals(new byte[]{1, 2, 3}, rendition.getResource().getInputStream().readAllBytes());
+        verify(imageProcessingEngine, times(2)).resize(any(BufferedImage.class), eq("jpeg"), eq(false), eq(320), eq(160), eq(ResizeQuality.BALANCED));
+    }
+
+    @Test
+    void getRendition_DoesNotUpscale() throws IOException {
+        imageRenditionService.getRendition(5L, 960, "jpeg");
+
+        verify(imageProcessingEngine).resize(any(BufferedImage.class), eq("jpeg"), eq(false), eq(800), eq(400), eq(ResizeQuality.BALANCED));
+    }
+
+    @Test
+    void getRendition_ChangedImageGetsNewRendition() throws IOException {
+        imageRenditionService.getRendition(5L, 640, "jpeg");
+        when(imageDeliveryService.getProductImage(null, 5L, false)).thenReturn(original("fedcba9876543210fedcba"));
+
+        ImageDelivery changed = imageRenditionService.getRendition(5L, 640, "jpeg");
+
+        assertEquals("fedcba9876543210fedcba", changed.getContentHash());
+        verify(imageProcessingEngine, times(2)).resize(any(BufferedImage.class), anyString(), eq(false), eq(640), eq(320), eq(ResizeQuality.BALANCED));
+    }
+
+    @Test
+    void getRendition_ConcurrentRequestsShareOneGeneration() throws Exception {
+        CountDownLatch generating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch requested = new CountDownLatch(3);
+        when(imageDeliveryService.getProductImage(null, 5L, false)).thenAnswer(invocation -> {
+            requested.countDown();
+            return original("abcdef0123456789abcdef");
+        });
+        when(imageProcessingEngine.resize(any(BufferedImage.class), anyString(), eq(false), anyInt(), anyInt(), eq(ResizeQuality.BALANCED)))
+                .thenAnswer(invocation -> {
+                    generating.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new byte[]{4, 5, 6};
+                });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ImageDelivery> first = executor.submit(() -> imageRenditionService.getRendition(5L, 640, "jpeg"));
+            assertTrue(generating.await(5, TimeUnit.SECONDS));
+            List<Future<ImageDelivery>> others = List.of(
+                    executor.submit(() -> imageRenditionService.getRendition(5L, 640, "jpeg")),
+                    executor.submit(() -> imageRenditionService.getRendition(5L, 640, "jpeg")));
+            // Both have looked the image up and are about to find the generation in flight
+            assertTrue(requested.await(5, TimeUnit.SECONDS));
+            release.countDown();
+
+            String resource = first.get(5, TimeUnit.SECONDS).getResource().getDescription();
+            for (Future<ImageDelivery> other : others) {
+                assertEquals(resource, other.get(5, TimeUnit.SECONDS).getResource().getDescription());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(imageProcessingEngine, times(1)).resize(any(BufferedImage.class), anyString(), eq(false), anyInt(), anyInt(), eq(ResizeQuality.BALANCED));
+    }
+
+    @Test
+    void getRendition_WebpFallsBackToJpegWithoutEncoder() {
+        ReflectionTestUtils.setField(imageRenditionService, "webpWritable", false);
+
+        ImageDelivery rendition = imageRenditionService.getRendition(5L, 320, "webp");
+
+        assertEquals("image/jpeg", rendition.getContentType());
+        assertEquals("photo-320.jpg", rendition.getFileName());
+    }
+
+    @Test
+    void getRendition_RejectsUnsupportedWidthAndFormat() {
+        assertThrows(BadRequestException.class, () -> imageRenditionService.getRendition(5L, 500, "jpeg"));
+        assertThrows(BadRequestException.class, () -> imageRenditionService.getRendition(5L, 320, "gif"));
+        verifyNoInteractions(imageDeliveryService);
+    }
+
+    private ImageDelivery original(String contentHash) {
+        return ImageDelivery.builder()
+                .resource(new ByteArrayResource(jpeg(800, 400)))
+                .contentType("image/jpeg")
+                .fileName("photo.jpg")
+                .contentHash(contentHash)
+                .build();
+    }
+
+    private byte[] jpeg(int width, int height) {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.utilities.SignedUrlSigner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LocalObjectStorageServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private LocalObjectStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        GroupConfig groupConfig = new GroupConfig();
+        groupConfig.UPLOAD_DIR = uploadDir.toString();
+        SignedUrlSigner signer = mock(SignedUrlSigner.class);
+        when(signer.sign(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(0) + "?signed");
+        storage = new LocalObjectStorageService(groupConfig, signer);
+        ReflectionTestUtils.setField(storage, "threads", 2);
+        storage.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.stop();
+    }
+
+    @Test
+    void put_StoresBytesAndFilesUnderObjectsDirectory() throws Exception {
+        Path source = Files.write(uploadDir.resolve("source.bin"), new byte[]{4, 5});
+
+        CompletableFuture<String> bytes = storage.put("thumbnails/a.jpg", new byte[]{1, 2, 3}, "image/jpeg");
+        CompletableFuture<String> file = storage.put("originals/a.jpg", source, "image/jpeg");
+        CompletableFuture.allOf(bytes, file).join();
+
+        Path objects = uploadDir.resolve("objects").toAbsolutePath();
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(objects.resolve("thumbnails/a.jpg")));
+        assertArrayEquals(new byte[]{4, 5}, Files.readAllBytes(objects.resolve("originals/a.jpg")));
+        assertEquals("/objects/thumbnails/a.jpg", bytes.join());
+    }
+
+    @Test
+    void delete_RemovesObjectAndIgnoresMissing() throws Exception {
+        storage.put("a.jpg", new byte[]{1}, "image/jpeg").join();
+
+        storage.delete("a.jpg").join();
+        storage.delete("missing.jpg").join();
+
+        assertFalse(Files.exists(uploadDir.resolve("objects").resolve("a.jpg")));
+    }
+
+    @Test
+    void exists_ReflectsStoredObjects() {
+        storage.put("a.jpg", new byte[]{1}, "image/jpeg").join();
+
+        assertTrue(storage.exists("a.jpg").join());
+        assertFalse(storage.exists("b.jpg").join());
+    }
+
+    @Test
+    void getUrl_EncodesPathUnderPublicObjects() {
+        assertEquals("/objects/originals/my%20image.jpg", storage.getUrl("originals/my image.jpg"));
+        assertThrows(IllegalArgumentException.class, () -> storage.getUrl("../escape.jpg"));
+    }
+
+    @Test
+    void getSignedUrl_SignsEncodedPathUnderSignedObjects() {
+        assertEquals("/signed/objects/content/my%20key?signed", storage.getSignedUrl("content/my key", Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void put_KeyOutsideDirectory_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> storage.put("../escape.jpg", new byte[]{1}, "image/jpeg"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.mappers.AddressMapper;
+import com.datasaz.ecommerce.mappers.OrderMapper;
+import com.datasaz.ecommerce.repositories.*;
+import com.datasaz.ecommerce.repositories.entities.*;
+import com.datasaz.ecommerce.services.interfaces.*;
+import com.datasaz.ecommerce.utilities.CurrentUserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class OrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private CartRepository cartRepository;
+    @Mock
+    private OrderItemRepository orderItemRepository;
+    @Mock
+    private AddressRepository addressRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private InvoiceRepository invoiceRepository;
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private CartService cartService;
+    @Mock
+    private IBuyerCartService buyerCartService;
+    @Mock
+    private CouponService couponService;
+    @Mock
+    private IAuditLogService auditLogService;
+    @Mock
+    private IProductFacetService productFacetService;
+    @Mock
+    private IProductLeaderboardService productLeaderboardService;
+    @Mock
+    private IEmailService emailService;
+    @Mock
+    private IPdfGenerator pdfGenerator;
+    @Mock
+    private OrderShippingService orderShippingService;
+    @Mock
+    private CompanyRepository userCompanyRepository;
+    @Mock
+    private AddressMapper addressMapper;
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        order = Order.builder()
+                .id(1L)
+                .orderStatus(OrderStatus.PENDING)
+                .buyer(User.builder().id(1L).emailAddress("buyer@test.com").build())
+                .build();
+        when(orderRepository.findByIdWithLock(1L)).thenReturn(Optional.of(order));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("admin@test.com", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void updateOrderStatus_CancelledSoldOutProduct_RestocksAndReindexesAvailability() {
+        Product product = product(0);
+        orderItems(product, 2);
+
+        orderService.updateOrderStatus(1L, "cancelled");
+
+        assertEquals(2, product.getQuantity());
+        verify(productRepository).save(product);
+        verify(productFacetService).indexProduct(7L);
+    }
+
+    @Test
+    void updateOrderStatus_CancelledProductStillInStock_RestocksWithoutReindexing() {
+        Product product = product(3);
+        orderItems(product, 2);
+
+        orderService.updateOrderStatus(1L, "cancelled");
+
+        assertEquals(5, product.getQuantity());
+        verify(productFacetService, never()).indexProduct(anyLong());
+    }
+
+    @Test
+    void updateOrderStatus_AlreadyCancelled_DoesNotRestockTwice() {
+        order.setOrderStatus(OrderStatus.CANCELLED);
+        Product product = product(0);
+        orderItems(product, 2);
+
+        orderService.updateOrderStatus(1L, "cancelled");
+
+        assertEquals(0, product.getQuantity());
+        verify(productRepository, never()).findByIdWithLock(anyLong());
+    }
+
+    private Product product(int quantity) {
+        Product product = Product.builder().id(7L).name("Lamp").quantity(quantity).build();
+        when(productRepository.findByIdWithLock(7L)).thenReturn(Optional.of(product));
+        return product;
+    }
+
+    private void orderItems(Product product, int quantity) {
+        when(orderItemRepository.findByOrderId(1L))
+                .thenReturn(List.of(OrderItem.builder().id(1L).product(product).quantity(quantity).order(order).build()));
+    }
+}
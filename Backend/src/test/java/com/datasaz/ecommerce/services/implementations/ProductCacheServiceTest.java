@@ -0,0 +1,214 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.ProductPageKey;
+import com.datasaz.ecommerce.models.dto.ProductVersionRef;
+import com.datasaz.ecommerce.models.response.ProductResponse;
+import com.datasaz.ecommerce.models.response.ProductSummaryResponse;
+import com.datasaz.ecommerce.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+class ProductCacheServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @InjectMocks
+    private ProductCacheService productCacheService;
+
+    private final Pageable pageable = PageRequest.of(0, 2);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(productCacheService, "maxProducts", 100L);
+        ReflectionTestUtils.setField(productCacheService, "maxPages", 100L);
+        ReflectionTestUtils.setField(productCacheService, "pageTtlSeconds", 300L);
+        productCacheService.init();
+    }
+
+    @Test
+    void getProduct_SameVersion_ServesCachedEntry() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<ProductResponse> loader = () -> {
+            loads.incrementAndGet();
+            return ProductResponse.builder().id(1L).build();
+        };
+
+        ProductResponse first = productCacheService.getProduct(1L, 3L, loader);
+        ProductResponse second = productCacheService.getProduct(1L, 3L, loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getProduct_NewVersion_Reloads() {
+        productCacheService.getProduct(1L, 3L, () -> ProductResponse.builder().id(1L).name("old").build());
+
+        ProductResponse result = productCacheService.getProduct(1L, 4L, () -> ProductResponse.builder().id(1L).name("new").build());
+
+        assertEquals("new", result.getName());
+    }
+
+    @Test
+    void getPage_Hit_ServesIdListWithoutRunningListingQuery() {
+        ProductPageKey key = ProductPageKey.of("all", null, null, pageable);
+        AtomicInteger listingQueries = new AtomicInteger();
+        Supplier<Page<ProductSummaryResponse>> loader = countingLoader(listingQueries, summary(1L, 0L), summary(2L, 0L));
+        when(productRepository.findVersionRefsByIds(anyCollection())).thenReturn(List.of(versionRef(1L, 0L), versionRef(2L, 0L)));
+
+        productCacheService.getPage(key, loader, failingSummaryLoader());
+        Page<ProductSummaryResponse> cached = productCacheService.getPage(key, loader, failingSummaryLoader());
+
+        assertEquals(1, listingQueries.get());
+        assertEquals(List.of(1L, 2L), cached.getContent().stream().map(ProductSummaryResponse::getId).toList());
+        assertEquals(2, cached.getTotalElements());
+    }
+
+    @Test
+    void getPage_StaleVersion_ReloadsOnlyChangedProducts() {
+        ProductPageKey key = ProductPageKey.of("all", null, null, pageable);
+        AtomicInteger listingQueries = new AtomicInteger();
+        Supplier<Page<ProductSummaryResponse>> loader = countingLoader(listingQueries, summary(1L, 0L), summary(2L, 0L));
+        productCacheService.getPage(key, loader, failingSummaryLoader());
+        when(productRepository.findVersionRefsByIds(anyCollection())).thenReturn(List.of(versionRef(1L, 0L), versionRef(2L, 1L)));
+
+        Page<ProductSummaryResponse> result = productCacheService.getPage(key, loader, ids -> {
+            assertEquals(List.of(2L), ids);
+            return List.of(summary(2L, 1L));
+        });
+
+        assertEquals(1, listingQueries.get());
+        assertEquals(1L, result.getContent().get(1).getVersion());
+    }
+
+    @Test
+    void getPage_ProductDeleted_RebuildsPage() {
+        ProductPageKey key = ProductPageKey.of("all", null, null, pageable);
+        AtomicInteger listingQueries = new AtomicInteger();
+        Supplier<Page<ProductSummaryResponse>> loader = countingLoader(listingQueries, summary(1L, 0L), summary(2L, 0L));
+        productCacheService.getPage(key, loader, failingSummaryLoader());
+        when(productRepository.findVersionRefsByIds(anyCollection())).thenReturn(List.of(versionRef(1L, 0L)));
+
+        productCacheService.getPage(key, loader, failingSummaryLoader());
+
+        assertEquals(2, listingQueries.get());
+    }
+
+    @Test
+    void evictProduct_DropsOnlyPagesContainingProduct() {
+        ProductPageKey firstPage = ProductPageKey.of("category", 5L, null, PageRequest.of(0, 2));
+        ProductPageKey secondPage = ProductPageKey.of("category", 5L, null, PageRequest.of(1, 2));
+        AtomicInteger firstQueries = new AtomicInteger();
+        AtomicInteger secondQueries = new AtomicInteger();
+        Supplier<Page<ProductSummaryResponse>> firstLoader = countingLoader(firstQueries, summary(1L, 0L), summary(2L, 0L));
+        Supplier<Page<ProductSummaryResponse>> secondLoader = countingLoader(secondQueries, summary(3L, 0L), summary(4L, 0L));
+        when(productRepository.findVersionRefsByIds(anyCollection())).thenAnswer(invocation -> versionRefs(invocation.getArgument(0)));
+        productCacheService.getPage(firstPage, firstLoader, failingSummaryLoader());
+        productCacheService.getPage(secondPage, secondLoader, failingSummaryLoader());
+
+        productCacheService.evictProduct(1L);
+        productCacheService.getPage(firstPage, firstLoader, failingSummaryLoader());
+        productCacheService.getPage(secondPage, secondLoader, failingSummaryLoader());
+
+        assertEquals(2, firstQueries.get());
+        assertEquals(1, secondQueries.get());
+    }
+
+    @Test
+    void evictListings_KeepsPagesOfOtherCategories() {
+        ProductPageKey global = ProductPageKey.of("all", null, null, pageable);
+        ProductPageKey touched = ProductPageKey.of("category", 5L, null, pageable);
+        ProductPageKey untouched = ProductPageKey.of("category", 6L, null, pageable);
+        AtomicInteger globalQueries = new AtomicInteger();
+        AtomicInteger touchedQueries = new AtomicInteger();
+        AtomicInteger untouchedQueries = new AtomicInteger();
+        when(productRepository.findVersionRefsByIds(anyCollection())).thenAnswer(invocation -> versionRefs(invocation.getArgument(0)));
+        productCacheService.getPage(global, countingLoader(globalQueries, summary(1L, 0L)), failingSummaryLoader());
+        productCacheService.getPage(touched, countingLoader(touchedQueries, summary(2L, 0L)), failingSummaryLoader());
+        productCacheService.getPage(untouched, countingLoader(untouchedQueries, summary(3L, 0L)), failingSummaryLoader());
+
+        productCacheService.evictListings(9L, Arrays.asList(5L, null));
+        productCacheService.getPage(global, countingLoader(globalQueries, summary(1L, 0L)), failingSummaryLoader());
+        productCacheService.getPage(touched, countingLoader(touchedQueries, summary(2L, 0L)), failingSummaryLoader());
+        productCacheService.getPage(untouched, countingLoader(untouchedQueries, summary(3L, 0L)), failingSummaryLoader());
+
+        assertEquals(2, globalQueries.get());
+        assertEquals(2, touchedQueries.get());
+        assertEquals(1, untouchedQueries.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictListings_RemovesDroppedPagesFromProductIndex() {
+        ProductPageKey touched = ProductPageKey.of("category", 5L, null, pageable);
+        ProductPageKey untouched = ProductPageKey.of("category", 6L, null, pageable);
+        productCacheService.getPage(touched, countingLoader(new AtomicInteger(), summary(1L, 0L), summary(2L, 0L)), failingSummaryLoader());
+        productCacheService.getPage(untouched, countingLoader(new AtomicInteger(), summary(2L, 0L)), failingSummaryLoader());
+
+        productCacheService.evictListings(null, List.of(5L));
+
+        Map<Long, Set<ProductPageKey>> pagesByProduct =
+                (Map<Long, Set<ProductPageKey>>) ReflectionTestUtils.getField(productCacheService, "pagesByProduct");
+        assertEquals(Map.of(2L, Set.of(untouched)), pagesByProduct);
+    }
+
+    private Supplier<Page<ProductSummaryResponse>> countingLoader(AtomicInteger counter, ProductSummaryResponse... summaries) {
+        return () -> {
+            counter.incrementAndGet();
+            return new PageImpl<>(List.of(summaries), pageable, summaries.length);
+        };
+    }
+
+    private Function<List<Long>, List<ProductSummaryResponse>> failingSummaryLoader() {
+        return ids -> fail("Unexpected summary reload for " + ids);
+    }
+
+    private ProductSummaryResponse summary(Long id, Long version) {
+        return ProductSummaryResponse.builder().id(id).version(version).build();
+    }
+
+    private List<ProductVersionRef> versionRefs(Collection<Long> ids) {
+        return ids.stream().map(id -> versionRef(id, 0L)).toList();
+    }
+
+    private ProductVersionRef versionRef(Long id, Long version) {
+        return new ProductVersionRef() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+}
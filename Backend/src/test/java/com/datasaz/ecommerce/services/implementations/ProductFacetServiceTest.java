@@ -0,0 +1,175 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.ProductBrowseFilter;
+import com.datasaz.ecommerce.models.dto.ProductFacetDocument;
+import com.datasaz.ecommerce.models.response.CategoryResponse;
+import com.datasaz.ecommerce.repositories.ProductRepository;
+import com.datasaz.ecommerce.repositories.entities.ProductCondition;
+import com.datasaz.ecommerce.repositories.entities.ProductSellType;
+import com.datasaz.ecommerce.services.interfaces.ICategoryTreeService;
+import com.datasaz.ecommerce.utilities.CategoryTreeSnapshot;
+import com.datasaz.ecommerce.utilities.ProductFacetIndex;
+import com.datasaz.ecommerce.utilities.ProductFacetIndex.Facet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class ProductFacetServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ICategoryTreeService categoryTreeService;
+
+    @InjectMocks
+    private ProductFacetService productFacetService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(productFacetService, "enabled", true);
+        ReflectionTestUtils.setField(productFacetService, "chunkSize", 2);
+        ReflectionTestUtils.setField(productFacetService, "priceBuckets", new int[]{25, 50, 100});
+    }
+
+    @Test
+    void facetValues_MapsAttributesAndPriceBucket() {
+        Map<Facet, String> values = productFacetService.facetValues(
+                document(1L, 10L, " Acme ", 0, new BigDecimal("60.00"), new BigDecimal("40.00")));
+
+        assertEquals("10", values.get(Facet.CATEGORY));
+        assertEquals("Acme", values.get(Facet.BRAND));
+        assertEquals("NEW", values.get(Facet.CONDITION));
+        assertEquals("DIRECT", values.get(Facet.SELL_TYPE));
+        assertEquals(ProductFacetService.OUT_OF_STOCK, values.get(Facet.AVAILABILITY));
+        // The offer price decides the bucket
+        assertEquals("25-50", values.get(Facet.PRICE));
+        assertEquals("100+", productFacetService.facetValues(
+                document(2L, 10L, null, 1, new BigDecimal("100.00"), null)).get(Facet.PRICE));
+    }
+
+    @Test
+    void rebuildIndex_ReadsAllChunksAndBecomesReady() {
+        when(productRepository.findFacetDocumentsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(document(1L, 10L, "Acme", 5, BigDecimal.TEN, null),
+                        document(2L, 10L, "Globex", 5, BigDecimal.TEN, null)));
+        when(productRepository.findFacetDocumentsAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(document(3L, 20L, "Acme", 5, BigDecimal.TEN, null)));
+        assertFalse(productFacetService.isReady());
+
+        productFacetService.rebuildIndex();
+
+        assertTrue(productFacetService.isReady());
+        ProductFacetIndex.Result result = productFacetService.browse(emptyFilter(), PageRequest.of(0, 10));
+        assertEquals(3, result.total());
+    }
+
+    @Test
+    void browse_CategoryIncludesSubcategories() {
+        when(productRepository.findFacetDocumentById(1L)).thenReturn(Optional.of(document(1L, 10L, "Acme", 5, BigDecimal.TEN, null)));
+        when(productRepository.findFacetDocumentById(2L)).thenReturn(Optional.of(document(2L, 11L, "Acme", 5, BigDecimal.TEN, null)));
+        when(productRepository.findFacetDocumentById(3L)).thenReturn(Optional.of(document(3L, 20L, "Acme", 5, BigDecimal.TEN, null)));
+        List.of(1L, 2L, 3L).forEach(productFacetService::indexProduct);
+        when(categoryTreeService.getSnapshot()).thenReturn(CategoryTreeSnapshot.build(
+                List.of(category(10L, null), category(11L, 10L), category(20L, null)), 1));
+
+        ProductFacetIndex.Result result = productFacetService.browse(
+                new ProductBrowseFilter(10L, null, null, null, null, null), PageRequest.of(0, 10));
+
+        assertEquals(List.of(2L, 1L), result.productIds());
+    }
+
+    @Test
+    void browse_InStockFilter() {
+        when(productRepository.findFacetDocumentById(1L)).thenReturn(Optional.of(document(1L, 10L, "Acme", 0, BigDecimal.TEN, null)));
+        when(productRepository.findFacetDocumentById(2L)).thenReturn(Optional.of(document(2L, 10L, "Acme", 3, BigDecimal.TEN, null)));
+        productFacetService.indexProduct(1L);
+        productFacetService.indexProduct(2L);
+
+        ProductFacetIndex.Result result = productFacetService.browse(
+                new ProductBrowseFilter(null, Set.of("Acme"), null, null, true, null), PageRequest.of(0, 10));
+
+        assertEquals(List.of(2L), result.productIds());
+        assertEquals(Map.of(ProductFacetService.IN_STOCK, 1, ProductFacetService.OUT_OF_STOCK, 1),
+                result.counts().get(Facet.AVAILABILITY));
+    }
+
+    @Test
+    void removeProduct_DropsFromResults() {
+        when(productRepository.findFacetDocumentById(1L)).thenReturn(Optional.of(document(1L, 10L, "Acme", 5, BigDecimal.TEN, null)));
+        productFacetService.indexProduct(1L);
+
+        productFacetService.removeProduct(1L);
+
+        assertEquals(0, productFacetService.browse(emptyFilter(), PageRequest.of(0, 10)).total());
+    }
+
+    private ProductBrowseFilter emptyFilter() {
+        return new ProductBrowseFilter(null, null, null, null, null, null);
+    }
+
+    private CategoryResponse category(Long id, Long parentId) {
+        return CategoryResponse.builder().id(id).name("Category " + id).parentId(parentId).build();
+    }
+
+    private ProductFacetDocument document(Long id, Long categoryId, String brand, int quantity, BigDecimal price, BigDecimal offerPrice) {
+        return new ProductFacetDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getCategoryId() {
+                return categoryId;
+            }
+
+            @Override
+            public String getBrand() {
+                return brand;
+            }
+
+            @Override
+            public ProductCondition getProductCondition() {
+                return ProductCondition.NEW;
+            }
+
+            @Override
+            public ProductSellType getProductSellType() {
+                return ProductSellType.DIRECT;
+            }
+
+            @Override
+            public Integer getQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return price;
+            }
+
+            @Override
+            public BigDecimal getOfferPrice() {
+                return offerPrice;
+            }
+        };
+    }
+}
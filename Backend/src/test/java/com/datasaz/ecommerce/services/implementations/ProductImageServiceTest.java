@@ -2,20 +2,38 @@ package com.datasaz.ecommerce.services.implementations;
 
 import com.datasaz.ecommerce.configs.GroupConfig;
 import com.datasaz.ecommerce.exceptions.BadRequestException;
+import com.datasaz.ecommerce.models.dto.BinaryContentMetadata;
 import com.datasaz.ecommerce.models.request.ProductImageRequest;
+import com.datasaz.ecommerce.repositories.ImageBlobRepository;
 import com.datasaz.ecommerce.repositories.ProductImageAttachRepository;
 import com.datasaz.ecommerce.repositories.ProductImageRepository;
 import com.datasaz.ecommerce.repositories.ProductRepository;
+import com.datasaz.ecommerce.repositories.entities.ImageBlob;
+import com.datasaz.ecommerce.repositories.entities.ImageStatus;
 import com.datasaz.ecommerce.repositories.entities.Product;
 import com.datasaz.ecommerce.repositories.entities.ProductImageAttach;
+import com.datasaz.ecommerce.services.interfaces.IBinaryContentService;
+import com.datasaz.ecommerce.services.interfaces.IImageDeliveryService;
+import com.datasaz.ecommerce.services.interfaces.IImageProcessingService;
+import com.datasaz.ecommerce.services.interfaces.IProductCacheService;
+import com.datasaz.ecommerce.utilities.ContentHashUtils;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine.ResizeQuality;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
@@ -23,8 +41,10 @@ import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class ProductImageServiceTest {
@@ -38,9 +58,33 @@ class ProductImageServiceTest {
     @Mock
     private ProductImageAttachRepository productImageAttachRepository;
 
+    @Mock
+    private IBinaryContentService binaryContentService;
+
     @Mock
     private GroupConfig groupConfig;
 
+    @Mock
+    private IImageProcessingService imageProcessingService;
+
+    @Mock
+    private IProductCacheService productCacheService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ImageProcessingEngine imageProcessingEngine;
+
+    @Mock
+    private IImageDeliveryService imageDeliveryService;
+
     @InjectMocks
     private ProductImageService productImageService;
 
@@ -60,112 +104,276 @@ class ProductImageServiceTest {
         ReflectionTestUtils.setField(groupConfig, "imageQuality", 0.7f);
         ReflectionTestUtils.setField(groupConfig, "maxFileSizeMb", 5);
         ReflectionTestUtils.setField(groupConfig, "MAX_FILE_SIZE", 5_242_880);
+        ReflectionTestUtils.setField(productImageService, "gcGraceHours", 24);
+        ReflectionTestUtils.setField(productImageService, "gcBatchSize", 2);
         // Mock ALLOWED_IMAGE_TYPES via getter
+        when(binaryContentService.store(any(byte[].class), any())).thenReturn(100L, 101L);
+        when(binaryContentService.store(any(InputStream.class), anyLong(), anyString(), any())).thenReturn(100L);
         when(groupConfig.getALLOWED_IMAGE_TYPES()).thenReturn(Set.of("image/jpeg", "image/png", "image/gif", "image/bmp", "image/tiff", "image/vnd.wap.wbmp", "image/webp"));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(imageBlobRepository.save(any(ImageBlob.class))).thenAnswer(invocation -> {
+            ImageBlob blob = invocation.getArgument(0);
+            if (blob.getId() == null) {
+                blob.setId(9L);
+            }
+            return blob;
+        });
+        // A created blob is found by the lookup that follows its insert
+        AtomicReference<ImageBlob> created = new AtomicReference<>();
+        when(imageBlobRepository.saveAndFlush(any(ImageBlob.class))).thenAnswer(invocation -> {
+            ImageBlob blob = invocation.getArgument(0);
+            blob.setId(9L);
+            created.set(blob);
+            return blob;
+        });
+        when(imageBlobRepository.findFirstByContentHashAndStorageModeOrderByIdAsc(anyString(), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(created.get()));
+        when(transactionTemplate.getTransactionManager()).thenReturn(mock(PlatformTransactionManager.class));
+        when(productImageAttachRepository.findProductIdsByBlobId(9L)).thenReturn(List.of(7L));
+        when(imageProcessingEngine.resize(any(BufferedImage.class), anyString(), anyBoolean(), anyInt(), anyInt(), any()))
+                .thenReturn(new byte[]{1, 2, 3});
     }
 
     @Test
-    void uploadImageAttach_MultipartFile_SavesJpegWithThumbnail() throws Exception {
+    void uploadImageAttach_MultipartFile_StoresOriginalAndQueuesProcessing() {
         // Arrange
         Product product = Product.builder().id(1L).build();
         MockMultipartFile file = new MockMultipartFile("image", "test.jpg", "image/jpeg", testJpeg);
-        byte[] mockResizedImage = new byte[]{10, 11, 12};
-        byte[] mockThumbnail = new byte[]{13, 14, 15};
-        ProductImageAttach imageAttach = ProductImageAttach.builder()
-                .id(1L)
-                .fileName("test.jpg") // Use a placeholder file name
-                .contentType("image/jpeg")
-                .fileSize(mockResizedImage.length)
-                .fileExtension("jpg")
-                .fileContent(mockResizedImage)
-                .thumbnailContent(mockThumbnail)
-                .isPrimary(true)
-                .displayOrder(0)
-                .createdAt(LocalDateTime.now())
-                .product(product)
-                .build();
-
-        // Spy on the service to mock the package-private resizeImage method
-        ProductImageService spiedService = spy(productImageService);
-        doReturn(mockResizedImage).when(spiedService).resizeImage(eq(testJpeg), eq("jpg"), eq(true), eq(1600), eq(576));
-        doReturn(mockThumbnail).when(spiedService).resizeImage(eq(testJpeg), eq("jpg"), eq(true), eq(150), eq(150));
-
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productImageAttachRepository.save(any(ProductImageAttach.class))).thenReturn(imageAttach);
+        when(productImageAttachRepository.save(any(ProductImageAttach.class))).thenAnswer(invocation -> {
+            ProductImageAttach image = invocation.getArgument(0);
+            image.setId(1L);
+            return image;
+        });
 
         // Act
-        ProductImageAttach result = spiedService.uploadImageAttach(1L, file, true);
+        ProductImageAttach result = productImageService.uploadImageAttach(1L, file, true);
 
         // Assert
         assertNotNull(result);
         assertTrue(result.getFileName().endsWith(".jpg"));
         assertEquals("image/jpeg", result.getContentType());
         assertEquals("jpg", result.getFileExtension());
-        assertNotNull(result.getFileContent());
-        assertEquals(mockResizedImage.length, result.getFileSize());
-        assertArrayEquals(mockResizedImage, result.getFileContent());
-        assertNotNull(result.getThumbnailContent());
-        assertArrayEquals(mockThumbnail, result.getThumbnailContent());
+        assertEquals(testJpeg.length, result.getFileSize());
+        assertEquals(100L, result.getFileContentId());
+        assertNull(result.getThumbnailContentId());
+        assertEquals(ImageStatus.PENDING, result.getStatus());
+        assertEquals(9L, result.getBlobId());
         assertTrue(result.isPrimary());
         assertEquals(0, result.getDisplayOrder());
         assertNotNull(result.getCreatedAt());
         assertEquals(product, result.getProduct());
-        verify(productImageAttachRepository).save(any(ProductImageAttach.class));
+        // Only the original is stored on the request thread; resizing is left to the worker pool
+        verify(binaryContentService).store(any(InputStream.class), eq((long) testJpeg.length), eq(ContentHashUtils.sha256Hex(testJpeg)), eq("image/jpeg"));
+        verify(imageBlobRepository).saveAndFlush(argThat(blob -> blob.getContentHash().equals(ContentHashUtils.sha256Hex(testJpeg))
+                && blob.getStorageMode().equals("database")));
+        verify(imageBlobRepository, atLeastOnce()).save(argThat(blob -> blob.getRefCount() == 1 && blob.getReleasedAt() == null));
+        verify(imageProcessingService).submit(eq("product image blob 9"), longThat(bytes -> bytes > 0), any(Runnable.class));
     }
 
     @Test
-    void uploadImageAttach_ProductImageRequest_SavesJpegWithThumbnail() throws Exception {
+    void uploadImageAttach_ProductImageRequest_StoresOriginalAndQueuesProcessing() {
         // Arrange
         Product product = Product.builder().id(1L).build();
-        String base64Image = Base64.getEncoder().encodeToString(testJpeg);
         ProductImageRequest request = ProductImageRequest.builder()
                 .fileName("test.jpg")
-                //.contentType("image/jpeg")
-                .fileContent(base64Image)
-                .displayOrder(0)
-                .build();
-        byte[] mockResizedImage = new byte[]{10, 11, 12};
-        byte[] mockThumbnail = new byte[]{13, 14, 15};
-        ProductImageAttach imageAttach = ProductImageAttach.builder()
-                .id(1L)
-                .fileName("test.jpg") // Use a placeholder file name
                 .contentType("image/jpeg")
-                .fileSize(mockResizedImage.length)
-                .fileExtension("jpg")
-                .fileContent(mockResizedImage)
-                .thumbnailContent(mockThumbnail)
-                .isPrimary(true)
-                .displayOrder(0)
-                .createdAt(LocalDateTime.now())
-                .product(product)
+                .fileContent(Base64.getEncoder().encodeToString(testJpeg))
+                .displayOrder(2)
                 .build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productImageAttachRepository.save(any(ProductImageAttach.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        // Spy on the service to mock the package-private resizeImage method
-        ProductImageService spiedService = spy(productImageService);
-        doReturn(mockResizedImage).when(spiedService).resizeImage(eq(testJpeg), eq("jpg"), eq(true), eq(1600), eq(576));
-        doReturn(mockThumbnail).when(spiedService).resizeImage(eq(testJpeg), eq("jpg"), eq(true), eq(150), eq(150));
+        // Act
+        ProductImageAttach result = productImageService.uploadImageAttach(1L, request, false);
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productImageAttachRepository.save(any(ProductImageAttach.class))).thenReturn(imageAttach);
+        // Assert
+        assertEquals(ImageStatus.PENDING, result.getStatus());
+        assertEquals(100L, result.getFileContentId());
+        assertEquals(2, result.getDisplayOrder());
+        verify(binaryContentService).store(any(InputStream.class), eq((long) testJpeg.length), eq(ContentHashUtils.sha256Hex(testJpeg)), eq("image/jpeg"));
+        verify(imageProcessingService).submit(anyString(), anyLong(), any(Runnable.class));
+    }
+
+    @Test
+    void uploadImageAttach_IdenticalUpload_ReusesProcessedBlob() {
+        // Arrange
+        Product product = Product.builder().id(2L).build();
+        MockMultipartFile file = new MockMultipartFile("image", "copy.jpg", "image/jpeg", testJpeg);
+        ImageBlob existing = blob(ImageStatus.READY, 1);
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product));
+        when(imageBlobRepository.findFirstByContentHashAndStorageModeOrderByIdAsc(ContentHashUtils.sha256Hex(testJpeg), "database"))
+                .thenReturn(Optional.of(existing));
+        when(productImageAttachRepository.save(any(ProductImageAttach.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
-        ProductImageAttach result = spiedService.uploadImageAttach(1L, request, true);
+        ProductImageAttach result = productImageService.uploadImageAttach(2L, file, false);
 
         // Assert
-        assertNotNull(result);
-        assertTrue(result.getFileName().endsWith(".jpg"));
-        assertEquals("image/jpeg", result.getContentType());
-        assertEquals("jpg", result.getFileExtension());
-        assertNotNull(result.getFileContent());
-        assertEquals(mockResizedImage.length, result.getFileSize());
-        assertArrayEquals(mockResizedImage, result.getFileContent());
-        assertNotNull(result.getThumbnailContent());
-        assertArrayEquals(mockThumbnail, result.getThumbnailContent());
-        assertTrue(result.isPrimary());
-        assertEquals(0, result.getDisplayOrder());
-        assertNotNull(result.getCreatedAt());
-        assertEquals(product, result.getProduct());
-        verify(productImageAttachRepository).save(any(ProductImageAttach.class));
+        assertEquals(ImageStatus.READY, result.getStatus());
+        assertEquals(60L, result.getFileContentId());
+        assertEquals(61L, result.getThumbnailContentId());
+        assertEquals(9L, result.getBlobId());
+        assertEquals(2, existing.getRefCount());
+        verify(binaryContentService, never()).store(any(InputStream.class), anyLong(), anyString(), any());
+        verifyNoInteractions(imageProcessingService);
+    }
+
+    @Test
+    void uploadImageAttach_ConcurrentFirstUpload_ReferencesTheBlobThatWon() {
+        // Arrange
+        Product product = Product.builder().id(2L).build();
+        MockMultipartFile file = new MockMultipartFile("image", "copy.jpg", "image/jpeg", testJpeg);
+        ImageBlob winner = blob(ImageStatus.PENDING, 0);
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product));
+        when(imageBlobRepository.findFirstByContentHashAndStorageModeOrderByIdAsc(anyString(), eq("database")))
+                .thenReturn(Optional.empty(), Optional.of(winner));
+        when(imageBlobRepository.saveAndFlush(any(ImageBlob.class))).thenThrow(new DataIntegrityViolationException("uk_image_blob_hash"));
+        when(productImageAttachRepository.save(any(ProductImageAttach.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        ProductImageAttach result = productImageService.uploadImageAttach(2L, file, false);
+
+        // Assert
+        assertEquals(9L, result.getBlobId());
+        assertEquals(1, winner.getRefCount());
+        assertNull(winner.getReleasedAt());
+        verify(binaryContentService, never()).store(any(InputStream.class), anyLong(), anyString(), any());
+        // The upload that created the blob queues its processing
+        verifyNoInteractions(imageProcessingService);
+    }
+
+    @Test
+    void uploadImageAttach_IdenticalUploadOfFailedImage_RetriesProcessing() {
+        // Arrange
+        Product product = Product.builder().id(2L).build();
+        MockMultipartFile file = new MockMultipartFile("image", "copy.jpg", "image/jpeg", testJpeg);
+        ImageBlob existing = blob(ImageStatus.FAILED, 1);
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product));
+        when(imageBlobRepository.findFirstByContentHashAndStorageModeOrderByIdAsc(anyString(), eq("database")))
+                .thenReturn(Optional.of(existing));
+        when(productImageAttachRepository.save(any(ProductImageAttach.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        ProductImageAttach result = productImageService.uploadImageAttach(2L, file, false);
+
+        // Assert
+        assertEquals(ImageStatus.PENDING, result.getStatus());
+        verify(productImageAttachRepository).updateStatusByBlobId(9L, ImageStatus.FAILED, ImageStatus.PENDING);
+        verify(imageProcessingService).submit(eq("product image blob 9"), anyLong(), any(Runnable.class));
+    }
+
+    @Test
+    void processImageAttach_DerivesResizedImageAndThumbnailForAllImagesOfBlob() throws Exception {
+        // Arrange
+        when(binaryContentService.load(50L)).thenReturn(testJpeg);
+        when(imageBlobRepository.updateProcessed(9L, 100L, 101L, 3L, ImageStatus.PENDING, ImageStatus.READY)).thenReturn(1);
+        when(imageProcessingEngine.resize(any(BufferedImage.class), eq("jpg"), eq(false), eq(1600), eq(576), eq(ResizeQuality.HIGH)))
+                .thenReturn(new byte[]{10, 11, 12});
+        when(imageProcessingEngine.resize(any(BufferedImage.class), eq("jpg"), eq(false), eq(150), eq(150), eq(ResizeQuality.BALANCED)))
+                .thenReturn(new byte[]{13, 14});
+
+        // Act
+        productImageService.processImageAttach(9L, 50L, "jpg", "image/jpeg");
+
+        // Assert
+        verify(binaryContentService, times(2)).store(any(byte[].class), eq("image/jpeg"));
+        verify(productImageAttachRepository).updateProcessedByBlobId(9L, 100L, 101L, 3L, ImageStatus.PENDING, ImageStatus.READY);
+        verify(binaryContentService).delete(50L);
+        verify(productCacheService).evictProduct(7L);
+    }
+
+    @Test
+    void processImageAttach_CollectedMeanwhile_DropsRenditions() {
+        // Arrange
+        when(binaryContentService.load(50L)).thenReturn(testJpeg);
+        when(imageBlobRepository.updateProcessed(anyLong(), anyLong(), anyLong(), anyLong(), any(), any())).thenReturn(0);
+
+        // Act
+        productImageService.processImageAttach(9L, 50L, "jpg", "image/jpeg");
+
+        // Assert
+        verify(binaryContentService).delete(100L);
+        verify(binaryContentService).delete(101L);
+        verify(binaryContentService, never()).delete(50L);
+        verify(productImageAttachRepository, never()).updateProcessedByBlobId(anyLong(), anyLong(), anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void processImageAttach_CorruptImage_MarksFailed() {
+        // Arrange
+        when(binaryContentService.load(50L)).thenReturn(new byte[]{1, 2, 3});
+        when(imageBlobRepository.updateStatus(9L, ImageStatus.PENDING, ImageStatus.FAILED)).thenReturn(1);
+
+        // Act
+        productImageService.processImageAttach(9L, 50L, "jpg", "image/jpeg");
+
+        // Assert
+        verify(productImageAttachRepository).updateStatusByBlobId(9L, ImageStatus.PENDING, ImageStatus.FAILED);
+        verify(binaryContentService, never()).store(any(byte[].class), any());
+        verify(productCacheService).evictProduct(7L);
+    }
+
+    @Test
+    void deleteImageAttachById_SharedImage_ReleasesBlobInsteadOfDeletingContent() {
+        // Arrange
+        ProductImageAttach image = ProductImageAttach.builder().id(1L).fileContentId(60L).thumbnailContentId(61L).blobId(9L).build();
+        when(productImageAttachRepository.findById(1L)).thenReturn(Optional.of(image));
+
+        // Act
+        productImageService.deleteImageAttachById(1L);
+
+        // Assert
+        verify(imageBlobRepository).release(eq(9L), any(LocalDateTime.class));
+        verify(binaryContentService, never()).delete(anyLong());
+        verify(productImageAttachRepository).delete(image);
+    }
+
+    @Test
+    void collectImageGarbage_DeletesUnreferencedBlobsWithTheirContent() {
+        // Arrange
+        ImageBlob unused = blob(ImageStatus.READY, 0);
+        ImageBlob stillReferenced = blob(ImageStatus.READY, 0);
+        stillReferenced.setId(10L);
+        ImageBlob last = blob(ImageStatus.READY, 0);
+        last.setId(11L);
+        last.setFileContentId(70L);
+        last.setThumbnailContentId(71L);
+        when(imageBlobRepository.findUnreferenced(any(LocalDateTime.class), eq(0L), any())).thenReturn(List.of(unused, stillReferenced));
+        when(imageBlobRepository.findUnreferenced(any(LocalDateTime.class), eq(10L), any())).thenReturn(List.of(last));
+        when(imageBlobRepository.deleteIfUnreferenced(9L)).thenReturn(1);
+        when(imageBlobRepository.deleteIfUnreferenced(10L)).thenReturn(0);
+        when(imageBlobRepository.deleteIfUnreferenced(11L)).thenReturn(1);
+
+        // Act
+        productImageService.collectImageGarbage();
+
+        // Assert
+        verify(binaryContentService).delete(60L);
+        verify(binaryContentService).delete(61L);
+        verify(binaryContentService).delete(70L);
+        verify(binaryContentService).delete(71L);
+        verify(binaryContentService, times(4)).delete(anyLong());
+    }
+
+    @Test
+    void collectImageGarbage_UnpublishesObjectStorageCopiesNoLongerBackedByContent() {
+        // Arrange
+        ImageBlob unused = blob(ImageStatus.READY, 0);
+        when(imageBlobRepository.findUnreferenced(any(LocalDateTime.class), eq(0L), any())).thenReturn(List.of(unused));
+        when(imageBlobRepository.deleteIfUnreferenced(9L)).thenReturn(1);
+        when(binaryContentService.findMetadataById(60L)).thenReturn(Optional.of(metadata(60L, "original-hash")));
+        when(binaryContentService.findMetadataById(61L)).thenReturn(Optional.of(metadata(61L, "thumbnail-hash")));
+        // A profile picture with the same bytes as the thumbnail still uses its copy
+        when(binaryContentService.existsByContentHash("thumbnail-hash")).thenReturn(true);
+
+        // Act
+        productImageService.collectImageGarbage();
+
+        // Assert
+        verify(imageDeliveryService).unpublish("original-hash");
+        verify(imageDeliveryService, never()).unpublish("thumbnail-hash");
     }
 
     @Test
@@ -198,6 +406,19 @@ class ProductImageServiceTest {
         assertThrows(BadRequestException.class, () -> productImageService.uploadImageAttach(1L, file, true));
     }
 
+    @Test
+    void uploadImageAttach_TooManyPixels_ThrowsBadRequestException() {
+        // Arrange
+        Product product = Product.builder().id(1L).build();
+        MockMultipartFile file = new MockMultipartFile("image", "test.jpg", "image/jpeg", testJpeg);
+        ReflectionTestUtils.setField(groupConfig, "maxImagePixels", 100L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> productImageService.uploadImageAttach(1L, file, true));
+        verify(binaryContentService, never()).store(any(InputStream.class), anyLong(), anyString(), any());
+    }
+
     @Test
     void getImageAttachesByProductId_ReturnsImages() {
         // Arrange
@@ -208,8 +429,8 @@ class ProductImageServiceTest {
                 .contentType("image/jpeg")
                 .fileSize(1000)
                 .fileExtension("jpg")
-                .fileContent(new byte[]{1, 2, 3})
-                .thumbnailContent(new byte[]{4, 5, 6})
+                .fileContentId(100L)
+                .thumbnailContentId(101L)
                 .isPrimary(true)
                 .displayOrder(0)
                 .createdAt(LocalDateTime.now())
@@ -225,8 +446,8 @@ class ProductImageServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("test.jpg", result.get(0).getFileName());
-        assertArrayEquals(new byte[]{1, 2, 3}, result.get(0).getFileContent());
-        assertArrayEquals(new byte[]{4, 5, 6}, result.get(0).getThumbnailContent());
+        assertEquals(100L, result.get(0).getFileContentId());
+        assertEquals(101L, result.get(0).getThumbnailContentId());
         verify(productImageAttachRepository).findByProductId(1L);
     }
 
@@ -243,6 +464,45 @@ class ProductImageServiceTest {
         assertTrue(result.isEmpty());
         verify(productImageAttachRepository).findByProductId(1L);
     }
+
+    private BinaryContentMetadata metadata(Long id, String contentHash) {
+        return new BinaryContentMetadata() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getContentType() {
+                return "image/jpeg";
+            }
+
+            @Override
+            public long getSize() {
+                return 3L;
+            }
+
+            @Override
+            public String getContentHash() {
+                return contentHash;
+            }
+        };
+    }
+
+    private ImageBlob blob(ImageStatus status, int refCount) {
+        return ImageBlob.builder()
+                .id(9L)
+                .contentHash(ContentHashUtils.sha256Hex(testJpeg))
+                .storageMode("database")
+                .contentType("image/jpeg")
+                .fileExtension("jpg")
+                .fileSize(1234)
+                .fileContentId(60L)
+                .thumbnailContentId(status == ImageStatus.READY ? 61L : null)
+                .status(status)
+                .refCount(refCount)
+                .build();
+    }
 }
 
 
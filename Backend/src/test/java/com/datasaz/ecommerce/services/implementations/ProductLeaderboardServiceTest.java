@@ -0,0 +1,138 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.ProductSalesTotal;
+import com.datasaz.ecommerce.repositories.OrderItemRepository;
+import com.datasaz.ecommerce.repositories.entities.Category;
+import com.datasaz.ecommerce.repositories.entities.Order;
+import com.datasaz.ecommerce.repositories.entities.OrderItem;
+import com.datasaz.ecommerce.repositories.entities.Product;
+import com.datasaz.ecommerce.utilities.SalesLeaderboard.Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class ProductLeaderboardServiceTest {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ProductLeaderboardService productLeaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(productLeaderboardService, "enabled", true);
+        when(orderItemRepository.findMaxId()).thenReturn(100L);
+    }
+
+    @Test
+    void rebuildIndex_LoadsEveryWindowAndBecomesReady() {
+        when(orderItemRepository.findSalesTotals(100L)).thenReturn(List.of(total(1L, 10L, 50L), total(2L, 10L, 20L)));
+        when(orderItemRepository.findSalesTotalsSince(eq(100L), any(LocalDateTime.class)))
+                .thenReturn(List.of(total(2L, 10L, 4L)));
+        assertFalse(productLeaderboardService.isReady());
+
+        productLeaderboardService.rebuildIndex();
+
+        assertTrue(productLeaderboardService.isReady());
+        assertEquals(List.of(1L, 2L), productLeaderboardService.topProducts(null, Window.ALL_TIME, PageRequest.of(0, 10)).getContent());
+        Page<Long> lastWeek = productLeaderboardService.topProducts(10L, Window.LAST_7_DAYS, PageRequest.of(0, 10));
+        assertEquals(List.of(2L), lastWeek.getContent());
+        assertEquals(1, lastWeek.getTotalElements());
+        assertEquals(List.of(10L), productLeaderboardService.topCategories(Window.LAST_30_DAYS, PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void recordSalesAndReturns_UpdateRankings() {
+        productLeaderboardService.rebuildIndex();
+
+        productLeaderboardService.recordSales(List.of(item(101L, 1L, 2), item(102L, 2L, 3)));
+        assertEquals(List.of(2L, 1L), productLeaderboardService.topProducts(null, Window.LAST_7_DAYS, PageRequest.of(0, 10)).getContent());
+
+        productLeaderboardService.recordReturns(List.of(item(102L, 2L, 3)));
+        assertEquals(List.of(1L), productLeaderboardService.topProducts(null, Window.ALL_TIME, PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void rebuildIndex_ReplaysReturnOfOlderItemCommittedDuringBuild() {
+        when(orderItemRepository.findSalesTotals(100L)).thenAnswer(invocation -> {
+            // Item 50 predates the build; its return commits after the totals snapshot was taken
+            productLeaderboardService.recordReturns(List.of(item(50L, 1L, 3)));
+            return List.of(total(1L, 10L, 50L), total(2L, 10L, 48L));
+        });
+        when(orderItemRepository.findReturnedItemIds(any())).thenReturn(List.of());
+
+        productLeaderboardService.rebuildIndex();
+
+        assertEquals(List.of(2L, 1L), productLeaderboardService.topProducts(null, Window.ALL_TIME, PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void rebuildIndex_SkipsReturnAlreadySeenBySnapshot() {
+        when(orderItemRepository.findSalesTotals(100L)).thenAnswer(invocation -> {
+            productLeaderboardService.recordReturns(List.of(item(50L, 1L, 3)));
+            return List.of(total(1L, 10L, 47L), total(2L, 10L, 48L));
+        });
+        when(orderItemRepository.findReturnedItemIds(any())).thenReturn(List.of(50L));
+
+        productLeaderboardService.rebuildIndex();
+
+        assertEquals(List.of(2L, 1L), productLeaderboardService.topProducts(null, Window.ALL_TIME, PageRequest.of(0, 10)).getContent());
+        assertEquals(2, productLeaderboardService.topProducts(null, Window.ALL_TIME, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void recordSales_IgnoredUntilFirstBuild() {
+        productLeaderboardService.recordSales(List.of(item(101L, 1L, 2)));
+
+        assertFalse(productLeaderboardService.isReady());
+    }
+
+    private OrderItem item(Long id, Long productId, int quantity) {
+        Category category = new Category();
+        category.setId(10L);
+        Product product = new Product();
+        product.setId(productId);
+        product.setCategory(category);
+        Order order = Order.builder().orderDateTime(LocalDate.now().atTime(9, 0)).build();
+        return OrderItem.builder().id(id).product(product).quantity(quantity).order(order).build();
+    }
+
+    private ProductSalesTotal total(Long productId, Long categoryId, Long units) {
+        return new ProductSalesTotal() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getCategoryId() {
+                return categoryId;
+            }
+
+            @Override
+            public Long getUnits() {
+                return units;
+            }
+        };
+    }
+}
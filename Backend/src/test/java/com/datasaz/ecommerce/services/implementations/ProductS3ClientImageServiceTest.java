@@ -0,0 +1,166 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import com.datasaz.ecommerce.repositories.ProductImageRepository;
+import com.datasaz.ecommerce.repositories.ProductRepository;
+import com.datasaz.ecommerce.repositories.entities.Product;
+import com.datasaz.ecommerce.repositories.entities.ProductImage;
+import com.datasaz.ecommerce.services.interfaces.IObjectStorageService;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestClientException;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductS3ClientImageServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    @Mock
+    private IObjectStorageService objectStorageService;
+
+    @Mock
+    private ImageProcessingEngine imageProcessingEngine;
+
+    @Mock
+    private GroupConfig groupConfig;
+
+    @InjectMocks
+    private ProductS3ClientImageService productS3ClientImageService;
+
+    private MockMultipartFile first;
+    private MockMultipartFile second;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(productS3ClientImageService, "maxFileSizeMb", 5);
+        ReflectionTestUtils.setField(productS3ClientImageService, "resizeWidth", 800);
+        ReflectionTestUtils.setField(productS3ClientImageService, "resizeHeight", 800);
+        ReflectionTestUtils.setField(productS3ClientImageService, "thumbnailWidth", 150);
+        ReflectionTestUtils.setField(productS3ClientImageService, "thumbnailHeight", 150);
+        groupConfig.maxImagePixels = 40_000_000;
+        groupConfig.maxDecodePixels = 16_000_000;
+        byte[] testJpeg = Files.readAllBytes(Paths.get("src/test/resources/test.jpg"));
+        first = new MockMultipartFile("image", "first.jpg", "image/jpeg", testJpeg);
+        second = new MockMultipartFile("image", "second.jpg", "image/jpeg", testJpeg);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(Product.builder().id(1L).build()));
+        when(imageProcessingEngine.resize(any(BufferedImage.class), eq("jpg"), eq(true), eq(800), eq(800), any())).thenReturn(new byte[]{1, 2, 3});
+        when(imageProcessingEngine.resize(any(BufferedImage.class), eq("jpg"), eq(true), eq(150), eq(150), any())).thenReturn(new byte[]{4});
+        when(objectStorageService.put(anyString(), any(byte[].class), anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture("url/" + invocation.getArgument(0)));
+        when(objectStorageService.delete(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        when(objectStorageService.getUrl(anyString())).thenAnswer(invocation -> "url/" + invocation.getArgument(0));
+        when(productImageRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void uploadImages_UploadsOriginalResizedAndThumbnailOfEveryFile() {
+        List<ProductImage> images = productS3ClientImageService.uploadImages(1L, List.of(first, second), true);
+
+        assertEquals(2, images.size());
+        assertTrue(images.get(0).isPrimary());
+        assertFalse(images.get(1).isPrimary());
+        assertEquals(3, images.get(0).getFileSize());
+        assertEquals("url/" + images.get(0).getFileName(), images.get(0).getFileUrl());
+        // The stored object is the resized JPEG, whatever was uploaded
+        assertEquals("image/jpeg", images.get(0).getContentType());
+        for (ProductImage image : images) {
+            verify(objectStorageService).put(eq("originals/" + image.getFileName()), any(byte[].class), eq("image/jpeg"));
+            verify(objectStorageService).put(eq(image.getFileName()), eq(new byte[]{1, 2, 3}), eq("image/jpeg"));
+            verify(objectStorageService).put(eq("thumbnails/" + image.getFileName()), eq(new byte[]{4}), eq("image/jpeg"));
+        }
+        verify(productImageRepository).findByProductIdAndIsPrimaryTrue(1L);
+    }
+
+    @Test
+    void uploadImages_TooManyPixels_RejectedBeforeDecodingOrUploading() {
+        // test.jpg is 1600x1600
+        groupConfig.maxImagePixels = 1_000_000;
+
+        assertThrows(BadRequestException.class, () -> productS3ClientImageService.uploadImages(1L, List.of(first), false));
+
+        verifyNoInteractions(imageProcessingEngine);
+        verify(objectStorageService, never()).put(anyString(), any(byte[].class), anyString());
+    }
+
+    @Test
+    void uploadImages_DecodesWithinThePixelBudget() throws IOException {
+        groupConfig.maxDecodePixels = 1_000_000;
+        ArgumentCaptor<BufferedImage> decoded = ArgumentCaptor.forClass(BufferedImage.class);
+
+        productS3ClientImageService.uploadImages(1L, List.of(first), false);
+
+        verify(imageProcessingEngine).resize(decoded.capture(), eq("jpg"), eq(true), eq(800), eq(800), any());
+        assertEquals(800, decoded.getValue().getWidth());
+        assertEquals(800, decoded.getValue().getHeight());
+    }
+
+    @Test
+    void uploadImages_FailedUpload_DeletesStoredObjects() {
+        when(objectStorageService.put(startsWith("thumbnails/"), any(byte[].class), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("connection reset")));
+
+        assertThrows(RestClientException.class, () -> productS3ClientImageService.uploadImages(1L, List.of(first), false));
+
+        verify(objectStorageService).delete(startsWith("originals/"));
+        verify(objectStorageService).delete(argThat(key -> key.endsWith("first.jpg") && !key.contains("/")));
+        verify(objectStorageService, never()).delete(startsWith("thumbnails/"));
+        verify(productImageRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void uploadImages_TransactionRollsBack_DeletesStoredObjects() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ProductImage image = productS3ClientImageService.uploadImages(1L, List.of(first), false).get(0);
+            verify(objectStorageService, never()).delete(anyString());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            verify(objectStorageService).delete(image.getFileName());
+            verify(objectStorageService).delete("originals/" + image.getFileName());
+            verify(objectStorageService).delete("thumbnails/" + image.getFileName());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deleteImage_DeletesAllObjects() {
+        ProductImage image = ProductImage.builder().id(5L).fileName("abc_first.jpg").build();
+        when(productImageRepository.findById(5L)).thenReturn(Optional.of(image));
+
+        productS3ClientImageService.deleteImage(5L);
+
+        verify(objectStorageService).delete("abc_first.jpg");
+        verify(objectStorageService).delete("originals/abc_first.jpg");
+        verify(objectStorageService).delete("thumbnails/abc_first.jpg");
+        verify(productImageRepository).delete(image);
+    }
+}
@@ -0,0 +1,117 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.ProductSearchDocument;
+import com.datasaz.ecommerce.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class ProductSearchServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductSearchService productSearchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(productSearchService, "enabled", true);
+        ReflectionTestUtils.setField(productSearchService, "chunkSize", 2);
+    }
+
+    @Test
+    void rebuildIndex_ReadsAllChunksAndBecomesReady() {
+        when(productRepository.findSearchDocumentsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(document(1L, "Red lamp"), document(2L, "Blue lamp")));
+        when(productRepository.findSearchDocumentsAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(document(3L, "Green lamp")));
+        assertFalse(productSearchService.isReady());
+
+        productSearchService.rebuildIndex();
+
+        assertTrue(productSearchService.isReady());
+        Page<Long> hits = productSearchService.search("lamp", PageRequest.of(0, 10));
+        assertEquals(3, hits.getTotalElements());
+    }
+
+    @Test
+    void indexProduct_OutsideTransaction_UpdatesIndexImmediately() {
+        when(productRepository.findSearchDocumentById(1L)).thenReturn(Optional.of(document(1L, "Oak table")));
+
+        productSearchService.indexProduct(1L);
+
+        assertEquals(List.of(1L), productSearchService.search("oak", PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void indexProduct_ProductGone_RemovesFromIndex() {
+        when(productRepository.findSearchDocumentById(1L))
+                .thenReturn(Optional.of(document(1L, "Oak table")))
+                .thenReturn(Optional.empty());
+        productSearchService.indexProduct(1L);
+
+        productSearchService.indexProduct(1L);
+
+        assertTrue(productSearchService.search("oak", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void removeProduct_DropsFromResults() {
+        when(productRepository.findSearchDocumentById(1L)).thenReturn(Optional.of(document(1L, "Oak table")));
+        productSearchService.indexProduct(1L);
+
+        productSearchService.removeProduct(1L);
+
+        assertTrue(productSearchService.search("table", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private ProductSearchDocument document(Long id, String name) {
+        return new ProductSearchDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getBrand() {
+                return null;
+            }
+
+            @Override
+            public String getEan() {
+                return null;
+            }
+
+            @Override
+            public String getDescription() {
+                return null;
+            }
+
+            @Override
+            public String getKeywords() {
+                return null;
+            }
+        };
+    }
+}
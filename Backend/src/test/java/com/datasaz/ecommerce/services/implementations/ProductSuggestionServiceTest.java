@@ -0,0 +1,133 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.CategorySuggestionDocument;
+import com.datasaz.ecommerce.models.dto.ProductSuggestionDocument;
+import com.datasaz.ecommerce.repositories.CategoryRepository;
+import com.datasaz.ecommerce.repositories.ProductRepository;
+import com.datasaz.ecommerce.utilities.ProductSuggestionIndex.Suggestion;
+import com.datasaz.ecommerce.utilities.ProductSuggestionIndex.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestionServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private ProductSuggestionService productSuggestionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(productSuggestionService, "enabled", true);
+        ReflectionTestUtils.setField(productSuggestionService, "chunkSize", 2);
+        ReflectionTestUtils.setField(productSuggestionService, "maxSuggestions", 10);
+    }
+
+    @Test
+    void suggest_BeforeBuild_ReturnsEmpty() {
+        assertTrue(productSuggestionService.suggest("lamp", 5).isEmpty());
+    }
+
+    @Test
+    void rebuildIndex_RanksBySalesAndFavorites() {
+        when(categoryRepository.findAllSuggestionDocuments()).thenReturn(List.of(category(3L, "Lighting", 3L)));
+        when(productRepository.findSuggestionDocumentsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(product(1L, "Lamp shade", 1L, 0L), product(2L, "Lamp base", 4L, 2L)));
+        when(productRepository.findSuggestionDocumentsAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(product(3L, "Lava lamp", 0L, 0L)));
+
+        productSuggestionService.rebuildIndex();
+
+        assertEquals(List.of(new Suggestion(Type.PRODUCT, 2L, "Lamp base"), new Suggestion(Type.PRODUCT, 1L, "Lamp shade"),
+                new Suggestion(Type.PRODUCT, 3L, "Lava lamp")), productSuggestionService.suggest("lamp", 5));
+        assertEquals(List.of(new Suggestion(Type.CATEGORY, 3L, "Lighting")), productSuggestionService.suggest("lig", 5));
+    }
+
+    @Test
+    void indexProduct_AfterBuild_AddsRenamedProduct() {
+        when(productRepository.findSuggestionDocumentsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of());
+        productSuggestionService.rebuildIndex();
+        when(productRepository.findSuggestionDocumentById(1L)).thenReturn(Optional.of(product(1L, "Oak table", 0L, 0L)));
+
+        productSuggestionService.indexProduct(1L);
+
+        assertEquals(List.of(new Suggestion(Type.PRODUCT, 1L, "Oak table")), productSuggestionService.suggest("oak", 5));
+    }
+
+    @Test
+    void removeProduct_DropsSuggestion() {
+        when(productRepository.findSuggestionDocumentsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(product(1L, "Oak table", 0L, 0L)));
+        productSuggestionService.rebuildIndex();
+
+        productSuggestionService.removeProduct(1L);
+
+        assertTrue(productSuggestionService.suggest("oak", 5).isEmpty());
+    }
+
+    private CategorySuggestionDocument category(Long id, String name, Long productCount) {
+        return new CategorySuggestionDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getProductCount() {
+                return productCount;
+            }
+        };
+    }
+
+    private ProductSuggestionDocument product(Long id, String name, Long soldQuantity, Long favoriteCount) {
+        return new ProductSuggestionDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getBrand() {
+                return null;
+            }
+
+            @Override
+            public Long getSoldQuantity() {
+                return soldQuantity;
+            }
+
+            @Override
+            public Long getFavoriteCount() {
+                return favoriteCount;
+            }
+        };
+    }
+}
@@ -0,0 +1,157 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.utilities.JdbcSchemaUtils;
+import com.datasaz.ecommerce.utilities.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+class SchemaMigrationServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SchemaMigrationService schemaMigrationService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        schemaMigrationService = new SchemaMigrationService(jdbcTemplate);
+        ReflectionTestUtils.setField(schemaMigrationService, "enabled", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void migrate_relaxesLegacyColumnOnceAndRecordsTheVersion() {
+        jdbcTemplate.execute("CREATE TABLE product_image_attach (id BIGINT PRIMARY KEY, file_content BLOB NOT NULL)");
+
+        schemaMigrationService.migrate();
+
+        jdbcTemplate.update("INSERT INTO product_image_attach (id, file_content) VALUES (1, NULL)");
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_migration WHERE version = '1'", Integer.class));
+    }
+
+    @Test
+    void migrate_doesNotRerunRecordedVersions() {
+        schemaMigrationService.migrate();
+        jdbcTemplate.execute("CREATE TABLE product_image_attach (id BIGINT PRIMARY KEY, file_content BLOB NOT NULL)");
+
+        schemaMigrationService.migrate();
+
+        assertEquals("NO", jdbcTemplate.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_NAME = 'PRODUCT_IMAGE_ATTACH' AND COLUMN_NAME = 'FILE_CONTENT'", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_migration WHERE version = '1'", Integer.class));
+    }
+
+    @Test
+    void migrate_failedStep_stopsStartupAndLeavesItsChangesAndVersionUnrecorded() {
+        jdbcTemplate.execute("CREATE TABLE product_image (id BIGINT PRIMARY KEY)");
+        SchemaMigrationService failing = spy(schemaMigrationService);
+        doReturn(List.of(new SchemaMigrationService.Migration("1", "Fails halfway", () -> {
+            jdbcTemplate.update("INSERT INTO product_image (id) VALUES (1)");
+            throw new IllegalStateException("boom");
+        }))).when(failing).migrations();
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, failing::migrate);
+
+        assertEquals("boom", exception.getCause().getMessage());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_image", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_migration", Integer.class));
+    }
+
+    @Test
+    void migrate_mergesDuplicateImageBlobsAndMakesTheHashUnique() {
+        jdbcTemplate.execute("CREATE TABLE image_blob (id BIGINT PRIMARY KEY, content_hash VARCHAR(64), storage_mode VARCHAR(16), "
+                + "status VARCHAR(16), file_name VARCHAR(255), file_size BIGINT, file_content_id BIGINT, "
+                + "thumbnail_content_id BIGINT, ref_count INT, released_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE INDEX idx_image_blob_hash ON image_blob (content_hash)");
+        jdbcTemplate.execute("CREATE TABLE product_image (id BIGINT PRIMARY KEY, blob_id BIGINT, file_name VARCHAR(255), "
+                + "file_url VARCHAR(255), file_size BIGINT, status VARCHAR(16))");
+        jdbcTemplate.execute("CREATE TABLE product_image_attach (id BIGINT PRIMARY KEY, blob_id BIGINT, file_content_id BIGINT, "
+                + "thumbnail_content_id BIGINT, file_size BIGINT, status VARCHAR(16))");
+        jdbcTemplate.execute("CREATE TABLE binary_content (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("INSERT INTO binary_content VALUES (10), (11), (20)");
+        jdbcTemplate.execute("INSERT INTO image_blob VALUES (1, 'abc', 'database', 'PENDING', NULL, 90, 20, NULL, 1, NULL), "
+                + "(2, 'abc', 'database', 'READY', NULL, 50, 10, 11, 2, NULL), "
+                + "(3, 'abc', 'file', 'READY', 'abc.jpg', 50, NULL, NULL, 0, CURRENT_TIMESTAMP)");
+        jdbcTemplate.execute("INSERT INTO product_image_attach VALUES (5, 1, 20, NULL, 90, 'PENDING'), (6, 2, 10, 11, 50, 'READY')");
+
+        schemaMigrationService.migrate();
+
+        // The processed blob is kept and takes over the references of the duplicate
+        assertEquals(List.of(2L, 3L), jdbcTemplate.queryForList("SELECT id FROM image_blob ORDER BY id", Long.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT ref_count FROM image_blob WHERE id = 2", Integer.class));
+        assertEquals(List.of(10L, 11L), jdbcTemplate.queryForList("SELECT id FROM binary_content ORDER BY id", Long.class));
+        assertEquals(Map.of("BLOB_ID", 2L, "FILE_CONTENT_ID", 10L, "THUMBNAIL_CONTENT_ID", 11L, "STATUS", "READY"),
+                jdbcTemplate.queryForMap("SELECT blob_id, file_content_id, thumbnail_content_id, status "
+                        + "FROM product_image_attach WHERE id = 5"));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("INSERT INTO image_blob (id, content_hash, "
+                + "storage_mode, ref_count) VALUES (4, 'abc', 'file', 0)"));
+        assertFalse(JdbcSchemaUtils.hasIndex(jdbcTemplate, "image_blob", "idx_image_blob_hash"));
+    }
+
+    @Test
+    void migrate_hashesLegacyRefreshTokensAndDropsThePlainTextColumn() {
+        // As ddl update leaves it: the old column still NOT NULL UNIQUE, the new one added beside it
+        jdbcTemplate.execute("CREATE TABLE refresh_tokens (id BIGINT PRIMARY KEY, user_email VARCHAR(255) NOT NULL, "
+                + "token VARCHAR(512) NOT NULL UNIQUE, token_hash VARCHAR(64), expiry_date TIMESTAMP NOT NULL, "
+                + "is_revoked BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("INSERT INTO refresh_tokens VALUES (1, 'a@test.com', 'token-a', NULL, CURRENT_TIMESTAMP, FALSE), "
+                + "(2, 'b@test.com', 'token-b', '', CURRENT_TIMESTAMP, TRUE)");
+
+        schemaMigrationService.migrate();
+
+        assertNull(JdbcSchemaUtils.isNullable(jdbcTemplate, "refresh_tokens", "token"));
+        assertEquals(List.of(JwtUtil.tokenHash("token-a"), JwtUtil.tokenHash("token-b")),
+                jdbcTemplate.queryForList("SELECT token_hash FROM refresh_tokens ORDER BY id", String.class));
+        jdbcTemplate.update("INSERT INTO refresh_tokens (id, user_email, token_hash, expiry_date, is_revoked) "
+                + "VALUES (3, 'a@test.com', 'new-hash', CURRENT_TIMESTAMP, FALSE)");
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("INSERT INTO refresh_tokens "
+                + "(id, user_email, token_hash, expiry_date, is_revoked) VALUES (4, 'a@test.com', 'new-hash', CURRENT_TIMESTAMP, FALSE)"));
+    }
+
+    @Test
+    void migrate_unhashableRefreshToken_keepsThePlainTextColumnAndStopsStartup() {
+        jdbcTemplate.execute("CREATE TABLE refresh_tokens (id BIGINT PRIMARY KEY, user_email VARCHAR(255) NOT NULL, "
+                + "token VARCHAR(512), token_hash VARCHAR(64), expiry_date TIMESTAMP NOT NULL, is_revoked BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("INSERT INTO refresh_tokens VALUES (1, 'a@test.com', 'token-a', NULL, CURRENT_TIMESTAMP, FALSE), "
+                + "(2, 'b@test.com', NULL, NULL, CURRENT_TIMESTAMP, FALSE)");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> schemaMigrationService.migrate());
+
+        assertEquals("1 refresh tokens could not be hashed, keeping the token column", e.getCause().getMessage());
+        assertNotNull(JdbcSchemaUtils.isNullable(jdbcTemplate, "refresh_tokens", "token"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_migration WHERE version = '3'", Integer.class));
+    }
+
+    @Test
+    void migrate_tokenColumnAlreadyDropped_stillCreatesTheUniqueIndex() {
+        // As a run that stopped between dropping the column and creating the index leaves it
+        jdbcTemplate.execute("CREATE TABLE refresh_tokens (id BIGINT PRIMARY KEY, user_email VARCHAR(255) NOT NULL, "
+                + "token_hash VARCHAR(64), expiry_date TIMESTAMP NOT NULL, is_revoked BOOLEAN NOT NULL)");
+
+        schemaMigrationService.migrate();
+
+        assertTrue(JdbcSchemaUtils.hasUniqueIndex(jdbcTemplate, "refresh_tokens", "token_hash"));
+    }
+}
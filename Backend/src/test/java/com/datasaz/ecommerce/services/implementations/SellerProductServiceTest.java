@@ -5,9 +5,15 @@ import com.datasaz.ecommerce.exceptions.*;
 import com.datasaz.ecommerce.exceptions.response.ExceptionMessages;
 import com.datasaz.ecommerce.mappers.ProductMapper;
 import com.datasaz.ecommerce.models.request.ProductRequest;
+import com.datasaz.ecommerce.models.response.CursorSliceResponse;
 import com.datasaz.ecommerce.models.response.ProductResponse;
 import com.datasaz.ecommerce.repositories.*;
 import com.datasaz.ecommerce.repositories.entities.*;
+import com.datasaz.ecommerce.services.interfaces.IProductCacheService;
+import com.datasaz.ecommerce.services.interfaces.IProductFacetService;
+import com.datasaz.ecommerce.services.interfaces.IProductSearchService;
+import com.datasaz.ecommerce.services.interfaces.IProductSuggestionService;
+import com.datasaz.ecommerce.utilities.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,6 +28,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -66,6 +73,18 @@ class SellerProductServiceTest {
     @Mock
     private CompanyAdminRightsRepository companyAdminRightsRepository;
 
+    @Mock
+    private IProductCacheService productCacheService;
+
+    @Mock
+    private IProductSearchService productSearchService;
+
+    @Mock
+    private IProductFacetService productFacetService;
+
+    @Mock
+    private IProductSuggestionService productSuggestionService;
+
     @Spy
     private GroupConfig groupConfig = new GroupConfig();
 
@@ -403,6 +422,37 @@ class SellerProductServiceTest {
             assertEquals(20, result.getQuantity());
             verify(auditLogService).logAction("seller@test.com", "UPDATE_PRODUCT", "Product ID: 1, Images updated: 0, Images removed: 0");
             verify(productRepository).save(argThat(p -> p.getProductStatus() == ProductStatus.AVAILABLE));
+            // Moved from category 1 to 2: both category listings are dropped, not the whole catalog cache
+            verify(productCacheService).evictListings(eq(1L), argThat(ids -> ids.containsAll(List.of(1L, 2L))));
+            verify(productCacheService, never()).evictAll();
+            verify(productSearchService).indexProduct(1L);
+            verify(productFacetService).indexProduct(1L);
+            verify(productSuggestionService).indexProduct(1L);
+        }
+    }
+
+    @Test
+    void updateProduct_RemovedImagesAreDeletedThroughImageService() {
+        try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
+            mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getName()).thenReturn("seller@test.com");
+            ProductImageAttach removed = ProductImageAttach.builder().id(5L).product(product).build();
+            ProductImageAttach kept = ProductImageAttach.builder().id(6L).product(product).isPrimary(true).build();
+            product.getImageAttaches().addAll(List.of(removed, kept));
+
+            when(userRepository.findByEmailAddressAndDeletedFalse("seller@test.com")).thenReturn(Optional.of(seller));
+            when(productRepository.findByIdAndDeletedFalse(1L)).thenReturn(Optional.of(product));
+            when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+            when(productRepository.save(any(Product.class))).thenReturn(product);
+            when(productMapper.toResponse(any(Product.class))).thenReturn(productResponse);
+
+            // Image 99 belongs to another product and must not be touched
+            sellerProductService.updateProduct(1L, productRequest, Collections.emptyList(), List.of(5L, 99L), null, "seller@test.com");
+
+            verify(productImageService).deleteImageAttachById(5L);
+            verify(productImageService, never()).deleteImageAttachById(99L);
+            assertEquals(List.of(kept), product.getImageAttaches());
         }
     }
 
@@ -622,6 +672,10 @@ class SellerProductServiceTest {
 
             verify(productRepository).save(argThat(p -> p.isDeleted()));
             verify(auditLogService).logAction("seller@test.com", "DELETE_PRODUCT", "Product ID: 1");
+            verify(productCacheService).evictListings(eq(1L), argThat(ids -> ids.contains(1L)));
+            verify(productSearchService).removeProduct(1L);
+            verify(productFacetService).removeProduct(1L);
+            verify(productSuggestionService).removeProduct(1L);
         }
     }
 
@@ -766,6 +820,7 @@ class SellerProductServiceTest {
             assertNotNull(result);
             assertEquals(0, result.getQuantity());
             verify(productRepository).save(argThat(p -> p.getQuantity() == 0 && p.getProductStatus() == ProductStatus.OUT_OF_STOCK));
+            verify(productFacetService).indexProduct(1L);
         }
     }
 
@@ -1049,6 +1104,51 @@ class SellerProductServiceTest {
         }
     }
 
+    @Test
+    void getAllAuthorOrCompanyProducts_Cursor_SeeksAfterLastIdAndReturnsNextCursor() {
+        try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
+            mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getName()).thenReturn("seller@test.com");
+
+            Pageable pageable = PageRequest.of(0, 1);
+            when(userRepository.findByEmailAddressAndDeletedFalse("seller@test.com")).thenReturn(Optional.of(seller));
+            when(productRepository.findByAuthorIdAndDeletedFalseBefore(1L, 50L, pageable))
+                    .thenReturn(new SliceImpl<>(List.of(product), pageable, true));
+            when(productMapper.toResponse(any(Product.class))).thenReturn(productResponse);
+
+            CursorSliceResponse<ProductResponse> result = sellerProductService.getAllAuthorOrCompanyProducts(
+                    KeysetCursor.of(50L).encode(), 1);
+
+            assertEquals(1, result.getSize());
+            assertTrue(result.isHasNext());
+            assertEquals(KeysetCursor.of(product.getId()), KeysetCursor.decode(result.getNextCursor()));
+            verify(productRepository, never()).findByCompanyIdAndDeletedFalseBefore(anyLong(), anyLong(), any());
+        }
+    }
+
+    @Test
+    void getAllAuthorOrCompanyProducts_CursorLastSlice_HasNoNextCursor() {
+        try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
+            mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getName()).thenReturn("seller@test.com");
+
+            seller.setCompany(company);
+            Pageable pageable = PageRequest.of(0, 10);
+            when(userRepository.findByEmailAddressAndDeletedFalse("seller@test.com")).thenReturn(Optional.of(seller));
+            when(productRepository.findByCompanyIdAndDeletedFalseBefore(1L, Long.MAX_VALUE, pageable))
+                    .thenReturn(new SliceImpl<>(List.of(product), pageable, false));
+            when(productMapper.toResponse(any(Product.class))).thenReturn(productResponse);
+
+            CursorSliceResponse<ProductResponse> result = sellerProductService.getAllAuthorOrCompanyProducts(null, 10);
+
+            assertFalse(result.isHasNext());
+            assertNull(result.getNextCursor());
+            assertEquals("Test Product", result.getContent().get(0).getName());
+        }
+    }
+
     @Test
     void getAllAuthorOrCompanyProducts_NegativePage_ThrowsIllegalParameterException() {
         try (MockedStatic<SecurityContextHolder> mockedStatic = mockStatic(SecurityContextHolder.class)) {
@@ -8,6 +8,7 @@ import com.datasaz.ecommerce.repositories.entities.*;
 import com.datasaz.ecommerce.services.interfaces.IAuditLogService;
 import com.datasaz.ecommerce.services.interfaces.ICompanyService;
 import com.datasaz.ecommerce.services.interfaces.IEmailService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
 import com.datasaz.ecommerce.utilities.CurrentUserService;
 import jakarta.mail.MessagingException;
 import jakarta.validation.ConstraintViolationException;
@@ -69,6 +70,9 @@ class SellerUserRoleServiceTest {
     @Mock
     private CurrentUserService currentUserService;
 
+    @Mock
+    private IUserAuthStatusService userAuthStatusService;
+
     @InjectMocks
     private SellerUserRoleService sellerUserRoleService;
 
@@ -0,0 +1,92 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.repositories.ApprovalTokenRepository;
+import com.datasaz.ecommerce.repositories.RefreshTokenRepository;
+import com.datasaz.ecommerce.repositories.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenCleanupServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private ApprovalTokenRepository approvalTokenRepository;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @InjectMocks
+    private TokenCleanupService tokenCleanupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenCleanupService, "batchSize", 2);
+        ReflectionTestUtils.setField(tokenCleanupService, "maxBatchesPerRun", 3);
+    }
+
+    @Test
+    void sweepExpiredRefreshTokens_DeletesInBatchesUntilPartialBatch() {
+        when(refreshTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(refreshTokenRepository.deleteByIdIn(anyList())).thenReturn(2, 1);
+
+        assertEquals(3, tokenCleanupService.sweepExpiredRefreshTokens());
+
+        verify(refreshTokenRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(refreshTokenRepository).deleteByIdIn(List.of(3L));
+    }
+
+    @Test
+    void sweepExpiredRefreshTokens_StopsAfterMaxBatches() {
+        when(refreshTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L, 6L), List.of(7L, 8L));
+        when(refreshTokenRepository.deleteByIdIn(anyList())).thenReturn(2);
+
+        assertEquals(6, tokenCleanupService.sweepExpiredRefreshTokens());
+
+        verify(refreshTokenRepository, times(3)).deleteByIdIn(anyList());
+    }
+
+    @Test
+    void sweepExpiredRefreshTokens_NothingExpired_DeletesNothing() {
+        when(refreshTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, tokenCleanupService.sweepExpiredRefreshTokens());
+
+        verify(refreshTokenRepository, never()).deleteByIdIn(anyList());
+    }
+
+    @Test
+    void sweepExpiredTokens_FailureInOneTable_OthersStillSwept() {
+        when(refreshTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenThrow(new RuntimeException("database unavailable"));
+        when(approvalTokenRepository.findExpiredOrRevokedIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(10L));
+        when(approvalTokenRepository.deleteByIdIn(anyList())).thenReturn(1);
+        when(revokedTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(20L));
+        when(revokedTokenRepository.deleteByIdIn(anyList())).thenReturn(1);
+
+        tokenCleanupService.sweepExpiredTokens();
+
+        verify(approvalTokenRepository).deleteByIdIn(List.of(10L));
+        verify(revokedTokenRepository).deleteByIdIn(List.of(20L));
+    }
+}
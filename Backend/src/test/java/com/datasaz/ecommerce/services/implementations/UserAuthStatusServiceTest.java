@@ -0,0 +1,115 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.models.dto.UserAuthStatus;
+import com.datasaz.ecommerce.models.dto.UserAuthStatusRow;
+import com.datasaz.ecommerce.repositories.UserRepository;
+import com.datasaz.ecommerce.repositories.entities.RoleTypes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserAuthStatusServiceTest {
+
+    private static final String EMAIL = "user@test.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserAuthStatusService userAuthStatusService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(userAuthStatusService, "maxUsers", 100L);
+        ReflectionTestUtils.setField(userAuthStatusService, "ttlSeconds", 60L);
+        userAuthStatusService.init();
+    }
+
+    @Test
+    void getStatus_LoadsRolesOnceAndServesFromCache() {
+        when(userRepository.findAuthStatusRowsByEmailAddress(EMAIL)).thenReturn(List.of(
+                row(true, false, null, RoleTypes.BUYER), row(true, false, null, RoleTypes.SELLER)));
+
+        UserAuthStatus status = userAuthStatusService.getStatus(EMAIL).orElseThrow();
+        userAuthStatusService.getStatus(EMAIL);
+
+        assertTrue(status.enabled());
+        assertEquals(Set.of("ROLE_BUYER", "ROLE_SELLER"), status.roles());
+        verify(userRepository, times(1)).findAuthStatusRowsByEmailAddress(EMAIL);
+    }
+
+    @Test
+    void getStatus_UnknownOrDeletedUser_CachedAsEmpty() {
+        when(userRepository.findAuthStatusRowsByEmailAddress(EMAIL)).thenReturn(List.of());
+
+        assertEquals(Optional.empty(), userAuthStatusService.getStatus(EMAIL));
+        assertEquals(Optional.empty(), userAuthStatusService.getStatus(EMAIL));
+        verify(userRepository, times(1)).findAuthStatusRowsByEmailAddress(EMAIL);
+    }
+
+    @Test
+    void invalidate_NextLookupReloads() {
+        when(userRepository.findAuthStatusRowsByEmailAddress(EMAIL))
+                .thenReturn(List.of(row(true, false, null, RoleTypes.BUYER)))
+                .thenReturn(List.of(row(true, true, null, RoleTypes.BUYER)));
+
+        assertTrue(userAuthStatusService.getStatus(EMAIL).orElseThrow().enabled());
+        userAuthStatusService.invalidate(EMAIL);
+
+        assertFalse(userAuthStatusService.getStatus(EMAIL).orElseThrow().enabled());
+    }
+
+    @Test
+    void accepts_RejectsRemovedRolesTokensBeforePasswordResetAndDisabledAccounts() {
+        LocalDateTime reset = LocalDateTime.of(2026, 1, 1, 12, 0, 0, 500_000_000);
+        Instant resetAt = reset.atZone(ZoneId.systemDefault()).toInstant();
+        when(userRepository.findAuthStatusRowsByEmailAddress(EMAIL)).thenReturn(List.of(
+                row(true, false, reset, RoleTypes.BUYER), row(true, false, reset, RoleTypes.SELLER)));
+        UserAuthStatus status = userAuthStatusService.getStatus(EMAIL).orElseThrow();
+
+        // Issued within the second of the reset: token timestamps are truncated to seconds
+        assertTrue(status.accepts(resetAt.minusMillis(500), List.of("ROLE_BUYER")));
+        assertTrue(status.accepts(resetAt.plusSeconds(60), List.of("ROLE_BUYER", "ROLE_SELLER")));
+        assertFalse(status.accepts(resetAt.minusSeconds(60), List.of("ROLE_BUYER")));
+        assertFalse(status.accepts(resetAt.plusSeconds(60), List.of("ROLE_APP_ADMIN")));
+        assertFalse(new UserAuthStatus(false, Set.of("ROLE_BUYER"), null).accepts(Instant.now(), List.of("ROLE_BUYER")));
+    }
+
+    private UserAuthStatusRow row(Boolean activated, Boolean blocked, LocalDateTime lastPasswordResetDate, RoleTypes role) {
+        return new UserAuthStatusRow() {
+            @Override
+            public Boolean getActivated() {
+                return activated;
+            }
+
+            @Override
+            public Boolean getBlocked() {
+                return blocked;
+            }
+
+            @Override
+            public LocalDateTime getLastPasswordResetDate() {
+                return lastPasswordResetDate;
+            }
+
+            @Override
+            public RoleTypes getRole() {
+                return role;
+            }
+        };
+    }
+}
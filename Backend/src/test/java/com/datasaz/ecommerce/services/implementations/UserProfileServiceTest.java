@@ -0,0 +1,87 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.repositories.entities.User;
+import com.datasaz.ecommerce.repositories.entities.UserPrivacySettings;
+import com.datasaz.ecommerce.repositories.entities.UserPrivacySettings.Visibility;
+import com.datasaz.ecommerce.utilities.CurrentUserService;
+import com.datasaz.ecommerce.utilities.UserFetchPlan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+class UserProfileServiceTest {
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @InjectMocks
+    private UserProfileService userProfileService;
+
+    private User follower;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        follower = User.builder().id(2L).emailAddress("follower@test.com").build();
+        when(currentUserService.findUser("follower@test.com", UserFetchPlan.ROLES)).thenReturn(Optional.of(follower));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void checkProfileVisible_PrivateProfile_OnlyTheOwner() {
+        user("private@test.com", Visibility.PRIVATE);
+
+        viewAs("follower@test.com");
+        assertThrows(AccessDeniedException.class, () -> userProfileService.checkProfileVisible("private@test.com"));
+        viewAs("private@test.com");
+        assertDoesNotThrow(() -> userProfileService.checkProfileVisible("private@test.com"));
+    }
+
+    @Test
+    void checkProfileVisible_FollowersProfile_FollowersButNotAnonymousViewers() {
+        user("followed@test.com", Visibility.FOLLOWERS);
+
+        viewAs("follower@test.com");
+        assertDoesNotThrow(() -> userProfileService.checkProfileVisible("followed@test.com"));
+        SecurityContextHolder.clearContext();
+        assertThrows(AccessDeniedException.class, () -> userProfileService.checkProfileVisible("followed@test.com"));
+    }
+
+    @Test
+    void checkProfileVisible_PublicProfile_AnonymousViewers() {
+        user("public@test.com", Visibility.PUBLIC);
+
+        assertDoesNotThrow(() -> userProfileService.checkProfileVisible("public@test.com"));
+    }
+
+    private void user(String email, Visibility profileVisibility) {
+        User user = User.builder()
+                .id(1L)
+                .emailAddress(email)
+                .privacySettings(UserPrivacySettings.builder().profileVisibility(profileVisibility).build())
+                .followers(Set.of(follower))
+                .build();
+        when(currentUserService.findUser(email, UserFetchPlan.ROLES)).thenReturn(Optional.of(user));
+    }
+
+    private void viewAs(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(email, null));
+    }
+}
@@ -0,0 +1,152 @@
+package com.datasaz.ecommerce.services.implementations;
+
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import com.datasaz.ecommerce.mappers.UserMapper;
+import com.datasaz.ecommerce.repositories.ProductRepository;
+import com.datasaz.ecommerce.repositories.RefreshTokenRepository;
+import com.datasaz.ecommerce.repositories.UserRepository;
+import com.datasaz.ecommerce.repositories.entities.RefreshToken;
+import com.datasaz.ecommerce.repositories.entities.User;
+import com.datasaz.ecommerce.services.interfaces.IEmailService;
+import com.datasaz.ecommerce.services.interfaces.IUserAuthStatusService;
+import com.datasaz.ecommerce.utilities.JwtBlacklistService;
+import com.datasaz.ecommerce.utilities.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserServiceTest {
+
+    private static final String EMAIL = "user@test.com";
+    private static final String JWT = "access-token";
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private SellerUserRoleService sellerUserRoleService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @Mock
+    private IEmailService emailService;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private JwtBlacklistService jwtBlacklistService;
+
+    @Mock
+    private IUserAuthStatusService userAuthStatusService;
+
+    @InjectMocks
+    private UserService userService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        user = User.builder()
+                .id(1L)
+                .emailAddress(EMAIL)
+                .password("encodedPassword")
+                .isActivated(true)
+                .isBlocked(false)
+                .deleted(false)
+                .build();
+        when(userRepository.findByEmailAddressAndDeletedFalse(EMAIL)).thenReturn(Optional.of(user));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(EMAIL, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void updateUserPassword_StampsResetDateAndDropsCachedStatus() {
+        when(passwordEncoder.encode("newPassword123")).thenReturn("encodedNewPassword");
+        LocalDateTime before = LocalDateTime.now();
+
+        userService.updateUserPassword(EMAIL, "oldPassword123", "newPassword123", JWT);
+
+        assertEquals("encodedNewPassword", user.getPassword());
+        assertFalse(user.getLastPasswordResetDate().isBefore(before));
+        verify(userRepository).save(user);
+        verify(userAuthStatusService).invalidate(EMAIL);
+    }
+
+    @Test
+    void updateUserPassword_OAuthUserSettingAPassword_StampsResetDate() {
+        user.setProvider("google");
+        user.setPassword("nopassword");
+        when(passwordEncoder.encode("newPassword123")).thenReturn("encodedNewPassword");
+
+        userService.updateUserPassword(EMAIL, null, "newPassword123", JWT);
+
+        assertNotNull(user.getLastPasswordResetDate());
+        verify(userAuthStatusService).invalidate(EMAIL);
+    }
+
+    @Test
+    void logout_OwnToken_RevokesEverySessionOfTheUser() {
+        when(refreshTokenRepository.revokeByTokenHashAndUserEmail(JwtUtil.tokenHash("refresh"), EMAIL)).thenReturn(1);
+
+        userService.logout(EMAIL, "refresh", JWT);
+
+        verify(refreshTokenRepository).revokeAllByUserEmail(EMAIL);
+        verify(jwtBlacklistService).blacklistToken(JWT);
+    }
+
+    @Test
+    void logout_AnotherUsersToken_RejectedWithoutRevokingAnything() {
+        String tokenHash = JwtUtil.tokenHash("refresh");
+        when(refreshTokenRepository.revokeByTokenHashAndUserEmail(tokenHash, EMAIL)).thenReturn(0);
+        when(refreshTokenRepository.findByTokenHash(tokenHash)).thenReturn(Optional.of(RefreshToken.builder()
+                .userEmail("other@test.com").tokenHash(tokenHash).expiryDate(LocalDateTime.now().plusDays(1)).build()));
+
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> userService.logout(EMAIL, "refresh", JWT));
+
+        assertEquals("Invalid login session for user", exception.getMessage());
+        verify(refreshTokenRepository, never()).revokeAllByUserEmail(anyString());
+        verify(jwtBlacklistService, never()).blacklistToken(anyString());
+    }
+
+    @Test
+    void completeUserDeletion_DropsCachedStatus() {
+        userService.completeUserDeletion(user, JWT);
+
+        assertTrue(user.getDeleted());
+        verify(userAuthStatusService).invalidate(EMAIL);
+        verify(jwtBlacklistService).blacklistToken(JWT);
+    }
+}
@@ -0,0 +1,71 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BinaryContentResourceTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+
+    private void stubRow(byte[] data) throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(data != null);
+        if (data != null) {
+            when(resultSet.getBinaryStream(1)).thenReturn(new ByteArrayInputStream(data));
+        }
+    }
+
+    @Test
+    void getInputStream_smallContent_releasesConnectionBeforeReturning() throws Exception {
+        byte[] data = {1, 2, 3};
+        stubRow(data);
+
+        InputStream in = new BinaryContentResource(dataSource, 7L, data.length).getInputStream();
+
+        verify(connection).close();
+        verify(statement).setFetchSize(1);
+        try (in) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void getInputStream_largeContent_isSpooledAndConnectionReleased() throws Exception {
+        byte[] data = new byte[1024 * 1024];
+        new Random(42).nextBytes(data);
+        stubRow(data);
+
+        InputStream in = new BinaryContentResource(dataSource, 7L, data.length).getInputStream();
+
+        verify(connection).close();
+        try (in) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void getInputStream_missingRow_throwsAndReleasesConnection() throws Exception {
+        stubRow(null);
+
+        assertThrows(FileNotFoundException.class, () -> new BinaryContentResource(dataSource, 7L, 3).getInputStream());
+        verify(connection).close();
+    }
+}
@@ -0,0 +1,91 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_AddedKeys_AlwaysTrue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(BloomFilter.fingerprint("token-" + i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(BloomFilter.fingerprint("token-" + i)));
+        }
+    }
+
+    @Test
+    void mightContain_OtherKeys_FalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(BloomFilter.fingerprint("token-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(BloomFilter.fingerprint("other-" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void mightContain_EmptyFilter_False() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertFalse(filter.mightContain(BloomFilter.fingerprint("token")));
+        assertTrue(filter.bitCount() >= 64);
+        assertTrue(filter.hashCount() >= 1);
+    }
+
+    @Test
+    void put_ConcurrentWriters_NoKeyLost() throws Exception {
+        BloomFilter filter = new BloomFilter(40_000, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        filter.put(BloomFilter.fingerprint(thread + "-" + i));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int t = 0; t < 4; t++) {
+            for (int i = 0; i < 10_000; i++) {
+                assertTrue(filter.mightContain(BloomFilter.fingerprint(t + "-" + i)));
+            }
+        }
+    }
+
+    @Test
+    void constructor_InvalidRate_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    }
+
+    @Test
+    void fingerprint_SameCharacters_SameValue() {
+        assertEquals(BloomFilter.fingerprint("abc"), BloomFilter.fingerprint(new StringBuilder("abc")));
+        assertNotEquals(BloomFilter.fingerprint("abc"), BloomFilter.fingerprint("abd"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.models.response.CategoryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryTreeSnapshotTest {
+
+    @Test
+    void build_LinksSubcategoriesAndComputesSubtrees() {
+        CategoryTreeSnapshot tree = CategoryTreeSnapshot.build(List.of(
+                category(3L, 1L), category(1L, null), category(4L, 2L), category(2L, 1L), category(5L, null)), 7);
+
+        assertEquals(7, tree.getVersion());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(tree.getAll()));
+        assertEquals(List.of(1L, 5L), ids(tree.getRoots()));
+        assertEquals(List.of(3L, 4L, 5L), ids(tree.getLeaves()));
+        assertEquals(List.of(2L, 3L), ids(tree.find(1L).orElseThrow().getSubcategories()));
+        assertEquals(List.of(1L, 2L, 4L, 3L), tree.subtreeIds(1L));
+        assertEquals(List.of(2L, 4L), tree.subtreeIds(2L));
+        assertEquals(List.of(5L), tree.subtreeIds(5L));
+    }
+
+    @Test
+    void build_TreatsCategoryWithMissingParentAsRoot() {
+        CategoryTreeSnapshot tree = CategoryTreeSnapshot.build(List.of(category(1L, null), category(2L, 99L)), 1);
+
+        assertEquals(List.of(1L, 2L), ids(tree.getRoots()));
+    }
+
+    @Test
+    void build_CycleDoesNotLoop() {
+        CategoryTreeSnapshot tree = CategoryTreeSnapshot.build(List.of(category(1L, 2L), category(2L, 1L)), 1);
+
+        assertTrue(tree.getRoots().isEmpty());
+        assertEquals(List.of(1L, 2L), tree.subtreeIds(1L));
+    }
+
+    @Test
+    void callersGetTheirOwnCopies() {
+        CategoryResponse root = category(1L, null);
+        CategoryTreeSnapshot tree = CategoryTreeSnapshot.build(List.of(root, category(2L, 1L)), 1);
+
+        assertNull(root.getSubcategories());
+        CategoryResponse found = tree.find(1L).orElseThrow();
+        found.setName("Changed");
+        found.getSubcategories().clear();
+        tree.getAll().get(1).setName("Changed");
+
+        assertEquals("Category 1", tree.find(1L).orElseThrow().getName());
+        assertEquals(List.of(2L), ids(tree.getRoots().get(0).getSubcategories()));
+        assertEquals("Category 2", tree.getLeaves().get(0).getName());
+    }
+
+    @Test
+    void unknownCategory() {
+        CategoryTreeSnapshot tree = CategoryTreeSnapshot.build(List.of(category(1L, null)), 1);
+
+        assertFalse(tree.contains(2L));
+        assertTrue(tree.find(2L).isEmpty());
+        assertTrue(tree.subtreeIds(2L).isEmpty());
+    }
+
+    private CategoryResponse category(Long id, Long parentId) {
+        return CategoryResponse.builder().id(id).name("Category " + id).parentId(parentId).build();
+    }
+
+    private List<Long> ids(List<CategoryResponse> categories) {
+        return categories.stream().map(CategoryResponse::getId).toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.exceptions.UserNotFoundException;
+import com.datasaz.ecommerce.repositories.UserRepository;
+import com.datasaz.ecommerce.repositories.entities.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentUserServiceTest {
+
+    private static final String EMAIL = "user@test.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private CurrentUserService currentUserService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder().id(1L).emailAddress(EMAIL).build();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(EMAIL, null, List.of()));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getCurrentUser_CalledTwiceInRequest_LoadsOnce() {
+        when(userRepository.findWithCompanyByEmailAddressAndDeletedFalse(EMAIL)).thenReturn(Optional.of(user));
+        when(entityManager.contains(user)).thenReturn(true);
+
+        assertSame(user, currentUserService.getCurrentUser());
+        assertSame(user, currentUserService.getCurrentUser());
+        assertSame(user, currentUserService.getCurrentUser(UserFetchPlan.ROLES));
+
+        verify(userRepository, times(1)).findWithCompanyByEmailAddressAndDeletedFalse(EMAIL);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void getCurrentUser_UserDetached_LoadsAgain() {
+        when(userRepository.findWithRolesByEmailAddressAndDeletedFalse(EMAIL)).thenReturn(Optional.of(user));
+        when(entityManager.contains(user)).thenReturn(false);
+
+        currentUserService.getCurrentUser(UserFetchPlan.ROLES);
+        currentUserService.getCurrentUser(UserFetchPlan.ROLES);
+
+        verify(userRepository, times(2)).findWithRolesByEmailAddressAndDeletedFalse(EMAIL);
+    }
+
+    @Test
+    void getCurrentUser_NoRequest_LoadsEveryTime() {
+        RequestContextHolder.resetRequestAttributes();
+        when(userRepository.findWithRolesByEmailAddressAndDeletedFalse(EMAIL)).thenReturn(Optional.of(user));
+
+        currentUserService.getCurrentUser(UserFetchPlan.ROLES);
+        currentUserService.getCurrentUser(UserFetchPlan.ROLES);
+
+        verify(userRepository, times(2)).findWithRolesByEmailAddressAndDeletedFalse(EMAIL);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void getCurrentUser_UnknownUser_Throws() {
+        when(userRepository.findWithFavoritesByEmailAddressAndDeletedFalse(EMAIL)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> currentUserService.getCurrentUser(UserFetchPlan.WITH_FAVORITES));
+    }
+
+    @Test
+    void getCurrentUser_DeletedUser_Throws() {
+        // Only active users resolve: a deleted account's token no longer reaches its data
+        when(userRepository.findWithCompanyByEmailAddressAndDeletedFalse(EMAIL)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> currentUserService.getCurrentUser());
+        verify(userRepository, never()).findByEmailAddress(EMAIL);
+    }
+
+    @Test
+    void getCurrentUser_NoAuthentication_Throws() {
+        SecurityContextHolder.clearContext();
+
+        assertThrows(UserNotFoundException.class, () -> currentUserService.getCurrentUser());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void findUser_OtherEmail_NotKeptForRequest() {
+        User other = User.builder().id(2L).emailAddress("other@test.com").build();
+        when(userRepository.findWithRolesByEmailAddressAndDeletedFalse("other@test.com")).thenReturn(Optional.of(other));
+        when(userRepository.findWithRolesByEmailAddressAndDeletedFalse(EMAIL)).thenReturn(Optional.of(user));
+
+        assertSame(other, currentUserService.findUser("other@test.com", UserFetchPlan.ROLES).orElseThrow());
+        assertSame(user, currentUserService.findUser(EMAIL, UserFetchPlan.ROLES).orElseThrow());
+
+        verify(userRepository).findWithRolesByEmailAddressAndDeletedFalse(EMAIL);
+        assertTrue(currentUserService.findUser(null, UserFetchPlan.ROLES).isEmpty());
+    }
+}
@@ -0,0 +1,95 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskLruCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void put_EvictsLeastRecentlyUsedBeyondLimit() throws IOException {
+        DiskLruCache cache = new DiskLruCache(directory, 10);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        assertTrue(cache.length("a").isPresent());
+
+        cache.put("c", new byte[4]);
+
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertFalse(Files.exists(directory.resolve("b")));
+        assertTrue(cache.contains("c"));
+        assertEquals(8, cache.getTotalBytes());
+    }
+
+    @Test
+    void put_ReplacesExistingEntry() throws IOException {
+        DiskLruCache cache = new DiskLruCache(directory, 100);
+        cache.put("a", new byte[4]);
+        cache.put("a", new byte[]{1, 2});
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getTotalBytes());
+        try (InputStream in = cache.open("a").orElseThrow()) {
+            assertArrayEquals(new byte[]{1, 2}, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void put_KeepsSingleEntryLargerThanLimit() throws IOException {
+        DiskLruCache cache = new DiskLruCache(directory, 2);
+        cache.put("a", new byte[1]);
+        cache.put("big", new byte[5]);
+
+        assertFalse(cache.contains("a"));
+        assertTrue(cache.contains("big"));
+    }
+
+    @Test
+    void constructor_LoadsExistingFilesOldestFirstAndDropsTempFiles() throws IOException {
+        Files.write(directory.resolve("old"), new byte[4]);
+        Files.setLastModifiedTime(directory.resolve("old"), FileTime.fromMillis(1_000));
+        Files.write(directory.resolve("new"), new byte[4]);
+        Files.write(directory.resolve("partial.123.tmp"), new byte[4]);
+
+        DiskLruCache cache = new DiskLruCache(directory, 6);
+
+        assertEquals(1, cache.size());
+        assertTrue(cache.contains("new"));
+        assertFalse(Files.exists(directory.resolve("old")));
+        assertFalse(Files.exists(directory.resolve("partial.123.tmp")));
+    }
+
+    @Test
+    void open_ForgetsFileRemovedOutsideCache() throws IOException {
+        DiskLruCache cache = new DiskLruCache(directory, 100);
+        cache.put("a", new byte[4]);
+        Files.delete(directory.resolve("a"));
+
+        assertTrue(cache.open("a").isEmpty());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    void open_StreamSurvivesEvictionOfItsEntry() throws IOException {
+        DiskLruCache cache = new DiskLruCache(directory, 4);
+        cache.put("a", new byte[]{1, 2, 3, 4});
+
+        try (InputStream in = cache.open("a").orElseThrow()) {
+            cache.put("b", new byte[4]);
+            assertFalse(cache.contains("a"));
+
+            assertArrayEquals(new byte[]{1, 2, 3, 4}, in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageDecoderTest {
+
+    private static byte[] largePng;
+
+    @BeforeAll
+    static void createImage() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB), "png", out);
+        largePng = out.toByteArray();
+    }
+
+    @Test
+    void readDimensions_ReadsHeader() throws IOException {
+        assertEquals(new Dimension(4000, 3000), ImageDecoder.readDimensions(largePng));
+        assertNull(ImageDecoder.readDimensions(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void checkDimensions_RejectsUnreadableAndOversizedImages() {
+        Dimension size = new Dimension(4000, 3000);
+        assertSame(size, ImageDecoder.checkDimensions(size, 12_000_000, "large.png"));
+        assertSame(size, ImageDecoder.checkDimensions(size, 0, "large.png"));
+
+        BadRequestException tooLarge = assertThrows(BadRequestException.class,
+                () -> ImageDecoder.checkDimensions(size, 11_999_999, "large.png"));
+        assertEquals("Image dimensions 4000x3000 are too large", tooLarge.getMessage());
+        assertThrows(BadRequestException.class, () -> ImageDecoder.checkDimensions(null, 0, "broken.png"));
+    }
+
+    @Test
+    void decode_SubsamplesToTwiceTheTarget() throws IOException {
+        BufferedImage image = ImageDecoder.decode(largePng, 400, 300, 0);
+
+        assertEquals(800, image.getWidth());
+        assertEquals(600, image.getHeight());
+    }
+
+    @Test
+    void decode_SmallerThanTwiceTheTarget_DecodesFullSize() throws IOException {
+        BufferedImage image = ImageDecoder.decode(largePng, 2500, 2500, 0);
+
+        assertEquals(4000, image.getWidth());
+        assertEquals(3000, image.getHeight());
+    }
+
+    @Test
+    void decode_StaysWithinPixelBudget() throws IOException {
+        BufferedImage image = ImageDecoder.decode(largePng, 4000, 3000, 1_000_000);
+
+        assertTrue((long) image.getWidth() * image.getHeight() <= 1_000_000);
+        assertEquals(ImageDecoder.decodedSize(new Dimension(4000, 3000), 4000, 3000, 1_000_000),
+                new Dimension(image.getWidth(), image.getHeight()));
+    }
+
+    @Test
+    void decode_InvalidContent_ThrowsIOException() {
+        assertThrows(IOException.class, () -> ImageDecoder.decode(new byte[]{1, 2, 3}, 100, 100, 0));
+    }
+
+    @Test
+    void subsampling_WidthOnlyTarget() {
+        assertEquals(1, ImageDecoder.subsampling(4000, 3000, Integer.MAX_VALUE, 1, 0));
+        assertEquals(5, ImageDecoder.subsampling(4000, 3000, 400, 1, 0));
+    }
+}
@@ -0,0 +1,157 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine.ResizeQuality;
+import org.imgscalr.Scalr;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Relative cost of the upload pipeline (a 1600px image plus a 150px thumbnail from one decoded original) through the
+ * previous per-service implementation and through {@link ImageProcessingEngine}. Without a harness like JMH the
+ * absolute timings mean little, so the test asserts ratios measured in the same run:
+ * <ul>
+ *     <li>at the same resize method and JPEG/WebP quality, the engine is no slower than the previous code;</li>
+ *     <li>the BALANCED method used for thumbnails is faster than the HIGH one it replaced.</li>
+ * </ul>
+ * Runs only on request: {@code mvn test -Dtest=ImageProcessingEngineBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ImageProcessingEngineBenchmarkTest {
+
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+    private static final float QUALITY = 0.9f;
+    // Timing noise allowed before same-quality runs count as a regression
+    private static final double TOLERANCE = 1.15;
+
+    @Test
+    void engineIsNoSlowerAtTheSameQuality() throws IOException {
+        ImageProcessingEngine engine = engine();
+        for (int[] size : new int[][]{{4000, 3000}, {2000, 1500}}) {
+            BufferedImage original = photo(size[0], size[1]);
+            for (String format : availableFormats()) {
+                double previous = measure(() -> {
+                    previousResize(original, format, 1600, 1600);
+                    previousResize(original, format, 150, 150);
+                });
+                double current = measure(() -> {
+                    engine.resize(original, format, false, 1600, 1600, ResizeQuality.HIGH);
+                    engine.resize(original, format, false, 150, 150, ResizeQuality.HIGH);
+                });
+                assertTrue(current <= previous * TOLERANCE, String.format("%s %dx%d: engine %.1f ms/op, previous %.1f ms/op",
+                        format, size[0], size[1], current, previous));
+            }
+        }
+    }
+
+    @Test
+    void balancedThumbnailIsFasterThanHigh() throws IOException {
+        ImageProcessingEngine engine = engine();
+        BufferedImage original = photo(4000, 3000);
+        double high = measure(() -> engine.resize(original, "jpg", false, 150, 150, ResizeQuality.HIGH));
+        double balanced = measure(() -> engine.resize(original, "jpg", false, 150, 150, ResizeQuality.BALANCED));
+
+        assertTrue(balanced < high, String.format("BALANCED %.1f ms/op, HIGH %.1f ms/op", balanced, high));
+    }
+
+    private static ImageProcessingEngine engine() {
+        GroupConfig groupConfig = new GroupConfig();
+        groupConfig.imageQuality = QUALITY;
+        return new ImageProcessingEngine(groupConfig);
+    }
+
+    // WebP needs a plugin that is not always on the classpath
+    private static List<String> availableFormats() {
+        return Stream.of("jpg", "png", "webp")
+                .filter(format -> ImageIO.getImageWritersByFormatName(format.equals("jpg") ? "jpeg" : format).hasNext())
+                .toList();
+    }
+
+    private double measure(Operation operation) throws IOException {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    // Gradient with noise and shapes, closer to a product photo than a flat image for the encoders
+    private static BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(240, 230, 220), width, height, new Color(40, 60, 90)));
+        graphics.fillRect(0, 0, width, height);
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            graphics.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+            graphics.fillOval(random.nextInt(width), random.nextInt(height), 20 + random.nextInt(300), 20 + random.nextInt(300));
+        }
+        graphics.dispose();
+        for (int i = 0; i < width * height / 20; i++) {
+            image.setRGB(random.nextInt(width), random.nextInt(height), random.nextInt());
+        }
+        return image;
+    }
+
+    // The implementation each service carried before: ULTRA_QUALITY for every size, an unconditional RGB copy for
+    // JPEG and a writer looked up and created per call, writing through ImageIO's default stream cache
+    private static byte[] previousResize(BufferedImage img, String extension, int targetWidth, int targetHeight) throws IOException {
+        double aspectRatio = (double) img.getWidth() / img.getHeight();
+        if (aspectRatio > 1) {
+            targetHeight = (int) (targetWidth / aspectRatio);
+        } else {
+            targetWidth = (int) (targetHeight * aspectRatio);
+        }
+        BufferedImage resized = Scalr.resize(img, Scalr.Method.ULTRA_QUALITY, Scalr.Mode.FIT_EXACT, targetWidth, targetHeight);
+        BufferedImage rgbImage = resized;
+        String formatName = extension.equals("jpg") ? "jpeg" : extension;
+        if (formatName.equals("jpeg")) {
+            rgbImage = new BufferedImage(resized.getWidth(), resized.getHeight(), BufferedImage.TYPE_INT_RGB);
+            rgbImage.getGraphics().drawImage(resized, 0, 0, null);
+        }
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            if (formatName.equals("png")) {
+                ImageIO.write(rgbImage, formatName, baos);
+            } else {
+                Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
+                ImageWriter writer = writers.next();
+                try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
+                    writer.setOutput(ios);
+                    ImageWriteParam param = writer.getDefaultWriteParam();
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(QUALITY);
+                    writer.write(null, new IIOImage(rgbImage, null, null), param);
+                } finally {
+                    writer.dispose();
+                }
+            }
+            return baos.toByteArray();
+        }
+    }
+
+    private interface Operation {
+        void run() throws IOException;
+    }
+}
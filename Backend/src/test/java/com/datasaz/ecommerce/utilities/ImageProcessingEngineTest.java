@@ -0,0 +1,75 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.utilities.ImageProcessingEngine.ResizeQuality;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageProcessingEngineTest {
+
+    private ImageProcessingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        GroupConfig groupConfig = new GroupConfig();
+        groupConfig.imageQuality = 0.8f;
+        engine = new ImageProcessingEngine(groupConfig);
+    }
+
+    @Test
+    void resize_KeepsAspectRatioOfLandscapeImage() throws IOException {
+        byte[] resized = engine.resize(new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB), "jpg", false, 200, 200, ResizeQuality.HIGH);
+
+        BufferedImage image = read(resized);
+        assertEquals(200, image.getWidth());
+        assertEquals(100, image.getHeight());
+    }
+
+    @Test
+    void resize_ForcedJpegDropsAlpha() throws IOException {
+        byte[] resized = engine.resize(new BufferedImage(400, 800, BufferedImage.TYPE_INT_ARGB), "png", true, 100, 100, ResizeQuality.BALANCED);
+
+        BufferedImage image = read(resized);
+        assertEquals(50, image.getWidth());
+        assertEquals(100, image.getHeight());
+        assertFalse(image.getColorModel().hasAlpha());
+    }
+
+    @Test
+    void resize_PngKeepsAlpha() throws IOException {
+        byte[] resized = engine.resize(new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB), "png", false, 100, 100, ResizeQuality.FAST);
+
+        assertTrue(read(resized).getColorModel().hasAlpha());
+    }
+
+    @Test
+    void encode_ReusesWriterAcrossImages() throws IOException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+
+        byte[] first = engine.encode(image, "jpeg");
+        byte[] second = engine.encode(image, "jpeg");
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    void encode_UnknownExtensionDefaultsToJpeg() throws IOException {
+        byte[] encoded = engine.encode(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "xyz");
+
+        assertEquals((byte) 0xFF, encoded[0]);
+        assertEquals((byte) 0xD8, encoded[1]);
+    }
+
+    private BufferedImage read(byte[] content) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(content));
+        assertNotNull(image);
+        return image;
+    }
+}
@@ -0,0 +1,168 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.repositories.RevokedTokenRepository;
+import com.datasaz.ecommerce.repositories.entities.RevokedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtBlacklistServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private JwtBlacklistService blacklist;
+
+    @BeforeEach
+    void setUp() {
+        blacklist = new JwtBlacklistService(revokedTokenRepository);
+        ReflectionTestUtils.setField(blacklist, "expectedTokens", 1_000L);
+    }
+
+    @Test
+    void blacklistToken_ValidToken_RevokesAndPersistsHashOnly() {
+        blacklist.init();
+        String token = token("user@test.com");
+
+        blacklist.blacklistToken(token);
+
+        assertTrue(blacklist.isBlacklisted(token));
+        assertFalse(blacklist.isBlacklisted(token("other@test.com")));
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(saved.capture());
+        assertEquals(hash(token), saved.getValue().getTokenHash());
+        assertEquals(BloomFilter.fingerprint(token), saved.getValue().getFingerprint());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void blacklistToken_SameTokenTwice_PersistedOnce() {
+        blacklist.init();
+        String token = token("user@test.com");
+
+        blacklist.blacklistToken(token);
+        blacklist.blacklistToken(token);
+
+        verify(revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+        assertEquals(1, blacklist.size());
+    }
+
+    @Test
+    void blacklistToken_InvalidToken_Ignored() {
+        blacklist.init();
+
+        blacklist.blacklistToken("not-a-token");
+
+        assertFalse(blacklist.isBlacklisted("not-a-token"));
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void init_PersistedRevocations_ReloadedBeforeFirstCheck() {
+        String token = token("user@test.com");
+        when(revokedTokenRepository.findByExpiresAtAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(row(token, LocalDateTime.now().plusHours(1))));
+
+        blacklist.init();
+
+        assertTrue(blacklist.isBlacklisted(token));
+        assertFalse(blacklist.isBlacklisted(token("other@test.com")));
+    }
+
+    @Test
+    void refresh_RevokedOnAnotherInstance_PickedUp() {
+        blacklist.init();
+        String token = token("user@test.com");
+        when(revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(row(token, LocalDateTime.now().plusHours(1))));
+
+        assertFalse(blacklist.isBlacklisted(token));
+        blacklist.refresh();
+
+        assertTrue(blacklist.isBlacklisted(token));
+    }
+
+    @Test
+    void refresh_AfterTokenExpiry_DropsEntry() {
+        blacklist.init();
+        String token = token("user@test.com");
+        blacklist.blacklistToken(token);
+
+        blacklist.setClock(Clock.offset(Clock.systemDefaultZone(), Duration.ofDays(365)));
+        blacklist.refresh();
+
+        assertEquals(0, blacklist.size());
+        assertFalse(blacklist.isBlacklisted(token));
+    }
+
+    @Test
+    void isBlacklisted_ConcurrentRevocationsAndChecks_AllRevocationsSeen() throws Exception {
+        blacklist.init();
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tokens.add(token("user" + i + "@test.com"));
+        }
+        String untouched = token("untouched@test.com");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> workers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                workers.add(executor.submit(() -> {
+                    boolean untouchedRevoked = false;
+                    for (int i = thread; i < tokens.size(); i += 4) {
+                        blacklist.blacklistToken(tokens.get(i));
+                        untouchedRevoked |= blacklist.isBlacklisted(untouched);
+                    }
+                    return untouchedRevoked;
+                }));
+            }
+            for (Future<Boolean> worker : workers) {
+                assertFalse(worker.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        tokens.forEach(token -> assertTrue(blacklist.isBlacklisted(token)));
+        assertEquals(200, blacklist.size());
+    }
+
+    private static String token(String subject) {
+        return JwtUtil.generateToken(subject, List.of(new SimpleGrantedAuthority("ROLE_BUYER")));
+    }
+
+    private static String hash(String token) {
+        return ContentHashUtils.sha256Hex(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static RevokedToken row(String token, LocalDateTime expiresAt) {
+        return RevokedToken.builder()
+                .tokenHash(hash(token))
+                .fingerprint(BloomFilter.fingerprint(token))
+                .expiresAt(expiresAt)
+                .revokedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.configs.GroupConfig;
+import com.datasaz.ecommerce.filters.JwtAuthenticationFilter;
+import com.datasaz.ecommerce.repositories.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Cost of authenticating a request with a bearer token: the three parses the filter used to make per request
+ * against {@link JwtAuthenticationFilter} with {@link JwtTokenVerifier}, first for a new token, then for a token
+ * already seen, and the revocation check with ten thousand other tokens revoked. User details are a fixed in-memory
+ * user, so only token handling is measured. Absolute timings vary by machine, so the test asserts ratios against the
+ * previous three parses measured in the same run:
+ * <ul>
+ *     <li>verifying a new token, which parses it once, and the whole filter path are cheaper;</li>
+ *     <li>verifying a token already seen is at least twice as fast;</li>
+ *     <li>the revocation check costs under a tenth of it.</li>
+ * </ul>
+ * Runs only on request: {@code mvn test -Dtest=JwtTokenVerifierBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtTokenVerifierBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    @Test
+    void verifierIsCheaperThanThePreviousFilterPath() throws Exception {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_BUYER"));
+        UserDetails user = User.withUsername("user@test.com").password("").authorities(authorities).build();
+        String token = JwtUtil.generateToken("user@test.com", authorities);
+
+        JwtTokenVerifier verifier = new JwtTokenVerifier();
+        ReflectionTestUtils.setField(verifier, "maxEntries", 10_000L);
+        verifier.init();
+        GroupConfig groupConfig = new GroupConfig();
+        groupConfig.authMode = "stateful";
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(username -> user, verifier, null, groupConfig);
+        JwtBlacklistService blacklist = new JwtBlacklistService(mock(RevokedTokenRepository.class));
+        ReflectionTestUtils.setField(blacklist, "expectedTokens", 100_000L);
+        blacklist.init();
+        for (int i = 0; i < 10_000; i++) {
+            blacklist.blacklistToken(JwtUtil.generateToken("revoked" + i + "@test.com", authorities));
+        }
+        ReflectionTestUtils.setField(filter, "jwtBlacklistService", blacklist);
+
+        double previous = measure(() -> previousPath(token));
+        // Distinct subjects, so every token is new to the verifier
+        String[] newTokens = new String[WARMUP + ITERATIONS];
+        for (int i = 0; i < newTokens.length; i++) {
+            newTokens[i] = JwtUtil.generateToken("user" + i + "@test.com", authorities);
+        }
+        int[] next = {0};
+        double firstSeen = measure(() -> verifier.verify(newTokens[next[0]++]));
+        double filterPath = measure(() -> assertEquals(200, authenticate(filter, token)));
+        double verifierHit = measure(() -> verifier.verify(token));
+        double revocationCheck = measure(() -> blacklist.isBlacklisted(token));
+
+        String timings = String.format("previous three parses %.2f us/op, verifier new token %.2f us/op, cached %.2f us/op, "
+                        + "whole filter cached %.2f us/op, revocation check %.3f us/op with %d revoked tokens",
+                previous, firstSeen, verifierHit, filterPath, revocationCheck, blacklist.size());
+        assertTrue(firstSeen < previous, timings);
+        assertTrue(verifierHit * 2 < previous, timings);
+        assertTrue(filterPath < previous, timings);
+        assertTrue(revocationCheck * 10 < previous, timings);
+    }
+
+    // What the filter did before: extractUsername, extractRoles and isTokenExpired, each building its own parser
+    private static void previousPath(String token) {
+        JwtParser parser1 = JwtUtil.parser(Date::new);
+        String username = parser1.parseClaimsJws(token).getBody().getSubject();
+        JwtParser parser2 = JwtUtil.parser(Date::new);
+        Claims claims = parser2.parseClaimsJws(token).getBody();
+        List<?> roles = claims.get("roles", List.class);
+        JwtParser parser3 = JwtUtil.parser(Date::new);
+        boolean expired = parser3.parseClaimsJws(token).getBody().getExpiration().before(new Date());
+        if (username == null || roles == null || expired) {
+            throw new IllegalStateException("Unexpected token");
+        }
+    }
+
+    private static int authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/buyer/orders");
+        request.setServletPath("/buyer/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+
+    private static double measure(Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+    }
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,67 @@
+package com.datasaz.ecommerce.utilities;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenVerifierTest {
+
+    private JwtTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        verifier = new JwtTokenVerifier();
+        ReflectionTestUtils.setField(verifier, "maxEntries", 100L);
+        verifier.init();
+    }
+
+    @Test
+    void verify_ValidToken_ReturnsClaimsAndCachesThem() {
+        String token = JwtUtil.generateToken("user@test.com", List.of(new SimpleGrantedAuthority("ROLE_BUYER")));
+
+        VerifiedToken first = verifier.verify(token);
+        VerifiedToken second = verifier.verify(token);
+
+        assertEquals("user@test.com", first.subject());
+        assertEquals(List.of("ROLE_BUYER"), first.roles());
+        assertNotNull(first.expiresAt());
+        assertSame(first, second);
+        assertEquals(1, verifier.size());
+    }
+
+    @Test
+    void verify_TokenWithoutRoles_HasEmptyRoles() {
+        assertEquals(List.of(), verifier.verify(JwtUtil.generateRefreshToken("user@test.com")).roles());
+    }
+
+    @Test
+    void verify_TamperedToken_ThrowsAndIsNotCached() {
+        String token = JwtUtil.generateToken("user@test.com", List.of());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> verifier.verify(tampered));
+        assertThrows(JwtException.class, () -> verifier.verify("not-a-token"));
+        assertEquals(0, verifier.size());
+    }
+
+    @Test
+    void verify_CachedTokenPastExpiry_Throws() {
+        String token = JwtUtil.generateToken("user@test.com", List.of());
+        VerifiedToken verified = verifier.verify(token);
+
+        verifier.setClock(Clock.fixed(verified.expiresAt().plus(Duration.ofSeconds(1)), ZoneOffset.UTC));
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+        assertEquals(0, verifier.size());
+    }
+}
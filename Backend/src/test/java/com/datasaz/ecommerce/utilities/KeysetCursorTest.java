@@ -0,0 +1,40 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encode_RoundTripsIdCursor() {
+        String token = KeysetCursor.of(42L).encode();
+
+        assertEquals(KeysetCursor.of(42L), KeysetCursor.decode(token));
+    }
+
+    @Test
+    void encode_RoundTripsTimestampCursor() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 17, 10, 30, 15, 123_000_000);
+
+        String token = KeysetCursor.of(timestamp, 7L).encode();
+
+        assertFalse(token.contains("="));
+        assertEquals(KeysetCursor.of(timestamp, 7L), KeysetCursor.decode(token));
+    }
+
+    @Test
+    void decode_MissingTokenIsFirstPage() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(" "));
+    }
+
+    @Test
+    void decode_InvalidTokenThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not a cursor!"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("YWJj"));
+    }
+}
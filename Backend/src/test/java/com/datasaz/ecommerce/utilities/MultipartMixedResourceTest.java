@@ -0,0 +1,67 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultipartMixedResourceTest {
+
+    @Test
+    void getInputStream_TwoParts_WritesDelimitedBodyOfDeclaredLength() throws Exception {
+        MultipartMixedResource body = new MultipartMixedResource("b0undary", List.of(
+                new MultipartMixedResource.Part("image/jpeg", Map.of("X-Product-Id", "1"), bytes("abc")),
+                new MultipartMixedResource.Part("image/png", Map.of("X-Product-Id", "2"), bytes("de"))));
+
+        String expected = "--b0undary\r\nContent-Type: image/jpeg\r\nContent-Length: 3\r\nX-Product-Id: 1\r\n\r\nabc\r\n"
+                + "--b0undary\r\nContent-Type: image/png\r\nContent-Length: 2\r\nX-Product-Id: 2\r\n\r\nde\r\n"
+                + "--b0undary--\r\n";
+        try (InputStream in = body.getInputStream()) {
+            assertEquals(expected, new String(in.readAllBytes(), StandardCharsets.US_ASCII));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = body.getInputStream()) {
+            assertEquals(expected.length(), in.transferTo(out));
+        }
+        assertEquals(expected, out.toString(StandardCharsets.US_ASCII));
+        assertEquals(expected.length(), body.contentLength());
+        assertEquals("multipart/mixed;boundary=b0undary", body.getMediaType().toString());
+    }
+
+    @Test
+    void getInputStream_NoParts_WritesClosingDelimiterOnly() throws Exception {
+        MultipartMixedResource body = new MultipartMixedResource("b", List.of());
+
+        try (InputStream in = body.getInputStream()) {
+            assertEquals("--b--\r\n", new String(in.readAllBytes(), StandardCharsets.US_ASCII));
+        }
+        assertEquals(7, body.contentLength());
+    }
+
+    @Test
+    void getInputStream_OffHeapCachedPart_ReleasesEntryWhenWritten() throws Exception {
+        OffHeapLruCache cache = new OffHeapLruCache(8 * 1024, 1024, 4 * 1024);
+        int freeBlocks = cache.freeBlockCount();
+        MultipartMixedResource body = new MultipartMixedResource("b", List.of(
+                new MultipartMixedResource.Part("image/jpeg", Map.of(), cache.cached("k", bytes("cached")))));
+
+        try (InputStream in = body.getInputStream()) {
+            in.transferTo(new ByteArrayOutputStream());
+        }
+        cache.remove("k");
+
+        assertEquals(1, cache.getPutCount());
+        assertEquals(freeBlocks, cache.freeBlockCount());
+    }
+
+    private static Resource bytes(String content) {
+        return new ByteArrayResource(content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
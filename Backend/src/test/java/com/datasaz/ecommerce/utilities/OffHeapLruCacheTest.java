@@ -0,0 +1,142 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapLruCacheTest {
+
+    private static final int BLOCK = 1024;
+
+    @Test
+    void put_ContentSpanningBlocks_ReadBackIntact() throws Exception {
+        OffHeapLruCache cache = new OffHeapLruCache(16 * BLOCK, BLOCK, 8 * BLOCK);
+        byte[] content = randomBytes(3 * BLOCK + 17);
+
+        assertTrue(cache.put("a", content));
+
+        try (InputStream in = cache.open("a").orElseThrow()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = cache.open("a").orElseThrow()) {
+            assertEquals(4, in.skip(4));
+            in.transferTo(out);
+        }
+        assertArrayEquals(Arrays.copyOfRange(content, 4, content.length), out.toByteArray());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(content.length, cache.getUsedBytes());
+    }
+
+    @Test
+    void put_Full_EvictsLeastRecentlyUsed() throws Exception {
+        OffHeapLruCache cache = new OffHeapLruCache(4 * BLOCK, BLOCK, 4 * BLOCK);
+        cache.put("a", randomBytes(2 * BLOCK));
+        cache.put("b", randomBytes(2 * BLOCK));
+        cache.open("a").orElseThrow().close();
+
+        cache.put("c", randomBytes(BLOCK));
+
+        assertTrue(cache.open("a").isPresent());
+        assertTrue(cache.open("b").isEmpty());
+        assertTrue(cache.open("c").isPresent());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void put_TooLarge_NotCached() throws Exception {
+        OffHeapLruCache cache = new OffHeapLruCache(4 * BLOCK, BLOCK, 2 * BLOCK);
+
+        assertFalse(cache.put("a", randomBytes(2 * BLOCK + 1)));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictedEntry_StaysReadableUntilClosed() throws Exception {
+        OffHeapLruCache cache = new OffHeapLruCache(2 * BLOCK, BLOCK, 2 * BLOCK);
+        byte[] content = randomBytes(2 * BLOCK);
+        cache.put("a", content);
+        InputStream reader = cache.open("a").orElseThrow();
+
+        // Removing "a" evicts it, but its blocks stay in use until the reader is done
+        cache.remove("a");
+        assertFalse(cache.put("b", randomBytes(BLOCK)));
+        assertArrayEquals(content, reader.readAllBytes());
+        reader.close();
+
+        assertTrue(cache.put("b", randomBytes(BLOCK)));
+        assertEquals(1, cache.freeBlockCount());
+        assertTrue(cache.open("a").isEmpty());
+    }
+
+    @Test
+    void put_OnlyPinnedEntriesLeft_EvictsNothing() throws Exception {
+        OffHeapLruCache cache = new OffHeapLruCache(3 * BLOCK, BLOCK, 3 * BLOCK);
+        cache.put("a", randomBytes(2 * BLOCK));
+        cache.put("b", randomBytes(BLOCK));
+        InputStream reader = cache.open("a").orElseThrow();
+
+        // "b" alone cannot make room and "a" is being read, so both stay cached
+        assertFalse(cache.put("c", randomBytes(2 * BLOCK)));
+        assertEquals(2, cache.size());
+        assertEquals(0, cache.getEvictionCount());
+        reader.close();
+    }
+
+    @Test
+    void put_SkipsPinnedEntriesWhenEvicting() throws Exception {
+        OffHeapLruCache cache = new OffHeapLruCache(3 * BLOCK, BLOCK, 3 * BLOCK);
+        cache.put("a", randomBytes(BLOCK));
+        cache.put("b", randomBytes(BLOCK));
+        cache.put("c", randomBytes(BLOCK));
+        InputStream reader = cache.open("a").orElseThrow();
+        cache.open("b").orElseThrow().close();
+        cache.open("c").orElseThrow().close();
+
+        // "a" is least recently used but pinned, so "b" goes instead
+        assertTrue(cache.put("d", randomBytes(BLOCK)));
+        assertTrue(cache.open("b").isEmpty());
+        assertEquals(1, cache.getEvictionCount());
+        reader.close();
+        assertTrue(cache.open("a").isPresent());
+        assertEquals(0, cache.freeBlockCount());
+    }
+
+    @Test
+    void cached_CopiesSourceOnFirstReadOnly() throws Exception {
+        OffHeapLruCache cache = new OffHeapLruCache(8 * BLOCK, BLOCK, 4 * BLOCK);
+        byte[] content = randomBytes(BLOCK + 1);
+        Resource resource = cache.cached("a", new ByteArrayResource(content));
+
+        assertEquals(content.length, resource.contentLength());
+        assertArrayEquals(content, resource.getInputStream().readAllBytes());
+        assertArrayEquals(content, resource.getInputStream().readAllBytes());
+        assertEquals(1, cache.getPutCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void remove_ReleasesBlocks() throws Exception {
+        OffHeapLruCache cache = new OffHeapLruCache(4 * BLOCK, BLOCK, 4 * BLOCK);
+        cache.put("a", randomBytes(3 * BLOCK));
+
+        cache.remove("a");
+
+        assertEquals(4, cache.freeBlockCount());
+        assertEquals(0, cache.getUsedBytes());
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,43 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageRequestsTest {
+
+    @Test
+    void of_validParameters_returnsPageRequest() {
+        assertEquals(PageRequest.of(2, 20), PageRequests.of(2, 20));
+        assertEquals(PageRequest.of(0, 5), PageRequests.first(5));
+        assertEquals(PageRequest.of(0, 8, Sort.by("createdAt")), PageRequests.of(0, 8, Sort.by("createdAt")));
+    }
+
+    @Test
+    void of_sizeAtTheBounds_accepted() {
+        assertEquals(1, PageRequests.of(0, 1).getPageSize());
+        assertEquals(PageRequests.MAX_PAGE_SIZE, PageRequests.of(0, PageRequests.MAX_PAGE_SIZE).getPageSize());
+    }
+
+    @Test
+    void of_sizeAboveMaximum_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> PageRequests.of(0, PageRequests.MAX_PAGE_SIZE + 1));
+        assertThrows(BadRequestException.class, () -> PageRequests.first(1_000_000));
+        assertThrows(BadRequestException.class, () -> PageRequests.of(0, 1_000_000, Sort.by("id")));
+    }
+
+    @Test
+    void of_nonPositiveSize_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> PageRequests.first(0));
+        assertThrows(BadRequestException.class, () -> PageRequests.of(0, -1));
+    }
+
+    @Test
+    void of_negativePage_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> PageRequests.of(-1, 10));
+    }
+}
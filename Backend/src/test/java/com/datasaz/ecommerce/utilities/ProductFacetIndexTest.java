@@ -0,0 +1,106 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.utilities.ProductFacetIndex.Facet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFacetIndexTest {
+
+    private final ProductFacetIndex index = new ProductFacetIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.upsert(1L, values("10", "Acme", "inStock"));
+        index.upsert(2L, values("10", "Globex", "inStock"));
+        index.upsert(3L, values("20", "Acme", "outOfStock"));
+        index.upsert(4L, values("20", "Acme", "inStock"));
+    }
+
+    @Test
+    void query_NoSelection_ReturnsAllNewestFirst() {
+        ProductFacetIndex.Result result = index.query(Map.of(), 0, 10);
+
+        assertEquals(4, result.total());
+        assertEquals(List.of(4L, 3L, 2L, 1L), result.productIds());
+        assertEquals(Map.of("Acme", 3, "Globex", 1), result.counts().get(Facet.BRAND));
+    }
+
+    @Test
+    void query_AndsFacetsAndOrsValuesWithinFacet() {
+        ProductFacetIndex.Result result = index.query(Map.of(
+                Facet.BRAND, Set.of("Acme", "Globex"),
+                Facet.AVAILABILITY, Set.of("inStock")), 0, 10);
+
+        assertEquals(List.of(4L, 2L, 1L), result.productIds());
+    }
+
+    @Test
+    void query_FacetCountsIgnoreOwnSelection() {
+        ProductFacetIndex.Result result = index.query(Map.of(
+                Facet.BRAND, Set.of("Globex"),
+                Facet.CATEGORY, Set.of("10")), 0, 10);
+
+        assertEquals(List.of(2L), result.productIds());
+        // Brand counts are restricted by the category filter only
+        assertEquals(Map.of("Acme", 1, "Globex", 1), result.counts().get(Facet.BRAND));
+        // Category counts are restricted by the brand filter only
+        assertEquals(Map.of("10", 1), result.counts().get(Facet.CATEGORY));
+    }
+
+    @Test
+    void query_UnknownValue_MatchesNothing() {
+        ProductFacetIndex.Result result = index.query(Map.of(Facet.BRAND, Set.of("Initech")), 0, 10);
+
+        assertEquals(0, result.total());
+        assertTrue(result.productIds().isEmpty());
+    }
+
+    @Test
+    void upsert_MovesProductToNewValue() {
+        index.upsert(3L, values("20", "Acme", "inStock"));
+
+        ProductFacetIndex.Result result = index.query(Map.of(Facet.AVAILABILITY, Set.of("outOfStock")), 0, 10);
+
+        assertEquals(0, result.total());
+        assertEquals(Map.of("inStock", 4), result.counts().get(Facet.AVAILABILITY));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove_DropsProductFromResultsAndCounts() {
+        index.remove(2L);
+
+        ProductFacetIndex.Result result = index.query(Map.of(), 0, 10);
+
+        assertEquals(List.of(4L, 3L, 1L), result.productIds());
+        assertFalse(result.counts().get(Facet.BRAND).containsKey("Globex"));
+    }
+
+    @Test
+    void query_PagesThroughResults() {
+        LongStream.rangeClosed(5, 25).forEach(id -> index.upsert(id, values("30", "Initech", "inStock")));
+
+        ProductFacetIndex.Result secondPage = index.query(Map.of(Facet.CATEGORY, Set.of("30")), 10, 10);
+        ProductFacetIndex.Result lastPage = index.query(Map.of(Facet.CATEGORY, Set.of("30")), 20, 10);
+
+        assertEquals(21, secondPage.total());
+        assertEquals(15L, secondPage.productIds().get(0));
+        assertEquals(List.of(5L), lastPage.productIds());
+    }
+
+    private Map<Facet, String> values(String categoryId, String brand, String availability) {
+        Map<Facet, String> values = new EnumMap<>(Facet.class);
+        values.put(Facet.CATEGORY, categoryId);
+        values.put(Facet.BRAND, brand);
+        values.put(Facet.AVAILABILITY, availability);
+        return values;
+    }
+}
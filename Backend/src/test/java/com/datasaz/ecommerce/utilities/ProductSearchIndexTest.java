@@ -0,0 +1,165 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.models.dto.ProductSearchDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    void search_NameMatchRanksAboveDescriptionMatch() {
+        index.upsert(document(1L, "Leather wallet", null, "Fits a phone charger"));
+        index.upsert(document(2L, "Phone charger", null, "Fast USB-C charging"));
+
+        ProductSearchIndex.Hits hits = index.search("charger", 0, 10);
+
+        assertEquals(2, hits.total());
+        assertEquals(List.of(2L, 1L), hits.productIds());
+    }
+
+    @Test
+    void search_MoreMatchingTermsRankHigher() {
+        index.upsert(document(1L, "Red shoes", "Acme", null));
+        index.upsert(document(2L, "Running shoes", "Acme", null));
+        index.upsert(document(3L, "Running shorts", "Other", null));
+
+        assertEquals(List.of(2L, 1L, 3L), index.search("acme running shoes", 0, 10).productIds());
+    }
+
+    @Test
+    void search_IgnoresCaseAccentsAndPunctuation() {
+        index.upsert(document(1L, "Crème Brûlée torch", null, null));
+
+        assertEquals(List.of(1L), index.search("CREME-brulee!", 0, 10).productIds());
+    }
+
+    @Test
+    void search_PartialTermMatchesInsideWordsAndRanksBelowWholeWord() {
+        index.upsert(document(1L, "Apple iPhone 15", null, null));
+        index.upsert(document(2L, "Phon adapter", null, null));
+        index.upsert(document(3L, "Desk lamp", null, null));
+
+        assertEquals(List.of(2L, 1L), index.search("phon", 0, 10).productIds());
+        assertEquals(0, index.search("ph", 0, 10).total());
+    }
+
+    @Test
+    void search_PartialTermOnlyChecksTermsSharingItsTrigrams() {
+        LongStream.rangeClosed(1, 1000).forEach(id -> index.upsert(document(id, "Widget model" + id, null, null)));
+        index.upsert(document(2000L, "Apple iPhone 15", null, null));
+        index.upsert(document(2001L, "Headphones", null, null));
+
+        assertEquals(Set.of("iphone", "headphones"), index.partialCandidates("phon"));
+        assertTrue(index.partialCandidates("sofa").isEmpty());
+        assertEquals(List.of(2000L, 2001L), index.search("phon", 0, 10).productIds().stream().sorted().toList());
+    }
+
+    @Test
+    void compaction_DropsRemovedTermsFromTheTrigramIndex() {
+        // Removing the 1024th widget crosses the compaction threshold
+        LongStream.rangeClosed(1, 1024).forEach(id -> index.upsert(document(id, "Widget model" + id, null, null)));
+        index.upsert(document(3000L, "Headphones", null, null));
+        LongStream.rangeClosed(1, 1024).forEach(id -> index.remove(id));
+
+        assertTrue(index.partialCandidates("widg").isEmpty());
+        assertEquals(Set.of("headphones"), index.partialCandidates("phon"));
+    }
+
+    @Test
+    void search_NoMatchOrBlankQuery_ReturnsEmpty() {
+        index.upsert(document(1L, "Desk lamp", null, null));
+
+        assertEquals(0, index.search("sofa", 0, 10).total());
+        assertEquals(0, index.search("  ", 0, 10).total());
+        assertEquals(0, index.search(null, 0, 10).total());
+    }
+
+    @Test
+    void upsert_ReplacesPreviousTerms() {
+        index.upsert(document(1L, "Blue mug", null, null));
+
+        index.upsert(document(1L, "Green mug", null, null));
+
+        assertEquals(0, index.search("blue", 0, 10).total());
+        assertEquals(List.of(1L), index.search("green", 0, 10).productIds());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void remove_DropsProductFromResults() {
+        index.upsert(document(1L, "Blue mug", null, null));
+        index.upsert(document(2L, "Blue cup", null, null));
+
+        index.remove(1L);
+
+        assertEquals(List.of(2L), index.search("blue", 0, 10).productIds());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void search_PagesThroughRankedResults() {
+        LongStream.rangeClosed(1, 25).forEach(id -> index.upsert(document(id, "Cotton shirt " + id, null, null)));
+
+        ProductSearchIndex.Hits firstPage = index.search("shirt", 0, 10);
+        ProductSearchIndex.Hits lastPage = index.search("shirt", 20, 10);
+
+        assertEquals(25, firstPage.total());
+        assertEquals(10, firstPage.productIds().size());
+        assertEquals(5, lastPage.productIds().size());
+        assertTrue(index.search("shirt", 30, 10).productIds().isEmpty());
+    }
+
+    @Test
+    void compaction_KeepsLiveProductsSearchable() {
+        LongStream.rangeClosed(1, 3000).forEach(id -> index.upsert(document(id, "Widget " + id, null, null)));
+        LongStream.rangeClosed(1, 2000).forEach(id -> index.remove(id));
+
+        ProductSearchIndex.Hits hits = index.search("widget", 0, 5000);
+
+        assertEquals(1000, index.size());
+        assertEquals(1000, hits.total());
+        assertTrue(hits.productIds().stream().allMatch(id -> id > 2000));
+        assertEquals(List.of(2500L), index.search("2500", 0, 10).productIds());
+    }
+
+    private ProductSearchDocument document(Long id, String name, String brand, String description) {
+        return new ProductSearchDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getBrand() {
+                return brand;
+            }
+
+            @Override
+            public String getEan() {
+                return null;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public String getKeywords() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.utilities.ProductSuggestionIndex.Suggestion;
+import com.datasaz.ecommerce.utilities.ProductSuggestionIndex.Type;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSuggestionIndexTest {
+
+    private final ProductSuggestionIndex index = new ProductSuggestionIndex(5);
+
+    @Test
+    void suggest_MatchesAnyWordStartRankedByPopularity() {
+        index.upsertProduct(1L, "Phone charger", null, 5);
+        index.upsertProduct(2L, "Wireless phone stand", null, 50);
+        index.upsertProduct(3L, "Desk lamp", null, 100);
+
+        assertEquals(List.of("Wireless phone stand", "Phone charger"), texts(index.suggest("pho", 10)));
+        assertEquals(List.of("Wireless phone stand"), texts(index.suggest("phone st", 10)));
+    }
+
+    @Test
+    void suggest_IgnoresCaseAndAccents() {
+        index.upsertProduct(1L, "Crème brûlée torch", null, 1);
+
+        assertEquals(List.of("Crème brûlée torch"), texts(index.suggest("CREME BRU", 10)));
+    }
+
+    @Test
+    void suggest_IncludesBrandsAndCategories() {
+        index.upsertProduct(1L, "Running shoes", "Acme", 10);
+        index.upsertProduct(2L, "Trail shoes", "Acme", 5);
+        index.upsertCategory(7L, "Accessories", 3);
+
+        List<Suggestion> suggestions = index.suggest("ac", 10);
+
+        assertEquals(List.of(new Suggestion(Type.BRAND, null, "Acme"), new Suggestion(Type.CATEGORY, 7L, "Accessories")),
+                suggestions);
+    }
+
+    @Test
+    void removeProduct_DropsBrandWithLastProduct() {
+        index.upsertProduct(1L, "Running shoes", "Acme", 10);
+        index.upsertProduct(2L, "Trail shoes", "Acme", 5);
+
+        index.removeProduct(1L);
+        assertEquals(List.of("Acme"), texts(index.suggest("acm", 10)));
+
+        index.removeProduct(2L);
+        assertTrue(index.suggest("acm", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void upsertProduct_RenameReplacesOldName() {
+        index.upsertProduct(1L, "Blue mug", null, 1);
+
+        index.upsertProduct(1L, "Green mug", null, 1);
+
+        assertTrue(index.suggest("blu", 10).isEmpty());
+        assertEquals(List.of("Green mug"), texts(index.suggest("gre", 10)));
+    }
+
+    @Test
+    void removeProduct_RefillsCachedPrefixFromRemainingProducts() {
+        // More "lamp" products than the cached top list holds
+        LongStream.rangeClosed(1, 8).forEach(id -> index.upsertProduct(id, "Lamp " + id, null, id));
+        assertEquals(List.of("Lamp 8", "Lamp 7", "Lamp 6", "Lamp 5", "Lamp 4"), texts(index.suggest("la", 10)));
+
+        index.removeProduct(8L);
+        index.removeProduct(7L);
+
+        assertEquals(List.of("Lamp 6", "Lamp 5", "Lamp 4", "Lamp 3", "Lamp 2"), texts(index.suggest("la", 10)));
+        assertEquals(List.of("Lamp 6", "Lamp 5", "Lamp 4"), texts(index.suggest("lamp", 3)));
+    }
+
+    @Test
+    void suggest_BlankQuery_ReturnsEmpty() {
+        index.upsertProduct(1L, "Desk lamp", null, 1);
+
+        assertTrue(index.suggest(" ", 10).isEmpty());
+        assertTrue(index.suggest(null, 10).isEmpty());
+    }
+
+    private List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+}
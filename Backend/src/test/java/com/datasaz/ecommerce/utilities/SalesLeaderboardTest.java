@@ -0,0 +1,86 @@
+package com.datasaz.ecommerce.utilities;
+
+import com.datasaz.ecommerce.utilities.SalesLeaderboard.Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SalesLeaderboardTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
+    private SalesLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new SalesLeaderboard(TODAY);
+    }
+
+    @Test
+    void record_CountsSaleOnlyInWindowsCoveringTheDay() {
+        leaderboard.record(1L, 10L, TODAY, 2);
+        leaderboard.record(2L, 10L, TODAY.minusDays(10), 5);
+        leaderboard.record(3L, 20L, TODAY.minusDays(60), 9);
+
+        assertEquals(List.of(3L, 2L, 1L), leaderboard.topProducts(null, Window.ALL_TIME, 0, 10));
+        assertEquals(List.of(2L, 1L), leaderboard.topProducts(null, Window.LAST_30_DAYS, 0, 10));
+        assertEquals(List.of(1L), leaderboard.topProducts(null, Window.LAST_7_DAYS, 0, 10));
+    }
+
+    @Test
+    void record_SevenDayWindowIncludesToday() {
+        leaderboard.record(1L, 10L, TODAY.minusDays(6), 1);
+        leaderboard.record(2L, 10L, TODAY.minusDays(7), 1);
+
+        assertEquals(List.of(1L), leaderboard.topProducts(null, Window.LAST_7_DAYS, 0, 10));
+        assertEquals(TODAY.minusDays(6), leaderboard.windowStart(Window.LAST_7_DAYS));
+    }
+
+    @Test
+    void topProducts_RanksWithinCategoryAndPages() {
+        leaderboard.add(Window.ALL_TIME, 1L, 10L, 3);
+        leaderboard.add(Window.ALL_TIME, 2L, 10L, 8);
+        leaderboard.add(Window.ALL_TIME, 3L, 20L, 20);
+        leaderboard.add(Window.ALL_TIME, 4L, 10L, 8);
+
+        assertEquals(List.of(2L, 4L, 1L), leaderboard.topProducts(10L, Window.ALL_TIME, 0, 10));
+        assertEquals(List.of(4L), leaderboard.topProducts(10L, Window.ALL_TIME, 1, 1));
+        assertEquals(3, leaderboard.productCount(10L, Window.ALL_TIME));
+        assertEquals(List.of(), leaderboard.topProducts(99L, Window.ALL_TIME, 0, 10));
+    }
+
+    @Test
+    void topCategories_SumsProductSales() {
+        leaderboard.add(Window.ALL_TIME, 1L, 10L, 3);
+        leaderboard.add(Window.ALL_TIME, 2L, 10L, 8);
+        leaderboard.add(Window.ALL_TIME, 3L, 20L, 10);
+
+        assertEquals(List.of(10L, 20L), leaderboard.topCategories(Window.ALL_TIME, 0, 10));
+        assertEquals(2, leaderboard.categoryCount(Window.ALL_TIME));
+    }
+
+    @Test
+    void record_ReturnsMoveProductDownAndDropItAtZero() {
+        leaderboard.record(1L, 10L, TODAY, 5);
+        leaderboard.record(2L, 20L, TODAY, 3);
+
+        leaderboard.record(1L, 10L, TODAY, -4);
+        assertEquals(List.of(2L, 1L), leaderboard.topProducts(null, Window.LAST_7_DAYS, 0, 10));
+        assertEquals(List.of(20L, 10L), leaderboard.topCategories(Window.LAST_7_DAYS, 0, 10));
+
+        leaderboard.record(1L, 10L, TODAY, -1);
+        assertEquals(List.of(2L), leaderboard.topProducts(null, Window.ALL_TIME, 0, 10));
+        assertEquals(List.of(20L), leaderboard.topCategories(Window.ALL_TIME, 0, 10));
+    }
+
+    @Test
+    void windowFromKey() {
+        assertEquals(Optional.of(Window.LAST_30_DAYS), Window.fromKey("30D"));
+        assertEquals(Optional.empty(), Window.fromKey("90d"));
+    }
+}
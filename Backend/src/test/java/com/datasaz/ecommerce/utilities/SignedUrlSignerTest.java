@@ -0,0 +1,68 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedUrlSignerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private SignedUrlSigner signer;
+
+    @BeforeEach
+    void setUp() {
+        signer = new SignedUrlSigner();
+        ReflectionTestUtils.setField(signer, "secret", "test-secret");
+        signer.init();
+        signer.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void sign_ProducesUrlThatVerifies() {
+        UriComponents url = UriComponentsBuilder.fromUriString(signer.sign("/signed/files/products/a.jpg", Duration.ofMinutes(5))).build();
+
+        assertEquals("/signed/files/products/a.jpg", url.getPath());
+        assertTrue(signer.verify(url.getPath(), url.getQueryParams().getFirst(SignedUrlSigner.EXPIRES_PARAM),
+                url.getQueryParams().getFirst(SignedUrlSigner.SIGNATURE_PARAM)));
+    }
+
+    @Test
+    void verify_OtherPathOrMissingParameters_Rejected() {
+        UriComponents url = UriComponentsBuilder.fromUriString(signer.sign("/signed/files/products/a.jpg", Duration.ofMinutes(5))).build();
+        String expires = url.getQueryParams().getFirst(SignedUrlSigner.EXPIRES_PARAM);
+        String signature = url.getQueryParams().getFirst(SignedUrlSigner.SIGNATURE_PARAM);
+
+        assertFalse(signer.verify("/signed/files/products/b.jpg", expires, signature));
+        assertFalse(signer.verify("/signed/files/products/a.jpg", String.valueOf(Long.parseLong(expires) + 1), signature));
+        assertFalse(signer.verify("/signed/files/products/a.jpg", null, signature));
+        assertFalse(signer.verify("/signed/files/products/a.jpg", "soon", signature));
+    }
+
+    @Test
+    void verify_ExpiredUrl_Rejected() {
+        UriComponents url = UriComponentsBuilder.fromUriString(signer.sign("/signed/files/products/a.jpg", Duration.ofMinutes(5))).build();
+
+        signer.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+
+        assertFalse(signer.verify(url.getPath(), url.getQueryParams().getFirst(SignedUrlSigner.EXPIRES_PARAM),
+                url.getQueryParams().getFirst(SignedUrlSigner.SIGNATURE_PARAM)));
+    }
+
+    @Test
+    void sign_SameWindow_ReturnsSameUrl() {
+        String first = signer.sign("/signed/files/products/a.jpg", Duration.ofMinutes(5));
+        signer.setClock(Clock.fixed(NOW.plusSeconds(30), ZoneOffset.UTC));
+
+        assertEquals(first, signer.sign("/signed/files/products/a.jpg", Duration.ofMinutes(5)));
+    }
+}
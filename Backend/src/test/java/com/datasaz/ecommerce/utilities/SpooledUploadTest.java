@@ -0,0 +1,55 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.apache.tika.Tika;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpooledUploadTest {
+
+    @Test
+    void fromBase64_DecodesToFileWithHashAndHeader() throws Exception {
+        byte[] jpeg = Files.readAllBytes(Paths.get("src/test/resources/test.jpg"));
+
+        try (SpooledUpload upload = SpooledUpload.fromBase64(Base64.getEncoder().encodeToString(jpeg), jpeg.length)) {
+            assertEquals(jpeg.length, upload.getSize());
+            assertArrayEquals(jpeg, upload.readAllBytes());
+            assertEquals(ContentHashUtils.sha256Hex(jpeg), upload.getContentHash());
+            assertEquals("image/jpeg", upload.detectMimeType(new Tika()));
+            Dimension size = upload.readDimensions();
+            assertNotNull(size);
+            assertTrue(size.width > 0 && size.height > 0);
+        }
+    }
+
+    @Test
+    void fromBase64_InvalidContent_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> SpooledUpload.fromBase64("not*base64!", 100));
+    }
+
+    @Test
+    void fromStream_StopsPastLimit() throws Exception {
+        try (SpooledUpload upload = SpooledUpload.fromStream(new ByteArrayInputStream(new byte[100_000]), 10_000)) {
+            assertTrue(upload.getSize() > 10_000);
+            assertTrue(upload.getSize() < 100_000);
+        }
+    }
+
+    @Test
+    void close_DeletesTemporaryFile() throws Exception {
+        SpooledUpload upload = SpooledUpload.fromStream(new ByteArrayInputStream(new byte[]{1, 2, 3}), 10);
+        Path file = upload.getFile();
+        assertNull(upload.readDimensions());
+
+        upload.close();
+
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,77 @@
+package com.datasaz.ecommerce.utilities;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransactionUtilsTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void afterCommit_withoutTransaction_runsImmediately() {
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionUtils.afterCommit(runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void afterCommit_inTransaction_waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionUtils.afterCommit(runs::incrementAndGet);
+        assertEquals(0, runs.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void runNowAndAfterCommit_inTransaction_runsTwice() {
+        TransactionSynchronizationManager.initSynchronization();
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionUtils.runNowAndAfterCommit(runs::incrementAndGet);
+        assertEquals(1, runs.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void afterRollback_runsOnlyWhenTheTransactionDoesNotCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionUtils.afterRollback(runs::incrementAndGet);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals(0, runs.get());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void afterRollback_withoutTransaction_doesNothing() {
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionUtils.afterRollback(runs::incrementAndGet);
+
+        assertEquals(0, runs.get());
+    }
+}